@@ -2,6 +2,9 @@ plugins {
     alias(libs.plugins.android.application)
 }
 
+// 一百万行备份必须在固定的小堆中流式往返，单独用 backupStreamTest 任务执行，其他单元测试使用默认堆
+val backupStreamTestClass = "com.example.fourquadrant.database.backup.BackupStreamTest"
+
 android {
     namespace = "com.example.fourquadrant"
     compileSdk = 36
@@ -14,6 +17,13 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Room 把每个版本的表结构导出到 schemas/，迁移测试和 DaoQueryPlanTest 从这里读取
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildTypes {
@@ -25,10 +35,37 @@ android {
             )
         }
     }
+    buildFeatures {
+        // AppDatabase 用 BuildConfig.DEBUG 开启主线程查询检测
+        buildConfig = true
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    sourceSets {
+        // MigrationTestHelper 从 assets 读取导出的表结构
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
+    }
+    testOptions {
+        unitTests.all {
+            it.filter.excludeTestsMatching(backupStreamTestClass)
+        }
+    }
+}
+
+val backupStreamTest = tasks.register<Test>("backupStreamTest") {
+    description = "在 96m 堆中执行 BackupStreamTest"
+    group = "verification"
+    val unitTest = tasks.named<Test>("testDebugUnitTest").get()
+    testClassesDirs = unitTest.testClassesDirs
+    classpath = unitTest.classpath
+    filter.includeTestsMatching(backupStreamTestClass)
+    maxHeapSize = "96m"
+}
+
+tasks.named("check") {
+    dependsOn(backupStreamTest)
 }
 
 dependencies {
@@ -44,6 +81,7 @@ dependencies {
     implementation(libs.swiperefreshlayout)
     implementation(libs.lifecycle.viewmodel)
     implementation(libs.lifecycle.livedata)
+    implementation(libs.work.runtime)
     implementation(libs.firebase.crashlytics.buildtools)
     
     // Room database
@@ -53,7 +91,9 @@ dependencies {
     annotationProcessor("androidx.room:room-compiler:$roomVersion")
     
     testImplementation(libs.junit)
+    testImplementation(libs.sqlite.jdbc)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation("androidx.room:room-testing:$roomVersion")
     implementation("com.github.PhilJay:MPAndroidChart:v3.1.0")
 }
\ No newline at end of file
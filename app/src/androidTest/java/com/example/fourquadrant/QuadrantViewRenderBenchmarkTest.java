@@ -0,0 +1,84 @@
+package com.example.fourquadrant;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 四象限图表绘制基准：20000个任务时单帧绘制耗时应在60fps的帧预算内
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuadrantViewRenderBenchmarkTest {
+
+    private static final String TAG = "QuadrantRenderBenchmark";
+    private static final int TASK_COUNT = 20_000;
+    private static final int FRAMES = 120;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1080;
+    private static final double FRAME_BUDGET_MS = 1000.0 / 60;
+
+    @Test
+    public void twentyThousandTasks_drawWithinFrameBudget() {
+        List<QuadrantView.Task> tasks = new ArrayList<>(TASK_COUNT);
+        Random random = new Random(42);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(new QuadrantView.Task("任务" + i, random.nextInt(11), random.nextInt(11)));
+        }
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = new ContextThemeWrapper(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.Theme_FourQuadrant);
+            QuadrantView view = new QuadrantView(context);
+
+            long bindStart = SystemClock.elapsedRealtimeNanos();
+            view.setTasks(tasks);
+            long bindNanos = SystemClock.elapsedRealtimeNanos() - bindStart;
+
+            view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, WIDTH, HEIGHT);
+
+            Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+
+            // 第一帧会生成静态背景层，单独统计
+            long firstStart = SystemClock.elapsedRealtimeNanos();
+            view.draw(canvas);
+            long firstNanos = SystemClock.elapsedRealtimeNanos() - firstStart;
+
+            long maxNanos = 0;
+            long totalNanos = 0;
+            for (int i = 0; i < FRAMES; i++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                view.draw(canvas);
+                long frameNanos = SystemClock.elapsedRealtimeNanos() - start;
+                totalNanos += frameNanos;
+                maxNanos = Math.max(maxNanos, frameNanos);
+            }
+            bitmap.recycle();
+
+            double averageMs = totalNanos / (double) FRAMES / 1_000_000;
+            Log.i(TAG, TASK_COUNT + " 个任务: 分桶 " + bindNanos / 1_000_000.0 + "ms, 首帧 "
+                + firstNanos / 1_000_000.0 + "ms, 平均帧 " + averageMs + "ms, 最长帧 "
+                + maxNanos / 1_000_000.0 + "ms");
+
+            assertTrue("平均帧耗时 " + averageMs + "ms 超出帧预算", averageMs < FRAME_BUDGET_MS);
+        });
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.fourquadrant;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 列表刷新基准：5000条任务中修改一条，对比整表刷新和后台差异比较的绑定次数与布局耗时
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskListDiffBenchmarkTest {
+
+    private static final String TAG = "TaskListDiffBenchmark";
+    private static final int ITEM_COUNT = 5_000;
+    private static final int EDITED_INDEX = 3;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    private final AtomicInteger bindCount = new AtomicInteger();
+    private Context context;
+    private RecyclerView recyclerView;
+    private TaskAdapter adapter;
+    private List<TaskListFragment.TaskItem> tasks;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(InstrumentationRegistry.getInstrumentation().getTargetContext(),
+            R.style.Theme_FourQuadrant);
+        tasks = buildTasks(null);
+        runOnMainSync(() -> {
+            recyclerView = new RecyclerView(context);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+            // 关闭动画，避免变更动画额外创建和绑定ViewHolder
+            recyclerView.setItemAnimator(null);
+            adapter = new CountingTaskAdapter(tasks);
+            recyclerView.setAdapter(adapter);
+            layoutPassNanos();
+        });
+    }
+
+    @Test
+    public void singleEdit_rebindsOneRowInsteadOfWholeScreen() throws InterruptedException {
+        // 旧方式：原地修改后整表刷新，屏幕上所有行都会重新绑定
+        long[] legacyNanos = new long[1];
+        runOnMainSync(() -> {
+            bindCount.set(0);
+            tasks.get(EDITED_INDEX).setName("已修改-旧");
+            adapter.notifyDataSetChanged();
+            legacyNanos[0] = layoutPassNanos();
+        });
+        int legacyBinds = bindCount.get();
+
+        // 新方式：与数据库刷新一样提交一份全新的列表，只有内容变化的行重新绑定
+        List<TaskListFragment.TaskItem> refreshed = buildTasks("已修改-新");
+        long diffStart = SystemClock.elapsedRealtimeNanos();
+        awaitCommit(refreshed);
+        long diffNanos = SystemClock.elapsedRealtimeNanos() - diffStart;
+        long[] diffLayoutNanos = new long[1];
+        runOnMainSync(() -> {
+            bindCount.set(0);
+            diffLayoutNanos[0] = layoutPassNanos();
+        });
+        int diffBinds = bindCount.get();
+
+        // 内容没有变化的完整刷新不应触发任何绑定
+        awaitCommit(buildTasks("已修改-新"));
+        runOnMainSync(() -> {
+            bindCount.set(0);
+            layoutPassNanos();
+        });
+        int unchangedBinds = bindCount.get();
+
+        Log.i(TAG, "整表刷新: 绑定 " + legacyBinds + " 次, 布局 " + toMillis(legacyNanos[0]) + "ms");
+        Log.i(TAG, "差异刷新: 绑定 " + diffBinds + " 次, 布局 " + toMillis(diffLayoutNanos[0])
+            + "ms, 后台比较(含提交) " + toMillis(diffNanos) + "ms");
+        Log.i(TAG, "无变化刷新: 绑定 " + unchangedBinds + " 次");
+
+        assertEquals("只修改一条任务时应只重新绑定一行", 1, diffBinds);
+        assertEquals("内容不变的刷新不应重新绑定", 0, unchangedBinds);
+        assertTrue("整表刷新应重新绑定屏幕上的多行", legacyBinds > diffBinds);
+    }
+
+    /**
+     * 生成任务列表；editedName 不为空时第 EDITED_INDEX 条使用该名称
+     */
+    private List<TaskListFragment.TaskItem> buildTasks(String editedName) {
+        List<TaskListFragment.TaskItem> result = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            TaskListFragment.TaskItem item = new TaskListFragment.TaskItem();
+            item.setId("task-" + i);
+            item.setName(i == EDITED_INDEX && editedName != null ? editedName : "任务" + i);
+            item.setImportance(1 + i % 10);
+            item.setUrgency(1 + (i / 10) % 10);
+            result.add(item);
+        }
+        return result;
+    }
+
+    private void awaitCommit(List<TaskListFragment.TaskItem> list) throws InterruptedException {
+        CountDownLatch committed = new CountDownLatch(1);
+        runOnMainSync(() -> adapter.submitList(list, committed::countDown));
+        assertTrue("差异比较超时", committed.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 在主线程上执行一次完整的测量和布局，返回耗时
+     */
+    private long layoutPassNanos() {
+        long start = SystemClock.elapsedRealtimeNanos();
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+            View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+        return SystemClock.elapsedRealtimeNanos() - start;
+    }
+
+    private static String toMillis(long nanos) {
+        return String.valueOf(nanos / 1_000_000.0);
+    }
+
+    private void runOnMainSync(Runnable runnable) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+
+    private class CountingTaskAdapter extends TaskAdapter {
+
+        CountingTaskAdapter(List<TaskListFragment.TaskItem> taskList) {
+            super(taskList, null);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
+            bindCount.incrementAndGet();
+            super.onBindViewHolder(holder, position);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.fourquadrant.data;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fourquadrant.database.AppDatabase;
+import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
+import com.example.fourquadrant.database.entity.ReminderEntity;
+import com.example.fourquadrant.database.entity.SettingsEntity;
+import com.example.fourquadrant.database.entity.TaskEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 备份导出/导入测试：通过DAO写入数据，完整备份后清空，再从备份恢复，检查各表的行都还原
+ */
+@RunWith(AndroidJUnit4.class)
+public class DataBackupManagerTest {
+
+    private static final long TIMEOUT_SECONDS = 30;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private AppDatabase database;
+    private DataBackupManager manager;
+    private File backupFile;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        manager = new DataBackupManager(context, database);
+
+        database.runInTransaction(() -> {
+            TaskEntity active = new TaskEntity("task-active", "写周报", 4, 2);
+            active.setCreatedAt(NOW - 60_000L);
+            database.taskDao().insertTask(active);
+
+            TaskEntity done = new TaskEntity("task-done", "整理备份", 2, 5);
+            done.setCreatedAt(NOW - 120_000L);
+            done.setCompleted(true);
+            done.setCompletedAt(NOW - 30_000L);
+            database.taskDao().insertTask(done);
+
+            PomodoroSessionEntity session = new PomodoroSessionEntity("session-1", "task-done", "整理备份", 25, false);
+            session.setStartTime(NOW - 25 * 60_000L);
+            session.setEndTime(NOW);
+            session.setCompleted(true);
+            database.pomodoroDao().insertSession(session);
+
+            database.reminderDao().insertReminder(new ReminderEntity("reminder-1", "提交周报", NOW + 3_600_000L));
+            database.settingsDao().insertSetting(new SettingsEntity("pomodoro_duration", "30", "int", "pomodoro"));
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (backupFile != null) {
+            backupFile.delete();
+        }
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Test
+    public void exportThenImport_restoresAllTables() throws Exception {
+        backupFile = new File(export());
+        assertTrue(backupFile.exists());
+
+        clearAll();
+        assertEquals(0, database.taskDao().getTaskCountSync());
+        assertEquals(0, database.pomodoroDao().getSessionCountSync());
+        assertTrue(database.reminderDao().getAllRemindersSync().isEmpty());
+        assertNull(database.settingsDao().getSettingSync("pomodoro_duration"));
+
+        importFrom(backupFile.getAbsolutePath());
+
+        assertEquals(2, database.taskDao().getTaskCountSync());
+        TaskEntity active = database.taskDao().getTaskByIdSync("task-active");
+        assertNotNull(active);
+        assertEquals("写周报", active.getName());
+        assertEquals(4, active.getImportance());
+        assertEquals(2, active.getUrgency());
+        assertFalse(active.isCompleted());
+
+        TaskEntity done = database.taskDao().getTaskByIdSync("task-done");
+        assertNotNull(done);
+        assertTrue(done.isCompleted());
+        assertEquals(Long.valueOf(NOW - 30_000L), done.getCompletedAt());
+        assertEquals(1, database.taskDao().getCompletedTaskCountSync());
+
+        PomodoroSessionEntity session = database.pomodoroDao().getSessionByIdSync("session-1");
+        assertNotNull(session);
+        assertEquals("task-done", session.getTaskId());
+        assertEquals(25, session.getDurationMinutes());
+        assertTrue(session.isCompleted());
+        assertEquals(1, database.pomodoroDao().getCompletedSessionCountSync());
+
+        assertEquals(1, database.reminderDao().getAllRemindersSync().size());
+        assertEquals("提交周报", database.reminderDao().getAllRemindersSync().get(0).getContent());
+
+        SettingsEntity setting = database.settingsDao().getSettingSync("pomodoro_duration");
+        assertNotNull(setting);
+        assertEquals("30", setting.getValue());
+    }
+
+    @Test
+    public void importMissingFile_reportsError() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> error = new AtomicReference<>();
+        manager.importData(new File(InstrumentationRegistry.getInstrumentation().getTargetContext().getCacheDir(),
+                "missing.fqsnap").getAbsolutePath(), new DataBackupManager.ImportCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                error.set(message);
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNotNull(error.get());
+        assertEquals(2, database.taskDao().getTaskCountSync());
+    }
+
+    private String export() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> path = new AtomicReference<>();
+        AtomicReference<String> error = new AtomicReference<>();
+        manager.exportData(new DataBackupManager.ExportCallback() {
+            @Override
+            public void onSuccess(String filePath) {
+                path.set(filePath);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                error.set(message);
+                done.countDown();
+            }
+        });
+        awaitSuccess(done, error);
+        return path.get();
+    }
+
+    private void clearAll() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> error = new AtomicReference<>();
+        manager.clearAllData(new DataBackupManager.ClearDataCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                error.set(message);
+                done.countDown();
+            }
+        });
+        awaitSuccess(done, error);
+    }
+
+    private void importFrom(String filePath) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> error = new AtomicReference<>();
+        manager.importData(filePath, new DataBackupManager.ImportCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                error.set(message);
+                done.countDown();
+            }
+        });
+        awaitSuccess(done, error);
+    }
+
+    private static void awaitSuccess(CountDownLatch done, AtomicReference<String> error) throws InterruptedException {
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            fail("timed out");
+        }
+        if (error.get() != null) {
+            fail(error.get());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.fourquadrant.database;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 数据库迁移测试
+ * 按 schemas/ 中导出的版本4结构建库并写入数据，依次执行到最新版本的全部迁移，
+ * 由 MigrationTestHelper 按导出的最新结构校验表、索引和外键，再检查迁移回填的数据
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+    private static final int LATEST_VERSION = 12;
+    // 2024-03-01 10:00 UTC
+    private static final long START_TIME = 1_709_287_200_000L;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrate4ToLatest_keepsDataAndMatchesSchema() throws Exception {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 4)) {
+            db.execSQL("INSERT INTO tasks (id, name, importance, urgency, quadrant, is_completed, created_at,"
+                    + " completed_at, updated_at, is_deleted) VALUES ('task-1', '整理周报', 8, 7, 1, 1, ?, ?, ?, 0)",
+                    new Object[]{START_TIME, START_TIME + 3_600_000L, START_TIME + 3_600_000L});
+            db.execSQL("INSERT INTO tasks (id, name, importance, urgency, quadrant, is_completed, created_at,"
+                    + " completed_at, updated_at, is_deleted) VALUES ('task-2', '已删除的任务', 3, 3, 4, 0, ?, NULL, ?, 1)",
+                    new Object[]{START_TIME, START_TIME});
+            db.execSQL("INSERT INTO pomodoro_sessions (id, task_id, task_name, start_time, end_time, duration_minutes,"
+                    + " is_completed, is_break_session, created_at) VALUES ('session-1', 'task-1', '整理周报', ?, ?, 25, 1, 0, ?)",
+                    new Object[]{START_TIME, START_TIME + 25 * 60_000L, START_TIME});
+            db.execSQL("INSERT INTO reminders (id, content, task_id, task_name, reminder_time, is_active, is_vibrate,"
+                    + " is_sound, is_repeat, repeat_count, status, created_at, updated_at)"
+                    + " VALUES ('reminder-1', '提交周报', 'task-1', '整理周报', ?, 1, 1, 1, 0, 0, 'ACTIVE', ?, ?)",
+                    new Object[]{START_TIME + 7_200_000L, START_TIME, START_TIME});
+            db.execSQL("INSERT INTO timer_state (id, start_time, is_running, is_paused, remaining_time, is_break,"
+                    + " current_count, is_completed_pending, completed_task_name, total_count, updated_at)"
+                    + " VALUES ('timer_state_singleton', 0, 0, 0, 1500000, 0, 2, 0, NULL, 4, ?)",
+                    new Object[]{START_TIME});
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true,
+                AppDatabase.MIGRATION_4_5, AppDatabase.MIGRATION_5_6, AppDatabase.MIGRATION_6_7,
+                AppDatabase.MIGRATION_7_8, AppDatabase.MIGRATION_8_9, AppDatabase.MIGRATION_9_10,
+                AppDatabase.MIGRATION_10_11, AppDatabase.MIGRATION_11_12);
+
+        // 原有数据保留
+        assertEquals(2, queryLong(db, "SELECT COUNT(*) FROM tasks"));
+        assertEquals(4, queryLong(db, "SELECT total_count FROM timer_state"));
+        // 本地日分桶回填
+        assertEquals(1, queryLong(db, "SELECT COUNT(*) FROM tasks WHERE completed_local_day IS NOT NULL"));
+        assertTrue(queryLong(db, "SELECT start_local_day FROM pomodoro_sessions") > 0);
+        assertTrue(queryLong(db, "SELECT local_day FROM reminders") > 0);
+        // 每日汇总由已完成任务和番茄钟重建
+        assertEquals(1, queryLong(db, "SELECT SUM(q1_completed) FROM daily_stats"));
+        assertEquals(25, queryLong(db, "SELECT SUM(focus_minutes) FROM daily_stats"));
+        // 番茄钟修改时间取结束时间
+        assertEquals(START_TIME + 25 * 60_000L, queryLong(db, "SELECT updated_at FROM pomodoro_sessions"));
+        // 全文检索回填：已删除的任务不入索引
+        assertEquals(3, queryLong(db, "SELECT COUNT(*) FROM search_index_keys"));
+        assertEquals(3, queryLong(db, "SELECT COUNT(*) FROM search_index"));
+
+        // 迁移创建的触发器生效：删除任务记录墓碑并移除索引行
+        db.execSQL("DELETE FROM tasks WHERE id = 'task-1'");
+        assertEquals(1, queryLong(db, "SELECT COUNT(*) FROM backup_tombstones WHERE table_name = 'tasks'"));
+        assertEquals(0, queryLong(db, "SELECT COUNT(*) FROM search_index_keys WHERE ref_id = 'task-1'"));
+        db.close();
+    }
+
+    private static long queryLong(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(sql, cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.fourquadrant.database;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fourquadrant.database.dao.StatisticsDao;
+import com.example.fourquadrant.database.entity.TaskEntity;
+import com.example.fourquadrant.database.repository.TaskRepository;
+import com.example.fourquadrant.utils.LocalDayUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 统计刷新基准：对比旧的四路LiveData + MediatorLiveData汇合与单次事务快照
+ * 统计一次完整加载和一次任务完成提交各自触发的SQL查询数和发出次数
+ */
+@RunWith(AndroidJUnit4.class)
+public class StatisticsSnapshotBenchmarkTest {
+
+    private static final String TAG = "StatsSnapshotBenchmark";
+    private static final String[] SNAPSHOT_TABLES = {"daily_stats", "tasks"};
+
+    private final AtomicInteger queryCount = new AtomicInteger();
+    private AppDatabase database;
+    private long startTime;
+    private long endTime;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+            .setQueryCallback((sql, bindArgs) -> {
+                // 只统计业务查询，不统计Room自身的失效表轮询
+                if (sql.trim().toUpperCase().startsWith("SELECT") && !sql.contains("room_table_modification_log")) {
+                    queryCount.incrementAndGet();
+                }
+            }, Runnable::run)
+            .build();
+
+        long now = System.currentTimeMillis();
+        long today = LocalDayUtils.toLocalDay(now);
+        startTime = LocalDayUtils.startOfLocalDay(today - 6);
+        endTime = LocalDayUtils.endOfLocalDay(today);
+
+        database.runInTransaction(() -> {
+            for (int i = 0; i < 50; i++) {
+                TaskEntity task = new TaskEntity("task-" + i, "任务" + i, 1 + i % 5, 1 + i % 3);
+                task.setCreatedAt(now - i * 60_000L);
+                if (i % 2 == 0) {
+                    task.setCompleted(true);
+                    task.setCompletedAt(now - i * 30_000L);
+                }
+                TaskRepository.fillDerivedColumns(task);
+                database.taskDao().insertTask(task);
+            }
+            database.dailyStatsDao().rebuildAll();
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Test
+    public void snapshot_usesFewerQueriesAndEmissionsThanMediatorFanIn() {
+        int[] legacy = measure(buildLegacyKpiLiveData());
+        int[] snapshot = measure(new TrackingLiveData<>(database, SNAPSHOT_TABLES,
+            () -> database.statisticsDao().getSnapshot(startTime, endTime, false)));
+
+        Log.i(TAG, "首次加载 - 旧: " + legacy[0] + " 次查询, " + legacy[1] + " 次发出; 快照: "
+            + snapshot[0] + " 次查询, " + snapshot[1] + " 次发出");
+        Log.i(TAG, "单次提交 - 旧: " + legacy[2] + " 次查询, " + legacy[3] + " 次发出; 快照: "
+            + snapshot[2] + " 次查询, " + snapshot[3] + " 次发出");
+
+        assertEquals("快照首次加载应只发出一次", 1, snapshot[1]);
+        assertEquals("快照每次提交应只发出一次", 1, snapshot[3]);
+        assertTrue("快照首次加载的查询数应更少", snapshot[0] < legacy[0]);
+        assertTrue("快照单次提交的查询数应更少", snapshot[2] < legacy[2]);
+        assertTrue("快照首次加载的发出次数应更少", snapshot[1] < legacy[1]);
+        assertTrue("快照单次提交的发出次数不应更多", snapshot[3] <= legacy[3]);
+    }
+
+    /**
+     * 返回 {首次加载查询数, 首次加载发出次数, 单次提交查询数, 单次提交发出次数}
+     */
+    private int[] measure(LiveData<?> liveData) {
+        AtomicInteger emissions = new AtomicInteger();
+        Observer<Object> observer = value -> emissions.incrementAndGet();
+
+        queryCount.set(0);
+        runOnMainSync(() -> liveData.observeForever(observer));
+        awaitQuiet(emissions);
+        int initialQueries = queryCount.getAndSet(0);
+        int initialEmissions = emissions.getAndSet(0);
+
+        completeOneTask();
+        awaitQuiet(emissions);
+        int commitQueries = queryCount.getAndSet(0);
+        int commitEmissions = emissions.getAndSet(0);
+
+        runOnMainSync(() -> liveData.removeObserver(observer));
+        return new int[]{initialQueries, initialEmissions, commitQueries, commitEmissions};
+    }
+
+    /**
+     * 模拟一次任务完成：与 TaskRepository.updateTask 相同，在一个事务内更新任务和每日汇总
+     */
+    private void completeOneTask() {
+        database.runInTransaction(() -> {
+            TaskEntity task = database.taskDao().getTaskByIdSync("task-1");
+            long now = System.currentTimeMillis();
+            task.setCompleted(true);
+            task.setCompletedAt(now);
+            task.setUpdatedAt(now);
+            TaskRepository.fillDerivedColumns(task);
+            database.taskDao().updateTask(task);
+
+            long day = LocalDayUtils.toLocalDay(now);
+            database.dailyStatsDao().ensureDay(day, now);
+            database.dailyStatsDao().addCompletedTask(day, task.getQuadrant(), task.getImportance(), 1, now);
+        });
+    }
+
+    /**
+     * 旧实现：四个独立LiveData汇合到MediatorLiveData，任一来源变化都会发出一次
+     */
+    private LiveData<Object> buildLegacyKpiLiveData() {
+        MediatorLiveData<Object> result = new MediatorLiveData<>();
+        List<LiveData<?>> sources = new ArrayList<>();
+        sources.add(database.taskDao().getCompletedTaskCountByTimeRange(startTime, endTime));
+        sources.add(database.pomodoroDao().getCompletedPomodoroCountByTimeRange(startTime, endTime));
+        sources.add(database.taskDao().getCompletionRateByTimeRange(startTime, endTime));
+        sources.add(database.taskDao().getAverageImportanceByTimeRange(startTime, endTime));
+        for (LiveData<?> source : sources) {
+            result.addSource(source, value -> result.setValue(new Object()));
+        }
+        return result;
+    }
+
+    private void runOnMainSync(Runnable runnable) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+
+    /**
+     * 等待发出次数在一段时间内不再变化
+     */
+    private void awaitQuiet(AtomicInteger emissions) {
+        long deadline = SystemClock.uptimeMillis() + 5_000;
+        int last = -1;
+        int stableRounds = 0;
+        while (SystemClock.uptimeMillis() < deadline && stableRounds < 3) {
+            SystemClock.sleep(200);
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            int current = emissions.get() + queryCount.get();
+            stableRounds = current == last ? stableRounds + 1 : 0;
+            last = current;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import android.content.Context;
 import android.content.Intent;
 import android.util.Log;
 
+import com.example.fourquadrant.utils.AppScheduler;
+
 import java.util.List;
 
 public class BootReceiver extends BroadcastReceiver {
@@ -21,14 +23,23 @@ public class BootReceiver extends BroadcastReceiver {
             Intent.ACTION_PACKAGE_REPLACED.equals(action)) {
             
             Log.d(TAG, "重新设置所有提醒闹钟");
-            rescheduleAllReminders(context);
+            // 读取提醒表放到读通道，不在主线程查询数据库
+            Context appContext = context.getApplicationContext();
+            PendingResult pendingResult = goAsync();
+            AppScheduler.getInstance().read(AppScheduler.Priority.UI, () -> {
+                try {
+                    rescheduleAllReminders(appContext);
+                } finally {
+                    pendingResult.finish();
+                }
+            });
         }
     }
     
     private void rescheduleAllReminders(Context context) {
         try {
             ReminderManager reminderManager = new ReminderManager(context);
-            List<ReminderItem> reminders = reminderManager.getAllReminders();
+            List<ReminderItem> reminders = reminderManager.getAllRemindersSync();
             
             for (ReminderItem reminder : reminders) {
                 // 只重新设置未来的提醒
@@ -0,0 +1,210 @@
+package com.example.fourquadrant;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 图表的一组数据点（标签、数值、颜色），不可变
+ * 新旧两组数据比较得到 Patch：只列出数值变化的位置和新增的位置，图表据此原地修改条目并只为这些点播放动画。
+ * 不依赖图表库，可以在后台线程构建和比较。
+ */
+public final class ChartSeries {
+    
+    public static final ChartSeries EMPTY = new ChartSeries(new String[0], new float[0], null);
+    
+    private final String[] labels;
+    private final float[] values;
+    // 每个点的颜色，为null时使用数据集的统一颜色
+    private final int[] colors;
+    
+    public ChartSeries(String[] labels, float[] values, int[] colors) {
+        if (labels.length != values.length || (colors != null && colors.length != values.length)) {
+            throw new IllegalArgumentException("labels, values and colors must have the same length");
+        }
+        this.labels = labels;
+        this.values = values;
+        this.colors = colors;
+    }
+    
+    /**
+     * 完成趋势，按时间顺序一个点一个标签
+     */
+    public static ChartSeries ofTrends(List<ChartData.CompletionTrend> trends) {
+        int size = trends != null ? trends.size() : 0;
+        String[] labels = new String[size];
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            ChartData.CompletionTrend trend = trends.get(i);
+            labels[i] = trend.getDate();
+            values[i] = trend.getCompletedTasks();
+        }
+        return new ChartSeries(labels, values, null);
+    }
+    
+    /**
+     * 四象限分布，只保留有任务的象限，颜色跟随象限
+     */
+    public static ChartSeries ofQuadrants(List<ChartData.QuadrantDistribution> distributions) {
+        int size = 0;
+        if (distributions != null) {
+            for (ChartData.QuadrantDistribution distribution : distributions) {
+                if (distribution.getTaskCount() > 0) {
+                    size++;
+                }
+            }
+        }
+        String[] labels = new String[size];
+        float[] values = new float[size];
+        int[] colors = new int[size];
+        int index = 0;
+        if (distributions != null) {
+            for (ChartData.QuadrantDistribution distribution : distributions) {
+                if (distribution.getTaskCount() > 0) {
+                    labels[index] = distribution.getQuadrantName();
+                    values[index] = distribution.getTaskCount();
+                    colors[index] = distribution.getColor();
+                    index++;
+                }
+            }
+        }
+        return new ChartSeries(labels, values, colors);
+    }
+    
+    /**
+     * 番茄钟时间段分布
+     */
+    public static ChartSeries ofPomodoros(List<ChartData.PomodoroDistribution> distributions) {
+        int size = distributions != null ? distributions.size() : 0;
+        String[] labels = new String[size];
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            ChartData.PomodoroDistribution distribution = distributions.get(i);
+            labels[i] = distribution.getTimePeriod();
+            values[i] = distribution.getPomodoroCount();
+        }
+        return new ChartSeries(labels, values, null);
+    }
+    
+    public int size() {
+        return values.length;
+    }
+    
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+    
+    public String getLabel(int index) {
+        return labels[index];
+    }
+    
+    public float getValue(int index) {
+        return values[index];
+    }
+    
+    public String[] getLabels() {
+        return labels.clone();
+    }
+    
+    public int[] getColors() {
+        return colors != null ? colors.clone() : null;
+    }
+    
+    /**
+     * 与当前显示的数据比较
+     * @param previous 图表上现有的数据，没有时传 EMPTY
+     */
+    public Patch diffFrom(ChartSeries previous) {
+        int common = Math.min(previous.size(), size());
+        int changedCount = 0;
+        for (int i = 0; i < common; i++) {
+            if (Float.compare(previous.values[i], values[i]) != 0) {
+                changedCount++;
+            }
+        }
+        // 新增的点从0开始增长
+        changedCount += Math.max(0, size() - previous.size());
+        
+        int[] indexes = new int[changedCount];
+        float[] from = new float[changedCount];
+        float[] to = new float[changedCount];
+        int k = 0;
+        for (int i = 0; i < size(); i++) {
+            float start = i < common ? previous.values[i] : 0f;
+            if (i >= common || Float.compare(start, values[i]) != 0) {
+                indexes[k] = i;
+                from[k] = start;
+                to[k] = values[i];
+                k++;
+            }
+        }
+        boolean relabel = previous.size() != size()
+            || !Arrays.equals(previous.labels, labels)
+            || !Arrays.equals(previous.colors, colors);
+        return new Patch(previous.size(), size(), relabel, indexes, from, to);
+    }
+    
+    /**
+     * 从旧数据到新数据需要做的修改
+     */
+    public static final class Patch {
+        private final int previousSize;
+        private final int size;
+        private final boolean relabel;
+        private final int[] indexes;
+        private final float[] from;
+        private final float[] to;
+        
+        Patch(int previousSize, int size, boolean relabel, int[] indexes, float[] from, float[] to) {
+            this.previousSize = previousSize;
+            this.size = size;
+            this.relabel = relabel;
+            this.indexes = indexes;
+            this.from = from;
+            this.to = to;
+        }
+        
+        /**
+         * 没有任何变化，图表不需要刷新
+         */
+        public boolean isEmpty() {
+            return !relabel && indexes.length == 0;
+        }
+        
+        public int getPreviousSize() {
+            return previousSize;
+        }
+        
+        public int getSize() {
+            return size;
+        }
+        
+        /**
+         * 点数、标签或颜色有变化，需要更新坐标轴标签或图例
+         */
+        public boolean needsRelabel() {
+            return relabel;
+        }
+        
+        /**
+         * 数值变化（含新增）的点数
+         */
+        public int getChangedCount() {
+            return indexes.length;
+        }
+        
+        public int getIndex(int change) {
+            return indexes[change];
+        }
+        
+        public float getTarget(int change) {
+            return to[change];
+        }
+        
+        /**
+         * 动画进度 fraction（0~1）时第 change 个变化点的值
+         */
+        public float valueAt(int change, float fraction) {
+            return from[change] + (to[change] - from[change]) * fraction;
+        }
+    }
+}
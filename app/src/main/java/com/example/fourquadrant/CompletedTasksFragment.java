@@ -9,26 +9,37 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.fourquadrant.database.KeysetPagedLiveData;
+import com.example.fourquadrant.database.entity.TaskEntity;
+import com.example.fourquadrant.database.repository.TaskRepository;
+import com.example.fourquadrant.utils.ListDiffing;
+
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 public class CompletedTasksFragment extends Fragment {
     
+    // 每页加载的已完成任务数
+    private static final int PAGE_SIZE = 30;
+    
     private RecyclerView completedTasksRecyclerView;
     private CompletedTasksAdapter completedTasksAdapter;
-    private List<TaskListFragment.TaskItem> completedTasks;
     private TextView emptyStateText;
+    private TaskRepository taskRepository;
+    private KeysetPagedLiveData<TaskEntity> completedTasks;
     
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        completedTasks = new ArrayList<>();
+        taskRepository = new TaskRepository(requireActivity().getApplication());
+        completedTasks = taskRepository.getCompletedTasksPaged(PAGE_SIZE);
     }
     
     @Nullable
@@ -47,40 +58,41 @@ public class CompletedTasksFragment extends Fragment {
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
-        loadCompletedTasks();
+        observeCompletedTasks();
     }
     
     private void setupRecyclerView() {
-        completedTasksAdapter = new CompletedTasksAdapter(completedTasks);
-        completedTasksRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        completedTasksAdapter = new CompletedTasksAdapter();
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        completedTasksRecyclerView.setLayoutManager(layoutManager);
         completedTasksRecyclerView.setAdapter(completedTasksAdapter);
-    }
-    
-    public void loadCompletedTasks() {
-        if (getActivity() instanceof MainActivity) {
-            MainActivity mainActivity = (MainActivity) getActivity();
-            // 遍历所有Fragment找到TaskListFragment
-            for (androidx.fragment.app.Fragment fragment : getActivity().getSupportFragmentManager().getFragments()) {
-                if (fragment instanceof TaskListFragment) {
-                    TaskListFragment taskListFragment = (TaskListFragment) fragment;
-                    completedTasks.clear();
-                    completedTasks.addAll(taskListFragment.getCompletedTasks());
-                    completedTasksAdapter.notifyDataSetChanged();
-                    updateEmptyState();
-                    
-                    // 添加调试信息
-                    System.out.println("CompletedTasksFragment loaded: " + completedTasks.size() + " completed tasks");
-                    for (TaskListFragment.TaskItem task : completedTasks) {
-                        System.out.println("  Completed task: " + task.getName() + " (id=" + task.getId() + ")");
-                    }
-                    break;
+        
+        // 滚动接近已加载末尾时预取下一页
+        completedTasksRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (completedTasks != null) {
+                    completedTasks.onItemVisible(layoutManager.findLastVisibleItemPosition());
                 }
             }
+        });
+    }
+    
+    // 已完成任务直接从数据库分页读取，任务表变化后自动刷新，无需外部通知
+    private void observeCompletedTasks() {
+        if (completedTasks == null) {
+            android.util.Log.w("CompletedTasksFragment", "TaskRepository returned null LiveData for getCompletedTasksPaged");
+            updateEmptyState(true);
+            return;
         }
+        completedTasks.observe(getViewLifecycleOwner(), tasks -> {
+            completedTasksAdapter.submitList(tasks);
+            updateEmptyState(tasks == null || tasks.isEmpty());
+        });
     }
     
-    private void updateEmptyState() {
-        if (completedTasks.isEmpty()) {
+    private void updateEmptyState(boolean empty) {
+        if (empty) {
             emptyStateText.setVisibility(View.VISIBLE);
             completedTasksRecyclerView.setVisibility(View.GONE);
         } else {
@@ -89,14 +101,30 @@ public class CompletedTasksFragment extends Fragment {
         }
     }
     
-    public static class CompletedTasksAdapter extends RecyclerView.Adapter<CompletedTasksAdapter.CompletedTaskViewHolder> {
+    public static class CompletedTasksAdapter extends ListAdapter<TaskEntity, CompletedTasksAdapter.CompletedTaskViewHolder> {
         
-        private List<TaskListFragment.TaskItem> completedTasks;
+        private static final DiffUtil.ItemCallback<TaskEntity> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<TaskEntity>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull TaskEntity oldItem, @NonNull TaskEntity newItem) {
+                    return Objects.equals(oldItem.getId(), newItem.getId());
+                }
+                
+                @Override
+                public boolean areContentsTheSame(@NonNull TaskEntity oldItem, @NonNull TaskEntity newItem) {
+                    return Objects.equals(oldItem.getName(), newItem.getName())
+                        && oldItem.getImportance() == newItem.getImportance()
+                        && oldItem.getUrgency() == newItem.getUrgency()
+                        && Objects.equals(oldItem.getCompletedAt(), newItem.getCompletedAt());
+                }
+            };
+            
         private SimpleDateFormat dateFormat;
         
-        public CompletedTasksAdapter(List<TaskListFragment.TaskItem> completedTasks) {
-            this.completedTasks = completedTasks;
+        public CompletedTasksAdapter() {
+            super(ListDiffing.config(DIFF_CALLBACK));
             this.dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
+            setHasStableIds(true);
         }
         
         @NonNull
@@ -109,13 +137,12 @@ public class CompletedTasksFragment extends Fragment {
         
         @Override
         public void onBindViewHolder(@NonNull CompletedTaskViewHolder holder, int position) {
-            TaskListFragment.TaskItem task = completedTasks.get(position);
-            holder.bind(task);
+            holder.bind(getItem(position));
         }
         
         @Override
-        public int getItemCount() {
-            return completedTasks.size();
+        public long getItemId(int position) {
+            return ListDiffing.stableId(getItem(position).getId());
         }
         
         class CompletedTaskViewHolder extends RecyclerView.ViewHolder {
@@ -132,13 +159,14 @@ public class CompletedTasksFragment extends Fragment {
                 completedTimeText = itemView.findViewById(R.id.completed_time);
             }
             
-            public void bind(TaskListFragment.TaskItem task) {
+            public void bind(TaskEntity task) {
                 taskNameText.setText(task.getName());
                 importanceText.setText("重要性: " + task.getImportance());
                 urgencyText.setText("紧急性: " + task.getUrgency());
                 
-                if (task.getCompletedTime() > 0) {
-                    String completedTime = dateFormat.format(new Date(task.getCompletedTime()));
+                Long completedAt = task.getCompletedAt();
+                if (completedAt != null && completedAt > 0) {
+                    String completedTime = dateFormat.format(new Date(completedAt));
                     completedTimeText.setText("完成时间: " + completedTime);
                 } else {
                     completedTimeText.setText("完成时间: 未知");
@@ -146,4 +174,4 @@ public class CompletedTasksFragment extends Fragment {
             }
         }
     }
-} 
\ No newline at end of file
+} 
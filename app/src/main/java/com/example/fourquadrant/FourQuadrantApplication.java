@@ -3,7 +3,10 @@ package com.example.fourquadrant;
 import android.app.Application;
 import android.util.Log;
 import com.example.fourquadrant.database.AppDatabase;
+import com.example.fourquadrant.database.LocalDayMaintenance;
+import com.example.fourquadrant.database.SettingsCache;
 import com.example.fourquadrant.database.migration.DataMigrationManager;
+import com.example.fourquadrant.utils.AppScheduler;
 import com.example.fourquadrant.utils.VersionManager;
 
 /**
@@ -26,6 +29,9 @@ public class FourQuadrantApplication extends Application {
         
         // 初始化数据库
         initializeDatabase();
+        
+        // 设备空闲且充电时预先计算统计结果，统计页面首次打开时直接显示
+        StatisticsPrecomputeWorker.schedule(this);
     }
     
     /**
@@ -81,8 +87,11 @@ public class FourQuadrantApplication extends Application {
             // 获取数据库实例，这会触发数据库创建
             database = AppDatabase.getDatabase(this);
             
+            // 设置缓存在写通道上预加载，界面首次读取设置时不必查询
+            SettingsCache.getInstance(this);
+            
             // 在后台线程中执行数据迁移和版本管理器初始化，避免阻塞主线程
-            AppDatabase.databaseWriteExecutor.execute(() -> {
+            AppScheduler.getInstance().write(() -> {
                 try {
                     // 等待数据库完全初始化
                     Thread.sleep(300);
@@ -90,13 +99,14 @@ public class FourQuadrantApplication extends Application {
                     // 初始化数据迁移管理器
                     dataMigrationManager = new DataMigrationManager(FourQuadrantApplication.this);
                     
-                    // 执行数据迁移
-                     if (dataMigrationManager.needsMigration()) {
-                         Log.i("FourQuadrantApplication", "开始执行数据迁移...");
-                         dataMigrationManager.performMigration();
+                    // 数据迁移分块排在写通道上执行，不阻塞后面的初始化；进度见 getProgress()
+                     dataMigrationManager.startMigration(() -> {
+                         isMigrationCompleted = true;
                          Log.i("FourQuadrantApplication", "数据迁移完成");
-                     }
-                     isMigrationCompleted = true;
+                     });
+                     
+                     // 应用未运行期间时区可能已变化，按当前时区校正本地日期分桶
+                     LocalDayMaintenance.ensureBucketsMatchTimeZone(FourQuadrantApplication.this);
                      
                      // 初始化版本管理器并检查版本信息
                      initializeVersionManager();
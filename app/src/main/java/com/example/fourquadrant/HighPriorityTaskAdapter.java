@@ -6,12 +6,34 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.fourquadrant.utils.ListDiffing;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class HighPriorityTaskAdapter extends RecyclerView.Adapter<HighPriorityTaskAdapter.ViewHolder> {
+public class HighPriorityTaskAdapter extends ListAdapter<TaskAnalysisData.HighPriorityTask, HighPriorityTaskAdapter.ViewHolder> {
+    
+    private static final DiffUtil.ItemCallback<TaskAnalysisData.HighPriorityTask> DIFF_CALLBACK =
+        new DiffUtil.ItemCallback<TaskAnalysisData.HighPriorityTask>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull TaskAnalysisData.HighPriorityTask oldItem,
+                                           @NonNull TaskAnalysisData.HighPriorityTask newItem) {
+                return Objects.equals(oldItem.getTaskId(), newItem.getTaskId());
+            }
+            
+            @Override
+            public boolean areContentsTheSame(@NonNull TaskAnalysisData.HighPriorityTask oldItem,
+                                              @NonNull TaskAnalysisData.HighPriorityTask newItem) {
+                return Objects.equals(oldItem.getTaskName(), newItem.getTaskName())
+                    && oldItem.getImportance() == newItem.getImportance()
+                    && oldItem.getUrgency() == newItem.getUrgency()
+                    && oldItem.isCompleted() == newItem.isCompleted();
+            }
+        };
     
-    private List<TaskAnalysisData.HighPriorityTask> tasks;
     private OnTaskClickListener listener;
     
     public interface OnTaskClickListener {
@@ -19,8 +41,10 @@ public class HighPriorityTaskAdapter extends RecyclerView.Adapter<HighPriorityTa
     }
     
     public HighPriorityTaskAdapter(List<TaskAnalysisData.HighPriorityTask> tasks, OnTaskClickListener listener) {
-        this.tasks = tasks;
+        super(ListDiffing.config(DIFF_CALLBACK));
         this.listener = listener;
+        setHasStableIds(true);
+        updateTasks(tasks);
     }
     
     @NonNull
@@ -33,18 +57,19 @@ public class HighPriorityTaskAdapter extends RecyclerView.Adapter<HighPriorityTa
     
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        TaskAnalysisData.HighPriorityTask task = tasks.get(position);
-        holder.bind(task);
+        holder.bind(getItem(position));
     }
     
     @Override
-    public int getItemCount() {
-        return tasks != null ? tasks.size() : 0;
+    public long getItemId(int position) {
+        return ListDiffing.stableId(getItem(position).getTaskId());
     }
     
+    /**
+     * 提交新列表，后台比较差异后只刷新变化的行
+     */
     public void updateTasks(List<TaskAnalysisData.HighPriorityTask> newTasks) {
-        this.tasks = newTasks;
-        notifyDataSetChanged();
+        submitList(newTasks != null ? new ArrayList<>(newTasks) : null);
     }
     
     class ViewHolder extends RecyclerView.ViewHolder {
@@ -63,7 +88,7 @@ public class HighPriorityTaskAdapter extends RecyclerView.Adapter<HighPriorityTa
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onTaskClick(tasks.get(position));
+                    listener.onTaskClick(getItem(position));
                 }
             });
         }
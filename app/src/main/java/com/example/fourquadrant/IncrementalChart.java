@@ -0,0 +1,157 @@
+package com.example.fourquadrant;
+
+import android.animation.ValueAnimator;
+
+import com.example.fourquadrant.utils.AppScheduler;
+import com.github.mikephil.charting.charts.Chart;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.interfaces.datasets.IDataSet;
+
+import java.util.function.Supplier;
+
+/**
+ * 增量更新的单数据集图表
+ * 新数据在读通道上整理成 ChartSeries 并与当前显示的数据比较，回到主线程后原地修改条目：
+ * 点数变化时在末尾增删条目，数值变化的点从旧值动画到新值，其余点和数据集、坐标轴、图例都保持不动。
+ * 只有第一次显示时才创建数据集。
+ */
+final class IncrementalChart<E extends Entry> {
+    
+    private static final long ANIMATION_DURATION_MS = 300;
+    
+    /**
+     * 具体图表的数据集创建和样式配置
+     */
+    interface Binding<E extends Entry> {
+        /**
+         * 图表上的数据集，还没有数据时返回null
+         */
+        IDataSet<E> getDataSet();
+        
+        /**
+         * 第一次显示：用给定数据创建数据集、配置样式并设置到图表
+         */
+        void create(ChartSeries series);
+        
+        /**
+         * 点数、标签或颜色变化后更新坐标轴标签、图例或颜色
+         */
+        void relabel(ChartSeries series);
+        
+        /**
+         * 追加到数据集末尾的新条目，初始值为0
+         */
+        E newEntry(int index);
+    }
+    
+    private final Chart<?> chart;
+    private final Binding<E> binding;
+    private final AppScheduler scheduler = AppScheduler.getInstance();
+    
+    // 以下字段只在主线程访问
+    private ChartSeries current = ChartSeries.EMPTY;
+    private int generation;
+    private ValueAnimator animator;
+    private boolean released;
+    
+    IncrementalChart(Chart<?> chart, Binding<E> binding) {
+        this.chart = chart;
+        this.binding = binding;
+    }
+    
+    /**
+     * 提交新数据（主线程调用）；prepare 在读通道上执行，连续提交时只应用最后一次
+     */
+    void update(Supplier<ChartSeries> prepare) {
+        int requested = ++generation;
+        ChartSeries base = current;
+        scheduler.read(AppScheduler.Priority.UI, () -> {
+            ChartSeries next;
+            ChartSeries.Patch patch;
+            try {
+                next = prepare.get();
+                patch = next.diffFrom(base);
+            } catch (Exception e) {
+                android.util.Log.e("IncrementalChart", "Error preparing chart data", e);
+                return;
+            }
+            scheduler.postToMain(() -> {
+                // 期间有更新的提交时丢弃；只有最后一次提交会被应用，它的 base 就是当前显示的数据
+                if (!released && requested == generation) {
+                    apply(next, patch);
+                }
+            });
+        });
+    }
+    
+    /**
+     * 视图销毁时调用，停止动画并丢弃尚未应用的数据
+     */
+    void release() {
+        released = true;
+        generation++;
+        if (animator != null) {
+            animator.cancel();
+            animator = null;
+        }
+    }
+    
+    private void apply(ChartSeries next, ChartSeries.Patch patch) {
+        // 上一次动画直接跳到终值，新的变化从那里开始
+        if (animator != null) {
+            animator.end();
+            animator = null;
+        }
+        
+        IDataSet<E> dataSet = binding.getDataSet();
+        if (dataSet == null) {
+            binding.create(next);
+            current = next;
+            chart.invalidate();
+            return;
+        }
+        current = next;
+        if (patch.isEmpty()) {
+            return;
+        }
+        
+        while (dataSet.getEntryCount() > patch.getSize()) {
+            dataSet.removeLast();
+        }
+        for (int i = dataSet.getEntryCount(); i < patch.getSize(); i++) {
+            dataSet.addEntry(binding.newEntry(i));
+        }
+        if (patch.needsRelabel()) {
+            binding.relabel(next);
+        }
+        
+        if (patch.getChangedCount() == 0) {
+            refresh(dataSet);
+            return;
+        }
+        ValueAnimator valueAnimator = ValueAnimator.ofFloat(0f, 1f);
+        valueAnimator.setDuration(ANIMATION_DURATION_MS);
+        valueAnimator.addUpdateListener(animation -> {
+            float fraction = animation.getAnimatedFraction();
+            for (int change = 0; change < patch.getChangedCount(); change++) {
+                int index = patch.getIndex(change);
+                if (index < dataSet.getEntryCount()) {
+                    dataSet.getEntryForIndex(index).setY(patch.valueAt(change, fraction));
+                }
+            }
+            refresh(dataSet);
+        });
+        animator = valueAnimator;
+        valueAnimator.start();
+    }
+    
+    private void refresh(IDataSet<E> dataSet) {
+        // 条目已原地修改，只重新计算范围并重绘
+        dataSet.calcMinMax();
+        if (chart.getData() != null) {
+            chart.getData().notifyDataChanged();
+        }
+        chart.notifyDataSetChanged();
+        chart.invalidate();
+    }
+}
@@ -5,12 +5,33 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.fourquadrant.utils.ListDiffing;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class LongestDurationTaskAdapter extends RecyclerView.Adapter<LongestDurationTaskAdapter.ViewHolder> {
+public class LongestDurationTaskAdapter extends ListAdapter<TaskAnalysisData.LongestDurationTask, LongestDurationTaskAdapter.ViewHolder> {
+    
+    private static final DiffUtil.ItemCallback<TaskAnalysisData.LongestDurationTask> DIFF_CALLBACK =
+        new DiffUtil.ItemCallback<TaskAnalysisData.LongestDurationTask>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull TaskAnalysisData.LongestDurationTask oldItem,
+                                           @NonNull TaskAnalysisData.LongestDurationTask newItem) {
+                return Objects.equals(oldItem.getTaskId(), newItem.getTaskId());
+            }
+            
+            @Override
+            public boolean areContentsTheSame(@NonNull TaskAnalysisData.LongestDurationTask oldItem,
+                                              @NonNull TaskAnalysisData.LongestDurationTask newItem) {
+                return Objects.equals(oldItem.getTaskName(), newItem.getTaskName())
+                    && oldItem.getDurationDays() == newItem.getDurationDays()
+                    && oldItem.isCompleted() == newItem.isCompleted();
+            }
+        };
     
-    private List<TaskAnalysisData.LongestDurationTask> tasks;
     private OnTaskClickListener listener;
     
     public interface OnTaskClickListener {
@@ -18,8 +39,10 @@ public class LongestDurationTaskAdapter extends RecyclerView.Adapter<LongestDura
     }
     
     public LongestDurationTaskAdapter(List<TaskAnalysisData.LongestDurationTask> tasks, OnTaskClickListener listener) {
-        this.tasks = tasks;
+        super(ListDiffing.config(DIFF_CALLBACK));
         this.listener = listener;
+        setHasStableIds(true);
+        updateTasks(tasks);
     }
     
     @NonNull
@@ -32,18 +55,19 @@ public class LongestDurationTaskAdapter extends RecyclerView.Adapter<LongestDura
     
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        TaskAnalysisData.LongestDurationTask task = tasks.get(position);
-        holder.bind(task);
+        holder.bind(getItem(position));
     }
     
     @Override
-    public int getItemCount() {
-        return tasks != null ? tasks.size() : 0;
+    public long getItemId(int position) {
+        return ListDiffing.stableId(getItem(position).getTaskId());
     }
     
+    /**
+     * 提交新列表，后台比较差异后只刷新变化的行
+     */
     public void updateTasks(List<TaskAnalysisData.LongestDurationTask> newTasks) {
-        this.tasks = newTasks;
-        notifyDataSetChanged();
+        submitList(newTasks != null ? new ArrayList<>(newTasks) : null);
     }
     
     class ViewHolder extends RecyclerView.ViewHolder {
@@ -60,7 +84,7 @@ public class LongestDurationTaskAdapter extends RecyclerView.Adapter<LongestDura
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onTaskClick(tasks.get(position));
+                    listener.onTaskClick(getItem(position));
                 }
             });
         }
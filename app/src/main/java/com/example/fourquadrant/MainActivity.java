@@ -46,6 +46,7 @@ import com.example.fourquadrant.AiToolsFragment;
 import com.example.fourquadrant.database.migration.DataMigrationManager;
 import com.example.fourquadrant.utils.VersionManager;
 import com.example.fourquadrant.utils.PermissionManager;
+import com.example.fourquadrant.utils.AppScheduler;
 import android.util.Log;
 import android.widget.LinearLayout;
 import android.animation.ObjectAnimator;
@@ -474,13 +475,7 @@ public class MainActivity extends AppCompatActivity implements TaskListFragment.
                         break;
                         
                     case 2: // 已完成任务
-                        for (androidx.fragment.app.Fragment fragment : getSupportFragmentManager().getFragments()) {
-                            if (fragment instanceof CompletedTasksFragment) {
-                                CompletedTasksFragment completedTasksFragment = (CompletedTasksFragment) fragment;
-                                completedTasksFragment.loadCompletedTasks();
-                                break;
-                            }
-                        }
+                        // 已完成任务列表直接观察数据库分页数据，任务表变化后自动刷新
                         break;
                         
                     case 3: // 任务排序
@@ -826,20 +821,7 @@ public class MainActivity extends AppCompatActivity implements TaskListFragment.
             System.out.println("notifyFragmentsUpdate: TaskListFragment not found");
         }
         
-        // 通知已完成任务Fragment更新
-        boolean foundCompleted = false;
-        for (androidx.fragment.app.Fragment fragment : getSupportFragmentManager().getFragments()) {
-            if (fragment instanceof CompletedTasksFragment) {
-                CompletedTasksFragment completedTasksFragment = (CompletedTasksFragment) fragment;
-                completedTasksFragment.loadCompletedTasks();
-                foundCompleted = true;
-                System.out.println("notifyFragmentsUpdate: found and updated CompletedTasksFragment");
-                break;
-            }
-        }
-        if (!foundCompleted) {
-            System.out.println("notifyFragmentsUpdate: CompletedTasksFragment not found");
-        }
+        // 已完成任务Fragment观察数据库分页数据，任务表变化后自动刷新
         
         // 通知任务排序Fragment更新
         boolean foundSort = false;
@@ -1076,12 +1058,9 @@ public class MainActivity extends AppCompatActivity implements TaskListFragment.
             VersionManager versionManager = app.getVersionManager();
             
             if (versionManager != null) {
-                // 在后台线程中验证版本信息
-                new Thread(() -> {
+                // 延迟1秒（确保版本信息已经初始化完成）后在后台读通道中验证版本信息
+                AppScheduler.getInstance().readDelayed(AppScheduler.Priority.BACKGROUND, () -> {
                     try {
-                        // 等待一下确保版本信息已经初始化完成
-                        Thread.sleep(1000);
-                        
                         String currentVersion = versionManager.getCurrentVersionName();
                         int currentVersionCode = versionManager.getCurrentVersionCode();
                         String storedVersion = versionManager.getStoredVersionName();
@@ -1106,7 +1085,7 @@ public class MainActivity extends AppCompatActivity implements TaskListFragment.
                     } catch (Exception e) {
                         Log.e("VersionInfo", "验证版本信息时出错: " + e.getMessage(), e);
                     }
-                }).start();
+                }, 1000);
             } else {
                 Log.w("VersionInfo", "VersionManager 尚未初始化");
             }
@@ -1,18 +1,23 @@
 package com.example.fourquadrant;
 
+import android.app.AlarmManager;
 import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.app.Service;
+import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.net.Uri;
 import android.os.Binder;
 import android.os.Build;
-import android.os.CountDownTimer;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 import android.os.PowerManager;
+import android.os.SystemClock;
 import android.provider.Settings;
 import android.util.Log;
 import androidx.core.app.NotificationCompat;
@@ -20,28 +25,32 @@ import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import com.example.fourquadrant.database.repository.SettingsRepository;
 import com.example.fourquadrant.database.repository.PomodoroRepository;
 import com.example.fourquadrant.database.entity.TimerStateEntity;
+import com.example.fourquadrant.utils.AppScheduler;
+import com.example.fourquadrant.utils.MonotonicCountdown;
 
 public class PomodoroService extends Service {
     private static final String CHANNEL_ID = "PomodoroChannel";
     private static final int NOTIFICATION_ID = 1;
     
-    // 广播动作
-    public static final String ACTION_TIMER_UPDATE = "com.example.fourquadrant.TIMER_UPDATE";
-    public static final String ACTION_TIMER_FINISHED = "com.example.fourquadrant.TIMER_FINISHED";
+    // 计时结束闹钟
+    private static final String ACTION_COUNTDOWN_ALARM = "com.example.fourquadrant.POMODORO_COUNTDOWN_ALARM";
     
-    // 广播额外数据键
-    public static final String EXTRA_REMAINING_TIME = "remaining_time";
-    public static final String EXTRA_IS_BREAK = "is_break";
-    public static final String EXTRA_CURRENT_COUNT = "current_count";
-    
-    // 计时器相关
-    private CountDownTimer countDownTimer;
+    // 计时器相关：截止时刻基于 elapsedRealtime，剩余时间按需计算
+    private final MonotonicCountdown countdown = new MonotonicCountdown(SystemClock::elapsedRealtime);
+    private final Handler timerHandler = new Handler(Looper.getMainLooper());
+    private final Runnable tickRunnable = this::onCountdownTick;
+    // 有界面绑定且亮屏时才按秒唤醒刷新界面，否则只在截止时刻唤醒
+    private boolean uiBound = false;
+    private BroadcastReceiver screenStateReceiver;
     private boolean isTimerRunning = false;
     private boolean isTimerPaused = false;
     private long remainingTime = 25 * 60 * 1000; // 默认25分钟，实际值从设置中获取
     private boolean isBreakTime = false;
     private int currentTomatoCount = 0;
     private String currentTaskName = "未指定任务"; // 当前任务名称
+    // 当前计时段的原始时长，持久化时用来倒推开始时间；-1表示需要重新读取设置
+    private long segmentDuration = -1;
+    private boolean segmentIsBreak = false;
     
     // 数据库
     private SettingsRepository settingsRepository;
@@ -62,6 +71,7 @@ public class PomodoroService extends Service {
         settingsRepository = new SettingsRepository(getApplication());
         pomodoroRepository = new PomodoroRepository(getApplication());
         createNotificationChannel();
+        registerScreenStateReceiver();
         
         Log.d("PomodoroService", "Service onCreate called - attempting to restore timer state");
         
@@ -72,7 +82,7 @@ public class PomodoroService extends Service {
     private void restoreTimerStateFromDatabase() {
         if (pomodoroRepository != null) {
             // 使用一次性查询而不是持续观察
-            new Thread(() -> {
+            AppScheduler.getInstance().read(AppScheduler.Priority.UI, () -> {
                 try {
                     TimerStateEntity timerState = pomodoroRepository.getTimerStateSync();
                     if (timerState != null && timerState.isRunning()) {
@@ -118,12 +128,8 @@ public class PomodoroService extends Service {
                                 continueTimer();
                             }
                             
-                            // 立即发送广播更新UI状态
-                            Intent intent = new Intent(ACTION_TIMER_UPDATE);
-                            intent.putExtra(EXTRA_REMAINING_TIME, this.remainingTime);
-                            intent.putExtra(EXTRA_IS_BREAK, this.isBreakTime);
-                            intent.putExtra(EXTRA_CURRENT_COUNT, this.currentTomatoCount);
-                            LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+                            // 立即发布状态更新UI
+                            publishState();
                             
                             // 更新通知
                             updateNotification();
@@ -136,7 +142,7 @@ public class PomodoroService extends Service {
                 } catch (Exception e) {
                     Log.e("PomodoroService", "Error restoring timer state", e);
                 }
-            }).start();
+            });
         }
     }
     
@@ -159,14 +165,66 @@ public class PomodoroService extends Service {
         } catch (Exception e) {
             Log.e("PomodoroService", "启动前台服务失败", e);
         }
+        
+        // 计时结束闹钟（深度休眠时由它唤醒完成计时）
+        if (intent != null && ACTION_COUNTDOWN_ALARM.equals(intent.getAction())) {
+            Log.d("PomodoroService", "Countdown alarm fired");
+            if (countdown.isTicking()) {
+                onCountdownTick();
+            } else if (!isTimerRunning) {
+                clearNotification();
+            }
+        }
         return START_STICKY;
     }
     
     @Override
     public IBinder onBind(Intent intent) {
+        uiBound = true;
+        scheduleNextTick();
         return binder;
     }
     
+    @Override
+    public void onRebind(Intent intent) {
+        super.onRebind(intent);
+        uiBound = true;
+        scheduleNextTick();
+    }
+    
+    @Override
+    public boolean onUnbind(Intent intent) {
+        uiBound = false;
+        scheduleNextTick();
+        return true;
+    }
+    
+    /**
+     * 亮屏/灭屏时调整唤醒频率
+     */
+    private void registerScreenStateReceiver() {
+        screenStateReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (Intent.ACTION_SCREEN_ON.equals(intent.getAction())) {
+                    // 亮屏后立即刷新一次界面
+                    onCountdownTick();
+                } else {
+                    scheduleNextTick();
+                }
+            }
+        };
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        registerReceiver(screenStateReceiver, filter);
+    }
+    
+    private boolean isInteractive() {
+        PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
+        return powerManager == null || powerManager.isInteractive();
+    }
+    
     private void createNotificationChannel() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             NotificationChannel channel = new NotificationChannel(
@@ -214,11 +272,15 @@ public class PomodoroService extends Service {
             );
             
             String title = isBreakTime ? "🛌 休息时间" : "🍅 专注时间";
-            String content = String.format("%s - 任务: %s", formatTime(remainingTime), currentTaskName);
+            boolean ticking = countdown.isTicking();
+            // 计时中由系统计时器控件倒数显示，不需要每秒更新通知
+            String content = ticking
+                ? String.format("任务: %s", currentTaskName)
+                : String.format("%s - 任务: %s", formatTime(refreshRemainingTime()), currentTaskName);
             
             Log.d("PomodoroService", "创建通知: " + title + " - " + content);
             
-            Notification notification = new NotificationCompat.Builder(this, CHANNEL_ID)
+            NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
                 .setContentTitle(title)
                 .setContentText(content)
                 .setSmallIcon(R.drawable.ic_timer) // 使用自定义图标
@@ -231,8 +293,14 @@ public class PomodoroService extends Service {
                 .setCategory(NotificationCompat.CATEGORY_SERVICE) // 服务类别
                 .setForegroundServiceBehavior(NotificationCompat.FOREGROUND_SERVICE_IMMEDIATE) // 立即显示前台服务
                 .setOnlyAlertOnce(true) // 只在第一次显示时提醒
-                .setSilent(true) // 静默通知，避免频繁更新时的声音
-                .build();
+                .setSilent(true); // 静默通知，避免频繁更新时的声音
+            if (ticking) {
+                builder.setUsesChronometer(true)
+                    .setChronometerCountDown(true)
+                    .setShowWhen(true)
+                    .setWhen(System.currentTimeMillis() + countdown.getRemaining());
+            }
+            Notification notification = builder.build();
                 
             Log.d("PomodoroService", "通知创建成功");
             return notification;
@@ -360,12 +428,8 @@ public class PomodoroService extends Service {
             
             continueTimer();
             
-            // 发送状态更新广播
-            Intent intent = new Intent(ACTION_TIMER_UPDATE);
-            intent.putExtra(EXTRA_REMAINING_TIME, remainingTime);
-            intent.putExtra(EXTRA_IS_BREAK, isBreakTime);
-            intent.putExtra(EXTRA_CURRENT_COUNT, currentTomatoCount);
-            LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+            // 发布状态更新
+            publishState();
         }
     }
     
@@ -374,19 +438,15 @@ public class PomodoroService extends Service {
         
         if (isTimerRunning && !isTimerPaused) {
             isTimerPaused = true;
-            if (countDownTimer != null) {
-                countDownTimer.cancel();
-                countDownTimer = null;
-            }
+            remainingTime = countdown.pause();
+            stopCountdown();
             
             Log.d("PomodoroService", "Timer paused - new state: isTimerPaused=" + isTimerPaused);
+            persistTimerState();
+            updateNotification();
             
-            // 发送状态更新广播
-            Intent intent = new Intent(ACTION_TIMER_UPDATE);
-            intent.putExtra(EXTRA_REMAINING_TIME, remainingTime);
-            intent.putExtra(EXTRA_IS_BREAK, isBreakTime);
-            intent.putExtra(EXTRA_CURRENT_COUNT, currentTomatoCount);
-            LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+            // 发布状态更新
+            publishState();
         }
     }
     
@@ -400,22 +460,15 @@ public class PomodoroService extends Service {
             
             continueTimer();
             
-            // 发送状态更新广播
-            Intent intent = new Intent(ACTION_TIMER_UPDATE);
-            intent.putExtra(EXTRA_REMAINING_TIME, remainingTime);
-            intent.putExtra(EXTRA_IS_BREAK, isBreakTime);
-            intent.putExtra(EXTRA_CURRENT_COUNT, currentTomatoCount);
-            LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+            // 发布状态更新
+            publishState();
         }
     }
     
     public void abandonTimer() {
         Log.d("PomodoroService", "Abandoning timer - current state: isTimerRunning=" + isTimerRunning + ", isTimerPaused=" + isTimerPaused + ", remainingTime=" + remainingTime);
         
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-            countDownTimer = null;
-        }
+        stopCountdown();
         
         isTimerRunning = false;
         isTimerPaused = false;
@@ -425,18 +478,14 @@ public class PomodoroService extends Service {
         
         Log.d("PomodoroService", "Timer abandoned - new state: isTimerRunning=" + isTimerRunning + ", isTimerPaused=" + isTimerPaused + ", remainingTime=" + remainingTime);
         
-        // 清除数据库中的计时器状态
+        // 清除数据库中的计时器状态（同时丢弃尚未写出的状态）
         if (pomodoroRepository != null) {
-            pomodoroRepository.clearTimerStateSync();
+            pomodoroRepository.clearTimerState();
             Log.d("PomodoroService", "Cleared timer state from database");
         }
         
-        // 发送状态更新广播
-        Intent intent = new Intent(ACTION_TIMER_UPDATE);
-        intent.putExtra(EXTRA_REMAINING_TIME, remainingTime);
-        intent.putExtra(EXTRA_IS_BREAK, isBreakTime);
-        intent.putExtra(EXTRA_CURRENT_COUNT, currentTomatoCount);
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+        // 发布状态更新
+        publishState();
         
         updateNotification();
         clearNotification();
@@ -444,39 +493,112 @@ public class PomodoroService extends Service {
     }
     
     private void continueTimer() {
-        // 如果已经有计时器在运行，先取消它
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-            countDownTimer = null;
-            Log.d("PomodoroService", "Cancelled existing timer before creating new one");
-        }
+        // 重新设定截止时刻，取消旧的唤醒
+        stopCountdown();
+        countdown.start(remainingTime);
+        scheduleCompletionAlarm();
+        scheduleNextTick();
+        updateNotification();
         
-        countDownTimer = new CountDownTimer(remainingTime, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                remainingTime = millisUntilFinished;
-                
-                // 更新通知
-                updateNotification();
-                
-                // 发送广播更新UI
-                Intent intent = new Intent(ACTION_TIMER_UPDATE);
-                intent.putExtra(EXTRA_REMAINING_TIME, remainingTime);
-                intent.putExtra(EXTRA_IS_BREAK, isBreakTime);
-                intent.putExtra(EXTRA_CURRENT_COUNT, currentTomatoCount);
-                LocalBroadcastManager.getInstance(PomodoroService.this).sendBroadcast(intent);
-            }
-            
-            @Override
-            public void onFinish() {
-                onTimerFinished();
-            }
-        };
-        countDownTimer.start();
-        Log.d("PomodoroService", "Started new timer with remaining time: " + remainingTime);
+        segmentDuration = -1;
+        persistTimerState();
+        publishState();
+        Log.d("PomodoroService", "Started countdown with remaining time: " + remainingTime);
+    }
+    
+    /**
+     * 到达截止时刻则完成计时，否则刷新界面并安排下一次唤醒
+     */
+    private void onCountdownTick() {
+        if (!countdown.isTicking()) {
+            return;
+        }
+        if (countdown.isFinished()) {
+            remainingTime = 0;
+            stopCountdown();
+            // 通知中的倒数控件停在截止时刻，先换成静态内容
+            updateNotification();
+            onTimerFinished();
+            return;
+        }
+        remainingTime = countdown.getRemaining();
+        if (uiBound) {
+            publishState();
+        }
+        scheduleNextTick();
+    }
+    
+    /**
+     * 有界面绑定且亮屏时在显示的秒数变化时唤醒；否则只在截止时刻唤醒（深度休眠由闹钟兜底）
+     */
+    private void scheduleNextTick() {
+        timerHandler.removeCallbacks(tickRunnable);
+        if (!countdown.isTicking()) {
+            return;
+        }
+        long delay = uiBound && isInteractive()
+            ? countdown.delayToNextVisibleSecond()
+            : countdown.getRemaining();
+        timerHandler.postDelayed(tickRunnable, delay);
+    }
+    
+    /**
+     * 停止倒计时并取消所有唤醒，剩余时间保持 remainingTime 字段的值
+     */
+    private void stopCountdown() {
+        timerHandler.removeCallbacks(tickRunnable);
+        cancelCompletionAlarm();
+        countdown.stop(remainingTime);
+    }
+    
+    /**
+     * 计时中时用截止时刻刷新剩余时间字段
+     */
+    private long refreshRemainingTime() {
+        if (countdown.isTicking()) {
+            remainingTime = countdown.getRemaining();
+        }
+        return remainingTime;
+    }
+    
+    private PendingIntent getCompletionAlarmIntent() {
+        Intent intent = new Intent(this, PomodoroService.class);
+        intent.setAction(ACTION_COUNTDOWN_ALARM);
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return PendingIntent.getForegroundService(this, 0, intent, flags);
+        }
+        return PendingIntent.getService(this, 0, intent, flags);
+    }
+    
+    /**
+     * 用精确闹钟在截止时刻完成计时，没有精确闹钟权限时退回非精确闹钟
+     */
+    private void scheduleCompletionAlarm() {
+        AlarmManager alarmManager = (AlarmManager) getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) {
+            return;
+        }
+        PendingIntent pendingIntent = getCompletionAlarmIntent();
+        try {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP,
+                countdown.getDeadline(), pendingIntent);
+        } catch (SecurityException e) {
+            Log.w("PomodoroService", "无法设置精确闹钟，改用非精确闹钟", e);
+            alarmManager.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP,
+                countdown.getDeadline(), pendingIntent);
+        }
+    }
+    
+    private void cancelCompletionAlarm() {
+        AlarmManager alarmManager = (AlarmManager) getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager != null) {
+            alarmManager.cancel(getCompletionAlarmIntent());
+        }
     }
     
     private void onTimerFinished() {
+        boolean finishedBreak = isBreakTime;
         if (!isBreakTime) {
             // 完成一个番茄钟
             currentTomatoCount++;
@@ -499,13 +621,25 @@ public class PomodoroService extends Service {
         } else {
             // 休息结束，开始下一个番茄钟
             finishBreakTime();
+            persistTimerState();
+            if (pomodoroRepository != null) {
+                pomodoroRepository.flushTimerState();
+            }
         }
         
-        // 发送完成广播
-        Intent intent = new Intent(ACTION_TIMER_FINISHED);
-        intent.putExtra(EXTRA_IS_BREAK, isBreakTime);
-        intent.putExtra(EXTRA_CURRENT_COUNT, currentTomatoCount);
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+        // 发布结束事件；休息结束后 isBreakTime 已切回番茄钟，结束的类型单独传递
+        TimerStateFlow.getInstance().publishFinished(finishedBreak, isTimerRunning, isTimerPaused, isBreakTime,
+            refreshRemainingTime(), countdown.isTicking() ? countdown.getDeadline() : 0,
+            currentTomatoCount, currentTaskName);
+    }
+    
+    /**
+     * 把当前状态发布到计时状态流，界面从那里读取，不再依赖广播和设置表
+     */
+    private void publishState() {
+        TimerStateFlow.getInstance().publish(isTimerRunning, isTimerPaused, isBreakTime,
+            refreshRemainingTime(), countdown.isTicking() ? countdown.getDeadline() : 0,
+            currentTomatoCount, currentTaskName);
     }
     
     private void startBreakTime() {
@@ -533,6 +667,7 @@ public class PomodoroService extends Service {
             isTimerPaused = false;
             // 清除通知，因为计时器已停止
             clearNotification();
+            publishState();
         }
     }
     
@@ -543,6 +678,7 @@ public class PomodoroService extends Service {
         currentTomatoCount = 0;
         remainingTime = TomatoSettingsDialog.getTomatoDuration(this) * 60 * 1000;
         
+        publishState();
         updateNotification();
         clearNotification();
         stopSelf();
@@ -558,7 +694,7 @@ public class PomodoroService extends Service {
     }
     
     public long getRemainingTime() {
-        return remainingTime;
+        return refreshRemainingTime();
     }
     
     public boolean isBreakTime() {
@@ -575,6 +711,7 @@ public class PomodoroService extends Service {
     
     public void setCurrentTaskName(String taskName) {
         this.currentTaskName = taskName != null ? taskName : "未指定任务";
+        publishState();
     }
     
     // 同步状态方法，用于Fragment恢复时同步状态
@@ -582,11 +719,10 @@ public class PomodoroService extends Service {
         Log.d("PomodoroService", "Syncing state - running: " + running + ", paused: " + paused + ", remaining: " + remaining + ", isBreak: " + isBreak + ", count: " + count);
         
         // 先停止现有的计时器（如果有的话）
-        if (countDownTimer != null) {
+        if (countdown.isTicking()) {
             Log.d("PomodoroService", "Stopping existing timer before sync");
-            countDownTimer.cancel();
-            countDownTimer = null;
         }
+        stopCountdown();
         
         this.isTimerRunning = running;
         this.isTimerPaused = paused;
@@ -595,6 +731,7 @@ public class PomodoroService extends Service {
         this.currentTomatoCount = count;
         
         Log.d("PomodoroService", "State synced - new state: isTimerRunning=" + isTimerRunning + ", isTimerPaused=" + isTimerPaused + ", remainingTime=" + remainingTime);
+        persistTimerState();
         
         // 如果计时器正在运行且未暂停，需要重新启动计时器
         if (running && !paused) {
@@ -604,6 +741,7 @@ public class PomodoroService extends Service {
         
         // 清除通知，因为计时器已停止
         stopForeground(true);
+        publishState();
         
         Log.d("PomodoroService", "State sync completed");
     }
@@ -652,27 +790,55 @@ public class PomodoroService extends Service {
         remainingTime = TomatoSettingsDialog.getTomatoDuration(this) * 60 * 1000;
         
         // 取消计时器
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-            countDownTimer = null;
-        }
+        stopCountdown();
         
-        // 清除数据库状态
+        // 清除数据库状态（同时丢弃尚未写出的状态）
         if (pomodoroRepository != null) {
-            new Thread(() -> {
-                try {
-                    pomodoroRepository.clearTimerStateSync();
-                    pomodoroRepository.clearPomodoroCompletionPending();
-                    Log.d("PomodoroService", "Timer state and completion pending cleared from database");
-                } catch (Exception e) {
-                    Log.e("PomodoroService", "Failed to clear timer state", e);
-                }
-            }).start();
+            pomodoroRepository.clearTimerState();
+            pomodoroRepository.clearPomodoroCompletionPending();
+            Log.d("PomodoroService", "Timer state and completion pending cleared from database");
         }
         
         // 清除通知
         clearNotification();
         Log.d("PomodoroService", "通知已清除");
+        publishState();
+    }
+    
+    /**
+     * 记录当前计时器状态，由仓库合并写入数据库
+     */
+    private void persistTimerState() {
+        if (pomodoroRepository == null) {
+            return;
+        }
+        refreshRemainingTime();
+        long startTime;
+        if (!isTimerRunning || isTimerPaused) {
+            // 未运行或已暂停时保存0作为开始时间，依赖剩余时间恢复
+            startTime = 0;
+        } else {
+            // 正在运行时按原始时长倒推开始时间，恢复时据此重新计算剩余时间；
+            // 原始时长每个计时段只读一次设置，走秒时不再查询数据库
+            if (segmentDuration < 0 || segmentIsBreak != isBreakTime) {
+                segmentIsBreak = isBreakTime;
+                segmentDuration = isBreakTime
+                    ? TomatoSettingsDialog.getBreakDuration(this) * 60 * 1000L
+                    : TomatoSettingsDialog.getTomatoDuration(this) * 60 * 1000L;
+            }
+            startTime = System.currentTimeMillis() - (segmentDuration - remainingTime);
+        }
+        pomodoroRepository.saveTimerState(startTime, isTimerRunning, isTimerPaused, remainingTime, isBreakTime, currentTomatoCount);
+    }
+    
+    @Override
+    public void onTaskRemoved(Intent rootIntent) {
+        super.onTaskRemoved(rootIntent);
+        Log.d("PomodoroService", "Task removed - flushing timer state");
+        persistTimerState();
+        if (pomodoroRepository != null) {
+            pomodoroRepository.flushTimerState();
+        }
     }
     
     @Override
@@ -681,39 +847,22 @@ public class PomodoroService extends Service {
         
         Log.d("PomodoroService", "Service onDestroy called - saving state before destruction");
         
-        // 如果计时器正在运行，保存当前状态到数据库
+        // 如果计时器正在运行，立即写出当前状态
+        refreshRemainingTime();
         if (isTimerRunning) {
             Log.d("PomodoroService", "Timer is running, saving state: isTimerPaused=" + isTimerPaused + ", remainingTime=" + remainingTime + ", isBreakTime=" + isBreakTime + ", currentCount=" + currentTomatoCount);
-            
-            // 计算当前应该保存的开始时间
-            long currentTime = System.currentTimeMillis();
-            long startTime;
-            
-            if (isTimerPaused) {
-                // 如果已暂停，保存0作为开始时间，依赖剩余时间恢复
-                startTime = 0;
-                Log.d("PomodoroService", "Timer is paused, saving startTime as 0");
-            } else {
-                // 如果正在运行，计算开始时间
-                long originalDuration;
-                if (isBreakTime) {
-                    originalDuration = TomatoSettingsDialog.getBreakDuration(this) * 60 * 1000;
-                } else {
-                    originalDuration = TomatoSettingsDialog.getTomatoDuration(this) * 60 * 1000;
-                }
-                startTime = currentTime - (originalDuration - remainingTime);
-                Log.d("PomodoroService", "Timer is running, calculated startTime=" + startTime);
-            }
-            
-            // 保存状态到数据库
-            if (pomodoroRepository != null) {
-                pomodoroRepository.saveTimerState(startTime, isTimerRunning, isTimerPaused, remainingTime, isBreakTime, currentTomatoCount);
-                Log.d("PomodoroService", "Timer state saved to database before service destruction");
-            }
+            persistTimerState();
+        }
+        if (pomodoroRepository != null) {
+            pomodoroRepository.flushTimerState();
+            Log.d("PomodoroService", "Timer state flushed to database before service destruction");
         }
         
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
+        // 服务销毁后不再需要唤醒；重启后由数据库状态恢复
+        stopCountdown();
+        if (screenStateReceiver != null) {
+            unregisterReceiver(screenStateReceiver);
+            screenStateReceiver = null;
         }
         
         // 确保清除通知
@@ -17,6 +17,9 @@ import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
+import com.example.fourquadrant.database.repository.TaskPriorityCommitter;
+import com.example.fourquadrant.database.repository.TaskRepository;
+
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -32,6 +35,7 @@ public class QuadrantChartFragment extends Fragment {
     private Button generateButton;
     private Button saveButton;
     private List<QuadrantView.Task> tasks;
+    private TaskPriorityCommitter priorityCommitter;
     
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -72,6 +76,7 @@ public class QuadrantChartFragment extends Fragment {
         saveButton = view.findViewById(R.id.save_button);
         
         setupButtons();
+        setupChartInteraction();
         
         return view;
     }
@@ -94,6 +99,55 @@ public class QuadrantChartFragment extends Fragment {
 
     }
     
+    private void setupChartInteraction() {
+        priorityCommitter = new TaskPriorityCommitter(new TaskRepository(requireActivity().getApplication()));
+        // 写入完成后让任务列表从数据库刷新，列表再通过TaskListListener把新数据推回图表
+        priorityCommitter.setOnCommitted(() -> {
+            TaskListFragment taskListFragment = findTaskListFragment();
+            if (taskListFragment != null) {
+                taskListFragment.refreshTasksFromDatabase();
+            }
+        });
+        
+        quadrantView.setOnTaskInteractionListener(new QuadrantView.OnTaskInteractionListener() {
+            @Override
+            public void onTasksSelected(List<QuadrantView.Task> selected) {
+                if (selected.isEmpty() || getContext() == null) {
+                    return;
+                }
+                QuadrantView.Task first = selected.get(0);
+                String message = selected.size() == 1
+                    ? first.getName() + "  重要性: " + first.getImportance() + "  紧急性: " + first.getUrgency()
+                    : selected.size() + " 个任务（重要性: " + first.getImportance() + "，紧急性: " + first.getUrgency() + "）";
+                Toast.makeText(getContext(), message, Toast.LENGTH_SHORT).show();
+            }
+            
+            @Override
+            public void onTasksMoved(List<QuadrantView.Task> moved) {
+                for (QuadrantView.Task task : moved) {
+                    priorityCommitter.submit(task.getId(), task.getImportance(), task.getUrgency());
+                }
+            }
+        });
+    }
+    
+    private TaskListFragment findTaskListFragment() {
+        if (getActivity() == null) {
+            return null;
+        }
+        Fragment fragment = getActivity().getSupportFragmentManager().findFragmentByTag("f0");
+        return fragment instanceof TaskListFragment ? (TaskListFragment) fragment : null;
+    }
+    
+    @Override
+    public void onPause() {
+        super.onPause();
+        // 离开页面时立即提交尚未写入的拖动修改
+        if (priorityCommitter != null) {
+            priorityCommitter.flush();
+        }
+    }
+    
     public void updateTasks(List<QuadrantView.Task> newTasks) {
         this.tasks = newTasks;
         if (quadrantView != null) {
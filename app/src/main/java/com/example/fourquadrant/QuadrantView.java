@@ -1,26 +1,92 @@
 package com.example.fourquadrant;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
-import android.graphics.RectF;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
+import android.view.ViewParent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * 四象限图表
+ * 分层绘制：背景、网格和坐标轴标签只在尺寸变化时绘制到缓存位图；
+ * 任务点按(重要性, 紧急性)整数坐标分桶，同一格内完全重叠的任务合并为一个带数量的点，
+ * 每帧绘制的点数只与格子数有关，与任务数量无关。
+ *
+ * 交互：点击选中、长按拖动修改重要性/紧急性、双指缩放和单指平移。
+ * 分桶同时作为点击命中索引：触点换算到最近的整数格子即可在O(1)内定位。
+ */
 public class QuadrantView extends View {
     
+    private static final int MARGIN = 60;
+    private static final float POINT_RADIUS = 15f;
+    private static final float MAX_CLUSTER_EXTRA_RADIUS = 10f;
+    private static final float TOUCH_SLOP_RADIUS = 30f;
+    private static final float MAX_ZOOM = 4f;
+    private static final int MAX_NAME_LENGTH = 8;
+    
+    /**
+     * 图表交互回调
+     */
+    public interface OnTaskInteractionListener {
+        // 点击选中一个点（重叠的点包含多个任务），点击空白处时为空列表
+        void onTasksSelected(List<Task> tasks);
+        // 拖动改变了任务的重要性/紧急性，每跨过一个格子回调一次
+        void onTasksMoved(List<Task> tasks);
+    }
+    
     private Paint gridPaint;
-    private Paint textPaint;
-    private Paint taskPaint;
+    private Paint axisTextPaint;
+    private Paint quadrantLabelPaint;
     private Paint backgroundPaint;
+    private Paint namePaint;
+    private Paint indexPaint;
+    private Paint badgePaint;
+    private Paint selectionPaint;
+    // 按象限预先取好颜色的任务点画笔，下标为象限-1
+    private final Paint[] taskPaints = new Paint[4];
     
     private List<Task> tasks;
     private int maxScore = 10;
     
+    // 静态背景层
+    private Bitmap chromeBitmap;
+    
+    // 分桶结果，格子下标 = 重要性 * gridSize + 紧急性
+    private int gridSize;
+    private int[] cellCounts;
+    private int[] cellStart;          // 每个格子在 cellMembers 中的起始位置
+    private int[] cellFill;
+    private int[] cellMembers = new int[0];
+    private String[] cellLabels;      // 单个任务：截断后的名称；多个任务：数量
+    private String[] cellIndexLabels; // 单个任务：编号；多个任务：null
+    private int[] occupiedCells;
+    private int occupiedCount;
+    
+    // 视口：缩放倍数和左下角对应的紧急性/重要性（分数坐标）
+    private float zoom = 1f;
+    private float viewUrgency = 0f;
+    private float viewImportance = 0f;
+    private final Matrix viewportMatrix = new Matrix();
+    
+    private OnTaskInteractionListener interactionListener;
+    private GestureDetector gestureDetector;
+    private ScaleGestureDetector scaleDetector;
+    private int selectedCell = -1;
+    private int[] draggedTasks;
+    private int dragCell = -1;
+    private List<Task> deferredTasks;
+    
     public QuadrantView(Context context) {
         super(context);
         init();
@@ -45,28 +111,382 @@ public class QuadrantView extends View {
         gridPaint.setStrokeWidth(2f);
         gridPaint.setStyle(Paint.Style.STROKE);
         
-        // 文本画笔
-        textPaint = new Paint();
-        textPaint.setColor(Color.BLACK);
-        textPaint.setTextSize(12f);
-        textPaint.setTextAlign(Paint.Align.CENTER);
-        textPaint.setAntiAlias(true);
+        // 坐标轴标签画笔
+        axisTextPaint = createTextPaint(Color.BLACK, 14f);
         
-        // 任务画笔
-        taskPaint = new Paint();
-        taskPaint.setAntiAlias(true);
-        taskPaint.setStyle(Paint.Style.FILL);
+        // 象限标签画笔
+        quadrantLabelPaint = createTextPaint(Color.GRAY, 12f);
         
         // 背景画笔
         backgroundPaint = new Paint();
         backgroundPaint.setStyle(Paint.Style.FILL);
+        
+        // 任务点画笔（颜色只在这里解析一次）
+        int[] colorIds = {R.color.quadrant_1_color, R.color.quadrant_2_color,
+            R.color.quadrant_3_color, R.color.quadrant_4_color};
+        for (int i = 0; i < taskPaints.length; i++) {
+            taskPaints[i] = new Paint();
+            taskPaints[i].setAntiAlias(true);
+            taskPaints[i].setStyle(Paint.Style.FILL);
+            taskPaints[i].setColor(getResources().getColor(colorIds[i], null));
+        }
+        
+        // 任务名称、编号和聚合数量画笔
+        namePaint = createTextPaint(Color.WHITE, 10f);
+        indexPaint = createTextPaint(Color.BLACK, 8f);
+        badgePaint = createTextPaint(Color.WHITE, 12f);
+        badgePaint.setFakeBoldText(true);
+        
+        // 选中/拖动中的点外圈
+        selectionPaint = new Paint();
+        selectionPaint.setAntiAlias(true);
+        selectionPaint.setStyle(Paint.Style.STROKE);
+        selectionPaint.setStrokeWidth(4f);
+        selectionPaint.setColor(Color.BLACK);
+        
+        allocateBins();
+        initGestures();
+    }
+    
+    private Paint createTextPaint(int color, float textSize) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setTextSize(textSize);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setAntiAlias(true);
+        return paint;
+    }
+    
+    private void allocateBins() {
+        gridSize = maxScore + 1;
+        int cells = gridSize * gridSize;
+        cellCounts = new int[cells];
+        cellStart = new int[cells + 1];
+        cellFill = new int[cells];
+        cellLabels = new String[cells];
+        cellIndexLabels = new String[cells];
+        occupiedCells = new int[cells];
+        occupiedCount = 0;
+    }
+    
+    public void setOnTaskInteractionListener(OnTaskInteractionListener listener) {
+        this.interactionListener = listener;
     }
     
     public void setTasks(List<Task> tasks) {
+        if (draggedTasks != null) {
+            // 拖动过程中不替换数据，松手后再应用，避免拖动的下标失效
+            deferredTasks = tasks;
+            return;
+        }
         this.tasks = tasks;
+        selectedCell = -1;
+        rebuildBins();
+        invalidate();
+    }
+    
+    /**
+     * 重新分桶并准备好每个格子要绘制的文字，绘制时不再做任何字符串处理
+     */
+    private void rebuildBins() {
+        Arrays.fill(cellCounts, 0);
+        Arrays.fill(cellLabels, null);
+        Arrays.fill(cellIndexLabels, null);
+        occupiedCount = 0;
+        if (tasks == null) {
+            return;
+        }
+        
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (!isDrawable(task)) continue;
+            
+            int cell = cellOf(task.getImportance(), task.getUrgency());
+            if (cellCounts[cell] == 0) {
+                occupiedCells[occupiedCount++] = cell;
+            }
+            cellCounts[cell]++;
+        }
+        
+        // 计数排序：同一格子的任务下标连续存放，按原列表顺序
+        for (int cell = 0; cell < cellCounts.length; cell++) {
+            cellStart[cell + 1] = cellStart[cell] + cellCounts[cell];
+        }
+        if (cellMembers.length < cellStart[cellCounts.length]) {
+            cellMembers = new int[tasks.size()];
+        }
+        System.arraycopy(cellStart, 0, cellFill, 0, cellFill.length);
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (!isDrawable(task)) continue;
+            cellMembers[cellFill[cellOf(task.getImportance(), task.getUrgency())]++] = i;
+        }
+        
+        for (int k = 0; k < occupiedCount; k++) {
+            int cell = occupiedCells[k];
+            if (cellCounts[cell] == 1) {
+                int index = cellMembers[cellStart[cell]];
+                // 如果任务名称太长，截断显示
+                String displayName = tasks.get(index).getName();
+                if (displayName.length() > MAX_NAME_LENGTH) {
+                    displayName = displayName.substring(0, MAX_NAME_LENGTH) + "...";
+                }
+                cellLabels[cell] = displayName;
+                cellIndexLabels[cell] = String.valueOf(index + 1);
+            } else {
+                cellLabels[cell] = String.valueOf(cellCounts[cell]);
+            }
+        }
+    }
+    
+    private static boolean isDrawable(Task task) {
+        return task != null && task.getName() != null && !task.getName().isEmpty();
+    }
+    
+    private int cellOf(int importance, int urgency) {
+        int row = Math.max(0, Math.min(maxScore, importance));
+        int column = Math.max(0, Math.min(maxScore, urgency));
+        return row * gridSize + column;
+    }
+    
+    private List<Task> tasksInCell(int cell) {
+        List<Task> result = new ArrayList<>(cellCounts[cell]);
+        for (int k = cellStart[cell]; k < cellStart[cell] + cellCounts[cell]; k++) {
+            result.add(tasks.get(cellMembers[k]));
+        }
+        return result;
+    }
+    
+    // ---------------- 视口与坐标换算 ----------------
+    
+    private float chartWidth() {
+        return getWidth() - 2 * MARGIN;
+    }
+    
+    private float chartHeight() {
+        return getHeight() - 2 * MARGIN;
+    }
+    
+    private float visibleSpan() {
+        return maxScore / zoom;
+    }
+    
+    private float urgencyToX(float urgency) {
+        return MARGIN + (urgency - viewUrgency) / visibleSpan() * chartWidth();
+    }
+    
+    private float importanceToY(float importance) {
+        return MARGIN + chartHeight() - (importance - viewImportance) / visibleSpan() * chartHeight();
+    }
+    
+    private float xToUrgency(float x) {
+        return viewUrgency + (x - MARGIN) / chartWidth() * visibleSpan();
+    }
+    
+    private float yToImportance(float y) {
+        return viewImportance + (MARGIN + chartHeight() - y) / chartHeight() * visibleSpan();
+    }
+    
+    private void clampViewport() {
+        zoom = Math.max(1f, Math.min(MAX_ZOOM, zoom));
+        float maxOrigin = maxScore - visibleSpan();
+        viewUrgency = Math.max(0f, Math.min(maxOrigin, viewUrgency));
+        viewImportance = Math.max(0f, Math.min(maxOrigin, viewImportance));
+    }
+    
+    public void resetViewport() {
+        zoom = 1f;
+        viewUrgency = 0f;
+        viewImportance = 0f;
         invalidate();
     }
     
+    /**
+     * 命中测试：换算到最近的整数格子，再检查触点是否落在该点的圆内
+     * @return 格子下标，未命中返回-1
+     */
+    int hitTest(float x, float y) {
+        if (getWidth() == 0 || getHeight() == 0) return -1;
+        int urgency = Math.round(xToUrgency(x));
+        int importance = Math.round(yToImportance(y));
+        if (urgency < 0 || urgency > maxScore || importance < 0 || importance > maxScore) return -1;
+        
+        int cell = importance * gridSize + urgency;
+        if (cellCounts[cell] == 0) return -1;
+        float dx = x - urgencyToX(urgency);
+        float dy = y - importanceToY(importance);
+        float radius = pointRadius(cellCounts[cell]) + TOUCH_SLOP_RADIUS;
+        return dx * dx + dy * dy <= radius * radius ? cell : -1;
+    }
+    
+    private static float pointRadius(int count) {
+        if (count <= 1) return POINT_RADIUS;
+        return POINT_RADIUS + Math.min(MAX_CLUSTER_EXTRA_RADIUS, (float) (Math.log(count) / Math.log(2)) * 2f);
+    }
+    
+    // ---------------- 手势 ----------------
+    
+    private void initGestures() {
+        gestureDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+            
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                selectedCell = hitTest(e.getX(), e.getY());
+                invalidate();
+                if (interactionListener != null) {
+                    interactionListener.onTasksSelected(
+                        selectedCell >= 0 ? tasksInCell(selectedCell) : new ArrayList<>());
+                }
+                return true;
+            }
+            
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                resetViewport();
+                return true;
+            }
+            
+            @Override
+            public void onLongPress(MotionEvent e) {
+                if (scaleDetector.isInProgress()) return;
+                int cell = hitTest(e.getX(), e.getY());
+                if (cell < 0) return;
+                startDrag(cell);
+            }
+            
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                if (draggedTasks != null || zoom <= 1f) return false;
+                viewUrgency += distanceX / chartWidth() * visibleSpan();
+                viewImportance -= distanceY / chartHeight() * visibleSpan();
+                clampViewport();
+                invalidate();
+                return true;
+            }
+        });
+        
+        scaleDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                // 保持焦点下的分数坐标不变
+                float focusX = detector.getFocusX();
+                float focusY = detector.getFocusY();
+                float focusUrgency = xToUrgency(focusX);
+                float focusImportance = yToImportance(focusY);
+                zoom = Math.max(1f, Math.min(MAX_ZOOM, zoom * detector.getScaleFactor()));
+                viewUrgency = focusUrgency - (focusX - MARGIN) / chartWidth() * visibleSpan();
+                viewImportance = focusImportance - (MARGIN + chartHeight() - focusY) / chartHeight() * visibleSpan();
+                clampViewport();
+                invalidate();
+                return true;
+            }
+        });
+    }
+    
+    private void startDrag(int cell) {
+        // 记录被拖动的任务下标，之后即使与其他点合并也只移动这些任务
+        draggedTasks = new int[cellCounts[cell]];
+        System.arraycopy(cellMembers, cellStart[cell], draggedTasks, 0, draggedTasks.length);
+        dragCell = cell;
+        selectedCell = cell;
+        disallowParentIntercept(true);
+        performHapticFeedback(android.view.HapticFeedbackConstants.LONG_PRESS);
+        invalidate();
+    }
+    
+    private void dragTo(float x, float y) {
+        int urgency = Math.max(0, Math.min(maxScore, Math.round(xToUrgency(x))));
+        int importance = Math.max(0, Math.min(maxScore, Math.round(yToImportance(y))));
+        int cell = importance * gridSize + urgency;
+        if (cell == dragCell) return;
+        
+        List<Task> moved = new ArrayList<>(draggedTasks.length);
+        for (int index : draggedTasks) {
+            Task task = tasks.get(index);
+            task.setImportance(importance);
+            task.setUrgency(urgency);
+            moved.add(task);
+        }
+        dragCell = cell;
+        selectedCell = cell;
+        rebuildBins();
+        invalidate();
+        if (interactionListener != null) {
+            interactionListener.onTasksMoved(moved);
+        }
+    }
+    
+    private void endDrag() {
+        draggedTasks = null;
+        dragCell = -1;
+        disallowParentIntercept(false);
+        if (deferredTasks != null) {
+            List<Task> pending = deferredTasks;
+            deferredTasks = null;
+            setTasks(pending);
+        }
+    }
+    
+    private void disallowParentIntercept(boolean disallow) {
+        ViewParent parent = getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(disallow);
+        }
+    }
+    
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (draggedTasks != null) {
+            switch (event.getActionMasked()) {
+                case MotionEvent.ACTION_MOVE:
+                    dragTo(event.getX(), event.getY());
+                    return true;
+                case MotionEvent.ACTION_UP:
+                case MotionEvent.ACTION_CANCEL:
+                    endDrag();
+                    return true;
+                default:
+                    return true;
+            }
+        }
+        
+        // 放大后或双指操作时由本视图处理滑动，避免被外层翻页抢走
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            disallowParentIntercept(zoom > 1f);
+        } else if (event.getActionMasked() == MotionEvent.ACTION_POINTER_DOWN) {
+            disallowParentIntercept(true);
+        }
+        
+        boolean handled = scaleDetector.onTouchEvent(event);
+        handled |= gestureDetector.onTouchEvent(event);
+        return handled || super.onTouchEvent(event);
+    }
+    
+    // ---------------- 绘制 ----------------
+    
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        releaseChrome();
+    }
+    
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseChrome();
+    }
+    
+    private void releaseChrome() {
+        if (chromeBitmap != null) {
+            chromeBitmap.recycle();
+            chromeBitmap = null;
+        }
+    }
+    
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
@@ -76,25 +496,51 @@ public class QuadrantView extends View {
         
         if (width == 0 || height == 0) return;
         
+        // 计算边距
+        int chartWidth = width - 2 * MARGIN;
+        int chartHeight = height - 2 * MARGIN;
+        
+        if (zoom == 1f) {
+            // 静态背景层：尺寸变化后第一次绘制时重建
+            if (chromeBitmap == null) {
+                chromeBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                drawChrome(new Canvas(chromeBitmap), MARGIN, chartWidth, chartHeight);
+            }
+            canvas.drawBitmap(chromeBitmap, 0, 0, null);
+        } else {
+            // 缩放中：坐标轴标题不变，象限平面按视口变换直接绘制（只有几个矩形和线条）
+            canvas.drawColor(Color.WHITE);
+            drawAxisTitles(canvas, MARGIN, chartWidth, chartHeight);
+            float scaledOffsetX = viewUrgency / maxScore * chartWidth * zoom;
+            float scaledOffsetY = viewImportance / maxScore * chartHeight * zoom;
+            viewportMatrix.setScale(zoom, zoom, MARGIN, MARGIN + chartHeight);
+            viewportMatrix.postTranslate(-scaledOffsetX, scaledOffsetY);
+            canvas.save();
+            canvas.clipRect(MARGIN, MARGIN, MARGIN + chartWidth, MARGIN + chartHeight);
+            canvas.concat(viewportMatrix);
+            drawPlane(canvas, MARGIN, chartWidth, chartHeight);
+            canvas.restore();
+        }
+        
+        // 绘制任务点
+        drawTasks(canvas);
+    }
+    
+    private void drawChrome(Canvas canvas, int margin, int chartWidth, int chartHeight) {
         // 绘制背景
         canvas.drawColor(Color.WHITE);
         
-        // 计算边距
-        int margin = 60;
-        int chartWidth = width - 2 * margin;
-        int chartHeight = height - 2 * margin;
+        // 绘制四象限背景、网格线和象限标签
+        drawPlane(canvas, margin, chartWidth, chartHeight);
         
-        // 绘制四象限背景
+        // 绘制坐标轴标签
+        drawAxisTitles(canvas, margin, chartWidth, chartHeight);
+    }
+    
+    private void drawPlane(Canvas canvas, int margin, int chartWidth, int chartHeight) {
         drawQuadrantBackgrounds(canvas, margin, chartWidth, chartHeight);
-        
-        // 绘制网格线
         drawGrid(canvas, margin, chartWidth, chartHeight);
-        
-        // 绘制坐标轴标签
-        drawAxisLabels(canvas, margin, chartWidth, chartHeight);
-        
-        // 绘制任务点
-        drawTasks(canvas, margin, chartWidth, chartHeight);
+        drawQuadrantLabels(canvas, margin, chartWidth, chartHeight);
     }
     
     private void drawQuadrantBackgrounds(Canvas canvas, int margin, int chartWidth, int chartHeight) {
@@ -129,89 +575,73 @@ public class QuadrantView extends View {
         canvas.drawLine(margin, centerY, margin + chartWidth, centerY, gridPaint);
     }
     
-    private void drawAxisLabels(Canvas canvas, int margin, int chartWidth, int chartHeight) {
+    private void drawAxisTitles(Canvas canvas, int margin, int chartWidth, int chartHeight) {
         int centerX = margin + chartWidth / 2;
         int centerY = margin + chartHeight / 2;
         
         // Y轴标签 (重要性)
-        textPaint.setTextSize(14f);
-        textPaint.setColor(Color.BLACK);
         canvas.save();
         canvas.rotate(-90, margin - 20, centerY);
-        canvas.drawText("重要性", margin - 20, centerY, textPaint);
+        canvas.drawText("重要性", margin - 20, centerY, axisTextPaint);
         canvas.restore();
         
         // X轴标签 (紧急性)
-        canvas.drawText("紧急性", centerX, margin + chartHeight + 30, textPaint);
-        
-        // 象限标签
-        textPaint.setTextSize(12f);
-        textPaint.setColor(Color.GRAY);
+        canvas.drawText("紧急性", centerX, margin + chartHeight + 30, axisTextPaint);
+    }
+    
+    private void drawQuadrantLabels(Canvas canvas, int margin, int chartWidth, int chartHeight) {
+        int centerX = margin + chartWidth / 2;
+        int centerY = margin + chartHeight / 2;
         
         // 第一象限
-        canvas.drawText("紧急且重要", centerX + chartWidth / 4, centerY - chartHeight / 4, textPaint);
+        canvas.drawText("紧急且重要", centerX + chartWidth / 4, centerY - chartHeight / 4, quadrantLabelPaint);
         
         // 第二象限
-        canvas.drawText("重要不紧急", centerX - chartWidth / 4, centerY - chartHeight / 4, textPaint);
+        canvas.drawText("重要不紧急", centerX - chartWidth / 4, centerY - chartHeight / 4, quadrantLabelPaint);
         
         // 第三象限
-        canvas.drawText("紧急不重要", centerX + chartWidth / 4, centerY + chartHeight / 4, textPaint);
+        canvas.drawText("紧急不重要", centerX + chartWidth / 4, centerY + chartHeight / 4, quadrantLabelPaint);
         
         // 第四象限
-        canvas.drawText("不紧急不重要", centerX - chartWidth / 4, centerY + chartHeight / 4, textPaint);
+        canvas.drawText("不紧急不重要", centerX - chartWidth / 4, centerY + chartHeight / 4, quadrantLabelPaint);
     }
     
-    private void drawTasks(Canvas canvas, int margin, int chartWidth, int chartHeight) {
-        if (tasks == null || tasks.isEmpty()) return;
-        
-        int centerX = margin + chartWidth / 2;
-        int centerY = margin + chartHeight / 2;
-        
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.get(i);
-            if (task.getName() == null || task.getName().isEmpty()) continue;
-            
-            // 计算任务位置
-            float x = margin + (task.getUrgency() / (float) maxScore) * chartWidth;
-            float y = margin + chartHeight - (task.getImportance() / (float) maxScore) * chartHeight;
-            
-            // 设置任务点颜色
-            int quadrant = getQuadrant(task.getImportance(), task.getUrgency());
-            switch (quadrant) {
-                case 1: // 紧急且重要
-                    taskPaint.setColor(getResources().getColor(R.color.quadrant_1_color, null));
-                    break;
-                case 2: // 重要不紧急
-                    taskPaint.setColor(getResources().getColor(R.color.quadrant_2_color, null));
-                    break;
-                case 3: // 紧急不重要
-                    taskPaint.setColor(getResources().getColor(R.color.quadrant_3_color, null));
-                    break;
-                case 4: // 不紧急不重要
-                    taskPaint.setColor(getResources().getColor(R.color.quadrant_4_color, null));
-                    break;
-            }
-            
-            // 绘制任务点
-            canvas.drawCircle(x, y, 15, taskPaint);
-            
-            // 绘制任务名称
-            textPaint.setColor(Color.WHITE);
-            textPaint.setTextSize(10f);
-            textPaint.setTextAlign(Paint.Align.CENTER);
-            
-            // 如果任务名称太长，截断显示
-            String displayName = task.getName();
-            if (displayName.length() > 8) {
-                displayName = displayName.substring(0, 8) + "...";
+    private void drawTasks(Canvas canvas) {
+        if (occupiedCount == 0) return;
+        
+        // 只遍历视口内（含点半径余量）的格子
+        float padding = (POINT_RADIUS + MAX_CLUSTER_EXTRA_RADIUS) / chartWidth() * visibleSpan();
+        int minUrgency = Math.max(0, (int) Math.ceil(viewUrgency - padding));
+        int maxUrgency = Math.min(maxScore, (int) Math.floor(viewUrgency + visibleSpan() + padding));
+        padding = (POINT_RADIUS + MAX_CLUSTER_EXTRA_RADIUS) / chartHeight() * visibleSpan();
+        int minImportance = Math.max(0, (int) Math.ceil(viewImportance - padding));
+        int maxImportance = Math.min(maxScore, (int) Math.floor(viewImportance + visibleSpan() + padding));
+        
+        for (int importance = minImportance; importance <= maxImportance; importance++) {
+            for (int urgency = minUrgency; urgency <= maxUrgency; urgency++) {
+                int cell = importance * gridSize + urgency;
+                int count = cellCounts[cell];
+                if (count == 0) continue;
+                
+                // 计算任务位置
+                float x = urgencyToX(urgency);
+                float y = importanceToY(importance);
+                Paint pointPaint = taskPaints[getQuadrant(importance, urgency) - 1];
+                float radius = pointRadius(count);
+                
+                canvas.drawCircle(x, y, radius, pointPaint);
+                if (count == 1) {
+                    // 单个任务：绘制名称和编号
+                    canvas.drawText(cellLabels[cell], x, y + 3, namePaint);
+                    canvas.drawText(cellIndexLabels[cell], x, y - 8, indexPaint);
+                } else {
+                    // 多个任务重叠：显示数量
+                    canvas.drawText(cellLabels[cell], x, y + 4, badgePaint);
+                }
+                if (cell == selectedCell) {
+                    canvas.drawCircle(x, y, radius + 4f, selectionPaint);
+                }
             }
-            
-            canvas.drawText(displayName, x, y + 3, textPaint);
-            
-            // 绘制任务编号
-            textPaint.setColor(Color.BLACK);
-            textPaint.setTextSize(8f);
-            canvas.drawText(String.valueOf(i + 1), x, y - 8, textPaint);
         }
     }
     
@@ -228,16 +658,27 @@ public class QuadrantView extends View {
     }
     
     public static class Task {
+        private String id;
         private String name;
         private int importance;
         private int urgency;
         
         public Task(String name, int importance, int urgency) {
+            this(null, name, importance, urgency);
+        }
+        
+        public Task(String id, String name, int importance, int urgency) {
+            this.id = id;
             this.name = name;
             this.importance = importance;
             this.urgency = urgency;
         }
         
+        // 对应的任务ID，没有ID的点可以拖动但不会写回数据库
+        public String getId() {
+            return id;
+        }
+        
         public String getName() {
             return name;
         }
@@ -262,4 +703,4 @@ public class QuadrantView extends View {
             this.urgency = urgency;
         }
     }
-} 
\ No newline at end of file
+}
@@ -99,9 +99,9 @@ public class ReminderCalendarFragment extends Fragment implements ReminderManage
                 // 这会自动处理闹钟的设置和取消
                 boolean success = reminderManager.toggleReminderActive(reminder);
                 if (!success) {
-                    // 操作失败时刷新列表以恢复开关状态
+                    // 操作失败时重新绑定该行以恢复开关状态
                     if (adapter != null) {
-                        adapter.notifyDataSetChanged();
+                        adapter.refreshReminder(reminder);
                     }
                 }
             }
@@ -114,8 +114,19 @@ public class ReminderCalendarFragment extends Fragment implements ReminderManage
     private void updateSelectedDateReminders() {
         if (selectedDate == null) return;
         
+        Date requestedDate = selectedDate;
+        reminderManager.loadRemindersForDate(requestedDate, result -> {
+            // 查询期间又选了其他日期时丢弃旧结果
+            if (!isAdded() || requestedDate != selectedDate) {
+                return;
+            }
+            showSelectedDateReminders(result);
+        });
+    }
+    
+    private void showSelectedDateReminders(List<ReminderItem> result) {
         selectedDateReminderList.clear();
-        selectedDateReminderList.addAll(reminderManager.getRemindersForDate(selectedDate));
+        selectedDateReminderList.addAll(result);
         
         // 更新标题
         Calendar cal = Calendar.getInstance();
@@ -127,7 +138,7 @@ public class ReminderCalendarFragment extends Fragment implements ReminderManage
         selectedDateText.setText(dateStr + " 的提醒 (" + selectedDateReminderList.size() + "条)");
         
         if (adapter != null) {
-            adapter.notifyDataSetChanged();
+            adapter.updateReminders(selectedDateReminderList);
         }
     }
     
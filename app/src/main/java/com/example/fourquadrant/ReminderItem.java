@@ -33,6 +33,19 @@ public class ReminderItem {
         this.reminderTime = reminderTime;
     }
     
+    // 复制构造，用于把列表中的对象交给外部修改而不影响列表本身
+    public ReminderItem(ReminderItem other) {
+        this.id = other.id;
+        this.content = other.content;
+        this.taskName = other.taskName;
+        this.reminderTime = other.reminderTime;
+        this.vibrate = other.vibrate;
+        this.sound = other.sound;
+        this.repeat = other.repeat;
+        this.active = other.active;
+        this.createdTime = other.createdTime;
+    }
+    
     // 生成唯一ID
     private String generateId() {
         return "reminder_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
@@ -9,15 +9,40 @@ import android.widget.Switch;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.fourquadrant.utils.ListDiffing;
+import com.example.fourquadrant.utils.LocalDayUtils;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * 提醒列表适配器
+ * 提交列表时记录每条提醒的过期/今天状态，差异比较在后台进行，只有内容或状态变化的行才会重新绑定
  */
-public class ReminderListAdapter extends RecyclerView.Adapter<ReminderListAdapter.ReminderViewHolder> {
+public class ReminderListAdapter extends ListAdapter<ReminderListAdapter.Row, ReminderListAdapter.ReminderViewHolder> {
+    
+    private static final DiffUtil.ItemCallback<Row> DIFF_CALLBACK = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return Objects.equals(oldItem.reminder.getId(), newItem.reminder.getId());
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            ReminderItem oldReminder = oldItem.reminder;
+            ReminderItem newReminder = newItem.reminder;
+            return oldItem.past == newItem.past
+                && oldItem.today == newItem.today
+                && oldReminder.getReminderTime() == newReminder.getReminderTime()
+                && oldReminder.isActive() == newReminder.isActive()
+                && Objects.equals(oldReminder.getContent(), newReminder.getContent())
+                && Objects.equals(oldReminder.getTaskName(), newReminder.getTaskName());
+        }
+    };
     
-    private List<ReminderItem> reminders;
     private ReminderActionListener listener;
     
     public interface ReminderActionListener {
@@ -28,8 +53,41 @@ public class ReminderListAdapter extends RecyclerView.Adapter<ReminderListAdapte
     }
     
     public ReminderListAdapter(List<ReminderItem> reminders, ReminderActionListener listener) {
-        this.reminders = reminders;
+        super(ListDiffing.config(DIFF_CALLBACK));
         this.listener = listener;
+        setHasStableIds(true);
+        updateReminders(reminders);
+    }
+    
+    /**
+     * 提交新的提醒列表
+     */
+    public void updateReminders(List<ReminderItem> reminders) {
+        if (reminders == null) {
+            submitList(null);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long today = LocalDayUtils.toLocalDay(now);
+        List<Row> rows = new ArrayList<>(reminders.size());
+        for (ReminderItem reminder : reminders) {
+            rows.add(new Row(reminder, reminder.getReminderTime() < now,
+                LocalDayUtils.toLocalDay(reminder.getReminderTime()) == today));
+        }
+        submitList(rows);
+    }
+    
+    /**
+     * 重新绑定某条提醒（例如操作失败后恢复开关状态）
+     */
+    public void refreshReminder(ReminderItem reminder) {
+        List<Row> rows = getCurrentList();
+        for (int i = 0; i < rows.size(); i++) {
+            if (Objects.equals(rows.get(i).reminder.getId(), reminder.getId())) {
+                notifyItemChanged(i);
+                return;
+            }
+        }
     }
     
     @NonNull
@@ -42,13 +100,27 @@ public class ReminderListAdapter extends RecyclerView.Adapter<ReminderListAdapte
     
     @Override
     public void onBindViewHolder(@NonNull ReminderViewHolder holder, int position) {
-        ReminderItem reminder = reminders.get(position);
-        holder.bind(reminder);
+        holder.bind(getItem(position));
     }
     
     @Override
-    public int getItemCount() {
-        return reminders.size();
+    public long getItemId(int position) {
+        return ListDiffing.stableId(getItem(position).reminder.getId());
+    }
+    
+    /**
+     * 列表行：提醒本身和提交时计算的显示状态
+     */
+    static final class Row {
+        final ReminderItem reminder;
+        final boolean past;
+        final boolean today;
+        
+        Row(ReminderItem reminder, boolean past, boolean today) {
+            this.reminder = reminder;
+            this.past = past;
+            this.today = today;
+        }
     }
     
     class ReminderViewHolder extends RecyclerView.ViewHolder {
@@ -75,7 +147,8 @@ public class ReminderListAdapter extends RecyclerView.Adapter<ReminderListAdapte
             statusIndicator = itemView.findViewById(R.id.status_indicator);
         }
         
-        public void bind(ReminderItem reminder) {
+        public void bind(Row row) {
+            ReminderItem reminder = row.reminder;
             // 显示时间
             timeText.setText(reminder.getFormattedTime());
             
@@ -97,18 +170,18 @@ public class ReminderListAdapter extends RecyclerView.Adapter<ReminderListAdapte
             activeSwitch.setOnCheckedChangeListener((button, isChecked) -> {
                 if (listener != null && isChecked != reminder.isActive()) {
                     // 只有在状态真正改变时才调用
-                    listener.onToggleReminder(reminder);
+                    listener.onToggleReminder(new ReminderItem(reminder));
                 }
             });
             
             // 设置状态指示器
-            updateStatusIndicator(reminder);
+            updateStatusIndicator(row);
             
             // 设置卡片透明度和颜色
             if (!reminder.isActive()) {
                 cardView.setAlpha(0.6f);
                 cardView.setCardBackgroundColor(Color.parseColor("#F5F5F5"));
-            } else if (reminder.isPast()) {
+            } else if (row.past) {
                 cardView.setAlpha(1.0f);
                 cardView.setCardBackgroundColor(Color.parseColor("#FFEBEE"));
             } else {
@@ -116,44 +189,44 @@ public class ReminderListAdapter extends RecyclerView.Adapter<ReminderListAdapte
                 cardView.setCardBackgroundColor(Color.WHITE);
             }
             
-            // 设置按钮点击事件
+            // 设置按钮点击事件 - 回调传出副本，外部原地修改不会影响列表中用于差异比较的旧数据
             editButton.setOnClickListener(v -> {
                 if (listener != null) {
-                    listener.onEditReminder(reminder);
+                    listener.onEditReminder(new ReminderItem(reminder));
                 }
             });
             
             deleteButton.setOnClickListener(v -> {
                 if (listener != null) {
-                    listener.onDeleteReminder(reminder);
+                    listener.onDeleteReminder(new ReminderItem(reminder));
                 }
             });
             
             snoozeButton.setOnClickListener(v -> {
                 if (listener != null) {
-                    listener.onSnoozeReminder(reminder);
+                    listener.onSnoozeReminder(new ReminderItem(reminder));
                 }
             });
             
             // 稍后提醒按钮只在过期时显示
-            snoozeButton.setVisibility(reminder.isPast() && reminder.isActive() ? View.VISIBLE : View.GONE);
+            snoozeButton.setVisibility(row.past && reminder.isActive() ? View.VISIBLE : View.GONE);
             
             // 卡片点击事件 - 编辑提醒
             cardView.setOnClickListener(v -> {
                 if (listener != null) {
-                    listener.onEditReminder(reminder);
+                    listener.onEditReminder(new ReminderItem(reminder));
                 }
             });
         }
         
-        private void updateStatusIndicator(ReminderItem reminder) {
-            if (!reminder.isActive()) {
+        private void updateStatusIndicator(Row row) {
+            if (!row.reminder.isActive()) {
                 // 已禁用
                 statusIndicator.setBackgroundColor(Color.parseColor("#9E9E9E"));
-            } else if (reminder.isPast()) {
+            } else if (row.past) {
                 // 已过期
                 statusIndicator.setBackgroundColor(Color.parseColor("#F44336"));
-            } else if (reminder.isToday()) {
+            } else if (row.today) {
                 // 今天
                 statusIndicator.setBackgroundColor(Color.parseColor("#FF9800"));
             } else {
@@ -86,9 +86,9 @@ public class ReminderListFragment extends Fragment implements ReminderManager.Re
                 // 这会自动处理闹钟的设置和取消
                 boolean success = reminderManager.toggleReminderActive(reminder);
                 if (!success) {
-                    // 操作失败时刷新列表以恢复开关状态
+                    // 操作失败时重新绑定该行以恢复开关状态
                     if (adapter != null) {
-                        adapter.notifyDataSetChanged();
+                        adapter.refreshReminder(reminder);
                     }
                 }
             }
@@ -106,18 +106,23 @@ public class ReminderListFragment extends Fragment implements ReminderManager.Re
     }
     
     private void loadReminders() {
-        reminders.clear();
         // 显示所有提醒，包括激活和非激活的
         // 这样激活切换就是真正的暂停/恢复功能，而不是删除
-        reminders.addAll(reminderManager.getAllReminders());
-        updateUI();
+        reminderManager.loadAllReminders(result -> {
+            if (!isAdded()) {
+                return;
+            }
+            reminders.clear();
+            reminders.addAll(result);
+            updateUI();
+            swipeRefreshLayout.setRefreshing(false);
+        });
     }
     
     private void refreshReminders() {
-        // 清理过期提醒
+        // 清理过期提醒（有删除时会再次通知刷新）
         reminderManager.cleanupPastReminders();
         loadReminders();
-        swipeRefreshLayout.setRefreshing(false);
     }
     
     private void updateUI() {
@@ -125,7 +130,7 @@ public class ReminderListFragment extends Fragment implements ReminderManager.Re
         if (recyclerView != null) {
             recyclerView.post(() -> {
                 if (adapter != null) {
-                    adapter.notifyDataSetChanged();
+                    adapter.updateReminders(reminders);
                 }
                 
                 // 显示/隐藏空状态
@@ -1,32 +1,49 @@
 package com.example.fourquadrant;
 
+import android.app.Application;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.content.Intent;
+import android.util.Log;
 import android.widget.Toast;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.fourquadrant.database.dao.ReminderDao;
+import com.example.fourquadrant.database.entity.ReminderEntity;
+import com.example.fourquadrant.database.repository.ReminderRepository;
+import com.example.fourquadrant.utils.AppScheduler;
+import com.example.fourquadrant.utils.LocalDayUtils;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 提醒数据管理类
+ * 数据保存在Room的reminders表中，每次增删改只写一行；
+ * 旧版本保存在SharedPreferences中的JSON列表在首次使用时于后台一次性迁移。
+ * 增删改在写通道执行，读取在读通道执行并回调到主线程；带Sync后缀的方法只能在后台线程调用
  */
 public class ReminderManager {
+    private static final String TAG = "ReminderManager";
     private static final String PREF_NAME = "reminder_prefs";
     private static final String KEY_REMINDERS = "reminders";
     
+    // 旧版数据每个进程只迁移一次；迁移在后台线程执行，读写提醒表之前先等待迁移完成
+    private static final Object MIGRATION_LOCK = new Object();
+    private static volatile boolean legacyMigrationDone = false;
+    
     private Context context;
-    private SharedPreferences prefs;
-    private Gson gson;
-    private List<ReminderItem> reminders;
+    private ReminderRepository reminderRepository;
     private List<ReminderManagerListener> listeners;
+    private final AppScheduler scheduler = AppScheduler.getInstance();
     
     public interface ReminderManagerListener {
         void onRemindersChanged();
@@ -35,174 +52,268 @@ public class ReminderManager {
         void onReminderDeleted(ReminderItem reminder);
     }
     
+    /**
+     * 异步读取结果回调，在主线程调用
+     */
+    public interface ReminderCallback<T> {
+        void onResult(T result);
+    }
+    
     public ReminderManager(Context context) {
         this.context = context;
-        this.prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        this.gson = new Gson();
-        this.reminders = new ArrayList<>();
+        this.reminderRepository = new ReminderRepository((Application) context.getApplicationContext());
         this.listeners = new ArrayList<>();
-        loadReminders();
-    }
-    
-    // 加载保存的提醒
-    private void loadReminders() {
-        String json = prefs.getString(KEY_REMINDERS, "[]");
-        Type type = new TypeToken<List<ReminderItem>>(){}.getType();
-        List<ReminderItem> savedReminders = gson.fromJson(json, type);
-        
-        if (savedReminders != null) {
-            reminders.clear();
-            reminders.addAll(savedReminders);
-            // 按时间排序
-            Collections.sort(reminders, (r1, r2) -> 
-                Long.compare(r1.getReminderTime(), r2.getReminderTime()));
+        if (!legacyMigrationDone) {
+            scheduler.write(this::ensureLegacyMigrated);
         }
     }
     
-    // 保存提醒到本地
-    private void saveReminders() {
-        String json = gson.toJson(reminders);
-        prefs.edit().putString(KEY_REMINDERS, json).apply();
+    /**
+     * 一次性迁移旧版JSON数据
+     * 旧版界面只读写SharedPreferences，因此以其中的列表为准整体替换提醒表，迁移成功后删除旧数据。
+     * 构造时提交到写通道；同步读写方法也会先调用这里，读通道上的查询可能先于写通道执行，这样不会读到迁移前的空表。
+     * 启动时的数据迁移（DataMigrationManager 的提醒阶段）也调用这里，旧版提醒只由这一处迁移。只能在后台线程调用。
+     */
+    public void ensureLegacyMigrated() {
+        if (legacyMigrationDone) {
+            return;
+        }
+        synchronized (MIGRATION_LOCK) {
+            if (legacyMigrationDone) {
+                return;
+            }
+            SharedPreferences prefs = context.getApplicationContext()
+                .getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+            if (prefs.contains(KEY_REMINDERS)) {
+                try {
+                    String json = prefs.getString(KEY_REMINDERS, "[]");
+                    Type type = new TypeToken<List<ReminderItem>>(){}.getType();
+                    List<ReminderItem> savedReminders = new Gson().fromJson(json, type);
+                    
+                    List<ReminderEntity> entities = new ArrayList<>();
+                    if (savedReminders != null) {
+                        for (ReminderItem item : savedReminders) {
+                            if (item != null && item.getId() != null) {
+                                entities.add(toEntity(item, null));
+                            }
+                        }
+                    }
+                    reminderRepository.replaceAllReminders(entities);
+                    
+                    prefs.edit().remove(KEY_REMINDERS).commit();
+                    Log.i(TAG, "旧版提醒数据迁移完成，共 " + entities.size() + " 条");
+                } catch (Exception e) {
+                    // 保留旧数据，下次启动重试
+                    Log.e(TAG, "旧版提醒数据迁移失败", e);
+                }
+            }
+            legacyMigrationDone = true;
+        }
     }
     
-    // 添加提醒
+    // 添加提醒（写通道执行，完成后在主线程通知监听器）
     public void addReminder(ReminderItem reminder) {
-        reminders.add(reminder);
-        Collections.sort(reminders, (r1, r2) -> 
-            Long.compare(r1.getReminderTime(), r2.getReminderTime()));
-        saveReminders();
-        notifyReminderAdded(reminder);
-        notifyRemindersChanged();
+        scheduler.write(() -> {
+            ensureLegacyMigrated();
+            reminderRepository.insertReminder(toEntity(reminder, null));
+            scheduler.postToMain(() -> {
+                notifyReminderAdded(reminder);
+                notifyRemindersChanged();
+            });
+        });
     }
     
-    // 更新提醒
+    // 更新提醒（写通道执行，完成后在主线程通知监听器）
     public void updateReminder(ReminderItem reminder) {
         // 先取消旧的闹钟
         cancelAlarm(reminder);
         
-        for (int i = 0; i < reminders.size(); i++) {
-            if (reminders.get(i).getId().equals(reminder.getId())) {
-                reminders.set(i, reminder);
-                break;
-            }
-        }
-        Collections.sort(reminders, (r1, r2) -> 
-            Long.compare(r1.getReminderTime(), r2.getReminderTime()));
-        saveReminders();
-        
         // 如果提醒是激活状态，重新设置闹钟
         if (reminder.isActive()) {
             scheduleAlarm(reminder);
         }
         
-        notifyReminderUpdated(reminder);
-        notifyRemindersChanged();
+        scheduler.write(() -> {
+            ensureLegacyMigrated();
+            // 保留ReminderItem中没有的字段（关联任务ID、重复次数等）
+            ReminderEntity existing = reminderRepository.getReminderByIdSync(reminder.getId());
+            if (existing != null) {
+                reminderRepository.updateReminder(toEntity(reminder, existing));
+            } else {
+                reminderRepository.insertReminder(toEntity(reminder, null));
+            }
+            scheduler.postToMain(() -> {
+                notifyReminderUpdated(reminder);
+                notifyRemindersChanged();
+            });
+        });
     }
     
-    // 删除提醒
+    // 删除提醒（写通道执行，完成后在主线程通知监听器）
     public void deleteReminder(String reminderId) {
-        ReminderItem deletedReminder = null;
-        for (int i = 0; i < reminders.size(); i++) {
-            if (reminders.get(i).getId().equals(reminderId)) {
-                deletedReminder = reminders.remove(i);
-                break;
+        scheduler.write(() -> {
+            ensureLegacyMigrated();
+            ReminderEntity deletedEntity = reminderRepository.getReminderByIdSync(reminderId);
+            if (deletedEntity == null) {
+                return;
             }
-        }
-        if (deletedReminder != null) {
+            ReminderItem deletedReminder = toItem(deletedEntity);
+            reminderRepository.deleteReminderById(reminderId);
+            
             // 重要：删除提醒时必须取消对应的系统闹钟
             cancelAlarm(deletedReminder);
+            Log.d(TAG, "已删除提醒并取消闹钟: " + deletedReminder.getContent());
             
-            saveReminders();
-            notifyReminderDeleted(deletedReminder);
-            notifyRemindersChanged();
-            
-            System.out.println("已删除提醒并取消闹钟: " + deletedReminder.getContent());
-        }
+            scheduler.postToMain(() -> {
+                notifyReminderDeleted(deletedReminder);
+                notifyRemindersChanged();
+            });
+        });
     }
     
-    // 根据ID获取提醒
-    public ReminderItem getReminderById(String reminderId) {
-        for (ReminderItem reminder : reminders) {
-            if (reminder.getId().equals(reminderId)) {
-                return reminder;
-            }
-        }
-        return null;
+    // 在读通道上根据ID获取提醒，结果回调到主线程
+    public void loadReminderById(String reminderId, ReminderCallback<ReminderItem> callback) {
+        scheduler.read(AppScheduler.Priority.UI, () -> {
+            ReminderItem reminder = getReminderByIdSync(reminderId);
+            scheduler.postToMain(() -> callback.onResult(reminder));
+        });
     }
     
-    // 获取所有提醒
-    public List<ReminderItem> getAllReminders() {
-        return new ArrayList<>(reminders);
+    // 在读通道上获取所有提醒（按提醒时间升序），结果回调到主线程
+    public void loadAllReminders(ReminderCallback<List<ReminderItem>> callback) {
+        scheduler.read(AppScheduler.Priority.UI, () -> {
+            List<ReminderItem> reminders = getAllRemindersSync();
+            scheduler.postToMain(() -> callback.onResult(reminders));
+        });
     }
     
-    // 获取活跃的提醒
-    public List<ReminderItem> getActiveReminders() {
-        List<ReminderItem> activeReminders = new ArrayList<>();
-        for (ReminderItem reminder : reminders) {
-            if (reminder.isActive()) {
-                activeReminders.add(reminder);
-            }
-        }
-        return activeReminders;
+    // 在读通道上获取指定日期的提醒，结果回调到主线程
+    public void loadRemindersForDate(Date date, ReminderCallback<List<ReminderItem>> callback) {
+        scheduler.read(AppScheduler.Priority.UI, () -> {
+            List<ReminderItem> reminders = getRemindersForDateSync(date);
+            scheduler.postToMain(() -> callback.onResult(reminders));
+        });
     }
     
-    // 获取今天的提醒
-    public List<ReminderItem> getTodayReminders() {
+    // 根据ID获取提醒（同步，不能在主线程调用）
+    @WorkerThread
+    public ReminderItem getReminderByIdSync(String reminderId) {
+        ensureLegacyMigrated();
+        ReminderEntity entity = reminderRepository.getReminderByIdSync(reminderId);
+        return entity != null ? toItem(entity) : null;
+    }
+    
+    // 获取所有提醒（同步，按提醒时间升序，不能在主线程调用）
+    @WorkerThread
+    public List<ReminderItem> getAllRemindersSync() {
+        ensureLegacyMigrated();
+        return toItems(reminderRepository.getAllRemindersSync());
+    }
+    
+    // 获取活跃的提醒（同步，不能在主线程调用）
+    @WorkerThread
+    public List<ReminderItem> getActiveRemindersSync() {
+        ensureLegacyMigrated();
+        return toItems(reminderRepository.getActiveRemindersSync());
+    }
+    
+    // 获取今天的提醒（同步，不能在主线程调用）
+    @WorkerThread
+    public List<ReminderItem> getTodayRemindersSync() {
         List<ReminderItem> todayReminders = new ArrayList<>();
-        for (ReminderItem reminder : reminders) {
-            if (reminder.isToday() && reminder.isActive()) {
+        for (ReminderItem reminder : getRemindersForDateSync(new Date())) {
+            if (reminder.isActive()) {
                 todayReminders.add(reminder);
             }
         }
         return todayReminders;
     }
     
-    // 获取指定日期的提醒
-    public List<ReminderItem> getRemindersForDate(Date date) {
-        List<ReminderItem> dateReminders = new ArrayList<>();
-        Calendar targetCal = Calendar.getInstance();
-        targetCal.setTime(date);
-        
-        for (ReminderItem reminder : reminders) {
-            Calendar reminderCal = Calendar.getInstance();
-            reminderCal.setTimeInMillis(reminder.getReminderTime());
-            
-            if (targetCal.get(Calendar.YEAR) == reminderCal.get(Calendar.YEAR) &&
-                targetCal.get(Calendar.DAY_OF_YEAR) == reminderCal.get(Calendar.DAY_OF_YEAR)) {
-                dateReminders.add(reminder);
-            }
-        }
-        return dateReminders;
+    // 获取指定日期的提醒（同步，按本地纪元日索引查询，不能在主线程调用）
+    @WorkerThread
+    public List<ReminderItem> getRemindersForDateSync(Date date) {
+        ensureLegacyMigrated();
+        return toItems(reminderRepository.getRemindersByLocalDaySync(LocalDayUtils.toLocalDay(date.getTime())));
     }
     
-    // 获取过期的提醒
-    public List<ReminderItem> getPastReminders() {
-        List<ReminderItem> pastReminders = new ArrayList<>();
-        long currentTime = System.currentTimeMillis();
-        for (ReminderItem reminder : reminders) {
-            if (reminder.getReminderTime() < currentTime && reminder.isActive()) {
-                pastReminders.add(reminder);
-            }
+    // 按天统计日期范围内的提醒数量（日历月视图标记用），键为本地纪元日，只包含有提醒的日期（同步，不能在主线程调用）
+    @WorkerThread
+    public Map<Long, Integer> getReminderCountsByDaySync(Date startDate, Date endDate) {
+        ensureLegacyMigrated();
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        for (ReminderDao.DayCount dayCount : reminderRepository.getReminderDayCountsSync(
+                LocalDayUtils.toLocalDay(startDate.getTime()), LocalDayUtils.toLocalDay(endDate.getTime()))) {
+            counts.put(dayCount.local_day, dayCount.count);
         }
-        return pastReminders;
+        return counts;
     }
     
-    // 清理过期的提醒
+    // 获取过期的提醒（同步，不能在主线程调用）
+    @WorkerThread
+    public List<ReminderItem> getPastRemindersSync() {
+        ensureLegacyMigrated();
+        return toItems(reminderRepository.getOverdueRemindersSync(System.currentTimeMillis()));
+    }
+    
+    // 清理过期的提醒（写通道执行）
     public void cleanupPastReminders() {
-        List<ReminderItem> toRemove = new ArrayList<>();
         long weekAgo = System.currentTimeMillis() - (7 * 24 * 60 * 60 * 1000); // 一周前
         
-        for (ReminderItem reminder : reminders) {
-            if (reminder.getReminderTime() < weekAgo && !reminder.isActive()) {
-                toRemove.add(reminder);
+        scheduler.write(() -> {
+            ensureLegacyMigrated();
+            if (reminderRepository.deleteInactiveRemindersBefore(weekAgo) > 0) {
+                scheduler.postToMain(this::notifyRemindersChanged);
             }
+        });
+    }
+    
+    // ReminderItem <-> ReminderEntity 转换
+    private static ReminderEntity toEntity(ReminderItem item, ReminderEntity existing) {
+        ReminderEntity entity = existing != null ? existing : new ReminderEntity();
+        entity.setId(item.getId());
+        entity.setContent(item.getContent());
+        entity.setTaskName(item.getTaskName());
+        entity.setReminderTime(item.getReminderTime());
+        entity.setVibrate(item.isVibrate());
+        entity.setSound(item.isSound());
+        entity.setRepeat(item.isRepeat());
+        entity.setActive(item.isActive());
+        if (existing == null) {
+            entity.setCreatedAt(item.getCreatedTime());
         }
         
-        if (!toRemove.isEmpty()) {
-            reminders.removeAll(toRemove);
-            saveReminders();
-            notifyRemindersChanged();
+        // 状态随激活标记变化：激活为ACTIVE，停用后已过时间的视为完成，否则视为取消
+        if (item.isActive()) {
+            entity.setStatus(ReminderRepository.ReminderStatus.ACTIVE);
+        } else if (existing == null || existing.isActive()
+                || ReminderRepository.ReminderStatus.ACTIVE.equals(existing.getStatus())) {
+            entity.setStatus(item.isPast()
+                ? ReminderRepository.ReminderStatus.COMPLETED
+                : ReminderRepository.ReminderStatus.CANCELLED);
+        }
+        return entity;
+    }
+    
+    private static ReminderItem toItem(ReminderEntity entity) {
+        ReminderItem item = new ReminderItem();
+        item.setId(entity.getId());
+        item.setContent(entity.getContent());
+        item.setTaskName(entity.getTaskName());
+        item.setReminderTime(entity.getReminderTime());
+        item.setVibrate(entity.isVibrate());
+        item.setSound(entity.isSound());
+        item.setRepeat(entity.isRepeat());
+        item.setActive(entity.isActive());
+        item.setCreatedTime(entity.getCreatedAt());
+        return item;
+    }
+    
+    private static List<ReminderItem> toItems(List<ReminderEntity> entities) {
+        List<ReminderItem> items = new ArrayList<>(entities.size());
+        for (ReminderEntity entity : entities) {
+            items.add(toItem(entity));
         }
+        return items;
     }
     
     // 监听器管理
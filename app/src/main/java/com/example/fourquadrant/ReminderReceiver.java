@@ -14,6 +14,8 @@ import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
 
+import com.example.fourquadrant.utils.AppScheduler;
+
 public class ReminderReceiver extends BroadcastReceiver {
     
     private static final String TAG = "ReminderReceiver";
@@ -34,11 +36,27 @@ public class ReminderReceiver extends BroadcastReceiver {
         boolean isRepeat = intent.getBooleanExtra("reminder_repeat", false);
         
         // 重要：验证提醒是否仍然存在且激活
-        if (!isReminderStillValid(context, reminderId)) {
-            Log.d(TAG, "提醒已被删除或未激活，跳过执行: " + reminderId);
-            return; // 提醒已被删除，不执行任何操作
-        }
-        
+        // 查询在读通道执行，结果回到主线程后再显示通知
+        PendingResult pendingResult = goAsync();
+        AppScheduler scheduler = AppScheduler.getInstance();
+        scheduler.read(AppScheduler.Priority.UI, () -> {
+            boolean valid = isReminderStillValid(context.getApplicationContext(), reminderId);
+            scheduler.postToMain(() -> {
+                try {
+                    if (!valid) {
+                        Log.d(TAG, "提醒已被删除或未激活，跳过执行: " + reminderId);
+                        return; // 提醒已被删除，不执行任何操作
+                    }
+                    deliverReminder(context, reminderId, content, taskName, isVibrate, isSound, isRepeat);
+                } finally {
+                    pendingResult.finish();
+                }
+            });
+        });
+    }
+    
+    private void deliverReminder(Context context, String reminderId, String content, String taskName,
+                                 boolean isVibrate, boolean isSound, boolean isRepeat) {
         Log.d(TAG, "执行提醒: " + content);
         
         // 创建通知渠道
@@ -210,7 +228,7 @@ public class ReminderReceiver extends BroadcastReceiver {
         try {
             // 使用ReminderManager验证提醒状态
             ReminderManager reminderManager = new ReminderManager(context);
-            ReminderItem reminder = reminderManager.getReminderById(reminderId);
+            ReminderItem reminder = reminderManager.getReminderByIdSync(reminderId);
             
             if (reminder == null) {
                 Log.d(TAG, "提醒不存在: " + reminderId);
@@ -2,8 +2,6 @@ package com.example.fourquadrant;
 
 import android.app.Dialog;
 import android.content.Context;
-import androidx.lifecycle.LiveData;
-import androidx.lifecycle.Observer;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -15,6 +13,8 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.DialogFragment;
 
+import com.example.fourquadrant.database.SettingsCache;
+
 public class ReminderSettingsDialog extends DialogFragment {
     
     private CheckBox cbVibrate;
@@ -52,23 +52,9 @@ public class ReminderSettingsDialog extends DialogFragment {
     
     private void loadSettings() {
         if (settingsRepository != null) {
-            LiveData<Boolean> vibrateLiveData = settingsRepository.getBooleanSetting(KEY_VIBRATE);
-            vibrateLiveData.observe(this, new Observer<Boolean>() {
-                @Override
-                public void onChanged(Boolean value) {
-                    cbVibrate.setChecked(value != null ? value : true);
-                    vibrateLiveData.removeObserver(this);
-                }
-            });
-            
-            LiveData<Boolean> ringLiveData = settingsRepository.getBooleanSetting(KEY_RING);
-            ringLiveData.observe(this, new Observer<Boolean>() {
-                @Override
-                public void onChanged(Boolean value) {
-                    cbRing.setChecked(value != null ? value : true);
-                    ringLiveData.removeObserver(this);
-                }
-            });
+            // 设置缓存在内存中，直接读取
+            cbVibrate.setChecked(settingsRepository.getBooleanValue(KEY_VIBRATE, true));
+            cbRing.setChecked(settingsRepository.getBooleanValue(KEY_RING, true));
         } else {
             // 设置默认值
             cbVibrate.setChecked(true);
@@ -84,30 +70,10 @@ public class ReminderSettingsDialog extends DialogFragment {
     }
     
     public static boolean getVibrateEnabled(Context context) {
-        if (context.getApplicationContext() instanceof android.app.Application) {
-            com.example.fourquadrant.database.repository.SettingsRepository repo = 
-                new com.example.fourquadrant.database.repository.SettingsRepository((android.app.Application) context.getApplicationContext());
-            try {
-                Boolean value = repo.getBooleanSettingSync(KEY_VIBRATE);
-                return value != null ? value : true;
-            } catch (Exception e) {
-                return true; // 默认启用振动
-            }
-        }
-        return true; // 默认启用振动
+        return SettingsCache.getInstance(context).getBoolean(KEY_VIBRATE, true); // 默认启用振动
     }
     
     public static boolean getRingEnabled(Context context) {
-        if (context.getApplicationContext() instanceof android.app.Application) {
-            com.example.fourquadrant.database.repository.SettingsRepository repo = 
-                new com.example.fourquadrant.database.repository.SettingsRepository((android.app.Application) context.getApplicationContext());
-            try {
-                Boolean value = repo.getBooleanSettingSync(KEY_RING);
-                return value != null ? value : true;
-            } catch (Exception e) {
-                return true; // 默认启用响铃
-            }
-        }
-        return true; // 默认启用响铃
+        return SettingsCache.getInstance(context).getBoolean(KEY_RING, true); // 默认启用响铃
     }
 } 
\ No newline at end of file
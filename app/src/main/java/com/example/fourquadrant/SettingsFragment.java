@@ -106,7 +106,7 @@ public class SettingsFragment extends Fragment {
                             );
                             
                             Intent shareIntent = new Intent(Intent.ACTION_SEND);
-                            shareIntent.setType("application/json");
+                            shareIntent.setType("application/octet-stream");
                             shareIntent.putExtra(Intent.EXTRA_STREAM, fileUri);
                             shareIntent.putExtra(Intent.EXTRA_SUBJECT, "四象限任务管理数据备份");
                             shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
@@ -134,7 +134,8 @@ public class SettingsFragment extends Fragment {
 
     private void importData() {
         Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
-        intent.setType("application/json");
+        // 快照备份是二进制文件，旧版备份是JSON，不按类型过滤
+        intent.setType("*/*");
         intent.addCategory(Intent.CATEGORY_OPENABLE);
         importFileLauncher.launch(Intent.createChooser(intent, "选择备份文件"));
     }
@@ -7,13 +7,20 @@ import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
+import com.example.fourquadrant.database.StatsSnapshotRefresher;
 import com.example.fourquadrant.database.repository.StatisticsRepository;
 import com.example.fourquadrant.database.repository.TaskRepository;
 import com.example.fourquadrant.database.repository.PomodoroRepository;
 import com.example.fourquadrant.database.entity.TaskEntity;
 import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
+import com.example.fourquadrant.database.entity.DailyStatsEntity;
+import com.example.fourquadrant.database.entity.StatsSnapshotEntity;
 import com.example.fourquadrant.database.dao.TaskDao;
 import com.example.fourquadrant.database.dao.PomodoroDao;
+import com.example.fourquadrant.database.dao.StatisticsDao;
+import com.example.fourquadrant.utils.LocalDayUtils;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -27,11 +34,15 @@ import java.util.HashMap;
  */
 public class StatisticsDataManager {
     
+    // 界面上的标准时间范围，按顺序排列，切换时预先查询相邻的范围
+    private static final String[] STANDARD_RANGES = {"today", "week", "month"};
+    
     private Context context;
     private StatisticsRepository statisticsRepository;
     private TaskRepository taskRepository;
     private PomodoroRepository pomodoroRepository;
     private String currentTimeRange = "today";
+    private final Gson gson = new Gson();
     
     public StatisticsDataManager(Context context) {
         this.context = context;
@@ -60,53 +71,176 @@ public class StatisticsDataManager {
     }
     
     /**
-     * 异步获取真实KPI数据（基于同步SQL查询确保准确性）
+     * 获取统计快照（KPI、四象限分布和趋势数据在一个事务中取出，每次数据库提交只发出一次）
      */
-    public LiveData<StatisticsData> getRealKpiDataAsync(String timeRange) {
-        MutableLiveData<StatisticsData> result = new MutableLiveData<>();
-        
+    public LiveData<StatisticsDao.StatisticsSnapshot> getStatisticsSnapshot(String timeRange) {
         if (statisticsRepository == null) {
-            // 如果数据库未初始化，返回默认数据
-            result.setValue(new StatisticsData(0, 0, 0.0f, 0.0f));
-            return result;
+            return null;
         }
         
-        // 在后台线程执行同步查询
-        new Thread(() -> {
-            try {
-                android.util.Log.d("StatisticsDataManager", "Getting real KPI data for timeRange: " + timeRange);
-                
-                // 使用同步方法获取准确数据
-                StatisticsRepository.KpiData kpiData = statisticsRepository.getKpiDataSync(timeRange);
-                
-                StatisticsData statisticsData = new StatisticsData(
-                    kpiData.completedTasks,
-                    kpiData.pomodoroCount,
-                    kpiData.completionRate,
-                    kpiData.avgImportance
-                );
-                
-                android.util.Log.d("StatisticsDataManager", "Retrieved KPI data: " + 
-                    "completed=" + kpiData.completedTasks + 
-                    ", pomodoro=" + kpiData.pomodoroCount + 
-                    ", rate=" + kpiData.completionRate + 
-                    ", importance=" + kpiData.avgImportance);
-                
-                // 在主线程更新结果
-                new android.os.Handler(android.os.Looper.getMainLooper()).post(() -> {
-                    result.setValue(statisticsData);
-                });
-                
-            } catch (Exception e) {
-                android.util.Log.e("StatisticsDataManager", "Error getting real KPI data", e);
-                // 在主线程设置默认值
-                new android.os.Handler(android.os.Looper.getMainLooper()).post(() -> {
-                    result.setValue(new StatisticsData(0, 0, 0.0f, 0.0f));
-                });
+        Date[] dateRange = getDateRange(timeRange);
+        Date startDate = dateRange[0];
+        Date endDate = dateRange[1];
+        return statisticsRepository.getStatisticsSnapshot(
+            startDate.getTime(), endDate.getTime(), isHourlyRange(timeRange, startDate, endDate));
+    }
+    
+    /**
+     * 在后台预先查询当前范围在界面上相邻的标准范围（快照和番茄钟时间段分布），切换过去时直接使用缓存
+     * 自定义范围与“本月”相邻
+     */
+    public void prewarmAdjacentRanges(String timeRange) {
+        if (statisticsRepository == null) {
+            return;
+        }
+        int index = STANDARD_RANGES.length;
+        for (int i = 0; i < STANDARD_RANGES.length; i++) {
+            if (STANDARD_RANGES[i].equals(timeRange)) {
+                index = i;
+                break;
             }
-        }).start();
-        
-        return result;
+        }
+        if (index > 0) {
+            prewarm(STANDARD_RANGES[index - 1]);
+        }
+        if (index + 1 < STANDARD_RANGES.length) {
+            prewarm(STANDARD_RANGES[index + 1]);
+        }
+    }
+    
+    private void prewarm(String timeRange) {
+        Date[] dateRange = getDateRange(timeRange);
+        Date startDate = dateRange[0];
+        Date endDate = dateRange[1];
+        statisticsRepository.prewarmStatisticsSnapshot(
+            startDate.getTime(), endDate.getTime(), isHourlyRange(timeRange, startDate, endDate));
+        statisticsRepository.prewarmTimePeriodDistribution(timeRange);
+    }
+    
+    // ================= 预先计算的统计结果 =================
+    
+    /**
+     * 预先计算的一个时间范围的统计结果（可能已过期，显示后由实时查询更新）
+     */
+    public static class StoredStatistics {
+        public final StatisticsData kpi;
+        public final List<ChartData.CompletionTrend> trends;
+        public final List<ChartData.QuadrantDistribution> quadrants;
+        public final List<TaskAnalysisData.Suggestion> suggestions;
+        public final long computedAt;
+        
+        StoredStatistics(StatisticsData kpi, List<ChartData.CompletionTrend> trends,
+                         List<ChartData.QuadrantDistribution> quadrants,
+                         List<TaskAnalysisData.Suggestion> suggestions, long computedAt) {
+            this.kpi = kpi;
+            this.trends = trends;
+            this.quadrants = quadrants;
+            this.suggestions = suggestions;
+            this.computedAt = computedAt;
+        }
+    }
+    
+    /**
+     * 重新计算标准时间范围中已过期的预先计算结果（后台线程调用）
+     * @return 重新计算的范围数，全部有效时为0
+     */
+    public int refreshStoredStatistics() throws Exception {
+        if (statisticsRepository == null) {
+            return 0;
+        }
+        List<StatsSnapshotRefresher.Range> ranges = new ArrayList<>();
+        for (String timeRange : STANDARD_RANGES) {
+            Date[] dateRange = getDateRange(timeRange);
+            ranges.add(new StatsSnapshotRefresher.Range(timeRange, dateRange[0].getTime(), dateRange[1].getTime()));
+        }
+        StatsSnapshotRefresher refresher = new StatsSnapshotRefresher(
+            statisticsRepository.getStatsSnapshotStore(), this::computeStoredStatistics);
+        return refresher.refresh(ranges, System.currentTimeMillis());
+    }
+    
+    /**
+     * 读取当前时间范围的预先计算结果（后台线程调用）
+     * 只返回为同一时间范围计算的结果；跨天后的旧结果和自定义范围返回null
+     */
+    public StoredStatistics loadStoredStatistics(String timeRange) {
+        if (statisticsRepository == null) {
+            return null;
+        }
+        StatsSnapshotEntity stored = statisticsRepository.getStoredSnapshotSync(timeRange);
+        if (stored == null) {
+            return null;
+        }
+        Date[] dateRange = getDateRange(timeRange);
+        if (!stored.coversRange(dateRange[0].getTime(), dateRange[1].getTime())) {
+            return null;
+        }
+        try {
+            StatisticsData kpi = new StatisticsData(stored.getCompletedTasks(), stored.getPomodoroCount(),
+                stored.getCompletionRate(), stored.getAvgImportance());
+            List<ChartData.CompletionTrend> trends = gson.fromJson(stored.getTrendJson(),
+                new TypeToken<List<ChartData.CompletionTrend>>(){}.getType());
+            List<ChartData.QuadrantDistribution> quadrants = gson.fromJson(stored.getQuadrantJson(),
+                new TypeToken<List<ChartData.QuadrantDistribution>>(){}.getType());
+            List<TaskAnalysisData.Suggestion> suggestions = gson.fromJson(stored.getSuggestionsJson(),
+                new TypeToken<List<TaskAnalysisData.Suggestion>>(){}.getType());
+            return new StoredStatistics(kpi, trends, quadrants, suggestions, stored.getComputedAt());
+        } catch (Exception e) {
+            android.util.Log.e("StatisticsDataManager", "预先计算结果解析失败: " + timeRange, e);
+            return null;
+        }
+    }
+    
+    // 计算一个标准范围：统计字段来自统计快照，列表数据与界面显示的格式相同
+    private StatsSnapshotEntity computeStoredStatistics(String timeRange, long startTime, long endTime) {
+        Date startDate = new Date(startTime);
+        Date endDate = new Date(endTime);
+        StatisticsDao.StatisticsSnapshot snapshot = statisticsRepository.getStatisticsSnapshotSync(
+            startTime, endTime, isHourlyRange(timeRange, startDate, endDate));
+        
+        StatsSnapshotEntity stored = new StatsSnapshotEntity();
+        stored.setCompletedTasks(snapshot.completedTasks);
+        stored.setPomodoroCount(snapshot.pomodoroCount);
+        stored.setCompletionRate(snapshot.completionRate);
+        stored.setAvgImportance(snapshot.avgImportance);
+        stored.setTrendJson(gson.toJson(buildTaskTrendData(timeRange, snapshot)));
+        stored.setQuadrantJson(gson.toJson(buildQuadrantData(snapshot)));
+        stored.setSuggestionsJson(gson.toJson(getRealSuggestions(timeRange)));
+        return stored;
+    }
+    
+    /**
+     * 快照 -> KPI数据
+     */
+    public StatisticsData toStatisticsData(StatisticsDao.StatisticsSnapshot snapshot) {
+        return new StatisticsData(
+            snapshot.completedTasks,
+            snapshot.pomodoroCount,
+            snapshot.completionRate,
+            snapshot.avgImportance
+        );
+    }
+    
+    /**
+     * 快照 -> 任务趋势数据
+     */
+    public List<ChartData.CompletionTrend> buildTaskTrendData(String timeRange, StatisticsDao.StatisticsSnapshot snapshot) {
+        Map<Long, Integer> dailyMap = new HashMap<>();
+        for (DailyStatsEntity stat : snapshot.dailyStats) {
+            dailyMap.put(stat.getDay(), stat.getCompletedCount());
+        }
+        return buildTaskTrendData(timeRange, new Date(snapshot.startTime), new Date(snapshot.endTime),
+            snapshot.hourlyStats, dailyMap);
+    }
+    
+    /**
+     * 快照 -> 四象限分布数据
+     */
+    public List<ChartData.QuadrantDistribution> buildQuadrantData(StatisticsDao.StatisticsSnapshot snapshot) {
+        Map<Integer, Integer> quadrantMap = new HashMap<>();
+        for (int i = 0; i < snapshot.quadrantCounts.length; i++) {
+            quadrantMap.put(i + 1, snapshot.quadrantCounts[i]);
+        }
+        return buildQuadrantDistributions(quadrantMap);
     }
     
     /**
@@ -126,38 +260,53 @@ public class StatisticsDataManager {
         Date endDate = dateRange[1];
         android.util.Log.d("StatisticsDataManager", "时间范围: " + startDate + " 到 " + endDate);
         
-        // 根据时间范围确定统计方式
+        if (isHourlyRange(timeRange, startDate, endDate)) {
+            List<TaskDao.HourlyCompletionStats> hourlyStats = taskRepository.getHourlyCompletionStatsSync(
+                startDate.getTime(), endDate.getTime());
+            trendData = buildTaskTrendData(timeRange, startDate, endDate, hourlyStats, null);
+        } else {
+            trendData = buildTaskTrendData(timeRange, startDate, endDate, null, getDailyCompletionMap(startDate, endDate));
+        }
+        
+        android.util.Log.d("StatisticsDataManager", "获取到趋势数据点数量: " + trendData.size());
+        return trendData;
+    }
+    
+    /**
+     * 今日和一天内的自定义范围按小时统计，其余按天统计
+     */
+    private boolean isHourlyRange(String timeRange, Date startDate, Date endDate) {
         if (timeRange.equals("today")) {
-            android.util.Log.d("StatisticsDataManager", "使用今日按小时统计");
-            // 今日：按24小时统计
-            trendData = getTodayHourlyTrend(startDate, endDate);
+            return true;
+        }
+        if (timeRange.startsWith("custom_")) {
+            long daysDiff = (endDate.getTime() - startDate.getTime()) / (24 * 60 * 60 * 1000);
+            return daysDiff <= 1;
+        }
+        return false;
+    }
+    
+    /**
+     * 根据时间范围确定统计方式并生成趋势数据点
+     */
+    private List<ChartData.CompletionTrend> buildTaskTrendData(String timeRange, Date startDate, Date endDate,
+                                                               List<TaskDao.HourlyCompletionStats> hourlyStats,
+                                                               Map<Long, Integer> dailyMap) {
+        List<ChartData.CompletionTrend> trendData = new ArrayList<>();
+        
+        if (isHourlyRange(timeRange, startDate, endDate)) {
+            // 今日或一天内的自定义时间：按24小时统计
+            trendData = getTodayHourlyTrend(hourlyStats);
         } else if (timeRange.equals("week")) {
-            android.util.Log.d("StatisticsDataManager", "使用本周按天统计");
             // 本周：按7天统计
-            trendData = getWeeklyDailyTrend(startDate, endDate);
+            trendData = getWeeklyDailyTrend(startDate, endDate, dailyMap);
         } else if (timeRange.equals("month")) {
-            android.util.Log.d("StatisticsDataManager", "使用本月按天统计");
             // 本月：按30天统计
-            trendData = getMonthlyDailyTrend(startDate, endDate);
+            trendData = getMonthlyDailyTrend(startDate, endDate, dailyMap);
         } else if (timeRange.startsWith("custom_")) {
-            // 自定义时间：根据天数判断统计方式
+            // 超过一天的自定义时间：按天统计
             long daysDiff = (endDate.getTime() - startDate.getTime()) / (24 * 60 * 60 * 1000);
-            android.util.Log.d("StatisticsDataManager", "自定义时间范围，天数差: " + daysDiff);
-            if (daysDiff <= 1) {
-                android.util.Log.d("StatisticsDataManager", "使用自定义按小时统计");
-                // 一天内：按小时统计
-                trendData = getTodayHourlyTrend(startDate, endDate);
-            } else {
-                android.util.Log.d("StatisticsDataManager", "使用自定义按天统计");
-                // 超过一天：按天统计
-                trendData = getCustomDailyTrend(startDate, endDate, (int)daysDiff);
-            }
-        }
-        
-        android.util.Log.d("StatisticsDataManager", "获取到趋势数据点数量: " + trendData.size());
-        for (int i = 0; i < trendData.size(); i++) {
-            ChartData.CompletionTrend trend = trendData.get(i);
-//            android.util.Log.d("StatisticsDataManager", "数据点[" + i + "]: " + trend. + " = " + trend.count);
+            trendData = getCustomDailyTrend(startDate, endDate, (int)daysDiff, dailyMap);
         }
         
         return trendData;
@@ -207,14 +356,7 @@ public class StatisticsDataManager {
                 }
                 
                 // 创建分布数据
-                distributions.add(new ChartData.QuadrantDistribution(
-                    "重要且紧急", quadrantMap.get(1), android.graphics.Color.parseColor("#F44336")));
-                distributions.add(new ChartData.QuadrantDistribution(
-                    "重要不紧急", quadrantMap.get(2), android.graphics.Color.parseColor("#FF9800")));
-                distributions.add(new ChartData.QuadrantDistribution(
-                    "紧急不重要", quadrantMap.get(3), android.graphics.Color.parseColor("#2196F3")));
-                distributions.add(new ChartData.QuadrantDistribution(
-                    "不重要不紧急", quadrantMap.get(4), android.graphics.Color.parseColor("#9E9E9E")));
+                distributions = buildQuadrantDistributions(quadrantMap);
                 
                 android.util.Log.d("StatisticsDataManager", "四象限分布数据创建完成，共 " + distributions.size() + " 个象限");
                 
@@ -248,6 +390,22 @@ public class StatisticsDataManager {
         return distributions;
     }
     
+    /**
+     * 按象限计数生成四象限分布数据
+     */
+    private List<ChartData.QuadrantDistribution> buildQuadrantDistributions(Map<Integer, Integer> quadrantMap) {
+        List<ChartData.QuadrantDistribution> distributions = new ArrayList<>();
+        distributions.add(new ChartData.QuadrantDistribution(
+            "重要且紧急", quadrantMap.getOrDefault(1, 0), android.graphics.Color.parseColor("#F44336")));
+        distributions.add(new ChartData.QuadrantDistribution(
+            "重要不紧急", quadrantMap.getOrDefault(2, 0), android.graphics.Color.parseColor("#FF9800")));
+        distributions.add(new ChartData.QuadrantDistribution(
+            "紧急不重要", quadrantMap.getOrDefault(3, 0), android.graphics.Color.parseColor("#2196F3")));
+        distributions.add(new ChartData.QuadrantDistribution(
+            "不重要不紧急", quadrantMap.getOrDefault(4, 0), android.graphics.Color.parseColor("#9E9E9E")));
+        return distributions;
+    }
+    
     /**
      * 获取真实番茄钟时间分布数据（基于SQL查询）
      * 注意：此方法已弃用，番茄钟数据现在直接在ViewModel中通过LiveData处理
@@ -341,6 +499,7 @@ public class StatisticsDataManager {
                 calendar.set(Calendar.HOUR_OF_DAY, 23);
                 calendar.set(Calendar.MINUTE, 59);
                 calendar.set(Calendar.SECOND, 59);
+                calendar.set(Calendar.MILLISECOND, 999);
                 endDate = calendar.getTime();
                 break;
                 
@@ -358,6 +517,7 @@ public class StatisticsDataManager {
                 calendar.set(Calendar.HOUR_OF_DAY, 23);
                 calendar.set(Calendar.MINUTE, 59);
                 calendar.set(Calendar.SECOND, 59);
+                calendar.set(Calendar.MILLISECOND, 999);
                 endDate = calendar.getTime();
                 break;
                 
@@ -375,6 +535,7 @@ public class StatisticsDataManager {
                 calendar.set(Calendar.HOUR_OF_DAY, 23);
                 calendar.set(Calendar.MINUTE, 59);
                 calendar.set(Calendar.SECOND, 59);
+                calendar.set(Calendar.MILLISECOND, 999);
                 endDate = calendar.getTime();
                 break;
                 
@@ -393,6 +554,7 @@ public class StatisticsDataManager {
                             calendar.set(Calendar.HOUR_OF_DAY, 23);
                             calendar.set(Calendar.MINUTE, 59);
                             calendar.set(Calendar.SECOND, 59);
+                            calendar.set(Calendar.MILLISECOND, 999);
                             endDate = calendar.getTime();
                         } catch (Exception e) {
                             // 解析失败，默认为最近一周
@@ -449,15 +611,10 @@ public class StatisticsDataManager {
     /**
      * 获取今日按小时统计的任务完成趋势
      */
-    private List<ChartData.CompletionTrend> getTodayHourlyTrend(Date startDate, Date endDate) {
-        android.util.Log.d("StatisticsDataManager", "开始获取今日按小时趋势数据");
+    private List<ChartData.CompletionTrend> getTodayHourlyTrend(List<TaskDao.HourlyCompletionStats> hourlyStats) {
+        android.util.Log.d("StatisticsDataManager", "开始生成今日按小时趋势数据");
         List<ChartData.CompletionTrend> trendData = new ArrayList<>();
-        
-        // 使用SQL查询按小时统计的数据
-        android.util.Log.d("StatisticsDataManager", "查询时间范围: " + startDate.getTime() + " 到 " + endDate.getTime());
-        List<TaskDao.HourlyCompletionStats> hourlyStats = taskRepository.getHourlyCompletionStatsSync(
-            startDate.getTime(), endDate.getTime());
-        android.util.Log.d("StatisticsDataManager", "SQL查询返回小时统计数据条数: " + hourlyStats.size());
+        android.util.Log.d("StatisticsDataManager", "小时统计数据条数: " + hourlyStats.size());
         
         // 创建一个Map来存储每小时的完成数量
         Map<String, Integer> hourlyMap = new HashMap<>();
@@ -483,35 +640,22 @@ public class StatisticsDataManager {
     /**
      * 获取本周按天统计的任务完成趋势
      */
-    private List<ChartData.CompletionTrend> getWeeklyDailyTrend(Date startDate, Date endDate) {
-        android.util.Log.d("StatisticsDataManager", "开始获取本周按天趋势数据");
+    private List<ChartData.CompletionTrend> getWeeklyDailyTrend(Date startDate, Date endDate, Map<Long, Integer> dailyMap) {
+        android.util.Log.d("StatisticsDataManager", "开始生成本周按天趋势数据");
         List<ChartData.CompletionTrend> trendData = new ArrayList<>();
-        
-        // 使用SQL查询按天统计的数据
-        android.util.Log.d("StatisticsDataManager", "查询时间范围: " + startDate.getTime() + " 到 " + endDate.getTime());
-        List<TaskDao.DailyCompletionStats> dailyStats = taskRepository.getDailyCompletionStatsSync(
-            startDate.getTime(), endDate.getTime());
-        android.util.Log.d("StatisticsDataManager", "SQL查询返回每日统计数据条数: " + dailyStats.size());
-        
-        // 创建一个Map来存储每天的完成数量
-        Map<String, Integer> dailyMap = new HashMap<>();
-        for (TaskDao.DailyCompletionStats stat : dailyStats) {
-            android.util.Log.d("StatisticsDataManager", "每日统计: " + stat.date + " 完成 " + stat.completed_count + " 个任务");
-            dailyMap.put(stat.date, stat.completed_count);
-        }
+        android.util.Log.d("StatisticsDataManager", "每日汇总有数据的天数: " + dailyMap.size());
         
         // 按7天生成完整数据（包括没有任务完成的天）
         android.util.Log.d("StatisticsDataManager", "开始生成7天完整数据");
         Calendar calendar = Calendar.getInstance();
         java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("MM/dd", java.util.Locale.getDefault());
-        java.text.SimpleDateFormat keyFormat = new java.text.SimpleDateFormat("yyyy-MM-dd", java.util.Locale.getDefault());
         
         for (int day = 0; day < 7; day++) {
             calendar.setTime(startDate);
             calendar.add(Calendar.DAY_OF_YEAR, day);
             Date dayStart = calendar.getTime();
             
-            String dateKey = keyFormat.format(dayStart);
+            long dateKey = LocalDayUtils.toLocalDay(dayStart.getTime());
             String label = sdf.format(dayStart);
             int completedCount = dailyMap.getOrDefault(dateKey, 0);
             trendData.add(new ChartData.CompletionTrend(label, completedCount));
@@ -525,23 +669,12 @@ public class StatisticsDataManager {
     /**
      * 获取本月按天统计的任务完成趋势
      */
-    private List<ChartData.CompletionTrend> getMonthlyDailyTrend(Date startDate, Date endDate) {
+    private List<ChartData.CompletionTrend> getMonthlyDailyTrend(Date startDate, Date endDate, Map<Long, Integer> dailyMap) {
         List<ChartData.CompletionTrend> trendData = new ArrayList<>();
         
-        // 使用SQL查询按天统计的数据
-        List<TaskDao.DailyCompletionStats> dailyStats = taskRepository.getDailyCompletionStatsSync(
-            startDate.getTime(), endDate.getTime());
-        
-        // 创建一个Map来存储每天的完成数量
-        Map<String, Integer> dailyMap = new HashMap<>();
-        for (TaskDao.DailyCompletionStats stat : dailyStats) {
-            dailyMap.put(stat.date, stat.completed_count);
-        }
-        
         // 按30天生成完整数据（包括没有任务完成的天）
         Calendar calendar = Calendar.getInstance();
         java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("MM/dd", java.util.Locale.getDefault());
-        java.text.SimpleDateFormat keyFormat = new java.text.SimpleDateFormat("yyyy-MM-dd", java.util.Locale.getDefault());
         
         for (int day = 0; day < 30; day++) {
             calendar.setTime(startDate);
@@ -553,7 +686,7 @@ public class StatisticsDataManager {
                 break;
             }
             
-            String dateKey = keyFormat.format(dayStart);
+            long dateKey = LocalDayUtils.toLocalDay(dayStart.getTime());
             String label = sdf.format(dayStart);
             int completedCount = dailyMap.getOrDefault(dateKey, 0);
             trendData.add(new ChartData.CompletionTrend(label, completedCount));
@@ -565,23 +698,12 @@ public class StatisticsDataManager {
     /**
      * 获取自定义时间范围按天统计的任务完成趋势
      */
-    private List<ChartData.CompletionTrend> getCustomDailyTrend(Date startDate, Date endDate, int totalDays) {
+    private List<ChartData.CompletionTrend> getCustomDailyTrend(Date startDate, Date endDate, int totalDays, Map<Long, Integer> dailyMap) {
         List<ChartData.CompletionTrend> trendData = new ArrayList<>();
         
-        // 使用SQL查询按天统计的数据
-        List<TaskDao.DailyCompletionStats> dailyStats = taskRepository.getDailyCompletionStatsSync(
-            startDate.getTime(), endDate.getTime());
-        
-        // 创建一个Map来存储每天的完成数量
-        Map<String, Integer> dailyMap = new HashMap<>();
-        for (TaskDao.DailyCompletionStats stat : dailyStats) {
-            dailyMap.put(stat.date, stat.completed_count);
-        }
-        
         // 按天生成完整数据（包括没有任务完成的天）
         Calendar calendar = Calendar.getInstance();
         java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("MM/dd", java.util.Locale.getDefault());
-        java.text.SimpleDateFormat keyFormat = new java.text.SimpleDateFormat("yyyy-MM-dd", java.util.Locale.getDefault());
         
         for (int day = 0; day <= totalDays; day++) {
             calendar.setTime(startDate);
@@ -593,7 +715,7 @@ public class StatisticsDataManager {
                 break;
             }
             
-            String dateKey = keyFormat.format(dayStart);
+            long dateKey = LocalDayUtils.toLocalDay(dayStart.getTime());
             String label = sdf.format(dayStart);
             int completedCount = dailyMap.getOrDefault(dateKey, 0);
             trendData.add(new ChartData.CompletionTrend(label, completedCount));
@@ -601,4 +723,20 @@ public class StatisticsDataManager {
         
         return trendData;
     }
+    
+    /**
+     * 从每日汇总表读取时间范围内每天的完成数量，键为本地纪元日
+     */
+    private Map<Long, Integer> getDailyCompletionMap(Date startDate, Date endDate) {
+        Map<Long, Integer> dailyMap = new HashMap<>();
+        if (statisticsRepository == null) {
+            return dailyMap;
+        }
+        List<DailyStatsEntity> dailyStats = statisticsRepository.getDailyStatsSync(
+            startDate.getTime(), endDate.getTime());
+        for (DailyStatsEntity stat : dailyStats) {
+            dailyMap.put(stat.getDay(), stat.getCompletedCount());
+        }
+        return dailyMap;
+    }
 }
\ No newline at end of file
@@ -86,6 +86,13 @@ public class StatisticsFragment extends Fragment {
     private PieChart pieChartQuadrantDistribution;
     private BarChart barChartPomodoroDistribution;
     
+    // 图表增量更新：只修改变化的条目，数据整理在读通道上完成
+    private IncrementalChart<Entry> lineChartUpdater;
+    private IncrementalChart<PieEntry> pieChartUpdater;
+    private IncrementalChart<BarEntry> barChartUpdater;
+    private final IndexAxisValueFormatter lineAxisFormatter = new IndexAxisValueFormatter();
+    private final IndexAxisValueFormatter barAxisFormatter = new IndexAxisValueFormatter();
+    
     // 无数据提示
     private TextView tvNoQuadrantData;
     
@@ -121,6 +128,21 @@ public class StatisticsFragment extends Fragment {
         return view;
     }
     
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // 停止图表动画，丢弃还没应用到图表上的数据
+        if (lineChartUpdater != null) {
+            lineChartUpdater.release();
+        }
+        if (pieChartUpdater != null) {
+            pieChartUpdater.release();
+        }
+        if (barChartUpdater != null) {
+            barChartUpdater.release();
+        }
+    }
+    
     private void initViews(View view) {
         chipGroupTime = view.findViewById(R.id.chip_group_time);
         swipeRefreshLayout = view.findViewById(R.id.swipe_refresh_layout);
@@ -224,6 +246,16 @@ public class StatisticsFragment extends Fragment {
         setupLineChart();
         setupPieChart();
         setupBarChart();
+        
+        if (lineChartCompletionTrend != null) {
+            lineChartUpdater = createLineChartUpdater();
+        }
+        if (pieChartQuadrantDistribution != null) {
+            pieChartUpdater = createPieChartUpdater();
+        }
+        if (barChartPomodoroDistribution != null) {
+            barChartUpdater = createBarChartUpdater();
+        }
     }
     
     private void setupLineChart() {
@@ -352,219 +384,262 @@ public class StatisticsFragment extends Fragment {
     
     private void updateLineChart(List<ChartData.CompletionTrend> trends) {
         android.util.Log.d("StatisticsFragment", "开始更新折线图，趋势数据: " + (trends != null ? trends.size() : "null") + " 个数据点");
-        if (trends == null || trends.isEmpty() || lineChartCompletionTrend == null) {
+        if (trends == null || trends.isEmpty() || lineChartUpdater == null) {
             android.util.Log.w("StatisticsFragment", "趋势数据为空或图表未初始化，跳过图表更新");
             return;
         }
         
-        List<Entry> entries = new ArrayList<>();
-        List<String> labels = new ArrayList<>();
-        
-        for (int i = 0; i < trends.size(); i++) {
-            ChartData.CompletionTrend trend = trends.get(i);
-            entries.add(new Entry(i, trend.getCompletedTasks()));
-            labels.add(trend.getDate());
-            android.util.Log.d("StatisticsFragment", "数据点 " + i + ": 时间=" + trend.getDate() + ", 完成数=" + trend.getCompletedTasks());
-        }
-        
-        LineDataSet dataSet = new LineDataSet(entries, "任务完成数");
-        dataSet.setColor(Color.parseColor("#2196F3"));
-        dataSet.setCircleColor(Color.parseColor("#2196F3"));
-        dataSet.setLineWidth(3f);
-        dataSet.setCircleRadius(5f);
-        dataSet.setDrawFilled(true);
-        dataSet.setFillColor(Color.parseColor("#E3F2FD"));
-        dataSet.setValueTextSize(10f);
-        dataSet.setDrawValues(false); // 禁用数据点显示
-        dataSet.setValueFormatter(new com.github.mikephil.charting.formatter.ValueFormatter() {
+        // 数据整理和比较在后台完成，主线程只修改变化的点
+        lineChartUpdater.update(() -> ChartSeries.ofTrends(trends));
+    }
+    
+    private IncrementalChart<Entry> createLineChartUpdater() {
+        return new IncrementalChart<>(lineChartCompletionTrend, new IncrementalChart.Binding<Entry>() {
             @Override
-            public String getFormattedValue(float value) {
-                return String.valueOf((int) value); // 格式化为整数
+            public LineDataSet getDataSet() {
+                LineData data = lineChartCompletionTrend.getData();
+                return data != null && data.getDataSetCount() > 0 ? (LineDataSet) data.getDataSetByIndex(0) : null;
             }
-        });
-        
-        LineData lineData = new LineData(dataSet);
-        
-        // 配置X轴
-        XAxis xAxis = lineChartCompletionTrend.getXAxis();
-        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-        xAxis.setValueFormatter(new IndexAxisValueFormatter(labels));
-        xAxis.setGranularity(1f);
-        xAxis.setLabelRotationAngle(-45f);
-        
-        // 根据数据点数量调整标签显示
-        if (labels.size() > 7) {
-            xAxis.setLabelCount(Math.min(7, labels.size()), false); // 最多显示7个标签
-        } else {
-            xAxis.setLabelCount(labels.size(), true);
-        }
-        
-        // 配置Y轴
-        YAxis leftAxis = lineChartCompletionTrend.getAxisLeft();
-        leftAxis.setAxisMinimum(0f);
-        leftAxis.setGranularity(1f); // 确保Y轴只显示整数
-        leftAxis.setValueFormatter(new com.github.mikephil.charting.formatter.ValueFormatter() {
+            
+            @Override
+            public void create(ChartSeries series) {
+                List<Entry> entries = new ArrayList<>();
+                for (int i = 0; i < series.size(); i++) {
+                    entries.add(new Entry(i, series.getValue(i)));
+                }
+                
+                LineDataSet dataSet = new LineDataSet(entries, "任务完成数");
+                dataSet.setColor(Color.parseColor("#2196F3"));
+                dataSet.setCircleColor(Color.parseColor("#2196F3"));
+                dataSet.setLineWidth(3f);
+                dataSet.setCircleRadius(5f);
+                dataSet.setDrawFilled(true);
+                dataSet.setFillColor(Color.parseColor("#E3F2FD"));
+                dataSet.setValueTextSize(10f);
+                dataSet.setDrawValues(false); // 禁用数据点显示
+                dataSet.setValueFormatter(new com.github.mikephil.charting.formatter.ValueFormatter() {
+                    @Override
+                    public String getFormattedValue(float value) {
+                        return String.valueOf((int) value); // 格式化为整数
+                    }
+                });
+                
+                // 配置X轴
+                XAxis xAxis = lineChartCompletionTrend.getXAxis();
+                xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+                xAxis.setValueFormatter(lineAxisFormatter);
+                xAxis.setGranularity(1f);
+                xAxis.setLabelRotationAngle(-45f);
+                
+                // 配置Y轴
+                YAxis leftAxis = lineChartCompletionTrend.getAxisLeft();
+                leftAxis.setAxisMinimum(0f);
+                leftAxis.setGranularity(1f); // 确保Y轴只显示整数
+                leftAxis.setValueFormatter(new com.github.mikephil.charting.formatter.ValueFormatter() {
+                    @Override
+                    public String getFormattedValue(float value) {
+                        return String.valueOf((int) value); // 显示整数
+                    }
+                });
+                YAxis rightAxis = lineChartCompletionTrend.getAxisRight();
+                rightAxis.setEnabled(false);
+                
+                relabel(series);
+                lineChartCompletionTrend.setData(new LineData(dataSet));
+                android.util.Log.d("StatisticsFragment", "折线图创建完成，共 " + series.size() + " 个数据点");
+            }
+            
+            @Override
+            public void relabel(ChartSeries series) {
+                lineAxisFormatter.setValues(series.getLabels());
+                
+                // 根据数据点数量调整标签显示
+                XAxis xAxis = lineChartCompletionTrend.getXAxis();
+                if (series.size() > 7) {
+                    xAxis.setLabelCount(7, false); // 最多显示7个标签
+                } else {
+                    xAxis.setLabelCount(series.size(), true);
+                }
+            }
+            
             @Override
-            public String getFormattedValue(float value) {
-                return String.valueOf((int) value); // 显示整数
+            public Entry newEntry(int index) {
+                return new Entry(index, 0f);
             }
         });
-        YAxis rightAxis = lineChartCompletionTrend.getAxisRight();
-        rightAxis.setEnabled(false);
-        
-        // 设置数据并刷新
-        lineChartCompletionTrend.setData(lineData);
-        lineChartCompletionTrend.invalidate();
-        android.util.Log.d("StatisticsFragment", "折线图更新完成");
     }
     
     private void updatePieChart(List<ChartData.QuadrantDistribution> distributions) {
-        if (distributions == null || distributions.isEmpty() || pieChartQuadrantDistribution == null) {
-            // 显示无数据提示
-            if (tvNoQuadrantData != null) {
-                tvNoQuadrantData.setVisibility(View.VISIBLE);
-            }
-            if (pieChartQuadrantDistribution != null) {
-                pieChartQuadrantDistribution.setVisibility(View.GONE);
-            }
-            return;
-        }
-        
-        // 准备数据
-        List<PieEntry> entries = new ArrayList<>();
-        List<String> legendLabels = new ArrayList<>();
-        for (ChartData.QuadrantDistribution distribution : distributions) {
-            if (distribution.getTaskCount() > 0) { // 只显示有数据的象限
-                entries.add(new PieEntry(distribution.getTaskCount())); // 只保留数值，不设置标签
-                legendLabels.add(distribution.getQuadrantName()); // 保存标签用于图例
-            }
-        }
-        
-        if (entries.isEmpty()) {
-            // 显示无数据提示
-            if (tvNoQuadrantData != null) {
-                tvNoQuadrantData.setVisibility(View.VISIBLE);
-            }
-            if (pieChartQuadrantDistribution != null) {
-                pieChartQuadrantDistribution.setVisibility(View.GONE);
+        boolean hasData = false;
+        if (distributions != null) {
+            for (ChartData.QuadrantDistribution distribution : distributions) {
+                if (distribution.getTaskCount() > 0) { // 只显示有数据的象限
+                    hasData = true;
+                    break;
+                }
             }
-            return;
         }
         
-        // 有数据时隐藏提示，显示图表
+        // 没有数据时显示提示，图表保留原有数据，下次有数据时从原有数据增量更新
         if (tvNoQuadrantData != null) {
-            tvNoQuadrantData.setVisibility(View.GONE);
+            tvNoQuadrantData.setVisibility(hasData ? View.GONE : View.VISIBLE);
         }
         if (pieChartQuadrantDistribution != null) {
-            pieChartQuadrantDistribution.setVisibility(View.VISIBLE);
+            pieChartQuadrantDistribution.setVisibility(hasData ? View.VISIBLE : View.GONE);
+        }
+        if (!hasData || pieChartUpdater == null) {
+            return;
         }
         
-        // 创建数据集
-        PieDataSet dataSet = new PieDataSet(entries, ""); // 移除数据集标签
-        
-        // 设置颜色
-        List<Integer> colors = new ArrayList<>();
-        colors.add(Color.parseColor("#F44336")); // 重要且紧急 - 红色
-        colors.add(Color.parseColor("#FF9800")); // 重要不紧急 - 橙色
-        colors.add(Color.parseColor("#2196F3")); // 紧急不重要 - 蓝色
-        colors.add(Color.parseColor("#9E9E9E")); // 不重要不紧急 - 灰色
-        dataSet.setColors(colors);
-        
-        // 配置数据集样式
-        dataSet.setValueTextSize(12f);
-        dataSet.setValueTextColor(Color.WHITE);
-        dataSet.setSliceSpace(2f);
-        dataSet.setSelectionShift(5f);
-        
-        // 配置标签显示
-        dataSet.setDrawValues(true); // 保留数值显示
-        dataSet.setValueLinePart1OffsetPercentage(80f);
-        dataSet.setValueLinePart1Length(0.2f);
-        dataSet.setValueLinePart2Length(0.4f);
-        dataSet.setUsingSliceColorAsValueLineColor(true);
-        
-        // 创建PieData
-        PieData pieData = new PieData(dataSet);
-        
-        // 设置显示具体数值而不是百分比
-        pieData.setValueFormatter(new com.github.mikephil.charting.formatter.ValueFormatter() {
+        pieChartUpdater.update(() -> ChartSeries.ofQuadrants(distributions));
+    }
+    
+    private IncrementalChart<PieEntry> createPieChartUpdater() {
+        return new IncrementalChart<>(pieChartQuadrantDistribution, new IncrementalChart.Binding<PieEntry>() {
             @Override
-            public String getFormattedValue(float value) {
-                return String.valueOf((int) value); // 显示整数任务数量
+            public PieDataSet getDataSet() {
+                PieData data = pieChartQuadrantDistribution.getData();
+                return data != null && data.getDataSetCount() > 0 ? (PieDataSet) data.getDataSet() : null;
             }
-        });
-        
-        // 配置图例
-        Legend legend = pieChartQuadrantDistribution.getLegend();
-        legend.setVerticalAlignment(Legend.LegendVerticalAlignment.BOTTOM);
-        legend.setHorizontalAlignment(Legend.LegendHorizontalAlignment.CENTER);
-        legend.setOrientation(Legend.LegendOrientation.HORIZONTAL);
-        legend.setDrawInside(false);
-        legend.setTextSize(12f);
-        
-        // 手动设置图例标签
-        if (!legendLabels.isEmpty()) {
-            List<LegendEntry> legendEntries = new ArrayList<>();
-            for (int i = 0; i < legendLabels.size(); i++) {
-                LegendEntry entry = new LegendEntry();
-                entry.label = legendLabels.get(i);
-                entry.formColor = colors.get(i);
-                legendEntries.add(entry);
+            
+            @Override
+            public void create(ChartSeries series) {
+                List<PieEntry> entries = new ArrayList<>();
+                for (int i = 0; i < series.size(); i++) {
+                    entries.add(new PieEntry(series.getValue(i))); // 只保留数值，不设置标签
+                }
+                
+                // 创建数据集
+                PieDataSet dataSet = new PieDataSet(entries, ""); // 移除数据集标签
+                
+                // 配置数据集样式
+                dataSet.setValueTextSize(12f);
+                dataSet.setValueTextColor(Color.WHITE);
+                dataSet.setSliceSpace(2f);
+                dataSet.setSelectionShift(5f);
+                
+                // 配置标签显示
+                dataSet.setDrawValues(true); // 保留数值显示
+                dataSet.setValueLinePart1OffsetPercentage(80f);
+                dataSet.setValueLinePart1Length(0.2f);
+                dataSet.setValueLinePart2Length(0.4f);
+                dataSet.setUsingSliceColorAsValueLineColor(true);
+                
+                // 创建PieData
+                PieData pieData = new PieData(dataSet);
+                
+                // 设置显示具体数值而不是百分比
+                pieData.setValueFormatter(new com.github.mikephil.charting.formatter.ValueFormatter() {
+                    @Override
+                    public String getFormattedValue(float value) {
+                        return String.valueOf((int) value); // 显示整数任务数量
+                    }
+                });
+                
+                // 配置图例
+                Legend legend = pieChartQuadrantDistribution.getLegend();
+                legend.setVerticalAlignment(Legend.LegendVerticalAlignment.BOTTOM);
+                legend.setHorizontalAlignment(Legend.LegendHorizontalAlignment.CENTER);
+                legend.setOrientation(Legend.LegendOrientation.HORIZONTAL);
+                legend.setDrawInside(false);
+                legend.setTextSize(12f);
+                
+                // 隐藏中心文本和描述
+                pieChartQuadrantDistribution.setDrawCenterText(false);
+                pieChartQuadrantDistribution.getDescription().setEnabled(false);
+                
+                pieChartQuadrantDistribution.setData(pieData);
+                relabel(series);
             }
-            legend.setCustom(legendEntries);
-        }
-        
-        // 隐藏中心文本和描述
-        pieChartQuadrantDistribution.setDrawCenterText(false);
-        pieChartQuadrantDistribution.getDescription().setEnabled(false);
-        
-        // 设置数据并刷新
-        pieChartQuadrantDistribution.setData(pieData);
-        pieChartQuadrantDistribution.invalidate();
+            
+            @Override
+            public void relabel(ChartSeries series) {
+                // 颜色跟随象限（重要且紧急-红、重要不紧急-橙、紧急不重要-蓝、不重要不紧急-灰），不随显示位置变化
+                int[] sliceColors = series.getColors();
+                List<Integer> colors = new ArrayList<>();
+                List<LegendEntry> legendEntries = new ArrayList<>();
+                for (int i = 0; i < series.size(); i++) {
+                    colors.add(sliceColors[i]);
+                    LegendEntry entry = new LegendEntry();
+                    entry.label = series.getLabel(i);
+                    entry.formColor = sliceColors[i];
+                    legendEntries.add(entry);
+                }
+                getDataSet().setColors(colors);
+                
+                // 手动设置图例标签
+                pieChartQuadrantDistribution.getLegend().setCustom(legendEntries);
+            }
+            
+            @Override
+            public PieEntry newEntry(int index) {
+                return new PieEntry(0f);
+            }
+        });
     }
     
     private void updateBarChart(List<ChartData.PomodoroDistribution> distributions) {
-        if (distributions == null || distributions.isEmpty() || barChartPomodoroDistribution == null) return;
-        
-        // 准备数据
-        List<BarEntry> entries = new ArrayList<>();
-        List<String> labels = new ArrayList<>();
-        for (int i = 0; i < distributions.size(); i++) {
-            ChartData.PomodoroDistribution distribution = distributions.get(i);
-            entries.add(new BarEntry(i, distribution.getPomodoroCount()));
-            labels.add(distribution.getTimePeriod());
-        }
+        if (distributions == null || distributions.isEmpty() || barChartUpdater == null) return;
         
-        // 创建数据集
-        BarDataSet dataSet = new BarDataSet(entries, "番茄钟次数");
-        dataSet.setColor(Color.parseColor("#FF9800"));
-        dataSet.setValueTextSize(10f);
-        dataSet.setValueTextColor(Color.BLACK);
-        
-        // 创建BarData
-        BarData barData = new BarData(dataSet);
-        barData.setBarWidth(0.8f);
-        
-        // 配置X轴
-        XAxis xAxis = barChartPomodoroDistribution.getXAxis();
-        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-        xAxis.setValueFormatter(new IndexAxisValueFormatter(labels));
-        xAxis.setGranularity(1f);
-        xAxis.setLabelRotationAngle(-45f);
-        
-        // 配置Y轴
-        YAxis leftAxis = barChartPomodoroDistribution.getAxisLeft();
-        leftAxis.setAxisMinimum(0f);
-        YAxis rightAxis = barChartPomodoroDistribution.getAxisRight();
-        rightAxis.setEnabled(false);
-        
-        // 配置图例
-        Legend legend = barChartPomodoroDistribution.getLegend();
-        legend.setEnabled(false);
-        
-        // 设置数据并刷新
-        barChartPomodoroDistribution.setData(barData);
-        barChartPomodoroDistribution.invalidate();
+        barChartUpdater.update(() -> ChartSeries.ofPomodoros(distributions));
+    }
+    
+    private IncrementalChart<BarEntry> createBarChartUpdater() {
+        return new IncrementalChart<>(barChartPomodoroDistribution, new IncrementalChart.Binding<BarEntry>() {
+            @Override
+            public BarDataSet getDataSet() {
+                BarData data = barChartPomodoroDistribution.getData();
+                return data != null && data.getDataSetCount() > 0 ? (BarDataSet) data.getDataSetByIndex(0) : null;
+            }
+            
+            @Override
+            public void create(ChartSeries series) {
+                List<BarEntry> entries = new ArrayList<>();
+                for (int i = 0; i < series.size(); i++) {
+                    entries.add(new BarEntry(i, series.getValue(i)));
+                }
+                
+                // 创建数据集
+                BarDataSet dataSet = new BarDataSet(entries, "番茄钟次数");
+                dataSet.setColor(Color.parseColor("#FF9800"));
+                dataSet.setValueTextSize(10f);
+                dataSet.setValueTextColor(Color.BLACK);
+                
+                // 创建BarData
+                BarData barData = new BarData(dataSet);
+                barData.setBarWidth(0.8f);
+                
+                // 配置X轴
+                XAxis xAxis = barChartPomodoroDistribution.getXAxis();
+                xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+                xAxis.setValueFormatter(barAxisFormatter);
+                xAxis.setGranularity(1f);
+                xAxis.setLabelRotationAngle(-45f);
+                
+                // 配置Y轴
+                YAxis leftAxis = barChartPomodoroDistribution.getAxisLeft();
+                leftAxis.setAxisMinimum(0f);
+                YAxis rightAxis = barChartPomodoroDistribution.getAxisRight();
+                rightAxis.setEnabled(false);
+                
+                // 配置图例
+                Legend legend = barChartPomodoroDistribution.getLegend();
+                legend.setEnabled(false);
+                
+                relabel(series);
+                barChartPomodoroDistribution.setData(barData);
+            }
+            
+            @Override
+            public void relabel(ChartSeries series) {
+                barAxisFormatter.setValues(series.getLabels());
+            }
+            
+            @Override
+            public BarEntry newEntry(int index) {
+                return new BarEntry(index, 0f);
+            }
+        });
     }
     
     private void updateTaskAnalysis(TaskAnalysisData.TaskAnalysisDataSet dataSet) {
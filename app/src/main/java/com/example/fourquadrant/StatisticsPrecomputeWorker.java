@@ -0,0 +1,83 @@
+package com.example.fourquadrant;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteCantOpenDatabaseException;
+import android.database.sqlite.SQLiteDatabaseLockedException;
+import android.database.sqlite.SQLiteDiskIOException;
+import android.database.sqlite.SQLiteFullException;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计结果预先计算任务
+ * 设备空闲且充电时由 WorkManager 周期执行，把今日/本周/本月的KPI、趋势、四象限分布和建议写入 stats_snapshots；
+ * 统计页面打开时先显示这些结果，实时查询返回后再替换。
+ * 已保存的结果仍然有效（同一天且源数据没有变化）时不重新计算，重复执行不会产生额外写入。
+ */
+public class StatisticsPrecomputeWorker extends Worker {
+    
+    private static final String TAG = "StatisticsPrecompute";
+    private static final String WORK_NAME = "statistics_precompute";
+    private static final long INTERVAL_HOURS = 6;
+    // 暂时性的数据库错误最多重试的次数，之后等下一个周期
+    private static final int MAX_RUN_ATTEMPTS = 3;
+    
+    public StatisticsPrecomputeWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+    
+    /**
+     * 注册周期任务；已注册时保留原有的计划
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+            .setRequiresDeviceIdle(true)
+            .setRequiresCharging(true)
+            .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                StatisticsPrecomputeWorker.class, INTERVAL_HOURS, TimeUnit.HOURS)
+            .setConstraints(constraints)
+            .build();
+        WorkManager.getInstance(context.getApplicationContext())
+            .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+    
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            long start = System.currentTimeMillis();
+            int refreshed = new StatisticsDataManager(getApplicationContext()).refreshStoredStatistics();
+            android.util.Log.i(TAG, "Refreshed " + refreshed + " statistics ranges in " +
+                (System.currentTimeMillis() - start) + "ms");
+            return Result.success();
+        } catch (Exception e) {
+            android.util.Log.e(TAG, "Error precomputing statistics", e);
+            // 数据库被锁、磁盘暂时不可用等按退避策略重试；其他错误等下一个周期重新执行
+            if (isTransient(e) && getRunAttemptCount() < MAX_RUN_ATTEMPTS) {
+                return Result.retry();
+            }
+            return Result.failure();
+        }
+    }
+    
+    private static boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SQLiteDatabaseLockedException
+                    || t instanceof SQLiteDiskIOException
+                    || t instanceof SQLiteFullException
+                    || t instanceof SQLiteCantOpenDatabaseException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
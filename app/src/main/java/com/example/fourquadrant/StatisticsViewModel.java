@@ -7,6 +7,8 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
 
+import com.example.fourquadrant.utils.AppScheduler;
+
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -42,6 +44,16 @@ public class StatisticsViewModel extends ViewModel {
     private com.example.fourquadrant.database.repository.StatisticsRepository statisticsRepository;
     private boolean useRealData = true; // 是否使用真实数据
     
+    // 当前时间范围的统计快照（KPI、趋势、四象限分布），每次数据库提交只发出一次
+    private LiveData<com.example.fourquadrant.database.dao.StatisticsDao.StatisticsSnapshot> snapshotSource;
+    private String snapshotTimeRange;
+    private final Observer<com.example.fourquadrant.database.dao.StatisticsDao.StatisticsSnapshot> snapshotObserver =
+        this::onSnapshotChanged;
+    // 趋势和分布数据在后台整理，切换订阅或有新快照时递增，旧的结果不再发布（仅主线程访问）
+    private int chartGeneration;
+    // 当前订阅是否已收到实时快照；收到后预先计算的结果不再显示（仅主线程访问）
+    private boolean snapshotDelivered;
+    
     public StatisticsViewModel() {
         // 初始化所有LiveData
         initializeLiveData();
@@ -141,6 +153,9 @@ public class StatisticsViewModel extends ViewModel {
                 dataManager.setCurrentTimeRange(timeRange);
             }
             loadAllData(timeRange);
+            if (statisticsRepository != null) {
+                android.util.Log.d("StatisticsViewModel", "统计缓存: " + statisticsRepository.getCacheStats());
+            }
         }
     }
     
@@ -148,6 +163,8 @@ public class StatisticsViewModel extends ViewModel {
      * 刷新所有数据
      */
     public void refreshAllData() {
+        // 重新订阅以便重新计算时间范围（例如跨过零点后的“今日”）
+        stopObservingSnapshot();
         loadAllData(currentTimeRange);
     }
     
@@ -159,11 +176,21 @@ public class StatisticsViewModel extends ViewModel {
         errorMessage.setValue(null);
         
         try {
+            if (useRealData && dataManager != null) {
+                // 先显示后台预先计算的结果，实时查询返回后替换
+                showStoredStatistics(timeRange);
+            }
+            
             // 加载真实数据
             loadKpiData(timeRange);
             loadChartDataSeparately(timeRange);
             loadTaskAnalysisDataSeparately(timeRange);
             
+            if (useRealData && dataManager != null) {
+                // 相邻的时间范围在后台先查好，切换时直接使用缓存
+                dataManager.prewarmAdjacentRanges(timeRange);
+            }
+            
             // 向后兼容：仅在使用模拟数据时更新组合数据
             if (!useRealData) {
                 loadStatisticsData(timeRange);
@@ -395,32 +422,15 @@ public class StatisticsViewModel extends ViewModel {
     }
     
     /**
-     * 加载KPI数据
+     * 加载KPI数据（真实数据模式下同时驱动趋势和四象限分布）
      */
     private void loadKpiData(String timeRange) {
         if (useRealData && dataManager != null) {
             // 设置时间范围到数据管理器
             dataManager.setCurrentTimeRange(timeRange);
-            
-            // 使用异步方法获取真实数据
-            LiveData<StatisticsData> realDataLiveData = dataManager.getRealKpiDataAsync(timeRange);
-            
-            // 创建一次性观察者
-            Observer<StatisticsData> observer = new Observer<StatisticsData>() {
-                @Override
-                public void onChanged(StatisticsData data) {
-                    if (data != null) {
-                        kpiData.setValue(data);
-                        // 同时更新向后兼容的统计数据
-                        statisticsData.setValue(data);
-                    }
-                    // 移除观察者避免内存泄漏
-                    realDataLiveData.removeObserver(this);
-                }
-            };
-            
-            realDataLiveData.observeForever(observer);
+            observeSnapshot(timeRange);
         } else {
+            stopObservingSnapshot();
             // 使用模拟数据
             StatisticsData data = generateKpiData(timeRange);
             kpiData.setValue(data);
@@ -433,12 +443,7 @@ public class StatisticsViewModel extends ViewModel {
     private void loadChartDataSeparately(String timeRange) {
         android.util.Log.d("StatisticsViewModel", "开始加载图表数据，时间范围: " + timeRange + ", 使用真实数据: " + useRealData);
         if (useRealData && dataManager != null && statisticsRepository != null) {
-            android.util.Log.d("StatisticsViewModel", "使用真实数据，调用dataManager获取趋势数据");
-            List<ChartData.CompletionTrend> trendData = dataManager.getRealTaskTrendData(timeRange);
-            android.util.Log.d("StatisticsViewModel", "获取到趋势数据: " + (trendData != null ? trendData.size() : "null") + " 个数据点");
-            taskTrendData.setValue(trendData);
-            
-            quadrantData.setValue(dataManager.getRealQuadrantData(timeRange));
+            // 趋势和四象限分布由统计快照统一更新，见 onSnapshotChanged
             
             // 直接观察StatisticsRepository的LiveData来获取番茄钟数据
             android.util.Log.d("StatisticsViewModel", "开始观察番茄钟时间分布LiveData，时间范围: " + timeRange);
@@ -498,14 +503,118 @@ public class StatisticsViewModel extends ViewModel {
         android.util.Log.d("StatisticsViewModel", "图表数据加载完成");
     }
     
+    /**
+     * 在读通道上读取预先计算的结果，实时快照还没到达时先显示
+     */
+    private void showStoredStatistics(String timeRange) {
+        StatisticsDataManager manager = dataManager;
+        AppScheduler.getInstance().read(AppScheduler.Priority.UI, () -> {
+            StatisticsDataManager.StoredStatistics stored = manager.loadStoredStatistics(timeRange);
+            if (stored == null) {
+                return;
+            }
+            AppScheduler.getInstance().postToMain(() -> {
+                if (snapshotDelivered || !useRealData || !timeRange.equals(snapshotTimeRange)) {
+                    return;
+                }
+                android.util.Log.d("StatisticsViewModel", "显示预先计算的统计结果: " + timeRange +
+                    "，计算于 " + new Date(stored.computedAt));
+                kpiData.setValue(stored.kpi);
+                statisticsData.setValue(stored.kpi);
+                if (stored.trends != null) {
+                    taskTrendData.setValue(stored.trends);
+                }
+                if (stored.quadrants != null) {
+                    quadrantData.setValue(stored.quadrants);
+                }
+                // 建议由读通道上的分析查询生成，已有时不覆盖
+                if (stored.suggestions != null && suggestions.getValue() == null) {
+                    suggestions.setValue(stored.suggestions);
+                }
+            });
+        });
+    }
+    
+    /**
+     * 切换统计快照的时间范围；相同范围不会重复订阅，数据库有新提交时快照自动刷新
+     */
+    private void observeSnapshot(String timeRange) {
+        if (snapshotSource != null && timeRange.equals(snapshotTimeRange)) {
+            return;
+        }
+        stopObservingSnapshot();
+        
+        snapshotSource = dataManager.getStatisticsSnapshot(timeRange);
+        snapshotTimeRange = timeRange;
+        snapshotDelivered = false;
+        if (snapshotSource != null) {
+            snapshotSource.observeForever(snapshotObserver);
+        }
+    }
+    
+    private void stopObservingSnapshot() {
+        if (snapshotSource != null) {
+            snapshotSource.removeObserver(snapshotObserver);
+            snapshotSource = null;
+            snapshotTimeRange = null;
+        }
+        chartGeneration++;
+    }
+    
+    private void onSnapshotChanged(com.example.fourquadrant.database.dao.StatisticsDao.StatisticsSnapshot snapshot) {
+        if (snapshot == null || dataManager == null || !useRealData) {
+            return;
+        }
+        android.util.Log.d("StatisticsViewModel", "统计快照更新: 完成 " + snapshot.completedTasks +
+            ", 番茄钟 " + snapshot.pomodoroCount);
+        
+        snapshotDelivered = true;
+        StatisticsData data = dataManager.toStatisticsData(snapshot);
+        kpiData.setValue(data);
+        // 同时更新向后兼容的统计数据
+        statisticsData.setValue(data);
+        
+        // 趋势数据逐天生成标签（一年范围有几百个点），放到读通道上整理；只有最后一个快照的结果会被发布
+        String timeRange = snapshotTimeRange;
+        int generation = ++chartGeneration;
+        AppScheduler.getInstance().read(AppScheduler.Priority.UI, () -> {
+            List<ChartData.CompletionTrend> trends = dataManager.buildTaskTrendData(timeRange, snapshot);
+            List<ChartData.QuadrantDistribution> quadrants = dataManager.buildQuadrantData(snapshot);
+            AppScheduler.getInstance().postToMain(() -> {
+                if (generation == chartGeneration) {
+                    taskTrendData.setValue(trends);
+                    quadrantData.setValue(quadrants);
+                }
+            });
+        });
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        stopObservingSnapshot();
+    }
+    
     /**
      * 分别加载任务分析数据
      */
     private void loadTaskAnalysisDataSeparately(String timeRange) {
         if (useRealData && dataManager != null) {
-            highPriorityTasks.setValue(dataManager.getRealHighPriorityTasks(timeRange));
-            longestTasks.setValue(dataManager.getRealLongestTasks(timeRange));
-            suggestions.setValue(dataManager.getRealSuggestions(timeRange));
+            // 基于SQL的分析查询在读通道中执行，结果回到主线程
+            StatisticsDataManager manager = dataManager;
+            AppScheduler.getInstance().read(AppScheduler.Priority.UI, () -> {
+                List<TaskAnalysisData.HighPriorityTask> highPriority = manager.getRealHighPriorityTasks(timeRange);
+                List<TaskAnalysisData.LongestDurationTask> longest = manager.getRealLongestTasks(timeRange);
+                List<TaskAnalysisData.Suggestion> realSuggestions = manager.getRealSuggestions(timeRange);
+                AppScheduler.getInstance().postToMain(() -> {
+                    if (!timeRange.equals(currentTimeRange)) {
+                        return;
+                    }
+                    highPriorityTasks.setValue(highPriority);
+                    longestTasks.setValue(longest);
+                    suggestions.setValue(realSuggestions);
+                });
+            });
         } else {
             highPriorityTasks.setValue(generateHighPriorityTasks());
             longestTasks.setValue(generateLongestDurationTasks());
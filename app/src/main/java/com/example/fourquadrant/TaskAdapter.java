@@ -11,24 +11,56 @@ import android.widget.SeekBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.fourquadrant.utils.ListDiffing;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder> {
+public class TaskAdapter extends ListAdapter<TaskListFragment.TaskItem, TaskAdapter.TaskViewHolder> {
+    
+    private static final DiffUtil.ItemCallback<TaskListFragment.TaskItem> DIFF_CALLBACK =
+        new DiffUtil.ItemCallback<TaskListFragment.TaskItem>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull TaskListFragment.TaskItem oldItem,
+                                           @NonNull TaskListFragment.TaskItem newItem) {
+                return Objects.equals(oldItem.getId(), newItem.getId());
+            }
+            
+            @Override
+            public boolean areContentsTheSame(@NonNull TaskListFragment.TaskItem oldItem,
+                                              @NonNull TaskListFragment.TaskItem newItem) {
+                return Objects.equals(oldItem.getName(), newItem.getName())
+                    && oldItem.getImportance() == newItem.getImportance()
+                    && oldItem.getUrgency() == newItem.getUrgency()
+                    && oldItem.isCompleted() == newItem.isCompleted();
+            }
+        };
     
-    private List<TaskListFragment.TaskItem> taskList;
     private TaskAdapterListener listener;
     
     public interface TaskAdapterListener {
         void onTaskChanged();
-        void onTaskDeleted(int position);
-        void onTaskCompleted(int position);
+        void onTaskDeleted(TaskListFragment.TaskItem task);
+        void onTaskCompleted(TaskListFragment.TaskItem task);
     }
     
     public TaskAdapter(List<TaskListFragment.TaskItem> taskList, TaskAdapterListener listener) {
-        this.taskList = taskList;
+        super(ListDiffing.config(DIFF_CALLBACK));
         this.listener = listener;
+        setHasStableIds(true);
+        updateTasks(taskList);
+    }
+    
+    /**
+     * 提交当前任务列表的副本，后台比较差异后只刷新变化的行
+     */
+    public void updateTasks(List<TaskListFragment.TaskItem> tasks) {
+        submitList(tasks != null ? new ArrayList<>(tasks) : null);
     }
     
     @NonNull
@@ -41,13 +73,12 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
     
     @Override
     public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        TaskListFragment.TaskItem task = taskList.get(position);
-        holder.bind(task, position);
+        holder.bind(getItem(position));
     }
     
     @Override
-    public int getItemCount() {
-        return taskList.size();
+    public long getItemId(int position) {
+        return ListDiffing.stableId(getItem(position).getId());
     }
     
     class TaskViewHolder extends RecyclerView.ViewHolder {
@@ -58,6 +89,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
         private TextView urgencyValue;
         private ImageButton completeButton;
         private ImageButton deleteButton;
+        private TextWatcher nameWatcher;
         
         public TaskViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -70,10 +102,13 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             deleteButton = itemView.findViewById(R.id.delete_task_button);
         }
         
-        public void bind(TaskListFragment.TaskItem task, int position) {
-            // 设置任务名称
+        public void bind(TaskListFragment.TaskItem task) {
+            // 设置任务名称 - 先移除上次绑定的监听器，避免复用时重复回调到旧任务
+            if (nameWatcher != null) {
+                taskNameEdit.removeTextChangedListener(nameWatcher);
+            }
             taskNameEdit.setText(task.getName());
-            taskNameEdit.addTextChangedListener(new TextWatcher() {
+            nameWatcher = new TextWatcher() {
                 @Override
                 public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
                 
@@ -87,7 +122,8 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
                         listener.onTaskChanged();
                     }
                 }
-            });
+            };
+            taskNameEdit.addTextChangedListener(nameWatcher);
             
             // 设置重要性滑块
             importanceSeekBar.setProgress(task.getImportance());
@@ -140,7 +176,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
                     if (listener != null) {
                         int currentPosition = getAdapterPosition();
                         if (currentPosition != RecyclerView.NO_POSITION) {
-                            listener.onTaskCompleted(currentPosition);
+                            listener.onTaskCompleted(getItem(currentPosition));
                         }
                     }
                 }
@@ -153,7 +189,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
                     if (listener != null) {
                         int currentPosition = getAdapterPosition();
                         if (currentPosition != RecyclerView.NO_POSITION) {
-                            listener.onTaskDeleted(currentPosition);
+                            listener.onTaskDeleted(getItem(currentPosition));
                         }
                     }
                 }
@@ -15,8 +15,10 @@ import androidx.lifecycle.Observer;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.fourquadrant.database.TaskIndex;
 import com.example.fourquadrant.database.repository.TaskRepository;
 import com.example.fourquadrant.database.entity.TaskEntity;
+import com.example.fourquadrant.utils.AppScheduler;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,11 +29,13 @@ public class TaskListFragment extends Fragment {
     private RecyclerView taskRecyclerView;
     private TaskAdapter taskAdapter;
     private List<TaskItem> taskList; // 活跃任务列表
-    private List<TaskItem> allTasks; // 所有任务列表（包括已完成的）
     private Button addTaskButton;
     private Button clearAllButton;
     
     private TaskRepository taskRepository;
+    // 图表数据点和各象限计数由进程内的任务索引提供，数据库变化后增量更新
+    private TaskIndex taskIndex;
+    private final TaskIndex.Listener taskIndexListener = index -> notifyTasksUpdated();
     
     public interface TaskListListener {
         void onTasksUpdated(List<QuadrantView.Task> tasks);
@@ -65,6 +69,14 @@ public class TaskListFragment extends Fragment {
         return view;
     }
     
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (taskIndex != null) {
+            taskIndex.removeListener(taskIndexListener);
+        }
+    }
+    
     private void initViews(View view) {
         taskRecyclerView = view.findViewById(R.id.task_recycler_view);
         addTaskButton = view.findViewById(R.id.add_task_button);
@@ -73,11 +85,12 @@ public class TaskListFragment extends Fragment {
     
     private void initDatabase() {
         taskRepository = new TaskRepository(requireActivity().getApplication());
+        taskIndex = TaskIndex.getInstance(requireContext());
+        taskIndex.addListener(taskIndexListener);
     }
     
     private void setupRecyclerView() {
         taskList = new ArrayList<>();
-        allTasks = new ArrayList<>();
         
         // 创建TaskAdapterListener
         TaskAdapter.TaskAdapterListener adapterListener = new TaskAdapter.TaskAdapterListener() {
@@ -88,13 +101,14 @@ public class TaskListFragment extends Fragment {
             }
             
             @Override
-            public void onTaskDeleted(int position) {
-                TaskListFragment.this.onTaskDeleted(position);
+            public void onTaskDeleted(TaskItem task) {
+                // 适配器的差异比较是异步的，按ID在当前列表中重新定位
+                TaskListFragment.this.onTaskDeleted(taskList.indexOf(task));
             }
             
             @Override
-            public void onTaskCompleted(int position) {
-                TaskListFragment.this.onTaskCompleted(position);
+            public void onTaskCompleted(TaskItem task) {
+                TaskListFragment.this.onTaskCompleted(taskList.indexOf(task));
             }
         };
         
@@ -110,7 +124,7 @@ public class TaskListFragment extends Fragment {
     
     private void loadTasksFromDatabase() {
         // 使用数据库线程池执行查询，避免并发访问问题
-        com.example.fourquadrant.database.AppDatabase.databaseWriteExecutor.execute(new Runnable() {
+        AppScheduler.getInstance().read(AppScheduler.Priority.UI, new Runnable() {
             @Override
             public void run() {
                 try {
@@ -119,8 +133,6 @@ public class TaskListFragment extends Fragment {
                     
                     // 同步查询活跃任务
                     List<TaskEntity> activeTaskEntities = taskRepository.getActiveTasksSync();
-                    // 同步查询所有任务  
-                    List<TaskEntity> allTaskEntities = taskRepository.getAllTasksSync();
                     
                     // 在主线程更新UI
                     if (getActivity() != null) {
@@ -128,10 +140,8 @@ public class TaskListFragment extends Fragment {
                             @Override
                             public void run() {
                                 updateActiveTaskList(activeTaskEntities);
-                                updateAllTasksList(allTaskEntities);
                                 android.util.Log.d("TaskListFragment", "Loaded " + 
-                                    activeTaskEntities.size() + " active tasks and " + 
-                                    allTaskEntities.size() + " total tasks from database");
+                                    activeTaskEntities.size() + " active tasks from database");
                             }
                         });
                     }
@@ -144,13 +154,12 @@ public class TaskListFragment extends Fragment {
     
     // 刷新数据库数据的同步方法
     public void refreshTasksFromDatabase() {
-        new Thread(new Runnable() {
+        AppScheduler.getInstance().read(AppScheduler.Priority.UI, new Runnable() {
             @Override
             public void run() {
                 try {
                     // 同步查询最新数据
                     List<TaskEntity> activeTaskEntities = taskRepository.getActiveTasksSync();
-                    List<TaskEntity> allTaskEntities = taskRepository.getAllTasksSync();
                     
                     // 在主线程更新UI
                     if (getActivity() != null) {
@@ -159,7 +168,6 @@ public class TaskListFragment extends Fragment {
                             public void run() {
                                 // 只更新数据，不重复日志
                                 updateActiveTaskListQuiet(activeTaskEntities);
-                                updateAllTasksListQuiet(allTaskEntities);
                             }
                         });
                     }
@@ -167,7 +175,7 @@ public class TaskListFragment extends Fragment {
                     android.util.Log.e("TaskListFragment", "Error refreshing tasks from database", e);
                 }
             }
-        }).start();
+        });
     }
     
     private void updateActiveTaskList(List<TaskEntity> taskEntities) {
@@ -184,15 +192,7 @@ public class TaskListFragment extends Fragment {
                                   " (ID: " + item.getId() + ")");
             }
         }
-        taskAdapter.notifyDataSetChanged();
-        notifyTasksUpdated();
-    }
-    
-    private void updateAllTasksList(List<TaskEntity> taskEntities) {
-        allTasks.clear();
-        for (TaskEntity entity : taskEntities) {
-            allTasks.add(convertEntityToTaskItem(entity));
-        }
+        taskAdapter.updateTasks(taskList);
         notifyTasksUpdated();
     }
     
@@ -206,20 +206,11 @@ public class TaskListFragment extends Fragment {
             }
         }
         if (taskAdapter != null) {
-            taskAdapter.notifyDataSetChanged();
+            taskAdapter.updateTasks(taskList);
         }
         notifyTasksUpdated();
     }
     
-    private void updateAllTasksListQuiet(List<TaskEntity> taskEntities) {
-        allTasks.clear();
-        if (taskEntities != null) {
-            for (TaskEntity entity : taskEntities) {
-                allTasks.add(convertEntityToTaskItem(entity));
-            }
-        }
-    }
-    
     private TaskItem convertEntityToTaskItem(TaskEntity entity) {
         TaskItem item = new TaskItem();
         item.setId(entity.getId());
@@ -266,7 +257,7 @@ public class TaskListFragment extends Fragment {
             int quadrant = calculateQuadrant(item.getImportance(), item.getUrgency());
             entity.setQuadrant(quadrant);
             
-            entity.setCompleted(item.isCompleted());
+            entity.markCompleted(item.isCompleted());
             if (item.isCompleted() && item.getCompletedTime() > 0) {
                 entity.setCompletedAt(item.getCompletedTime());
             } else if (!item.isCompleted()) {
@@ -316,21 +307,23 @@ public class TaskListFragment extends Fragment {
                 // 立即从活跃列表移除
                 taskList.remove(position);
                 if (taskAdapter != null) {
-                    taskAdapter.notifyItemRemoved(position);
+                    taskAdapter.updateTasks(taskList);
                 }
                 
                 // 更新数据库
                 if (taskRepository != null) {
-                    TaskEntity entity = convertTaskItemToEntity(task);
-                    if (entity != null) {
-                        new Thread(() -> {
-                            taskRepository.updateTask(entity);
-                            // 在主线程刷新UI
-                            if (getActivity() != null) {
-                                getActivity().runOnUiThread(() -> refreshTasksFromDatabase());
-                            }
-                        }).start();
-                    }
+                    // 转换时会查询原有实体，放到写通道中执行
+                    AppScheduler.getInstance().write(() -> {
+                        TaskEntity entity = convertTaskItemToEntity(task);
+                        if (entity == null) {
+                            return;
+                        }
+                        taskRepository.updateTask(entity);
+                        // 在主线程刷新UI
+                        if (getActivity() != null) {
+                            getActivity().runOnUiThread(() -> refreshTasksFromDatabase());
+                        }
+                    });
                 }
                 
                 // 通知其他组件任务已更新
@@ -363,18 +356,17 @@ public class TaskListFragment extends Fragment {
             
             // 立即从UI列表移除
             taskList.remove(position);
-            allTasks.remove(task);
-            taskAdapter.notifyItemRemoved(position);
+            taskAdapter.updateTasks(taskList);
             
             // 从数据库删除
             if (task.getId() != null) {
-                new Thread(() -> {
+                AppScheduler.getInstance().write(() -> {
                     taskRepository.deleteTaskById(task.getId());
                     // 在主线程刷新UI
                     if (getActivity() != null) {
                         getActivity().runOnUiThread(() -> refreshTasksFromDatabase());
                     }
-                }).start();
+                });
             }
             
             // 通知其他组件任务已更新
@@ -400,25 +392,24 @@ public class TaskListFragment extends Fragment {
         
         // 临时解决方案：立即添加到UI列表
         taskList.add(newTask);
-        allTasks.add(newTask);
-        taskAdapter.notifyItemInserted(taskList.size() - 1);
+        taskAdapter.updateTasks(taskList);
         
         android.util.Log.d("TaskListFragment", "Added to UI lists, now have " + taskList.size() + " active tasks");
         
-        // 保存到数据库
-        TaskEntity entity = convertTaskItemToEntity(newTask);
-        if (entity != null) {
+        // 保存到数据库（转换时会查询原有实体，放到写通道中执行）
+        AppScheduler.getInstance().write(() -> {
+            TaskEntity entity = convertTaskItemToEntity(newTask);
+            if (entity == null) {
+                android.util.Log.e("TaskListFragment", "Failed to convert TaskItem to TaskEntity");
+                return;
+            }
             android.util.Log.d("TaskListFragment", "Saving to database: quadrant=" + entity.getQuadrant());
-            new Thread(() -> {
-                taskRepository.insertTask(entity);
-                // 在主线程刷新UI
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> refreshTasksFromDatabase());
-                }
-            }).start();
-        } else {
-            android.util.Log.e("TaskListFragment", "Failed to convert TaskItem to TaskEntity");
-        }
+            taskRepository.insertTask(entity);
+            // 在主线程刷新UI
+            if (getActivity() != null) {
+                getActivity().runOnUiThread(() -> refreshTasksFromDatabase());
+            }
+        });
         
         // 通知其他组件任务已更新
         notifyTasksUpdated();
@@ -429,16 +420,16 @@ public class TaskListFragment extends Fragment {
     private void clearAllTasks() {
         // 立即清空UI中的活跃任务列表
         taskList.clear();
-        taskAdapter.notifyDataSetChanged();
+        taskAdapter.updateTasks(taskList);
         
         // 软删除数据库中的活跃任务
-        new Thread(() -> {
+        AppScheduler.getInstance().write(() -> {
             taskRepository.softDeleteActiveTasks();
             // 在主线程刷新UI
             if (getActivity() != null) {
                 getActivity().runOnUiThread(() -> refreshTasksFromDatabase());
             }
-        }).start();
+        });
         
         // 通知其他组件任务已更新
         notifyTasksUpdated();
@@ -449,72 +440,31 @@ public class TaskListFragment extends Fragment {
         refreshTasksFromDatabase();
     }
     
-    public List<TaskItem> getAllTasks() {
-        return new ArrayList<>(allTasks);
-    }
-    
     public List<TaskItem> getActiveTasks() {
         return new ArrayList<>(taskList);
     }
     
-    // 为向后兼容添加的方法
+    // 为向后兼容添加的方法；返回任务索引中缓存的数据点，数据未变化时不重新分配
     public List<QuadrantView.Task> getCurrentTasks() {
-        List<QuadrantView.Task> quadrantTasks = new ArrayList<>();
-        for (TaskItem item : taskList) {
-            QuadrantView.Task quadrantTask = new QuadrantView.Task(
-                item.getName(), 
-                item.getImportance(), 
-                item.getUrgency()
-            );
-            quadrantTasks.add(quadrantTask);
-        }
-        return quadrantTasks;
-    }
-    
-    public List<TaskItem> getCompletedTasks() {
-        List<TaskItem> completedTasks = new ArrayList<>();
-        for (TaskItem task : allTasks) {
-            if (task.isCompleted()) {
-                completedTasks.add(task);
-            }
+        if (taskIndex == null) {
+            return new ArrayList<>();
         }
-        return completedTasks;
+        return taskIndex.getQuadrantTasks();
     }
     
     private void notifyTasksUpdated() {
-        try {
-            List<QuadrantView.Task> quadrantTasks = new ArrayList<>();
-            
-            if (taskList != null) {
-                for (TaskItem item : taskList) {
-                    if (item != null && item.getName() != null) {
-                        try {
-                            QuadrantView.Task quadrantTask = new QuadrantView.Task(
-                                item.getName(), 
-                                item.getImportance(), 
-                                item.getUrgency()
-                            );
-                            quadrantTasks.add(quadrantTask);
-                        } catch (Exception e) {
-                            android.util.Log.e("TaskListFragment", "Error creating QuadrantView.Task for item: " + item.getName(), e);
-                        }
-                    }
-                }
-            }
-            
-            if (listeners != null) {
-                for (TaskListListener listener : listeners) {
-                    if (listener != null) {
-                        try {
-                            listener.onTasksUpdated(quadrantTasks);
-                        } catch (Exception e) {
-                            android.util.Log.e("TaskListFragment", "Error notifying listener", e);
-                        }
-                    }
+        if (taskIndex == null || listeners == null) {
+            return;
+        }
+        List<QuadrantView.Task> quadrantTasks = taskIndex.getQuadrantTasks();
+        for (TaskListListener listener : listeners) {
+            if (listener != null) {
+                try {
+                    listener.onTasksUpdated(quadrantTasks);
+                } catch (Exception e) {
+                    android.util.Log.e("TaskListFragment", "Error notifying listener", e);
                 }
             }
-        } catch (Exception e) {
-            android.util.Log.e("TaskListFragment", "Error in notifyTasksUpdated", e);
         }
     }
     
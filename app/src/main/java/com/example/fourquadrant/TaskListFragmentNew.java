@@ -14,8 +14,10 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.fourquadrant.database.KeysetPagedLiveData;
 import com.example.fourquadrant.database.entity.TaskEntity;
 import com.example.fourquadrant.database.repository.TaskRepository;
+import com.example.fourquadrant.utils.AppScheduler;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,12 +27,16 @@ import java.util.List;
  */
 public class TaskListFragmentNew extends Fragment {
     
+    // 每页加载的任务数
+    private static final int PAGE_SIZE = 50;
+    
     private RecyclerView taskRecyclerView;
     private TaskAdapterNew taskAdapter;
     private List<TaskEntity> taskList;
     private Button addTaskButton;
     private Button clearAllButton;
     private TaskRepository taskRepository;
+    private KeysetPagedLiveData<TaskEntity> activeTasks;
     
     public interface TaskListListener {
         void onTasksUpdated(List<QuadrantView.Task> tasks);
@@ -99,32 +105,43 @@ public class TaskListFragmentNew extends Fragment {
             @Override
             public void onTaskCompleted(TaskEntity task) {
                 // 完成任务
-                new Thread(() -> {
+                AppScheduler.getInstance().write(() -> {
                     taskRepository.completeTask(task);
-                }).start();
+                });
                 Toast.makeText(getContext(), "任务已完成", Toast.LENGTH_SHORT).show();
             }
             
             @Override
             public void onTaskDeleted(TaskEntity task) {
                 // 删除任务
-                new Thread(() -> {
+                AppScheduler.getInstance().write(() -> {
                     taskRepository.deleteTask(task);
-                }).start();
+                });
                 Toast.makeText(getContext(), "任务已删除", Toast.LENGTH_SHORT).show();
             }
             
             @Override
             public void onTaskUpdated(TaskEntity task) {
                 // 更新任务
-                new Thread(() -> {
+                AppScheduler.getInstance().write(() -> {
                     taskRepository.updateTask(task);
-                }).start();
+                });
             }
         });
         
-        taskRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        taskRecyclerView.setLayoutManager(layoutManager);
         taskRecyclerView.setAdapter(taskAdapter);
+        
+        // 滚动接近已加载末尾时预取下一页
+        taskRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (activeTasks != null) {
+                    activeTasks.onItemVisible(layoutManager.findLastVisibleItemPosition());
+                }
+            }
+        });
     }
     
     private void setupAddButton() {
@@ -134,9 +151,9 @@ public class TaskListFragmentNew extends Fragment {
             int importance = 5;
             int urgency = 5;
             
-            new Thread(() -> {
+            AppScheduler.getInstance().write(() -> {
                 taskRepository.createTask(taskName, importance, urgency);
-            }).start();
+            });
             Toast.makeText(getContext(), "已添加新任务", Toast.LENGTH_SHORT).show();
         });
     }
@@ -144,18 +161,19 @@ public class TaskListFragmentNew extends Fragment {
     private void setupClearAllButton() {
         clearAllButton.setOnClickListener(v -> {
             // 软删除所有活跃任务
-            new Thread(() -> {
+            AppScheduler.getInstance().write(() -> {
                 taskRepository.softDeleteActiveTasks();
-            }).start();
+            });
             Toast.makeText(getContext(), "已清空所有进行中的任务", Toast.LENGTH_SHORT).show();
         });
     }
     
     private void observeActiveTasks() {
         try {
-            androidx.lifecycle.LiveData<java.util.List<TaskEntity>> liveData = taskRepository.getActiveTasks();
-            if (liveData != null) {
-                liveData.observe(getViewLifecycleOwner(), tasks -> {
+            // 按创建时间分页加载，只读取滚动到的部分
+            activeTasks = taskRepository.getActiveTasksPaged(PAGE_SIZE);
+            if (activeTasks != null) {
+                activeTasks.observe(getViewLifecycleOwner(), tasks -> {
                     if (tasks != null) {
                         taskList.clear();
                         taskList.addAll(tasks);
@@ -164,7 +182,7 @@ public class TaskListFragmentNew extends Fragment {
                     }
                 });
             } else {
-                android.util.Log.w("TaskListFragmentNew", "TaskRepository returned null LiveData for getActiveTasks");
+                android.util.Log.w("TaskListFragmentNew", "TaskRepository returned null LiveData for getActiveTasksPaged");
                 // 显示空列表，避免崩溃
                 taskList.clear();
                 taskAdapter.notifyDataSetChanged();
@@ -225,9 +243,9 @@ public class TaskListFragmentNew extends Fragment {
     
     // 添加任务
     public void addTask(String name, int importance, int urgency) {
-        new Thread(() -> {
+        AppScheduler.getInstance().write(() -> {
             taskRepository.createTask(name, importance, urgency);
-        }).start();
+        });
     }
     
     // 内部任务适配器
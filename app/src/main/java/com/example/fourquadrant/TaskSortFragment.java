@@ -9,13 +9,18 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.fourquadrant.utils.ListDiffing;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
 public class TaskSortFragment extends Fragment {
     
@@ -64,7 +69,7 @@ public class TaskSortFragment extends Fragment {
                     sortedTasks.clear();
                     sortedTasks.addAll(taskListFragment.getActiveTasks());
                     sortTasksByPriority();
-                    sortedTasksAdapter.notifyDataSetChanged();
+                    sortedTasksAdapter.updateTasks(sortedTasks);
                     updateEmptyState();
                     
                     // 添加调试信息
@@ -142,12 +147,39 @@ public class TaskSortFragment extends Fragment {
         }
     }
     
-    public static class SortedTasksAdapter extends RecyclerView.Adapter<SortedTasksAdapter.SortedTaskViewHolder> {
+    public static class SortedTasksAdapter extends ListAdapter<SortedTasksAdapter.SortedRow, SortedTasksAdapter.SortedTaskViewHolder> {
         
-        private List<TaskListFragment.TaskItem> sortedTasks;
+        // 排名也是显示内容的一部分，任务移动后排名变化的行需要重新绑定
+        private static final DiffUtil.ItemCallback<SortedRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<SortedRow>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull SortedRow oldItem, @NonNull SortedRow newItem) {
+                return Objects.equals(oldItem.id, newItem.id);
+            }
+            
+            @Override
+            public boolean areContentsTheSame(@NonNull SortedRow oldItem, @NonNull SortedRow newItem) {
+                return oldItem.rank == newItem.rank
+                    && oldItem.importance == newItem.importance
+                    && oldItem.urgency == newItem.urgency
+                    && Objects.equals(oldItem.name, newItem.name);
+            }
+        };
         
         public SortedTasksAdapter(List<TaskListFragment.TaskItem> sortedTasks) {
-            this.sortedTasks = sortedTasks;
+            super(ListDiffing.config(DIFF_CALLBACK));
+            setHasStableIds(true);
+            updateTasks(sortedTasks);
+        }
+        
+        /**
+         * 按排序结果提交新列表；行数据是提交时的快照，任务对象之后被原地修改也不影响差异比较
+         */
+        public void updateTasks(List<TaskListFragment.TaskItem> sortedTasks) {
+            List<SortedRow> rows = new ArrayList<>(sortedTasks.size());
+            for (int i = 0; i < sortedTasks.size(); i++) {
+                rows.add(new SortedRow(sortedTasks.get(i), i + 1));
+            }
+            submitList(rows);
         }
         
         @NonNull
@@ -160,13 +192,28 @@ public class TaskSortFragment extends Fragment {
         
         @Override
         public void onBindViewHolder(@NonNull SortedTaskViewHolder holder, int position) {
-            TaskListFragment.TaskItem task = sortedTasks.get(position);
-            holder.bind(task, position + 1);
+            holder.bind(getItem(position));
         }
         
         @Override
-        public int getItemCount() {
-            return sortedTasks.size();
+        public long getItemId(int position) {
+            return ListDiffing.stableId(getItem(position).id);
+        }
+        
+        static final class SortedRow {
+            final String id;
+            final String name;
+            final int importance;
+            final int urgency;
+            final int rank;
+            
+            SortedRow(TaskListFragment.TaskItem task, int rank) {
+                this.id = task.getId();
+                this.name = task.getName();
+                this.importance = task.getImportance();
+                this.urgency = task.getUrgency();
+                this.rank = rank;
+            }
         }
         
         class SortedTaskViewHolder extends RecyclerView.ViewHolder {
@@ -185,20 +232,18 @@ public class TaskSortFragment extends Fragment {
                 quadrantText = itemView.findViewById(R.id.quadrant_text);
             }
             
-            public void bind(TaskListFragment.TaskItem task, int rank) {
-                rankText.setText("#" + rank);
-                taskNameText.setText(task.getName());
-                importanceText.setText("重要性: " + task.getImportance());
-                urgencyText.setText("紧急性: " + task.getUrgency());
+            public void bind(SortedRow row) {
+                rankText.setText("#" + row.rank);
+                taskNameText.setText(row.name);
+                importanceText.setText("重要性: " + row.importance);
+                urgencyText.setText("紧急性: " + row.urgency);
                 
-                int quadrant = getQuadrant(task);
+                int quadrant = getQuadrant(row.importance, row.urgency);
                 String quadrantName = getQuadrantName(quadrant);
                 quadrantText.setText(quadrantName);
             }
             
-            private int getQuadrant(TaskListFragment.TaskItem task) {
-                int importance = task.getImportance();
-                int urgency = task.getUrgency();
+            private int getQuadrant(int importance, int urgency) {
                 int maxScore = 10;
                 
                 if (importance >= maxScore / 2 && urgency >= maxScore / 2) {
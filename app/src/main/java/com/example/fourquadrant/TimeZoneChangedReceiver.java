@@ -0,0 +1,36 @@
+package com.example.fourquadrant;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import com.example.fourquadrant.database.LocalDayMaintenance;
+import com.example.fourquadrant.utils.AppScheduler;
+
+/**
+ * 时区变化接收器
+ * 按新时区重新计算提醒和每日统计的本地日期分桶
+ */
+public class TimeZoneChangedReceiver extends BroadcastReceiver {
+    
+    private static final String TAG = "TimeZoneChangedReceiver";
+    
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!Intent.ACTION_TIMEZONE_CHANGED.equals(intent.getAction())) {
+            return;
+        }
+        Log.d(TAG, "时区已变化: " + intent.getStringExtra("time-zone"));
+        
+        Context appContext = context.getApplicationContext();
+        PendingResult pendingResult = goAsync();
+        AppScheduler.getInstance().write(() -> {
+            try {
+                LocalDayMaintenance.ensureBucketsMatchTimeZone(appContext);
+            } finally {
+                pendingResult.finish();
+            }
+        });
+    }
+}
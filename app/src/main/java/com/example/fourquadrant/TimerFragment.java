@@ -26,6 +26,7 @@ import androidx.fragment.app.Fragment;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.example.fourquadrant.utils.AppScheduler;
 
 import java.lang.reflect.Type;
 import java.text.SimpleDateFormat;
@@ -269,7 +270,7 @@ public class TimerFragment extends Fragment implements TaskListFragment.TaskList
         // 直接从数据库查询任务列表
         if (getActivity() != null) {
             // 使用数据库线程池执行查询，避免并发访问问题
-            com.example.fourquadrant.database.AppDatabase.databaseWriteExecutor.execute(() -> {
+            AppScheduler.getInstance().read(AppScheduler.Priority.UI, () -> {
                 try {
                     // 检查数据库是否就绪
                     FourQuadrantApplication app = (FourQuadrantApplication) getActivity().getApplication();
@@ -283,28 +284,23 @@ public class TimerFragment extends Fragment implements TaskListFragment.TaskList
                         return;
                     }
                     
-                    // 等待数据库完全初始化
-                    Thread.sleep(200);
-                    
-                    // 初始化TaskRepository
-                    com.example.fourquadrant.database.repository.TaskRepository taskRepository = 
-                        new com.example.fourquadrant.database.repository.TaskRepository(getActivity().getApplication());
-                    
-                    // 同步查询活跃任务
-                    List<com.example.fourquadrant.database.entity.TaskEntity> taskEntities = 
-                        taskRepository.getActiveTasksSync();
+                    // 活跃任务直接取自任务索引，不再查询整张表
+                    com.example.fourquadrant.database.TaskIndex taskIndex = 
+                        com.example.fourquadrant.database.TaskIndex.getInstance(app);
+                    if (!taskIndex.waitForLoaded(3000)) {
+                        android.util.Log.w("TimerFragment", "任务索引未加载完成，先显示已有数据");
+                    }
                     
                     // 转换为TaskItem列表
-                    List<TaskListFragment.TaskItem> taskItems = new ArrayList<>();
-                    for (com.example.fourquadrant.database.entity.TaskEntity entity : taskEntities) {
+                    List<TaskListFragment.TaskItem> taskItems = new ArrayList<>(taskIndex.getActiveCount());
+                    taskIndex.forEachActive(0, (id, name, importance, urgency, quadrant) -> {
                         TaskListFragment.TaskItem item = new TaskListFragment.TaskItem();
-                        item.setId(entity.getId());
-                        item.setName(entity.getName());
-                        item.setImportance(entity.getImportance());
-                        item.setUrgency(entity.getUrgency());
-                        item.setCompleted(entity.isCompleted());
+                        item.setId(id);
+                        item.setName(name);
+                        item.setImportance(importance);
+                        item.setUrgency(urgency);
                         taskItems.add(item);
-                    }
+                    });
                     
                     android.util.Log.d("TimerFragment", "Loaded " + taskItems.size() + " tasks from database");
                     
@@ -0,0 +1,169 @@
+package com.example.fourquadrant;
+
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+/**
+ * 番茄钟计时状态流
+ * 由 PomodoroService 在状态变化时发布完整的不可变快照，界面观察同一个 LiveData，取代计时广播和设置表中的状态键。
+ * 发布走 postValue：主线程处理前连续发布的多个快照只投递最后一个，观察者处于后台时也只在回到前台后收到最新值。
+ * 计时结束作为快照里递增的结束序号传递，中间的快照被跳过时结束事件也不会丢失。
+ */
+public final class TimerStateFlow {
+    
+    private static final TimerStateFlow INSTANCE = new TimerStateFlow();
+    
+    /**
+     * 某一时刻的完整计时状态
+     */
+    public static final class Snapshot {
+        private final boolean running;
+        private final boolean paused;
+        private final boolean breakTime;
+        private final long remainingTime;
+        // 正在倒计时时的截止时刻（elapsedRealtime），否则为0
+        private final long deadline;
+        private final int currentCount;
+        private final String taskName;
+        private final int finishCount;
+        private final boolean lastFinishedBreak;
+        
+        Snapshot(boolean running, boolean paused, boolean breakTime, long remainingTime, long deadline,
+                 int currentCount, String taskName, int finishCount, boolean lastFinishedBreak) {
+            this.running = running;
+            this.paused = paused;
+            this.breakTime = breakTime;
+            this.remainingTime = remainingTime;
+            this.deadline = deadline;
+            this.currentCount = currentCount;
+            this.taskName = taskName;
+            this.finishCount = finishCount;
+            this.lastFinishedBreak = lastFinishedBreak;
+        }
+        
+        public boolean isRunning() {
+            return running;
+        }
+        
+        public boolean isPaused() {
+            return paused;
+        }
+        
+        public boolean isBreakTime() {
+            return breakTime;
+        }
+        
+        /**
+         * 剩余时间；倒计时中按截止时刻现算，快照晚到或重放时也是准确的
+         */
+        public long getRemainingTime() {
+            if (deadline > 0) {
+                return Math.max(0, deadline - SystemClock.elapsedRealtime());
+            }
+            return remainingTime;
+        }
+        
+        public int getCurrentCount() {
+            return currentCount;
+        }
+        
+        public String getTaskName() {
+            return taskName;
+        }
+        
+        /**
+         * 进程内计时结束的次数，观察者与上次处理的值比较判断是否有新的结束事件
+         */
+        public int getFinishCount() {
+            return finishCount;
+        }
+        
+        /**
+         * 最近一次结束的是否为休息计时
+         */
+        public boolean isLastFinishedBreak() {
+            return lastFinishedBreak;
+        }
+        
+        boolean sameAs(Snapshot other) {
+            return other != null
+                && running == other.running
+                && paused == other.paused
+                && breakTime == other.breakTime
+                && remainingTime == other.remainingTime
+                && deadline == other.deadline
+                && currentCount == other.currentCount
+                && finishCount == other.finishCount
+                && lastFinishedBreak == other.lastFinishedBreak
+                && (taskName == null ? other.taskName == null : taskName.equals(other.taskName));
+        }
+    }
+    
+    private final MutableLiveData<Snapshot> state = new MutableLiveData<>();
+    private final Object lock = new Object();
+    private Snapshot latest;
+    private int finishCount;
+    private boolean lastFinishedBreak;
+    
+    private TimerStateFlow() {
+    }
+    
+    public static TimerStateFlow getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * 计时状态；服务本次进程内还没有发布过时没有值
+     */
+    public LiveData<Snapshot> getState() {
+        return state;
+    }
+    
+    /**
+     * 最近发布的快照，可能还没有投递给观察者；没有发布过时为null
+     */
+    @Nullable
+    public Snapshot getCurrent() {
+        synchronized (lock) {
+            return latest;
+        }
+    }
+    
+    /**
+     * 发布当前状态，与上一个快照相同时不投递
+     */
+    void publish(boolean running, boolean paused, boolean breakTime, long remainingTime, long deadline,
+                 int currentCount, String taskName) {
+        synchronized (lock) {
+            post(running, paused, breakTime, remainingTime, deadline, currentCount, taskName);
+        }
+    }
+    
+    /**
+     * 发布一次计时结束及结束后的状态
+     * @param finishedBreak 结束的是休息计时还是番茄钟
+     */
+    void publishFinished(boolean finishedBreak, boolean running, boolean paused, boolean breakTime,
+                         long remainingTime, long deadline, int currentCount, String taskName) {
+        synchronized (lock) {
+            finishCount++;
+            lastFinishedBreak = finishedBreak;
+            post(running, paused, breakTime, remainingTime, deadline, currentCount, taskName);
+        }
+    }
+    
+    private void post(boolean running, boolean paused, boolean breakTime, long remainingTime, long deadline,
+                      int currentCount, String taskName) {
+        // 走秒时剩余时间不同，每秒都会发布一次；只有重复发布同一状态时才被合并
+        Snapshot next = new Snapshot(running, paused, breakTime, remainingTime, deadline,
+            currentCount, taskName, finishCount, lastFinishedBreak);
+        if (next.sameAs(latest)) {
+            return;
+        }
+        latest = next;
+        state.postValue(next);
+    }
+}
@@ -27,8 +27,6 @@ import java.util.List;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.lifecycle.LiveData;
-import androidx.lifecycle.Observer;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import android.media.MediaPlayer;
 import android.os.Vibrator;
@@ -40,6 +38,7 @@ import com.example.fourquadrant.database.repository.PomodoroRepository;
 import com.example.fourquadrant.database.entity.SettingsEntity;
 import com.example.fourquadrant.database.entity.TimerStateEntity;
 import com.example.fourquadrant.PomodoroService;
+import com.example.fourquadrant.utils.AppScheduler;
 
 public class TomatoFragment extends Fragment implements IconPickerDialog.IconSelectedListener, TaskListFragment.TaskListListener {
     private TextView timerText;
@@ -69,19 +68,15 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
     // 服务相关
     private PomodoroService pomodoroService;
     private boolean isServiceBound = false;
-    private BroadcastReceiver timerReceiver;
+    private BroadcastReceiver batteryWarningReceiver;
+    // 已处理的计时结束序号，-1表示还没收到过状态
+    private int handledFinishCount = -1;
     
     // 对话框管理
     private AlertDialog batteryOptimizationDialog;
     
     // 设置键名常量
     private static final String KEY_SELECTED_ICON = "tomato_selected_icon";
-    private static final String KEY_IS_RUNNING = "tomato_is_running";
-    private static final String KEY_IS_PAUSED = "tomato_is_paused";
-    private static final String KEY_REMAINING_TIME = "tomato_remaining_time";
-    private static final String KEY_IS_BREAK = "tomato_is_break";
-    private static final String KEY_CURRENT_COUNT = "tomato_current_count";
-    private static final String KEY_START_TIME = "tomato_start_time";
 
     @Nullable
     @Override
@@ -94,6 +89,7 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
         setupTaskSpinner();
         loadSettings();
         setupServiceConnection();
+        observeTimerState();
         setupBroadcastReceiver();
         
         return view;
@@ -125,90 +121,49 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
         getContext().bindService(serviceIntent, serviceConnection, Context.BIND_AUTO_CREATE);
     }
     
-    private void syncFromService() {
-        if (isServiceBound && pomodoroService != null) {
-            Log.d("TomatoFragment", "Syncing with service - before sync: isTimerRunning=" + isTimerRunning + ", isTimerPaused=" + isTimerPaused + ", remainingTime=" + remainingTime);
-            
-            boolean serviceRunning = pomodoroService.isTimerRunning();
-            boolean servicePaused = pomodoroService.isTimerPaused();
-            long serviceRemaining = pomodoroService.getRemainingTime();
-            boolean serviceBreak = pomodoroService.isBreakTime();
-            int serviceCount = pomodoroService.getCurrentTomatoCount();
-            
-            Log.d("TomatoFragment", "Service state: isTimerRunning=" + serviceRunning + ", isTimerPaused=" + servicePaused + ", remainingTime=" + serviceRemaining + ", isBreakTime=" + serviceBreak + ", currentCount=" + serviceCount);
-            
-            isTimerRunning = serviceRunning;
-            isTimerPaused = servicePaused;
-            remainingTime = serviceRemaining;
-            isBreakTime = serviceBreak;
-            currentTomatoCount = serviceCount;
-            
-            Log.d("TomatoFragment", "After sync: isTimerRunning=" + isTimerRunning + ", isTimerPaused=" + isTimerPaused + ", remainingTime=" + remainingTime);
-            
-            // 强制更新UI显示
-            getActivity().runOnUiThread(() -> {
-                updateTimerDisplay(remainingTime);
-                updateButtonStates();
-                updateTaskSpinnerVisibility();
-            });
-        } else {
-            Log.d("TomatoFragment", "Cannot sync with service - service is null or not bound");
+    /**
+     * 计时状态全部来自服务发布的状态流；视图重建时立即收到最新快照
+     */
+    private void observeTimerState() {
+        TimerStateFlow.getInstance().getState().observe(getViewLifecycleOwner(), this::onTimerStateChanged);
+    }
+    
+    private void onTimerStateChanged(TimerStateFlow.Snapshot state) {
+        Log.d("TomatoFragment", "Timer state: isTimerRunning=" + state.isRunning() + ", isTimerPaused=" + state.isPaused() + ", isBreak=" + state.isBreakTime() + ", currentCount=" + state.getCurrentCount() + ", finishCount=" + state.getFinishCount());
+        
+        isTimerRunning = state.isRunning();
+        isTimerPaused = state.isPaused();
+        isBreakTime = state.isBreakTime();
+        currentTomatoCount = state.getCurrentCount();
+        remainingTime = state.getRemainingTime();
+        
+        updateTimerDisplay(remainingTime);
+        updateButtonStates();
+        updateTaskSpinnerVisibility();
+        
+        // 首次收到的快照只记下结束序号，之前的结束由待确认状态恢复，不重复记录
+        boolean finished = handledFinishCount >= 0 && state.getFinishCount() != handledFinishCount;
+        handledFinishCount = state.getFinishCount();
+        if (finished) {
+            if (!state.isLastFinishedBreak()) {
+                // 番茄钟完成，记录完成并显示弹窗
+                recordPomodoroCompletion();
+                Log.d("TomatoFragment", "Pomodoro completion recorded");
+                
+                // 显示番茄钟完成弹窗
+                showPomodoroCompletionDialog();
+            } else {
+                // 休息结束，播放提醒
+                playReminder();
+            }
         }
     }
     
     private void setupBroadcastReceiver() {
-        timerReceiver = new BroadcastReceiver() {
+        batteryWarningReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                String action = intent.getAction();
-                if (PomodoroService.ACTION_TIMER_UPDATE.equals(action)) {
-                    long remainingTime = intent.getLongExtra(PomodoroService.EXTRA_REMAINING_TIME, 0);
-                    boolean isBreak = intent.getBooleanExtra(PomodoroService.EXTRA_IS_BREAK, false);
-                    int currentCount = intent.getIntExtra(PomodoroService.EXTRA_CURRENT_COUNT, 0);
-                    
-                    Log.d("TomatoFragment", "Received timer update broadcast: remainingTime=" + remainingTime + ", isBreak=" + isBreak + ", currentCount=" + currentCount);
-                    
-                    // 更新UI和状态
-                    TomatoFragment.this.remainingTime = remainingTime;
-                    TomatoFragment.this.isBreakTime = isBreak;
-                    TomatoFragment.this.currentTomatoCount = currentCount;
-                    
-                    // 从服务同步状态
-                    if (isServiceBound && pomodoroService != null) {
-                        TomatoFragment.this.isTimerRunning = pomodoroService.isTimerRunning();
-                        TomatoFragment.this.isTimerPaused = pomodoroService.isTimerPaused();
-                        Log.d("TomatoFragment", "Synced running state from service: isTimerRunning=" + TomatoFragment.this.isTimerRunning + ", isTimerPaused=" + TomatoFragment.this.isTimerPaused);
-                    }
-                    
-                    updateTimerDisplay(remainingTime);
-                    updateButtonStates();
-                    updateTaskSpinnerVisibility();
-                    
-                } else if (PomodoroService.ACTION_TIMER_FINISHED.equals(action)) {
-                    boolean isBreak = intent.getBooleanExtra(PomodoroService.EXTRA_IS_BREAK, false);
-                    int currentCount = intent.getIntExtra(PomodoroService.EXTRA_CURRENT_COUNT, 0);
-                    
-                    Log.d("TomatoFragment", "Received timer finished broadcast: isBreak=" + isBreak + ", currentCount=" + currentCount);
-                    
-                    // 更新Fragment状态
-                    TomatoFragment.this.isBreakTime = isBreak;
-                    TomatoFragment.this.currentTomatoCount = currentCount;
-                    
-                    if (!isBreak) {
-                        // 番茄钟完成，记录完成并显示弹窗
-                        recordPomodoroCompletion();
-                        Log.d("TomatoFragment", "Pomodoro completion recorded");
-                        
-                        // 显示番茄钟完成弹窗
-                        showPomodoroCompletionDialog();
-                    } else {
-                        // 休息结束，播放提醒
-                        playReminder();
-                    }
-                    
-                    updateButtonStates();
-                    updateTaskSpinnerVisibility();
-                } else if ("com.example.fourquadrant.BATTERY_OPTIMIZATION_WARNING".equals(action)) {
+                if ("com.example.fourquadrant.BATTERY_OPTIMIZATION_WARNING".equals(intent.getAction())) {
                     // 显示电池优化警告
                     showBatteryOptimizationDialog();
                 }
@@ -216,10 +171,8 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
         };
         
         IntentFilter filter = new IntentFilter();
-        filter.addAction(PomodoroService.ACTION_TIMER_UPDATE);
-        filter.addAction(PomodoroService.ACTION_TIMER_FINISHED);
         filter.addAction("com.example.fourquadrant.BATTERY_OPTIMIZATION_WARNING");
-        LocalBroadcastManager.getInstance(getContext()).registerReceiver(timerReceiver, filter);
+        LocalBroadcastManager.getInstance(getContext()).registerReceiver(batteryWarningReceiver, filter);
     }
     
     private ServiceConnection serviceConnection = new ServiceConnection() {
@@ -230,24 +183,8 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
             pomodoroService = binder.getService();
             isServiceBound = true;
             
+            // 状态由服务发布到计时状态流；进程重启后服务自己从数据库恢复计时状态再发布
             Log.d("TomatoFragment", "Service bound, current fragment state: isTimerRunning=" + isTimerRunning + ", isTimerPaused=" + isTimerPaused + ", remainingTime=" + remainingTime);
-            
-            // 优先从服务获取当前状态
-            if (pomodoroService.isTimerRunning()) {
-                // 服务中有运行的计时器，直接同步服务状态
-                Log.d("TomatoFragment", "Service has running timer, syncing from service");
-                syncFromService();
-            } else {
-                // 服务中没有运行的计时器，尝试从数据库恢复状态
-                Log.d("TomatoFragment", "Service has no running timer, restoring from database");
-                restoreTimerState();
-                
-                // 如果Fragment恢复的状态显示计时器正在运行，需要将状态同步到服务
-                if (isTimerRunning) {
-                    Log.d("TomatoFragment", "Fragment has running timer state, syncing to service");
-                    pomodoroService.syncState(isTimerRunning, isTimerPaused, remainingTime, isBreakTime, currentTomatoCount);
-                }
-            }
         }
         
         @Override
@@ -334,7 +271,7 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
     private void loadTasksFromDatabase() {
         if (getActivity() != null) {
             // 使用数据库线程池执行查询，避免并发访问问题
-            com.example.fourquadrant.database.AppDatabase.databaseWriteExecutor.execute(() -> {
+            AppScheduler.getInstance().read(AppScheduler.Priority.UI, () -> {
                 try {
                     // 检查数据库是否就绪
                     FourQuadrantApplication app = (FourQuadrantApplication) getActivity().getApplication();
@@ -348,27 +285,13 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
                         return;
                     }
                     
-                    // 等待数据库完全初始化
-                    Thread.sleep(200);
-                    
-                    // 初始化TaskRepository
-                    com.example.fourquadrant.database.repository.TaskRepository taskRepository = 
-                        new com.example.fourquadrant.database.repository.TaskRepository(getActivity().getApplication());
-                    
-                    // 同步查询活跃任务
-                    List<com.example.fourquadrant.database.entity.TaskEntity> taskEntities = 
-                        taskRepository.getActiveTasksSync();
-                    
-                    // 转换为QuadrantView.Task列表（TomatoFragment使用的格式）
-                    List<QuadrantView.Task> tasks = new ArrayList<>();
-                    for (com.example.fourquadrant.database.entity.TaskEntity entity : taskEntities) {
-                        QuadrantView.Task task = new QuadrantView.Task(
-                            entity.getName(),
-                            entity.getImportance(),
-                            entity.getUrgency()
-                        );
-                        tasks.add(task);
+                    // 活跃任务直接取自任务索引，不再查询和转换整张表
+                    com.example.fourquadrant.database.TaskIndex taskIndex = 
+                        com.example.fourquadrant.database.TaskIndex.getInstance(app);
+                    if (!taskIndex.waitForLoaded(3000)) {
+                        android.util.Log.w("TomatoFragment", "任务索引未加载完成，先显示已有数据");
                     }
+                    List<QuadrantView.Task> tasks = taskIndex.getQuadrantTasks();
                     
                     android.util.Log.d("TomatoFragment", "Loaded " + tasks.size() + " tasks from database");
                     
@@ -393,9 +316,9 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
     }
     
     private void loadSettings() {
-        // 加载图标设置
-        LiveData<String> iconSetting = settingsRepository.getStringSetting(KEY_SELECTED_ICON);
-        iconSetting.observe(getViewLifecycleOwner(), icon -> {
+        // 加载图标设置（图标保存在通用分类中，分类变化时重新读取）
+        settingsRepository.getCategoryChanges(SettingsRepository.GeneralSettings.CATEGORY).observe(getViewLifecycleOwner(), version -> {
+            String icon = settingsRepository.getStringValue(KEY_SELECTED_ICON, null);
             if (icon != null && !icon.isEmpty()) {
                 sunButton.setText(icon);
             } else {
@@ -423,160 +346,8 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
         }
     }
     
-    private void restoreTimerState() {
-        // 从数据库恢复状态
-        LiveData<Boolean> isRunningLiveData = settingsRepository.getBooleanSetting(KEY_IS_RUNNING);
-        isRunningLiveData.observe(getViewLifecycleOwner(), new Observer<Boolean>() {
-            @Override
-            public void onChanged(Boolean isRunning) {
-                if (isRunning == null) isRunning = false;
-                
-                if (isRunning) {
-                    // 获取其他状态信息
-                    restoreFullTimerState();
-                }
-                isRunningLiveData.removeObserver(this);
-            }
-        });
-    }
-    
-    private void restoreFullTimerState() {
-        // 使用计数器确保所有状态都加载完成后再恢复计时器
-        final int[] loadedCount = {0};
-        final int totalStates = 5;
-        
-        LiveData<Boolean> isPausedLiveData = settingsRepository.getBooleanSetting(KEY_IS_PAUSED);
-        LiveData<Long> remainingTimeLiveData = settingsRepository.getLongSetting(KEY_REMAINING_TIME);
-        LiveData<Long> startTimeLiveData = settingsRepository.getLongSetting(KEY_START_TIME);
-        LiveData<Boolean> isBreakLiveData = settingsRepository.getBooleanSetting(KEY_IS_BREAK);
-        LiveData<Integer> currentCountLiveData = settingsRepository.getIntSetting(KEY_CURRENT_COUNT);
-        
-        final long[] savedStartTime = {0};
-        
-        Observer<Boolean> isPausedObserver = new Observer<Boolean>() {
-            @Override
-            public void onChanged(Boolean isPaused) {
-                if (isPaused == null) isPaused = false;
-                isTimerPaused = isPaused;
-                isTimerRunning = true; // 如果有状态需要恢复，说明计时器曾经在运行
-                loadedCount[0]++;
-                checkAndRestoreTimer(loadedCount[0], totalStates, savedStartTime[0]);
-                isPausedLiveData.removeObserver(this);
-            }
-        };
-        
-        Observer<Long> remainingTimeObserver = new Observer<Long>() {
-            @Override
-            public void onChanged(Long remaining) {
-                if (remaining != null && remaining > 0) {
-                    remainingTime = remaining;
-                }
-                loadedCount[0]++;
-                checkAndRestoreTimer(loadedCount[0], totalStates, savedStartTime[0]);
-                remainingTimeLiveData.removeObserver(this);
-            }
-        };
-        
-        Observer<Long> startTimeObserver = new Observer<Long>() {
-            @Override
-            public void onChanged(Long startTime) {
-                if (startTime != null && startTime > 0) {
-                    savedStartTime[0] = startTime;
-                }
-                loadedCount[0]++;
-                checkAndRestoreTimer(loadedCount[0], totalStates, savedStartTime[0]);
-                startTimeLiveData.removeObserver(this);
-            }
-        };
-        
-        Observer<Boolean> isBreakObserver = new Observer<Boolean>() {
-            @Override
-            public void onChanged(Boolean isBreak) {
-                if (isBreak != null) isBreakTime = isBreak;
-                loadedCount[0]++;
-                checkAndRestoreTimer(loadedCount[0], totalStates, savedStartTime[0]);
-                isBreakLiveData.removeObserver(this);
-            }
-        };
-        
-        Observer<Integer> currentCountObserver = new Observer<Integer>() {
-            @Override
-            public void onChanged(Integer count) {
-                if (count != null) currentTomatoCount = count;
-                loadedCount[0]++;
-                checkAndRestoreTimer(loadedCount[0], totalStates, savedStartTime[0]);
-                currentCountLiveData.removeObserver(this);
-            }
-        };
-        
-        // 观察所有状态
-        isPausedLiveData.observe(getViewLifecycleOwner(), isPausedObserver);
-        remainingTimeLiveData.observe(getViewLifecycleOwner(), remainingTimeObserver);
-        startTimeLiveData.observe(getViewLifecycleOwner(), startTimeObserver);
-        isBreakLiveData.observe(getViewLifecycleOwner(), isBreakObserver);
-        currentCountLiveData.observe(getViewLifecycleOwner(), currentCountObserver);
-    }
-    
-    private void checkAndRestoreTimer(int loadedCount, int totalStates, long startTime) {
-        if (loadedCount == totalStates) {
-            // 所有状态都加载完成，现在恢复计时器
-            
-            if (startTime > 0) {
-                restoreTimerFromStartTime(startTime);
-            } else if (isTimerRunning) {
-                // 如果没有开始时间但计时器在运行，通过服务同步状态
-                if (isServiceBound && pomodoroService != null) {
-                    pomodoroService.syncState(isTimerRunning, isTimerPaused, remainingTime, isBreakTime, currentTomatoCount);
-                } else {
-                    // 如果服务未绑定，启动服务并同步状态
-                    Intent serviceIntent = new Intent(getContext(), PomodoroService.class);
-                    getContext().startService(serviceIntent);
-                    setupServiceConnection();
-                }
-            }
-            
-            // 更新UI状态
-            updateTimerDisplay(remainingTime);
-            updateButtonStates();
-            updateTaskSpinnerVisibility();
-        }
-    }
-    
-    private void restoreTimerFromStartTime(long startTime) {
-        long currentTime = System.currentTimeMillis();
-        long elapsedTime = currentTime - startTime;
-        
-        long originalDuration;
-        if (isBreakTime) {
-            originalDuration = TomatoSettingsDialog.getBreakDuration(getContext()) * 60 * 1000;
-        } else {
-            originalDuration = TomatoSettingsDialog.getTomatoDuration(getContext()) * 60 * 1000;
-        }
-        
-        remainingTime = originalDuration - elapsedTime;
-        
-        if (remainingTime <= 0) {
-            // 时间已经结束，清除状态
-            clearTimerState();
-            remainingTime = originalDuration;
-            isTimerRunning = false;
-            isTimerPaused = false;
-        } else {
-            // 通过服务同步状态并继续计时
-            if (isServiceBound && pomodoroService != null) {
-                pomodoroService.syncState(isTimerRunning, isTimerPaused, remainingTime, isBreakTime, currentTomatoCount);
-            } else {
-                // 如果服务未绑定，启动服务
-                Intent serviceIntent = new Intent(getContext(), PomodoroService.class);
-                getContext().startService(serviceIntent);
-                setupServiceConnection();
-            }
-        }
-    }
-    
     private void startTimer() {
         if (!isTimerRunning && !isTimerPaused) {
-            long currentTime = System.currentTimeMillis();
             totalTomatoCount = TomatoSettingsDialog.getTomatoCount(getContext());
             
             // 获取番茄钟时长
@@ -594,9 +365,6 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
                 getContext().startService(serviceIntent);
                 setupServiceConnection();
             }
-            
-            // 保存倒计时状态到数据库
-            saveTimerState(currentTime, true, false, duration, isBreakTime, currentTomatoCount);
         }
     }
     
@@ -643,9 +411,6 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
         currentTomatoCount = 0;
         remainingTime = TomatoSettingsDialog.getTomatoDuration(getContext()) * 60 * 1000;
         
-        // 清除数据库中的倒计时状态
-        clearTimerState();
-        
         // 更新UI显示
         updateTimerDisplay(remainingTime);
         updateButtonStates();
@@ -689,7 +454,6 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
     private void finishAllPomodoros() {
         // 此方法已废弃，状态转换应通过PomodoroService处理
         // 如果意外调用此方法，只处理UI更新
-        clearTimerState();
         updateButtonStates();
         updateTaskSpinnerVisibility();
         Toast.makeText(getContext(), "恭喜！完成了所有番茄钟！", Toast.LENGTH_LONG).show();
@@ -701,8 +465,9 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
             String taskId = getCurrentTaskId();
             int duration = TomatoSettingsDialog.getTomatoDuration(getContext());
             
-            // 使用数据库记录番茄钟完成
-            pomodoroRepository.recordPomodoroCompletion(taskId, taskName, duration);
+            // 使用数据库记录番茄钟完成（写通道中执行）
+            AppScheduler.getInstance().write(() ->
+                pomodoroRepository.recordPomodoroCompletion(taskId, taskName, duration));
         }
     }
     
@@ -965,74 +730,6 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
         }
     }
     
-    private void saveTimerState(long startTime, boolean isRunning, boolean isPaused, 
-                               long remaining, boolean isBreak, int count) {
-        new Thread(() -> {
-            settingsRepository.saveLongSetting(KEY_START_TIME, startTime);
-            settingsRepository.saveBooleanSetting(KEY_IS_RUNNING, isRunning);
-            settingsRepository.saveBooleanSetting(KEY_IS_PAUSED, isPaused);
-            settingsRepository.saveLongSetting(KEY_REMAINING_TIME, remaining);
-            settingsRepository.saveBooleanSetting(KEY_IS_BREAK, isBreak);
-            settingsRepository.saveIntSetting(KEY_CURRENT_COUNT, count);
-        }).start();
-    }
-    
-    private void clearTimerState() {
-        new Thread(() -> {
-            settingsRepository.deleteSetting(KEY_START_TIME);
-            settingsRepository.deleteSetting(KEY_IS_RUNNING);
-            settingsRepository.deleteSetting(KEY_IS_PAUSED);
-            settingsRepository.deleteSetting(KEY_REMAINING_TIME);
-            settingsRepository.deleteSetting(KEY_IS_BREAK);
-            settingsRepository.deleteSetting(KEY_CURRENT_COUNT);
-        }).start();
-    }
-    
-    @Override
-    public void onPause() {
-        super.onPause();
-        
-        Log.d("TomatoFragment", "onPause called - current state: isTimerRunning=" + isTimerRunning + ", isTimerPaused=" + isTimerPaused + ", remainingTime=" + remainingTime);
-        
-        // Fragment暂停时不再取消计时器，因为计时由服务管理
-        // 只需要保存当前状态到数据库
-        if (isTimerRunning) {
-            // 从服务获取最新状态
-            if (isServiceBound && pomodoroService != null) {
-                remainingTime = pomodoroService.getRemainingTime();
-                isTimerPaused = pomodoroService.isTimerPaused();
-                isBreakTime = pomodoroService.isBreakTime();
-                currentTomatoCount = pomodoroService.getCurrentTomatoCount();
-                
-                Log.d("TomatoFragment", "Updated state from service: isTimerPaused=" + isTimerPaused + ", remainingTime=" + remainingTime + ", isBreakTime=" + isBreakTime + ", currentCount=" + currentTomatoCount);
-            }
-            
-            // 计算当前应该保存的开始时间
-            long currentTime = System.currentTimeMillis();
-            long startTime;
-            
-            if (isTimerPaused) {
-                // 如果已暂停，保存0作为开始时间，依赖剩余时间恢复
-                startTime = 0;
-                Log.d("TomatoFragment", "Timer is paused, saving startTime as 0");
-            } else {
-                // 如果正在运行，计算开始时间
-                long originalDuration;
-                if (isBreakTime) {
-                    originalDuration = TomatoSettingsDialog.getBreakDuration(getContext()) * 60 * 1000;
-                } else {
-                    originalDuration = TomatoSettingsDialog.getTomatoDuration(getContext()) * 60 * 1000;
-                }
-                startTime = currentTime - (originalDuration - remainingTime);
-                Log.d("TomatoFragment", "Timer is running, calculated startTime=" + startTime);
-            }
-            
-            // 保存完整状态
-            saveTimerState(startTime, isTimerRunning, isTimerPaused, remainingTime, isBreakTime, currentTomatoCount);
-            Log.d("TomatoFragment", "Timer state saved to database");
-        }
-    }
-    
     @Override
     public void onResume() {
         super.onResume();
@@ -1057,7 +754,7 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
      */
     private void checkPendingPomodoroCompletion() {
         if (pomodoroRepository != null) {
-            new Thread(() -> {
+            AppScheduler.getInstance().read(AppScheduler.Priority.UI, () -> {
                 try {
                     TimerStateEntity timerState = pomodoroRepository.getTimerStateSync();
                     if (timerState != null && timerState.isCompletedPending()) {
@@ -1078,7 +775,7 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
                 } catch (Exception e) {
                     Log.e("TomatoFragment", "Failed to check pending completion", e);
                 }
-            }).start();
+            });
         }
     }
     
@@ -1103,8 +800,8 @@ public class TomatoFragment extends Fragment implements IconPickerDialog.IconSel
         }
         
         // 注销广播接收器
-        if (timerReceiver != null) {
-            LocalBroadcastManager.getInstance(getContext()).unregisterReceiver(timerReceiver);
+        if (batteryWarningReceiver != null) {
+            LocalBroadcastManager.getInstance(getContext()).unregisterReceiver(batteryWarningReceiver);
         }
         
         // 关闭对话框以防止窗口泄漏
@@ -2,8 +2,6 @@ package com.example.fourquadrant;
 
 import android.app.Dialog;
 import android.content.Context;
-import androidx.lifecycle.LiveData;
-import androidx.lifecycle.Observer;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -16,6 +14,8 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.DialogFragment;
 
+import com.example.fourquadrant.database.SettingsCache;
+
 public class TomatoSettingsDialog extends DialogFragment {
     
     public interface OnSettingsChangedListener {
@@ -71,41 +71,11 @@ public class TomatoSettingsDialog extends DialogFragment {
     
     private void loadSettings() {
         if (settingsRepository != null) {
-            LiveData<Integer> tomatoCountLiveData = settingsRepository.getIntSetting(KEY_TOMATO_COUNT);
-            tomatoCountLiveData.observe(this, new Observer<Integer>() {
-                @Override
-                public void onChanged(Integer value) {
-                    etTomatoCount.setText(String.valueOf(value != null ? value : 4));
-                    tomatoCountLiveData.removeObserver(this);
-                }
-            });
-            
-            LiveData<Integer> tomatoDurationLiveData = settingsRepository.getIntSetting(KEY_TOMATO_DURATION);
-            tomatoDurationLiveData.observe(this, new Observer<Integer>() {
-                @Override
-                public void onChanged(Integer value) {
-                    etTomatoDuration.setText(String.valueOf(value != null ? value : 25));
-                    tomatoDurationLiveData.removeObserver(this);
-                }
-            });
-            
-            LiveData<Integer> breakDurationLiveData = settingsRepository.getIntSetting(KEY_BREAK_DURATION);
-            breakDurationLiveData.observe(this, new Observer<Integer>() {
-                @Override
-                public void onChanged(Integer value) {
-                    etBreakDuration.setText(String.valueOf(value != null ? value : 5));
-                    breakDurationLiveData.removeObserver(this);
-                }
-            });
-            
-            LiveData<Boolean> autoNextLiveData = settingsRepository.getBooleanSetting(KEY_AUTO_NEXT);
-            autoNextLiveData.observe(this, new Observer<Boolean>() {
-                @Override
-                public void onChanged(Boolean value) {
-                    cbAutoNext.setChecked(value != null ? value : false);
-                    autoNextLiveData.removeObserver(this);
-                }
-            });
+            // 设置缓存在内存中，直接读取
+            etTomatoCount.setText(String.valueOf(settingsRepository.getIntValue(KEY_TOMATO_COUNT, 4)));
+            etTomatoDuration.setText(String.valueOf(settingsRepository.getIntValue(KEY_TOMATO_DURATION, 25)));
+            etBreakDuration.setText(String.valueOf(settingsRepository.getIntValue(KEY_BREAK_DURATION, 5)));
+            cbAutoNext.setChecked(settingsRepository.getBooleanValue(KEY_AUTO_NEXT, false));
         } else {
             // 设置默认值
             etTomatoCount.setText("4");
@@ -133,59 +103,18 @@ public class TomatoSettingsDialog extends DialogFragment {
     }
     
     public static int getTomatoCount(Context context) {
-        if (context.getApplicationContext() instanceof android.app.Application) {
-            com.example.fourquadrant.database.repository.SettingsRepository repo = 
-                new com.example.fourquadrant.database.repository.SettingsRepository((android.app.Application) context.getApplicationContext());
-            try {
-                // 同步获取，可能返回null
-                Integer value = repo.getIntSettingSync(KEY_TOMATO_COUNT);
-                return value != null ? value : 4;
-            } catch (Exception e) {
-                return 4; // 默认值
-            }
-        }
-        return 4; // 默认值
+        return SettingsCache.getInstance(context).getInt(KEY_TOMATO_COUNT, 4);
     }
     
     public static int getTomatoDuration(Context context) {
-        if (context.getApplicationContext() instanceof android.app.Application) {
-            com.example.fourquadrant.database.repository.SettingsRepository repo = 
-                new com.example.fourquadrant.database.repository.SettingsRepository((android.app.Application) context.getApplicationContext());
-            try {
-                Integer value = repo.getIntSettingSync(KEY_TOMATO_DURATION);
-                return value != null ? value : 25;
-            } catch (Exception e) {
-                return 25; // 默认值
-            }
-        }
-        return 25; // 默认值
+        return SettingsCache.getInstance(context).getInt(KEY_TOMATO_DURATION, 25);
     }
     
     public static int getBreakDuration(Context context) {
-        if (context.getApplicationContext() instanceof android.app.Application) {
-            com.example.fourquadrant.database.repository.SettingsRepository repo = 
-                new com.example.fourquadrant.database.repository.SettingsRepository((android.app.Application) context.getApplicationContext());
-            try {
-                Integer value = repo.getIntSettingSync(KEY_BREAK_DURATION);
-                return value != null ? value : 5;
-            } catch (Exception e) {
-                return 5; // 默认值
-            }
-        }
-        return 5; // 默认值
+        return SettingsCache.getInstance(context).getInt(KEY_BREAK_DURATION, 5);
     }
     
     public static boolean getAutoNext(Context context) {
-        if (context.getApplicationContext() instanceof android.app.Application) {
-            com.example.fourquadrant.database.repository.SettingsRepository repo = 
-                new com.example.fourquadrant.database.repository.SettingsRepository((android.app.Application) context.getApplicationContext());
-            try {
-                Boolean value = repo.getBooleanSettingSync(KEY_AUTO_NEXT);
-                return value != null ? value : false;
-            } catch (Exception e) {
-                return false; // 默认值
-            }
-        }
-        return false; // 默认值
+        return SettingsCache.getInstance(context).getBoolean(KEY_AUTO_NEXT, false);
     }
 } 
\ No newline at end of file
@@ -15,6 +15,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.example.fourquadrant.utils.AppScheduler;
+
 public class UserFragment extends Fragment {
     
     private static final String PREF_NAME = "user_preferences";
@@ -109,9 +111,9 @@ public class UserFragment extends Fragment {
             user.setCreatedAt(System.currentTimeMillis());
             user.setUpdatedAt(System.currentTimeMillis());
             
-            new Thread(() -> {
+            AppScheduler.getInstance().write(() -> {
                 userRepository.insertOrUpdateUser(user);
-            }).start();
+            });
         }
         
         Toast.makeText(getContext(), "用户信息已保存", Toast.LENGTH_SHORT).show();
@@ -124,9 +126,9 @@ public class UserFragment extends Fragment {
         bioEdit.setText("");
         
         if (userRepository != null) {
-            new Thread(() -> {
+            AppScheduler.getInstance().write(() -> {
                 userRepository.deleteAllUsers();
-            }).start();
+            });
         }
         
         Toast.makeText(getContext(), "用户信息已重置", Toast.LENGTH_SHORT).show();
@@ -5,6 +5,15 @@ import android.os.Environment;
 import android.util.Log;
 
 import com.example.fourquadrant.database.AppDatabase;
+import com.example.fourquadrant.database.TombstoneSchema;
+import com.example.fourquadrant.database.backup.BackupManifest;
+import com.example.fourquadrant.database.backup.BackupStream;
+import com.example.fourquadrant.database.backup.SnapshotCodec;
+import com.example.fourquadrant.database.backup.SnapshotTables;
+import com.example.fourquadrant.database.repository.PomodoroRepository;
+import com.example.fourquadrant.database.repository.ReminderRepository;
+import com.example.fourquadrant.database.repository.TaskRepository;
+import com.example.fourquadrant.utils.AppScheduler;
 import com.example.fourquadrant.database.entity.*;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -12,89 +21,91 @@ import com.google.gson.GsonBuilder;
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 数据备份和恢复管理器
- * 支持将所有应用数据导出为JSON格式，并能重新导入
+ * 备份为GZIP压缩的二进制列式快照（格式见 SnapshotCodec，列定义见 SnapshotTables），逐页导出、分批导入，
+ * 内存占用与数据量无关；仍可导入之前版本的 .json.gz 和未压缩的 .json 备份（BackupStream）。
+ * 增量备份只包含上次备份以来变化的行和删除记录，完整备份和增量备份的链由 BackupManifest 记录
  */
 public class DataBackupManager {
     private static final String TAG = "DataBackupManager";
     private static final String BACKUP_FOLDER = "FourQuadrant_Backups";
     private static final String BACKUP_FILE_PREFIX = "backup_";
-    private static final String BACKUP_FILE_EXTENSION = ".json";
+    private static final String DELTA_FILE_SUFFIX = "_delta";
+    private static final String BACKUP_FILE_EXTENSION = ".fqsnap";
+    private static final String JSON_BACKUP_FILE_EXTENSION = ".json.gz";
+    private static final String LEGACY_BACKUP_FILE_EXTENSION = ".json";
+    private static final String APP_VERSION = "1.0.0"; // 可以从BuildConfig获取
+    
+    // 每页导出/每批导入的行数，每批在一个事务中写入
+    private static final int BATCH_SIZE = BackupStream.DEFAULT_BATCH_SIZE;
+    
+    private static final String BACKUP_TYPE_FULL = "full";
+    private static final String BACKUP_TYPE_DELTA = "delta";
+    
+    // 每天一次自动备份时，约每周做一次完整备份
+    private static final int MAX_DELTAS_PER_CHAIN = 6;
+    
+    // 增量备份起点相对上次高水位的提前量
+    private static final long WATERMARK_OVERLAP_MS = 60 * 1000L;
+    
+    // 清单中删除记录的高水位（seq）
+    private static final String MARK_TOMBSTONES = "backup_tombstones";
+    
+    // 之前版本JSON备份中的各张表；更早的备份中 user / timerState 是单个对象
+    private static final BackupStream.Section<TaskEntity> TASKS =
+            new BackupStream.Section<>("tasks", TaskEntity.class);
+    private static final BackupStream.Section<PomodoroSessionEntity> POMODORO_SESSIONS =
+            new BackupStream.Section<>("pomodoroSessions", PomodoroSessionEntity.class);
+    private static final BackupStream.Section<ReminderEntity> REMINDERS =
+            new BackupStream.Section<>("reminders", ReminderEntity.class);
+    private static final BackupStream.Section<UserEntity> USERS =
+            new BackupStream.Section<>("users", UserEntity.class, "user");
+    private static final BackupStream.Section<SettingsEntity> SETTINGS =
+            new BackupStream.Section<>("settings", SettingsEntity.class);
+    private static final BackupStream.Section<TimerStateEntity> TIMER_STATES =
+            new BackupStream.Section<>("timerStates", TimerStateEntity.class, "timerState");
+    private static final BackupStream.Section<TombstoneEntity> TOMBSTONES =
+            new BackupStream.Section<>("tombstones", TombstoneEntity.class);
+    
+    private interface SectionWriter {
+        void write(SnapshotCodec.Writer writer) throws Exception;
+    }
     
     private final Context context;
     private final AppDatabase database;
     private final Gson gson;
-    private final ExecutorService executor;
+    private final AppScheduler scheduler;
     
     public DataBackupManager(Context context) {
+        this(context, AppDatabase.getDatabase(context));
+    }
+    
+    // 测试中传入内存数据库
+    DataBackupManager(Context context, AppDatabase database) {
         this.context = context;
-        this.database = AppDatabase.getDatabase(context);
+        this.database = database;
         this.gson = new GsonBuilder()
-                .setPrettyPrinting()
                 .setDateFormat("yyyy-MM-dd HH:mm:ss")
                 .create();
-        this.executor = Executors.newSingleThreadExecutor();
+        this.scheduler = AppScheduler.getInstance();
     }
     
     /**
-     * 备份数据内部类
-     * 包含所有需要备份的实体数据
-     */
-    public static class BackupData {
-        public List<TaskEntity> tasks;
-        public List<PomodoroSessionEntity> pomodoroSessions;
-        public List<ReminderEntity> reminders;
-        public UserEntity user;
-        public List<SettingsEntity> settings;
-        public TimerStateEntity timerState;
-        public long backupTime;
-        public String appVersion;
-        
-        public BackupData() {
-            this.backupTime = System.currentTimeMillis();
-            this.appVersion = "1.0.0"; // 可以从BuildConfig获取
-        }
-    }
-    
-    /**
-     * 导出数据到JSON文件
+     * 导出完整备份，并以它开始新的增量备份链
+     * 先写入临时文件，完整写完后再改名，中途失败不会留下残缺的备份
      * @param callback 导出结果回调
      */
     public void exportData(ExportCallback callback) {
-        executor.execute(() -> {
+        scheduler.read(AppScheduler.Priority.UI, () -> {
             try {
-                // 创建备份数据对象
-                BackupData backupData = new BackupData();
-                
-                // 从数据库同步获取所有数据
-                backupData.tasks = database.taskDao().getAllTasksSync();
-                backupData.pomodoroSessions = database.pomodoroDao().getAllSessionsSync();
-                backupData.reminders = database.reminderDao().getAllRemindersSync();
-                backupData.user = database.userDao().getUserSync();
-                backupData.settings = database.settingsDao().getAllSettingsSync();
-                backupData.timerState = database.timerStateDao().getTimerStateSync();
-                
-                // 转换为JSON
-                String jsonData = gson.toJson(backupData);
-                
-                // 生成备份文件名
-                String fileName = generateBackupFileName();
-                File backupFile = new File(getBackupDirectory(), fileName);
-                
-                // 写入文件
-                try (FileWriter writer = new FileWriter(backupFile)) {
-                    writer.write(jsonData);
-                }
-                
+                File backupFile = writeFullBackup(loadManifest());
                 Log.i(TAG, "数据导出成功: " + backupFile.getAbsolutePath());
                 if (callback != null) {
                     callback.onSuccess(backupFile.getAbsolutePath());
                 }
-                
             } catch (Exception e) {
                 Log.e(TAG, "数据导出失败", e);
                 if (callback != null) {
@@ -105,14 +116,160 @@ public class DataBackupManager {
     }
     
     /**
-     * 从JSON文件导入数据
+     * 导出增量备份（适合定时自动备份）
+     * 只导出上次备份以来变化的行和删除记录；还没有完整备份、链上文件缺失或增量备份已满时改为完整备份
+     * @param callback 导出结果回调
+     */
+    public void exportIncremental(ExportCallback callback) {
+        scheduler.read(AppScheduler.Priority.BACKGROUND, () -> {
+            try {
+                BackupManifest manifest = loadManifest();
+                BackupManifest.Chain chain = manifest.current();
+                File backupFile = isChainUsable(chain)
+                        ? writeDeltaBackup(manifest, chain)
+                        : writeFullBackup(manifest);
+                Log.i(TAG, "自动备份成功: " + backupFile.getAbsolutePath());
+                if (callback != null) {
+                    callback.onSuccess(backupFile.getAbsolutePath());
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "自动备份失败", e);
+                if (callback != null) {
+                    callback.onError("备份失败: " + e.getMessage());
+                }
+            }
+        });
+    }
+    
+    private File writeFullBackup(BackupManifest manifest) throws Exception {
+        // 高水位在导出前读取，导出期间的修改会再进入下一次增量备份
+        Map<String, Long> marks = readMarks();
+        File backupFile = writeBackupFile(generateBackupFileName(false), writer -> {
+            writer.meta("backupType", BACKUP_TYPE_FULL);
+            int tasks = writer.writeTable(SnapshotTables.TASKS, (last, limit) ->
+                    database.taskDao().getTasksAfterIdSync(last != null ? last.getId() : "", limit));
+            int sessions = writer.writeTable(SnapshotTables.POMODORO_SESSIONS, (last, limit) -> last != null
+                    ? database.pomodoroDao().getSessionsPage(last.getStartTime(), last.getId(), limit)
+                    : database.pomodoroDao().getSessionsPage(Long.MAX_VALUE, "", limit));
+            int reminders = writer.writeTable(SnapshotTables.REMINDERS, (last, limit) ->
+                    database.reminderDao().getRemindersAfterIdSync(last != null ? last.getId() : "", limit));
+            writer.writeTable(SnapshotTables.SETTINGS, BackupStream.whole(() -> database.settingsDao().getAllSettingsSync()));
+            writeSmallTables(writer);
+            Log.i(TAG, "完整备份：任务 " + tasks + " 条，番茄钟 " + sessions + " 条，提醒 " + reminders + " 条");
+        });
+        
+        manifest.startChain(backupFile.getName(), marks);
+        manifest.save(getManifestFile(), gson);
+        
+        // 完整备份已经反映了这些删除，之后的增量备份从这里开始
+        long tombstoneMark = marks.get(MARK_TOMBSTONES);
+        scheduler.write(() -> database.tombstoneDao().deleteUpTo(tombstoneMark));
+        return backupFile;
+    }
+    
+    private File writeDeltaBackup(BackupManifest manifest, BackupManifest.Chain chain) throws Exception {
+        Map<String, Long> marks = readMarks();
+        // 修改时间在实体上生成、稍后才提交，起点往前留出余量；重复导出的行恢复时覆盖即可
+        long tasksSince = chain.getMark(TombstoneSchema.TABLE_TASKS) - WATERMARK_OVERLAP_MS;
+        long sessionsSince = chain.getMark(TombstoneSchema.TABLE_POMODORO_SESSIONS) - WATERMARK_OVERLAP_MS;
+        long remindersSince = chain.getMark(TombstoneSchema.TABLE_REMINDERS) - WATERMARK_OVERLAP_MS;
+        long settingsSince = chain.getMark(TombstoneSchema.TABLE_SETTINGS) - WATERMARK_OVERLAP_MS;
+        long tombstonesAfter = chain.getMark(MARK_TOMBSTONES);
+        
+        File backupFile = writeBackupFile(generateBackupFileName(true), writer -> {
+            writer.meta("backupType", BACKUP_TYPE_DELTA);
+            writer.meta("baseFile", chain.getBase());
+            // 删除记录写在前面，恢复时先删除再写入变化的行
+            int tombstones = writer.writeTable(SnapshotTables.TOMBSTONES, (last, limit) ->
+                    database.tombstoneDao().getTombstonesAfterSync(last != null ? last.getSeq() : tombstonesAfter, limit));
+            int tasks = writer.writeTable(SnapshotTables.TASKS, (last, limit) -> last != null
+                    ? database.taskDao().getTasksChangedAfterSync(last.getUpdatedAt(), last.getId(), limit)
+                    : database.taskDao().getTasksChangedAfterSync(tasksSince, "", limit));
+            int sessions = writer.writeTable(SnapshotTables.POMODORO_SESSIONS, (last, limit) -> last != null
+                    ? database.pomodoroDao().getSessionsChangedAfterSync(last.getUpdatedAt(), last.getId(), limit)
+                    : database.pomodoroDao().getSessionsChangedAfterSync(sessionsSince, "", limit));
+            int reminders = writer.writeTable(SnapshotTables.REMINDERS, (last, limit) -> last != null
+                    ? database.reminderDao().getRemindersChangedAfterSync(last.getUpdatedAt(), last.getId(), limit)
+                    : database.reminderDao().getRemindersChangedAfterSync(remindersSince, "", limit));
+            writer.writeTable(SnapshotTables.SETTINGS, BackupStream.whole(() ->
+                    database.settingsDao().getSettingsChangedSinceSync(settingsSince)));
+            writeSmallTables(writer);
+            Log.i(TAG, "增量备份：删除 " + tombstones + " 条，任务 " + tasks + " 条，番茄钟 " + sessions
+                    + " 条，提醒 " + reminders + " 条");
+        });
+        
+        manifest.appendDelta(backupFile.getName(), marks);
+        manifest.save(getManifestFile(), gson);
+        return backupFile;
+    }
+    
+    // 用户信息和计时状态各只有一行，每次备份都完整写出
+    private void writeSmallTables(SnapshotCodec.Writer writer) throws Exception {
+        writer.writeTable(SnapshotTables.USERS, BackupStream.whole(() -> database.userDao().getAllUsersSync()));
+        writer.writeTable(SnapshotTables.TIMER_STATES, BackupStream.whole(() -> {
+            TimerStateEntity timerState = database.timerStateDao().getTimerStateSync();
+            return timerState != null ? Collections.singletonList(timerState) : null;
+        }));
+    }
+    
+    private File writeBackupFile(String fileName, SectionWriter sections) throws Exception {
+        File backupFile = new File(getBackupDirectory(), fileName);
+        File partialFile = new File(backupFile.getPath() + ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(new FileOutputStream(partialFile));
+                 SnapshotCodec.Writer writer = new SnapshotCodec.Writer(out, BATCH_SIZE)) {
+                writer.meta("backupTime", System.currentTimeMillis());
+                writer.meta("appVersion", APP_VERSION);
+                sections.write(writer);
+                writer.finish();
+            }
+            if (!partialFile.renameTo(backupFile)) {
+                throw new IOException("无法保存备份文件: " + backupFile.getAbsolutePath());
+            }
+            return backupFile;
+        } catch (Exception e) {
+            partialFile.delete();
+            throw e;
+        }
+    }
+    
+    private Map<String, Long> readMarks() {
+        Map<String, Long> marks = new HashMap<>();
+        marks.put(TombstoneSchema.TABLE_TASKS, database.taskDao().getMaxUpdatedAtSync());
+        marks.put(TombstoneSchema.TABLE_POMODORO_SESSIONS, database.pomodoroDao().getMaxUpdatedAtSync());
+        marks.put(TombstoneSchema.TABLE_REMINDERS, database.reminderDao().getMaxUpdatedAtSync());
+        marks.put(TombstoneSchema.TABLE_SETTINGS, database.settingsDao().getMaxUpdatedAtSync());
+        marks.put(MARK_TOMBSTONES, database.tombstoneDao().getLastSeqSync());
+        return marks;
+    }
+    
+    // 链上的文件都还在、增量备份未满时才能继续追加
+    private boolean isChainUsable(BackupManifest.Chain chain) {
+        if (chain == null || chain.getDeltas().size() >= MAX_DELTAS_PER_CHAIN) {
+            return false;
+        }
+        File backupDir = getBackupDirectory();
+        if (!new File(backupDir, chain.getBase()).exists()) {
+            return false;
+        }
+        for (String delta : chain.getDeltas()) {
+            if (!new File(backupDir, delta).exists()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 从备份文件导入数据（快照和之前版本的 .json.gz / .json 均可）
+     * 增量备份会先重放所在链的完整备份，再按顺序重放到它为止的各个增量备份。
+     * 每批行数在一个事务中写入；本地日期列按当前时区重新计算，最后重建每日统计汇总
      * @param filePath 备份文件路径
      * @param callback 导入结果回调
      */
     public void importData(String filePath, ImportCallback callback) {
-        executor.execute(() -> {
+        scheduler.write(() -> {
             try {
-                // 读取JSON文件
                 File backupFile = new File(filePath);
                 if (!backupFile.exists()) {
                     if (callback != null) {
@@ -121,48 +278,31 @@ public class DataBackupManager {
                     return;
                 }
                 
-                StringBuilder jsonBuilder = new StringBuilder();
-                try (BufferedReader reader = new BufferedReader(new FileReader(backupFile))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        jsonBuilder.append(line);
+                List<File> files = new ArrayList<>();
+                File backupDir = backupFile.getParentFile();
+                for (String fileName : loadManifest().restorePlan(backupFile.getName())) {
+                    File file = fileName.equals(backupFile.getName()) ? backupFile : new File(backupDir, fileName);
+                    if (!file.exists()) {
+                        if (callback != null) {
+                            callback.onError("缺少所需的备份文件: " + fileName);
+                        }
+                        return;
                     }
+                    files.add(file);
                 }
                 
-                // 解析JSON数据
-                BackupData backupData = gson.fromJson(jsonBuilder.toString(), BackupData.class);
-                
-                // 清空现有数据（可选，根据需求决定）
-                // clearAllData();
-                
-                // 导入数据到数据库
-                if (backupData.tasks != null && !backupData.tasks.isEmpty()) {
-                    database.taskDao().insertTasks(backupData.tasks);
-                }
-                
-                if (backupData.pomodoroSessions != null && !backupData.pomodoroSessions.isEmpty()) {
-                    database.pomodoroDao().insertSessions(backupData.pomodoroSessions);
-                }
-                
-                if (backupData.reminders != null && !backupData.reminders.isEmpty()) {
-                    database.reminderDao().insertReminders(backupData.reminders);
-                }
-                
-                if (backupData.user != null) {
-                    database.userDao().insertUser(backupData.user);
-                }
-                
-                if (backupData.settings != null && !backupData.settings.isEmpty()) {
-                    for (SettingsEntity setting : backupData.settings) {
-                        database.settingsDao().insertSetting(setting);
+                ImportReaders readers = createImportReaders();
+                int rows = 0;
+                for (File file : files) {
+                    try (InputStream in = BackupStream.decompress(new FileInputStream(file))) {
+                        rows += SnapshotCodec.isSnapshot(in) ? readers.snapshot.read(in) : readers.json.read(in);
                     }
                 }
                 
-                if (backupData.timerState != null) {
-                    database.timerStateDao().insertOrUpdateTimerState(backupData.timerState);
-                }
+                // 导入的行已按当前时区分桶，只需重建每日统计汇总
+                database.runInTransaction(() -> database.dailyStatsDao().rebuildAll());
                 
-                Log.i(TAG, "数据导入成功");
+                Log.i(TAG, "数据导入成功，共 " + files.size() + " 个文件 " + rows + " 条");
                 if (callback != null) {
                     callback.onSuccess();
                 }
@@ -176,6 +316,79 @@ public class DataBackupManager {
         });
     }
     
+    // 快照和之前版本的JSON备份共用同一组写入逻辑
+    private static final class ImportReaders {
+        final SnapshotCodec.Reader snapshot = new SnapshotCodec.Reader();
+        final BackupStream.Reader json;
+        
+        ImportReaders(Gson gson) {
+            json = new BackupStream.Reader(gson, BATCH_SIZE);
+        }
+        
+        <T> ImportReaders on(SnapshotCodec.Table<T> table, BackupStream.Section<T> section,
+                             BackupStream.BatchSink<T> sink) {
+            snapshot.on(table, sink);
+            json.on(section, sink);
+            return this;
+        }
+    }
+    
+    private ImportReaders createImportReaders() {
+        return new ImportReaders(gson)
+                .on(SnapshotTables.TOMBSTONES, TOMBSTONES, batch -> database.runInTransaction(() -> {
+                    for (TombstoneEntity tombstone : batch) {
+                        applyTombstone(tombstone);
+                    }
+                }))
+                .on(SnapshotTables.TASKS, TASKS, batch -> {
+                    for (TaskEntity task : batch) {
+                        TaskRepository.fillDerivedColumns(task);
+                    }
+                    database.taskDao().upsertTasks(batch);
+                })
+                .on(SnapshotTables.POMODORO_SESSIONS, POMODORO_SESSIONS, batch -> {
+                    for (PomodoroSessionEntity session : batch) {
+                        PomodoroRepository.fillDerivedColumns(session);
+                    }
+                    database.pomodoroDao().insertSessions(batch);
+                })
+                .on(SnapshotTables.REMINDERS, REMINDERS, batch -> {
+                    for (ReminderEntity reminder : batch) {
+                        ReminderRepository.fillDerivedColumns(reminder);
+                    }
+                    database.reminderDao().insertReminders(batch);
+                })
+                .on(SnapshotTables.USERS, USERS, batch -> database.runInTransaction(() -> {
+                    for (UserEntity user : batch) {
+                        database.userDao().insertUser(user);
+                    }
+                }))
+                .on(SnapshotTables.SETTINGS, SETTINGS, batch -> database.settingsDao().insertSettings(batch))
+                .on(SnapshotTables.TIMER_STATES, TIMER_STATES,
+                        batch -> database.timerStateDao().insertOrUpdateTimerState(batch.get(0)));
+    }
+    
+    private void applyTombstone(TombstoneEntity tombstone) {
+        String rowId = tombstone.getRowId();
+        switch (tombstone.getTableName()) {
+            case TombstoneSchema.TABLE_TASKS:
+                database.taskDao().deleteTaskById(rowId);
+                break;
+            case TombstoneSchema.TABLE_POMODORO_SESSIONS:
+                database.pomodoroDao().deleteSessionById(rowId);
+                break;
+            case TombstoneSchema.TABLE_REMINDERS:
+                database.reminderDao().deleteReminderById(rowId);
+                break;
+            case TombstoneSchema.TABLE_SETTINGS:
+                database.settingsDao().deleteSettingByKey(rowId);
+                break;
+            default:
+                Log.w(TAG, "未知的删除记录: " + tombstone.getTableName());
+                break;
+        }
+    }
+    
     /**
      * 获取备份文件列表
      * @return 备份文件列表
@@ -186,7 +399,9 @@ public class DataBackupManager {
         
         if (backupDir.exists() && backupDir.isDirectory()) {
             File[] files = backupDir.listFiles((dir, name) -> 
-                name.startsWith(BACKUP_FILE_PREFIX) && name.endsWith(BACKUP_FILE_EXTENSION));
+                name.startsWith(BACKUP_FILE_PREFIX)
+                    && (name.endsWith(BACKUP_FILE_EXTENSION) || name.endsWith(JSON_BACKUP_FILE_EXTENSION)
+                        || name.endsWith(LEGACY_BACKUP_FILE_EXTENSION)));
             
             if (files != null) {
                 Arrays.sort(files, (f1, f2) -> Long.compare(f2.lastModified(), f1.lastModified()));
@@ -220,13 +435,14 @@ public class DataBackupManager {
      * 清空所有数据（谨慎使用）
      */
     public void clearAllData() {
-        executor.execute(() -> {
+        scheduler.write(() -> {
             try {
                 database.taskDao().deleteAllTasks();
                 database.pomodoroDao().deleteAllSessions();
                 database.reminderDao().deleteAllReminders();
                 database.settingsDao().deleteAllSettings();
                 database.timerStateDao().clearTimerState();
+                database.dailyStatsDao().deleteAll();
                 Log.i(TAG, "所有数据已清空");
             } catch (Exception e) {
                 Log.e(TAG, "清空数据失败", e);
@@ -238,13 +454,14 @@ public class DataBackupManager {
      * 清空所有数据（带回调）
      */
     public void clearAllData(ClearDataCallback callback) {
-        executor.execute(() -> {
+        scheduler.write(() -> {
             try {
                 database.taskDao().deleteAllTasks();
                 database.pomodoroDao().deleteAllSessions();
                 database.reminderDao().deleteAllReminders();
                 database.settingsDao().deleteAllSettings();
                 database.timerStateDao().clearTimerState();
+                database.dailyStatsDao().deleteAll();
                 Log.i(TAG, "所有数据已清空");
                 if (callback != null) {
                     callback.onSuccess();
@@ -260,11 +477,20 @@ public class DataBackupManager {
     
     /**
      * 生成备份文件名
+     * @param delta 是否为增量备份
      * @return 文件名
      */
-    private String generateBackupFileName() {
+    private String generateBackupFileName(boolean delta) {
         SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault());
-        return BACKUP_FILE_PREFIX + sdf.format(new Date()) + BACKUP_FILE_EXTENSION;
+        return BACKUP_FILE_PREFIX + sdf.format(new Date()) + (delta ? DELTA_FILE_SUFFIX : "") + BACKUP_FILE_EXTENSION;
+    }
+    
+    private BackupManifest loadManifest() {
+        return BackupManifest.load(getManifestFile(), gson);
+    }
+    
+    private File getManifestFile() {
+        return new File(getBackupDirectory(), BackupManifest.FILE_NAME);
     }
     
     /**
@@ -307,8 +533,6 @@ public class DataBackupManager {
      * 释放资源
      */
     public void destroy() {
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
+        // 后台任务由全局调度器执行，这里没有需要关闭的线程
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
 import androidx.annotation.NonNull;
 
 import com.example.fourquadrant.database.dao.TaskDao;
@@ -15,15 +16,25 @@ import com.example.fourquadrant.database.dao.ReminderDao;
 import com.example.fourquadrant.database.dao.UserDao;
 import com.example.fourquadrant.database.dao.SettingsDao;
 import com.example.fourquadrant.database.dao.TimerStateDao;
+import com.example.fourquadrant.database.dao.DailyStatsDao;
+import com.example.fourquadrant.database.dao.StatisticsDao;
+import com.example.fourquadrant.database.dao.SearchDao;
+import com.example.fourquadrant.database.dao.TombstoneDao;
+import com.example.fourquadrant.database.dao.StatsSnapshotDao;
 import com.example.fourquadrant.database.entity.TaskEntity;
 import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
 import com.example.fourquadrant.database.entity.ReminderEntity;
 import com.example.fourquadrant.database.entity.UserEntity;
 import com.example.fourquadrant.database.entity.SettingsEntity;
 import com.example.fourquadrant.database.entity.TimerStateEntity;
-
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.example.fourquadrant.database.entity.DailyStatsEntity;
+import com.example.fourquadrant.database.entity.SearchIndexEntity;
+import com.example.fourquadrant.database.entity.SearchIndexKeyEntity;
+import com.example.fourquadrant.database.entity.TombstoneEntity;
+import com.example.fourquadrant.database.entity.StatsSnapshotEntity;
+import com.example.fourquadrant.database.entity.StatsGenerationEntity;
+import com.example.fourquadrant.BuildConfig;
+import com.example.fourquadrant.utils.AppScheduler;
 
 /**
  * Room数据库类
@@ -35,10 +46,16 @@ import java.util.concurrent.Executors;
         ReminderEntity.class,
         UserEntity.class,
         SettingsEntity.class,
-        TimerStateEntity.class
+        TimerStateEntity.class,
+        DailyStatsEntity.class,
+        SearchIndexEntity.class,
+        TombstoneEntity.class,
+        StatsSnapshotEntity.class,
+        SearchIndexKeyEntity.class,
+        StatsGenerationEntity.class
     },
-    version = 4,
-    exportSchema = false
+    version = 12,
+    exportSchema = true
 )
 public abstract class AppDatabase extends RoomDatabase {
     
@@ -48,11 +65,6 @@ public abstract class AppDatabase extends RoomDatabase {
     // 数据库实例
     private static volatile AppDatabase INSTANCE;
     
-    // 线程池
-    private static final int NUMBER_OF_THREADS = 4;
-    public static final ExecutorService databaseWriteExecutor = 
-        Executors.newFixedThreadPool(NUMBER_OF_THREADS);
-    
     // 抽象方法 - 获取DAO
     public abstract TaskDao taskDao();
     public abstract PomodoroDao pomodoroDao();
@@ -60,6 +72,11 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract UserDao userDao();
     public abstract SettingsDao settingsDao();
     public abstract TimerStateDao timerStateDao();
+    public abstract DailyStatsDao dailyStatsDao();
+    public abstract StatisticsDao statisticsDao();
+    public abstract SearchDao searchDao();
+    public abstract TombstoneDao tombstoneDao();
+    public abstract StatsSnapshotDao statsSnapshotDao();
     
     // 数据库迁移：从版本1到版本2
     static final Migration MIGRATION_1_2 = new Migration(1, 2) {
@@ -98,6 +115,166 @@ public abstract class AppDatabase extends RoomDatabase {
         }
     };
     
+    // 数据库迁移：从版本4到版本5
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // 为统计和列表查询添加复合索引，避免全表扫描
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_is_deleted_is_completed_completed_at " +
+                "ON tasks (is_deleted, is_completed, completed_at)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_is_deleted_is_completed_quadrant " +
+                "ON tasks (is_deleted, is_completed, quadrant)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_is_deleted_created_at " +
+                "ON tasks (is_deleted, created_at)");
+            
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_pomodoro_sessions_start_time " +
+                "ON pomodoro_sessions (start_time)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_pomodoro_sessions_is_completed_is_break_session_start_time " +
+                "ON pomodoro_sessions (is_completed, is_break_session, start_time)");
+            
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_reminder_time " +
+                "ON reminders (reminder_time)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_created_at " +
+                "ON reminders (created_at)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_is_active_reminder_time " +
+                "ON reminders (is_active, reminder_time)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_status_reminder_time " +
+                "ON reminders (status, reminder_time)");
+        }
+    };
+    
+    // 数据库迁移：从版本5到版本6
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // 创建每日统计汇总表，并从已有任务和番茄钟记录回填
+            database.execSQL("CREATE TABLE IF NOT EXISTS daily_stats (" +
+                "day INTEGER NOT NULL, " +
+                "q1_completed INTEGER NOT NULL DEFAULT 0, " +
+                "q2_completed INTEGER NOT NULL DEFAULT 0, " +
+                "q3_completed INTEGER NOT NULL DEFAULT 0, " +
+                "q4_completed INTEGER NOT NULL DEFAULT 0, " +
+                "importance_sum INTEGER NOT NULL DEFAULT 0, " +
+                "pomodoro_count INTEGER NOT NULL DEFAULT 0, " +
+                "focus_minutes INTEGER NOT NULL DEFAULT 0, " +
+                "updated_at INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY(day))");
+            database.execSQL(DailyStatsDao.REBUILD_ALL_SQL);
+        }
+    };
+    
+    // 数据库迁移：从版本6到版本7
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // 提醒按本地纪元日分桶，日历按天查询走索引
+            database.execSQL("ALTER TABLE reminders ADD COLUMN local_day INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE reminders SET local_day = " + ReminderDao.LOCAL_DAY_OF_REMINDER_TIME);
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_local_day_reminder_time " +
+                "ON reminders (local_day, reminder_time)");
+        }
+    };
+    
+    // 数据库迁移：从版本7到版本8
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // 任务完成时间和番茄钟开始时间按本地纪元日/小时分桶，按天按小时统计走索引范围
+            database.execSQL("ALTER TABLE tasks ADD COLUMN completed_local_day INTEGER");
+            database.execSQL("ALTER TABLE tasks ADD COLUMN completed_local_hour INTEGER");
+            database.execSQL("UPDATE tasks SET " +
+                "completed_local_day = " + DailyStatsDao.LOCAL_DAY_OF_COMPLETED_AT + ", " +
+                "completed_local_hour = " + TaskDao.LOCAL_HOUR_OF_COMPLETED_AT + " " +
+                "WHERE completed_at IS NOT NULL");
+            database.execSQL("CREATE INDEX IF NOT EXISTS " +
+                "index_tasks_is_deleted_is_completed_completed_local_day_completed_local_hour_completed_at " +
+                "ON tasks (is_deleted, is_completed, completed_local_day, completed_local_hour, completed_at)");
+            
+            database.execSQL("ALTER TABLE pomodoro_sessions ADD COLUMN start_local_day INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE pomodoro_sessions ADD COLUMN start_local_hour INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE pomodoro_sessions SET " +
+                "start_local_day = " + DailyStatsDao.LOCAL_DAY_OF_START_TIME + ", " +
+                "start_local_hour = " + PomodoroDao.LOCAL_HOUR_OF_START_TIME);
+            database.execSQL("CREATE INDEX IF NOT EXISTS " +
+                "index_pomodoro_sessions_is_completed_is_break_session_start_local_day_start_local_hour_start_time " +
+                "ON pomodoro_sessions (is_completed, is_break_session, start_local_day, start_local_hour, start_time)");
+        }
+    };
+    
+    // 数据库迁移：从版本8到版本9
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // 全文检索：源表保存分词后的词串，由触发器同步到 search_index
+            SearchIndexSchema.createTables(database);
+            database.execSQL("ALTER TABLE tasks ADD COLUMN search_terms TEXT");
+            database.execSQL("ALTER TABLE reminders ADD COLUMN search_terms TEXT");
+            database.execSQL("ALTER TABLE pomodoro_sessions ADD COLUMN search_terms TEXT");
+            SearchIndexSchema.backfill(database);
+            SearchIndexSchema.createTriggers(database);
+            
+            // 番茄钟历史按任务名称汇总
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_pomodoro_sessions_task_name " +
+                "ON pomodoro_sessions (task_name)");
+        }
+    };
+    
+    // 数据库迁移：从版本9到版本10
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // TaskIndex 按 updated_at 增量同步，并用未删除任务的计数和 updated_at 之和校验
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_tasks_is_deleted_updated_at " +
+                "ON tasks (is_deleted, updated_at)");
+        }
+    };
+    
+    // 数据库迁移：从版本10到版本11
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // 增量备份：番茄钟记录增加修改时间，各表按 updated_at 导出变化的行，删除由触发器记录
+            database.execSQL("ALTER TABLE pomodoro_sessions ADD COLUMN updated_at INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE pomodoro_sessions SET updated_at = COALESCE(end_time, created_at)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_pomodoro_sessions_updated_at " +
+                "ON pomodoro_sessions (updated_at)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_reminders_updated_at " +
+                "ON reminders (updated_at)");
+            database.execSQL(TombstoneSchema.CREATE_TABLE_SQL);
+            database.execSQL(TombstoneSchema.CREATE_INDEX_SQL);
+            TombstoneSchema.createTriggers(database);
+        }
+    };
+    
+    // 数据库迁移：从版本11到版本12
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // 后台预先计算的统计结果，统计页面打开时先显示；由 StatisticsPrecomputeWorker 填充
+            database.execSQL("CREATE TABLE IF NOT EXISTS stats_snapshots (" +
+                "range_key TEXT NOT NULL, " +
+                "start_time INTEGER NOT NULL, " +
+                "end_time INTEGER NOT NULL, " +
+                "source_updated_at INTEGER NOT NULL, " +
+                "source_deleted_seq INTEGER NOT NULL, " +
+                "source_generation INTEGER NOT NULL DEFAULT 0, " +
+                "computed_at INTEGER NOT NULL, " +
+                "completed_tasks INTEGER NOT NULL, " +
+                "pomodoro_count INTEGER NOT NULL, " +
+                "completion_rate REAL NOT NULL, " +
+                "avg_importance REAL NOT NULL, " +
+                "trend_json TEXT, " +
+                "quadrant_json TEXT, " +
+                "suggestions_json TEXT, " +
+                "PRIMARY KEY(range_key))");
+            // 统计源数据代数：恢复备份和重新分桶会改写行却不推进 updated_at，由每日汇总重建时加一
+            database.execSQL("CREATE TABLE IF NOT EXISTS stats_generation (" +
+                "id INTEGER NOT NULL, " +
+                "generation INTEGER NOT NULL, " +
+                "PRIMARY KEY(id))");
+        }
+    };
+    
     /**
      * 获取数据库实例（单例模式）
      */
@@ -105,15 +282,23 @@ public abstract class AppDatabase extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
+                    RoomDatabase.Builder<AppDatabase> builder = Room.databaseBuilder(
                         context.getApplicationContext(),
                         AppDatabase.class,
                         DATABASE_NAME
                     )
                     .addCallback(sRoomDatabaseCallback) // 添加回调
-                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4) // 添加迁移
-                    .allowMainThreadQueries() // 允许主线程查询
-                    .build();
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12) // 添加迁移
+                    // LiveData查询和失效通知走读通道，事务走串行写通道
+                    .setQueryExecutor(AppScheduler.getInstance().readExecutor(AppScheduler.Priority.UI))
+                    .setTransactionExecutor(AppScheduler.getInstance().writeExecutor());
+                    
+                    // 调试包记录每条主线程查询的SQL、耗时和调用栈，并直接抛异常（包括绕过DAO的原始SQL）
+                    if (BuildConfig.DEBUG) {
+                        MainThreadQueryDetector.setStrict(true);
+                        builder.openHelperFactory(MainThreadQueryDetector.wrap(new FrameworkSQLiteOpenHelperFactory()));
+                    }
+                    INSTANCE = builder.build();
                 }
             }
         }
@@ -128,9 +313,13 @@ public abstract class AppDatabase extends RoomDatabase {
         public void onCreate(@NonNull SupportSQLiteDatabase db) {
             super.onCreate(db);
             
+            // search_index 的同步触发器和删除记录触发器不在Room生成的建表语句中
+            SearchIndexSchema.createTriggers(db);
+            TombstoneSchema.createTriggers(db);
+            
             // 数据库创建后的初始化操作
             // 在后台线程中异步初始化默认设置，避免并发访问问题
-            databaseWriteExecutor.execute(() -> {
+            AppScheduler.getInstance().write(() -> {
                 try {
                     // 等待数据库完全初始化
                     Thread.sleep(100);
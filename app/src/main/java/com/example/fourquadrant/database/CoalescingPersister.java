@@ -0,0 +1,114 @@
+package com.example.fourquadrant.database;
+
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * 合并写入的后写持久化器
+ * 只在内存中保留最新值，一个间隔内的多次更新合并为一次写入；
+ * 生命周期事件（服务销毁、任务移除、计时结束）调用 flush() 立即写出最新值。
+ * 写入都在同一个串行执行器上完成，discard() 之后不会再写出旧值。
+ */
+public class CoalescingPersister<T> {
+
+    /**
+     * 实际写入（在写执行器线程上调用）
+     */
+    public interface Writer<T> {
+        void write(T value);
+    }
+
+    /**
+     * 延迟调度，到期后在写执行器上运行任务
+     */
+    public interface DelayScheduler {
+        void schedule(Runnable task, long delayMs);
+    }
+
+    private final Writer<T> writer;
+    private final Executor writeExecutor;
+    private final DelayScheduler delayScheduler;
+    private final LongSupplier clock;
+    private final long intervalMs;
+
+    private final Object lock = new Object();
+    private T pending;
+    private boolean flushScheduled;
+    private long lastWriteAt = Long.MIN_VALUE;
+    private long writeCount;
+
+    public CoalescingPersister(Writer<T> writer, Executor writeExecutor, DelayScheduler delayScheduler,
+                               LongSupplier clock, long intervalMs) {
+        this.writer = writer;
+        this.writeExecutor = writeExecutor;
+        this.delayScheduler = delayScheduler;
+        this.clock = clock;
+        this.intervalMs = intervalMs;
+    }
+
+    /**
+     * 记录最新值；距上次写入已超过间隔时尽快写出，否则等到间隔结束再写
+     */
+    public void update(T value) {
+        long delay;
+        synchronized (lock) {
+            pending = value;
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+            long now = clock.getAsLong();
+            delay = lastWriteAt == Long.MIN_VALUE ? 0 : Math.max(0, lastWriteAt + intervalMs - now);
+        }
+        delayScheduler.schedule(this::writeScheduled, delay);
+    }
+
+    /**
+     * 立即写出尚未保存的最新值（没有待写值时不做任何事）
+     */
+    public void flush() {
+        T value;
+        synchronized (lock) {
+            value = pending;
+            pending = null;
+        }
+        if (value != null) {
+            writeExecutor.execute(() -> writeNow(value));
+        }
+    }
+
+    /**
+     * 丢弃尚未保存的值，用于状态被清除或被其他写入覆盖的场景
+     */
+    public void discard() {
+        synchronized (lock) {
+            pending = null;
+        }
+    }
+
+    public long getWriteCount() {
+        synchronized (lock) {
+            return writeCount;
+        }
+    }
+
+    private void writeScheduled() {
+        T value;
+        synchronized (lock) {
+            flushScheduled = false;
+            value = pending;
+            pending = null;
+        }
+        if (value != null) {
+            writeNow(value);
+        }
+    }
+
+    private void writeNow(T value) {
+        synchronized (lock) {
+            lastWriteAt = clock.getAsLong();
+            writeCount++;
+        }
+        writer.write(value);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.fourquadrant.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+import androidx.room.RoomDatabase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 按键集（seek）分页加载的列表LiveData
+ * 每页以上一页最后一条的排序键为起点查询，不使用OFFSET，翻页代价与历史数据量无关；
+ * 只加载滚动到的页，内存随浏览量增长而不是随表大小增长。
+ * 监听表在事务提交后失效时，按当前已加载条数重新从头加载一次，列表位置保持不变。
+ */
+public class KeysetPagedLiveData<T> extends LiveData<List<T>> {
+
+    private static final String TAG = "KeysetPagedLiveData";
+
+    /**
+     * 分页查询：返回排序在 after 之后的至多 limit 条，after 为 null 时从第一条开始
+     */
+    public interface PageLoader<T> {
+        List<T> load(@Nullable T after, int limit);
+    }
+
+    private final RoomDatabase database;
+    private final PageLoader<T> loader;
+    private final int pageSize;
+    private final InvalidationTracker.Observer observer;
+
+    private final Object lock = new Object();
+    private List<T> items = Collections.emptyList();
+    private volatile int loadedCount;
+    private volatile boolean endReached;
+
+    private final AtomicBoolean invalid = new AtomicBoolean(true);
+    private final AtomicBoolean loadingMore = new AtomicBoolean(false);
+    private final AtomicBoolean registered = new AtomicBoolean(false);
+
+    private final Runnable reloadRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (registered.compareAndSet(false, true)) {
+                database.getInvalidationTracker().addObserver(observer);
+            }
+            synchronized (lock) {
+                while (invalid.compareAndSet(true, false)) {
+                    int count = Math.max(pageSize, loadedCount);
+                    try {
+                        publish(loader.load(null, count), count);
+                    } catch (Exception e) {
+                        android.util.Log.e(TAG, "Error reloading pages", e);
+                    }
+                }
+            }
+        }
+    };
+
+    private final Runnable loadMoreRunnable = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                synchronized (lock) {
+                    // 失效后由重新加载负责，避免在旧数据后面拼接
+                    if (endReached || invalid.get()) {
+                        return;
+                    }
+                    T last = items.isEmpty() ? null : items.get(items.size() - 1);
+                    List<T> page = loader.load(last, pageSize);
+                    List<T> next = new ArrayList<>(items.size() + page.size());
+                    next.addAll(items);
+                    next.addAll(page);
+                    publish(next, items.size() + pageSize);
+                }
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Error loading next page", e);
+            } finally {
+                loadingMore.set(false);
+            }
+        }
+    };
+
+    private final Runnable unregisterRunnable = () -> {
+        if (!hasActiveObservers() && registered.compareAndSet(true, false)) {
+            database.getInvalidationTracker().removeObserver(observer);
+            // 停止监听期间的变化无法感知，下次激活时重新加载
+            invalid.set(true);
+        }
+    };
+
+    public KeysetPagedLiveData(RoomDatabase database, String[] tableNames, int pageSize, PageLoader<T> loader) {
+        this.database = database;
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.observer = new InvalidationTracker.Observer(tableNames) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalid.set(true);
+                if (hasActiveObservers()) {
+                    database.getQueryExecutor().execute(reloadRunnable);
+                }
+            }
+        };
+    }
+
+    /**
+     * 加载下一页；已在加载或已到末尾时忽略
+     */
+    public void loadMore() {
+        if (!endReached && loadingMore.compareAndSet(false, true)) {
+            database.getQueryExecutor().execute(loadMoreRunnable);
+        }
+    }
+
+    /**
+     * 列表显示到 position 时调用，距已加载末尾不足半页时预取下一页
+     */
+    public void onItemVisible(int position) {
+        if (position >= loadedCount - pageSize / 2) {
+            loadMore();
+        }
+    }
+
+    public boolean isEndReached() {
+        return endReached;
+    }
+
+    // 调用方持有 lock
+    private void publish(List<T> loaded, int requested) {
+        items = loaded;
+        loadedCount = loaded.size();
+        endReached = loaded.size() < requested;
+        postValue(Collections.unmodifiableList(new ArrayList<>(loaded)));
+    }
+
+    @Override
+    protected void onActive() {
+        super.onActive();
+        database.getQueryExecutor().execute(reloadRunnable);
+    }
+
+    @Override
+    protected void onInactive() {
+        super.onInactive();
+        database.getQueryExecutor().execute(unregisterRunnable);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.fourquadrant.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.util.TimeZone;
+
+/**
+ * 本地日期分桶维护
+ * 任务/番茄钟/提醒的本地日期列和 daily_stats 表都按“写入时的时区”计算本地纪元日，
+ * 时区变化后需要按新时区重新分桶。记录上次分桶所用的时区，不一致时重算。
+ */
+public final class LocalDayMaintenance {
+
+    private static final String TAG = "LocalDayMaintenance";
+    private static final String PREF_NAME = "local_day_prefs";
+    private static final String KEY_BUCKET_TIME_ZONE = "bucket_time_zone";
+
+    private LocalDayMaintenance() {
+    }
+
+    /**
+     * 当前时区与上次分桶时区不同（或从未记录）时重新分桶，已一致时只读一次SharedPreferences
+     */
+    public static void ensureBucketsMatchTimeZone(Context context) {
+        synchronized (LocalDayMaintenance.class) {
+            SharedPreferences prefs = context.getApplicationContext()
+                    .getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+            TimeZone timeZone = TimeZone.getDefault();
+            if (timeZone.getID().equals(prefs.getString(KEY_BUCKET_TIME_ZONE, null))) {
+                return;
+            }
+
+            try {
+                AppDatabase database = AppDatabase.getDatabase(context);
+                database.runInTransaction(() -> rebucket(database, timeZone));
+                prefs.edit().putString(KEY_BUCKET_TIME_ZONE, timeZone.getID()).apply();
+            } catch (Exception e) {
+                // 不记录时区，下次再试
+                Log.e(TAG, "重新分桶失败", e);
+            }
+        }
+    }
+
+    /**
+     * 按给定时区重新计算所有本地日期列并重建每日汇总
+     * 调用方负责事务
+     */
+    public static void rebucket(AppDatabase database, TimeZone timeZone) {
+        int tasks = database.taskDao().rebucketLocalDays(timeZone);
+        int sessions = database.pomodoroDao().rebucketLocalDays(timeZone);
+        int reminders = database.reminderDao().rebucketLocalDays(timeZone);
+        database.dailyStatsDao().rebuildAll();
+        Log.i(TAG, "按时区 " + timeZone.getID() + " 重新分桶，更新任务 " + tasks + " 条，番茄钟 "
+                + sessions + " 条，提醒 " + reminders + " 条");
+    }
+}
@@ -0,0 +1,516 @@
+package com.example.fourquadrant.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteTransactionListener;
+import android.os.CancellationSignal;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 主线程查询检测（仅调试包启用）
+ * 包装 SupportSQLiteOpenHelper，记录在主线程上执行的每条SQL、耗时和调用栈；
+ * 严格模式下直接抛出异常；Room 只检查DAO查询，这里还覆盖直接通过 SupportSQLiteDatabase 执行的SQL
+ */
+public final class MainThreadQueryDetector {
+
+    private static final String TAG = "MainThreadQuery";
+    private static final int MAX_VIOLATIONS = 100;
+
+    private static final ArrayDeque<Violation> violations = new ArrayDeque<>();
+    private static volatile boolean strict = false;
+
+    private MainThreadQueryDetector() {
+    }
+
+    /**
+     * 包装原有的OpenHelper工厂
+     */
+    public static SupportSQLiteOpenHelper.Factory wrap(SupportSQLiteOpenHelper.Factory delegate) {
+        return configuration -> new DetectingOpenHelper(delegate.create(configuration));
+    }
+
+    /**
+     * 严格模式：主线程查询在执行前抛出 IllegalStateException
+     */
+    public static void setStrict(boolean enabled) {
+        strict = enabled;
+    }
+
+    public static boolean isStrict() {
+        return strict;
+    }
+
+    /**
+     * 最近记录的主线程查询（最多保留 MAX_VIOLATIONS 条，旧的先丢弃）
+     */
+    public static List<Violation> getViolations() {
+        synchronized (violations) {
+            return new ArrayList<>(violations);
+        }
+    }
+
+    public static void clearViolations() {
+        synchronized (violations) {
+            violations.clear();
+        }
+    }
+
+    /**
+     * 一次主线程查询记录
+     */
+    public static class Violation {
+        public final String sql;
+        public final long durationMs;
+        public final long timestamp;
+        public final Throwable stack;
+
+        Violation(String sql, long durationMs, Throwable stack) {
+            this.sql = sql;
+            this.durationMs = durationMs;
+            this.timestamp = System.currentTimeMillis();
+            this.stack = stack;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%dms: %s", durationMs, sql);
+        }
+    }
+
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    /**
+     * 主线程上调用时返回开始时间；严格模式下直接抛出；非主线程返回-1
+     */
+    private static long begin(String sql) {
+        if (!isMainThread()) {
+            return -1;
+        }
+        if (strict) {
+            throw new IllegalStateException("主线程数据库查询: " + sql);
+        }
+        return SystemClock.elapsedRealtime();
+    }
+
+    private static void end(String sql, long startedAt) {
+        if (startedAt < 0) {
+            return;
+        }
+        Violation violation = new Violation(sql, SystemClock.elapsedRealtime() - startedAt,
+            new Throwable("主线程查询调用栈"));
+        synchronized (violations) {
+            if (violations.size() >= MAX_VIOLATIONS) {
+                violations.removeFirst();
+            }
+            violations.addLast(violation);
+        }
+        Log.w(TAG, violation.toString(), violation.stack);
+    }
+
+    private static final class DetectingOpenHelper implements SupportSQLiteOpenHelper {
+
+        private final SupportSQLiteOpenHelper delegate;
+        private volatile DetectingDatabase database;
+
+        DetectingOpenHelper(SupportSQLiteOpenHelper delegate) {
+            this.delegate = delegate;
+        }
+
+        private SupportSQLiteDatabase wrap(SupportSQLiteDatabase db) {
+            DetectingDatabase current = database;
+            if (current == null || current.delegate != db) {
+                current = new DetectingDatabase(db);
+                database = current;
+            }
+            return current;
+        }
+
+        @Nullable
+        @Override
+        public String getDatabaseName() {
+            return delegate.getDatabaseName();
+        }
+
+        @Override
+        public void setWriteAheadLoggingEnabled(boolean enabled) {
+            delegate.setWriteAheadLoggingEnabled(enabled);
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            return wrap(delegate.getWritableDatabase());
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            return wrap(delegate.getReadableDatabase());
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private static final class DetectingDatabase implements SupportSQLiteDatabase {
+
+        final SupportSQLiteDatabase delegate;
+
+        DetectingDatabase(SupportSQLiteDatabase delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * 主线程上立即取一次行数，让游标在计时范围内完成填充
+         */
+        private Cursor timed(String sql, long startedAt, Cursor cursor) {
+            if (startedAt >= 0) {
+                cursor.getCount();
+                end(sql, startedAt);
+            }
+            return cursor;
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteStatement compileStatement(@NonNull String sql) {
+            return new DetectingStatement(delegate.compileStatement(sql), sql);
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query) {
+            long startedAt = begin(query);
+            return timed(query, startedAt, delegate.query(query));
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query, @NonNull Object[] bindArgs) {
+            long startedAt = begin(query);
+            return timed(query, startedAt, delegate.query(query, bindArgs));
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query) {
+            long startedAt = begin(query.getSql());
+            return timed(query.getSql(), startedAt, delegate.query(query));
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query, @Nullable CancellationSignal cancellationSignal) {
+            long startedAt = begin(query.getSql());
+            return timed(query.getSql(), startedAt, delegate.query(query, cancellationSignal));
+        }
+
+        @Override
+        public long insert(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values) throws SQLException {
+            String sql = "INSERT INTO " + table;
+            long startedAt = begin(sql);
+            long result = delegate.insert(table, conflictAlgorithm, values);
+            end(sql, startedAt);
+            return result;
+        }
+
+        @Override
+        public int delete(@NonNull String table, @Nullable String whereClause, @Nullable Object[] whereArgs) {
+            String sql = "DELETE FROM " + table + (whereClause != null ? " WHERE " + whereClause : "");
+            long startedAt = begin(sql);
+            int result = delegate.delete(table, whereClause, whereArgs);
+            end(sql, startedAt);
+            return result;
+        }
+
+        @Override
+        public int update(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values,
+                          @Nullable String whereClause, @Nullable Object[] whereArgs) {
+            String sql = "UPDATE " + table + (whereClause != null ? " WHERE " + whereClause : "");
+            long startedAt = begin(sql);
+            int result = delegate.update(table, conflictAlgorithm, values, whereClause, whereArgs);
+            end(sql, startedAt);
+            return result;
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql) throws SQLException {
+            long startedAt = begin(sql);
+            delegate.execSQL(sql);
+            end(sql, startedAt);
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql, @NonNull Object[] bindArgs) throws SQLException {
+            long startedAt = begin(sql);
+            delegate.execSQL(sql, bindArgs);
+            end(sql, startedAt);
+        }
+
+        // 以下方法不执行SQL，直接转发
+
+        @Override
+        public void beginTransaction() {
+            delegate.beginTransaction();
+        }
+
+        @Override
+        public void beginTransactionNonExclusive() {
+            delegate.beginTransactionNonExclusive();
+        }
+
+        @Override
+        public void beginTransactionWithListener(@NonNull SQLiteTransactionListener transactionListener) {
+            delegate.beginTransactionWithListener(transactionListener);
+        }
+
+        @Override
+        public void beginTransactionWithListenerNonExclusive(@NonNull SQLiteTransactionListener transactionListener) {
+            delegate.beginTransactionWithListenerNonExclusive(transactionListener);
+        }
+
+        @Override
+        public void endTransaction() {
+            delegate.endTransaction();
+        }
+
+        @Override
+        public void setTransactionSuccessful() {
+            delegate.setTransactionSuccessful();
+        }
+
+        @Override
+        public boolean inTransaction() {
+            return delegate.inTransaction();
+        }
+
+        @Override
+        public boolean isDbLockedByCurrentThread() {
+            return delegate.isDbLockedByCurrentThread();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely() {
+            return delegate.yieldIfContendedSafely();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely(long sleepAfterYieldDelayMillis) {
+            return delegate.yieldIfContendedSafely(sleepAfterYieldDelayMillis);
+        }
+
+        @Override
+        public boolean isExecPerConnectionSQLSupported() {
+            return delegate.isExecPerConnectionSQLSupported();
+        }
+
+        @Override
+        public void execPerConnectionSQL(@NonNull String sql, @Nullable Object[] bindArgs) {
+            delegate.execPerConnectionSQL(sql, bindArgs);
+        }
+
+        @Override
+        public int getVersion() {
+            return delegate.getVersion();
+        }
+
+        @Override
+        public void setVersion(int version) {
+            delegate.setVersion(version);
+        }
+
+        @Override
+        public long getMaximumSize() {
+            return delegate.getMaximumSize();
+        }
+
+        @Override
+        public long setMaximumSize(long numBytes) {
+            return delegate.setMaximumSize(numBytes);
+        }
+
+        @Override
+        public long getPageSize() {
+            return delegate.getPageSize();
+        }
+
+        @Override
+        public void setPageSize(long pageSize) {
+            delegate.setPageSize(pageSize);
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return delegate.isReadOnly();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public boolean needUpgrade(int newVersion) {
+            return delegate.needUpgrade(newVersion);
+        }
+
+        @Nullable
+        @Override
+        public String getPath() {
+            return delegate.getPath();
+        }
+
+        @Override
+        public void setLocale(@NonNull Locale locale) {
+            delegate.setLocale(locale);
+        }
+
+        @Override
+        public void setMaxSqlCacheSize(int cacheSize) {
+            delegate.setMaxSqlCacheSize(cacheSize);
+        }
+
+        @Override
+        public void setForeignKeyConstraintsEnabled(boolean enabled) {
+            delegate.setForeignKeyConstraintsEnabled(enabled);
+        }
+
+        @Override
+        public boolean enableWriteAheadLogging() {
+            return delegate.enableWriteAheadLogging();
+        }
+
+        @Override
+        public void disableWriteAheadLogging() {
+            delegate.disableWriteAheadLogging();
+        }
+
+        @Override
+        public boolean isWriteAheadLoggingEnabled() {
+            return delegate.isWriteAheadLoggingEnabled();
+        }
+
+        @Nullable
+        @Override
+        public List<Pair<String, String>> getAttachedDbs() {
+            return delegate.getAttachedDbs();
+        }
+
+        @Override
+        public boolean isDatabaseIntegrityOk() {
+            return delegate.isDatabaseIntegrityOk();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static final class DetectingStatement implements SupportSQLiteStatement {
+
+        private final SupportSQLiteStatement delegate;
+        private final String sql;
+
+        DetectingStatement(SupportSQLiteStatement delegate, String sql) {
+            this.delegate = delegate;
+            this.sql = sql;
+        }
+
+        @Override
+        public void execute() {
+            long startedAt = begin(sql);
+            delegate.execute();
+            end(sql, startedAt);
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            long startedAt = begin(sql);
+            int result = delegate.executeUpdateDelete();
+            end(sql, startedAt);
+            return result;
+        }
+
+        @Override
+        public long executeInsert() {
+            long startedAt = begin(sql);
+            long result = delegate.executeInsert();
+            end(sql, startedAt);
+            return result;
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            long startedAt = begin(sql);
+            long result = delegate.simpleQueryForLong();
+            end(sql, startedAt);
+            return result;
+        }
+
+        @Nullable
+        @Override
+        public String simpleQueryForString() {
+            long startedAt = begin(sql);
+            String result = delegate.simpleQueryForString();
+            end(sql, startedAt);
+            return result;
+        }
+
+        @Override
+        public void bindNull(int index) {
+            delegate.bindNull(index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            delegate.bindLong(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            delegate.bindDouble(index, value);
+        }
+
+        @Override
+        public void bindString(int index, @NonNull String value) {
+            delegate.bindString(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, @NonNull byte[] value) {
+            delegate.bindBlob(index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            delegate.clearBindings();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
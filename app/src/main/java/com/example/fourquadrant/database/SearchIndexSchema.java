@@ -0,0 +1,171 @@
+package com.example.fourquadrant.database;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.fourquadrant.database.entity.SearchIndexEntity;
+import com.example.fourquadrant.utils.SearchTokenizer;
+
+/**
+ * 全文检索索引的表结构、同步触发器和回填
+ * search_index 的 rowid 来自 search_index_keys：每个 (ref_type, ref_id) 分配一个固定的 docid，
+ * 触发器按源表主键查 docid 后增删索引行，不扫描索引表，也不依赖源表 rowid（VACUUM 可能重新编号）。
+ * 插入后先删除同主键旧行对应的索引行，覆盖 REPLACE 冲突策略下旧行被替换的情况。
+ */
+public final class SearchIndexSchema {
+
+    // 与 Room 根据 SearchIndexEntity 生成的建表语句一致（迁移时使用）
+    static final String CREATE_TABLE_SQL =
+            "CREATE VIRTUAL TABLE IF NOT EXISTS `search_index` USING FTS4(" +
+            "`kind` TEXT, `ref_id` TEXT, `title` TEXT, `terms` TEXT, `sort_time` INTEGER NOT NULL, " +
+            "tokenize=unicode61, notindexed=`kind`, notindexed=`ref_id`, notindexed=`title`, notindexed=`sort_time`)";
+
+    // 与 Room 根据 SearchIndexKeyEntity 生成的建表语句一致（迁移时使用）
+    static final String CREATE_KEYS_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS `search_index_keys` (`docid` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+            "`ref_type` TEXT NOT NULL, `ref_id` TEXT NOT NULL)";
+    static final String CREATE_KEYS_INDEX_SQL =
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_search_index_keys_ref_type_ref_id` " +
+            "ON `search_index_keys` (`ref_type`, `ref_id`)";
+
+    private static final String INSERT_INDEX_SQL =
+            "INSERT OR REPLACE INTO search_index (rowid, kind, ref_id, title, terms, sort_time) ";
+
+    private static final Source[] SOURCES = {
+        new Source("tasks", SearchIndexEntity.KIND_TASK, "name", "created_at",
+                "is_deleted = 0", "is_deleted"),
+        new Source("reminders", SearchIndexEntity.KIND_REMINDER, "content", "created_at",
+                null, null),
+        new Source("pomodoro_sessions", SearchIndexEntity.KIND_SESSION, "task_name", "start_time",
+                null, null)
+    };
+
+    private SearchIndexSchema() {
+    }
+
+    /**
+     * 创建索引表和 docid 分配表（迁移时调用，新建数据库由 Room 创建）
+     */
+    static void createTables(SupportSQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_SQL);
+        db.execSQL(CREATE_KEYS_TABLE_SQL);
+        db.execSQL(CREATE_KEYS_INDEX_SQL);
+    }
+
+    /**
+     * 创建同步触发器（新建数据库和迁移时调用）
+     */
+    static void createTriggers(SupportSQLiteDatabase db) {
+        for (Source source : SOURCES) {
+            for (String sql : source.triggers()) {
+                db.execSQL(sql);
+            }
+        }
+    }
+
+    /**
+     * 为已有数据计算 search_terms 并重建索引，需在创建触发器之前调用
+     */
+    static void backfill(SupportSQLiteDatabase db) {
+        for (Source source : SOURCES) {
+            try (Cursor cursor = db.query("SELECT rowid, " + source.titleColumn + " FROM " + source.table
+                    + " WHERE " + source.titleColumn + " IS NOT NULL")) {
+                while (cursor.moveToNext()) {
+                    String terms = SearchTokenizer.index(cursor.getString(1));
+                    if (terms != null) {
+                        db.execSQL("UPDATE " + source.table + " SET search_terms = ? WHERE rowid = ?",
+                                new Object[]{terms, cursor.getLong(0)});
+                    }
+                }
+            }
+        }
+        rebuild(db);
+    }
+
+    /**
+     * 按源表中已有的 search_terms 重建索引和 docid，需在创建触发器之前调用
+     */
+    private static void rebuild(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM search_index");
+        db.execSQL("DELETE FROM search_index_keys");
+        for (Source source : SOURCES) {
+            db.execSQL("INSERT INTO search_index_keys (ref_type, ref_id) SELECT '" + source.kind + "', t.id FROM "
+                    + source.table + " t WHERE " + source.indexedCondition("t"));
+            db.execSQL(INSERT_INDEX_SQL + "SELECT " + source.columns("t") + " FROM " + source.table + " t "
+                    + source.joinKey("t") + " WHERE " + source.indexedCondition("t"));
+        }
+    }
+
+    /**
+     * 一个被索引的源表
+     */
+    private static final class Source {
+        final String table;
+        final String kind;
+        final String titleColumn;
+        final String sortColumn;
+        // 额外的入索引条件（基于源表列），为 null 时只要求有词串
+        final String condition;
+        // 除标题、词串和排序列之外，变化时需要刷新索引的列
+        final String extraWatchedColumn;
+
+        Source(String table, String kind, String titleColumn, String sortColumn,
+               String condition, String extraWatchedColumn) {
+            this.table = table;
+            this.kind = kind;
+            this.titleColumn = titleColumn;
+            this.sortColumn = sortColumn;
+            this.condition = condition;
+            this.extraWatchedColumn = extraWatchedColumn;
+        }
+
+        String indexedCondition(String alias) {
+            String base = alias + ".search_terms IS NOT NULL";
+            return condition == null ? base : base + " AND " + alias + "." + condition;
+        }
+
+        // 写入 search_index 的各列，顺序与 INSERT_INDEX_SQL 一致；k 为 joinKey 连接的 docid 行
+        String columns(String alias) {
+            return "k.docid, '" + kind + "', " + alias + ".id, " + alias + "." + titleColumn
+                    + ", " + alias + ".search_terms, " + alias + "." + sortColumn;
+        }
+
+        String joinKey(String alias) {
+            return "JOIN search_index_keys k ON k.ref_type = '" + kind + "' AND k.ref_id = " + alias + ".id";
+        }
+
+        // 删除某个主键的索引行和 docid
+        String deleteKey(String key) {
+            String match = "ref_type = '" + kind + "' AND ref_id = " + key;
+            return "DELETE FROM search_index WHERE rowid = (SELECT docid FROM search_index_keys WHERE " + match + "); "
+                    + "DELETE FROM search_index_keys WHERE " + match + "; ";
+        }
+
+        String[] triggers() {
+            String prefix = "search_index_" + table;
+            String insertNew = "INSERT OR IGNORE INTO search_index_keys (ref_type, ref_id) SELECT '" + kind
+                    + "', NEW.id WHERE " + indexedCondition("NEW") + "; "
+                    + INSERT_INDEX_SQL + "SELECT " + columns("NEW") + " FROM search_index_keys k"
+                    + " WHERE k.ref_type = '" + kind + "' AND k.ref_id = NEW.id AND " + indexedCondition("NEW") + "; ";
+
+            String changed = "OLD.id IS NOT NEW.id"
+                    + " OR OLD." + titleColumn + " IS NOT NEW." + titleColumn
+                    + " OR OLD.search_terms IS NOT NEW.search_terms"
+                    + " OR OLD." + sortColumn + " != NEW." + sortColumn;
+            if (extraWatchedColumn != null) {
+                changed += " OR OLD." + extraWatchedColumn + " != NEW." + extraWatchedColumn;
+            }
+
+            return new String[]{
+                // REPLACE 冲突时旧行被删除但不触发删除触发器，插入后先清掉同主键的旧索引行
+                "CREATE TRIGGER IF NOT EXISTS " + prefix + "_after_insert AFTER INSERT ON " + table + " BEGIN "
+                        + deleteKey("NEW.id") + insertNew + "END",
+                "CREATE TRIGGER IF NOT EXISTS " + prefix + "_after_update AFTER UPDATE ON " + table + " WHEN " + changed
+                        + " BEGIN " + deleteKey("OLD.id") + insertNew + "END",
+                "CREATE TRIGGER IF NOT EXISTS " + prefix + "_after_delete AFTER DELETE ON " + table + " BEGIN "
+                        + deleteKey("OLD.id") + "END"
+            };
+        }
+    }
+}
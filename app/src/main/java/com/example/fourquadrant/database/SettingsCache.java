@@ -0,0 +1,389 @@
+package com.example.fourquadrant.database;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.room.InvalidationTracker;
+
+import com.example.fourquadrant.FourQuadrantApplication;
+import com.example.fourquadrant.database.dao.SettingsDao;
+import com.example.fourquadrant.database.entity.SettingsEntity;
+import com.example.fourquadrant.utils.AppScheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内的设置缓存
+ * 首次使用时用一条查询读入整张 settings 表，值在读入和写入时解析一次，读取只是一次哈希表查找。
+ * 写入先更新内存再排到写通道，同一批排队的写入合并为一个事务；写出前的读取看到的就是新值。
+ * 其他途径修改 settings 表（导入备份、数据迁移、直接调用DAO）后整表重读，尚未写出的修改保留。
+ * 每个分类一个变化通知（LiveData），值为递增的版本号，观察者收到后再读取需要的键。
+ */
+public final class SettingsCache {
+
+    private static final String TAG = "SettingsCache";
+
+    public static final String TYPE_INT = "INT";
+    public static final String TYPE_LONG = "LONG";
+    public static final String TYPE_BOOLEAN = "BOOLEAN";
+    public static final String TYPE_STRING = "STRING";
+
+    // 待写出队列中表示删除
+    private static final Entry REMOVED = new Entry(null, null, null);
+
+    private static volatile SettingsCache INSTANCE;
+
+    /**
+     * 一条设置，数值和布尔值在构造时解析
+     */
+    private static final class Entry {
+        final String category;
+        final String type;
+        final String value;
+        final boolean numeric;
+        final long number;
+        final boolean flag;
+
+        Entry(String category, String type, String value) {
+            this.category = category;
+            this.type = type;
+            this.value = value;
+            long parsed = 0;
+            boolean valid = false;
+            if (value != null) {
+                try {
+                    parsed = Long.parseLong(value);
+                    valid = true;
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            this.numeric = valid;
+            this.number = parsed;
+            this.flag = Boolean.parseBoolean(value);
+        }
+
+        boolean sameAs(Entry other) {
+            return other != null && equal(category, other.category) && equal(type, other.type) && equal(value, other.value);
+        }
+
+        private static boolean equal(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    private final AppDatabase database;
+    private final SettingsDao settingsDao;
+    private final AppScheduler scheduler = AppScheduler.getInstance();
+    private final InvalidationTracker.Observer observer;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, MutableLiveData<Integer>> categoryChanges = new ConcurrentHashMap<>();
+    private final AtomicInteger changeVersion = new AtomicInteger();
+    private volatile boolean loaded;
+    private final Object loadLock = new Object();
+
+    // 尚未写出和正在写出的修改，由 lock 保护
+    private final Object lock = new Object();
+    private final Map<String, Entry> pending = new HashMap<>();
+    private Map<String, Entry> inFlight = new HashMap<>();
+    private boolean flushScheduled;
+
+    private final AtomicBoolean invalid = new AtomicBoolean(false);
+    private final AtomicBoolean registered = new AtomicBoolean(false);
+
+    private final Runnable reloadRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (registered.compareAndSet(false, true)) {
+                database.getInvalidationTracker().addObserver(observer);
+            }
+            if (!loaded || invalid.compareAndSet(true, false)) {
+                try {
+                    reload();
+                } catch (Exception e) {
+                    android.util.Log.e(TAG, "Error loading settings", e);
+                }
+            }
+        }
+    };
+
+    private SettingsCache(AppDatabase database) {
+        this.database = database;
+        this.settingsDao = database.settingsDao();
+        this.observer = new InvalidationTracker.Observer("settings") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalid.set(true);
+                // 排在写通道上，与写出串行，重读时不会读到写出一半的批次
+                scheduler.write(reloadRunnable);
+            }
+        };
+        scheduler.write(reloadRunnable);
+    }
+
+    public static SettingsCache getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (SettingsCache.class) {
+                if (INSTANCE == null) {
+                    Context application = context.getApplicationContext();
+                    AppDatabase database;
+                    if (application instanceof FourQuadrantApplication) {
+                        // 使用Application中的单例数据库实例
+                        database = ((FourQuadrantApplication) application).getDatabase();
+                    } else {
+                        // 备用方案：直接获取数据库实例
+                        database = AppDatabase.getDatabase(application);
+                    }
+                    INSTANCE = new SettingsCache(database);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // ---------------- 读取 ----------------
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean contains(String key) {
+        return entry(key) != null;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Entry entry = entry(key);
+        return entry != null && entry.numeric ? (int) entry.number : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Entry entry = entry(key);
+        return entry != null && entry.numeric ? entry.number : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Entry entry = entry(key);
+        return entry != null && entry.value != null ? entry.flag : defaultValue;
+    }
+
+    public String getString(String key, String defaultValue) {
+        Entry entry = entry(key);
+        return entry != null && entry.value != null ? entry.value : defaultValue;
+    }
+
+    /**
+     * 分类中任一设置变化（包括首次加载和外部修改）时发出新的版本号
+     */
+    public LiveData<Integer> getCategoryChanges(String category) {
+        return categoryChanges.computeIfAbsent(category, c -> {
+            // 已加载时带上当前版本，观察者注册后立即收到一次
+            return loaded ? new MutableLiveData<Integer>(changeVersion.get()) : new MutableLiveData<Integer>();
+        });
+    }
+
+    private Entry entry(String key) {
+        if (!loaded) {
+            ensureLoaded();
+        }
+        return entries.get(key);
+    }
+
+    // 预加载还没完成时：后台线程同步读入一次；主线程不查询也不等待，本次读取返回默认值，
+    // 构造时已在写通道上预加载，加载完成后 getCategoryChanges 通知观察者重新读取
+    private void ensureLoaded() {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            try {
+                reload();
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Error loading settings", e);
+            }
+        }
+    }
+
+    // ---------------- 写入 ----------------
+
+    public void putInt(String key, int value, String category) {
+        put(key, new Entry(category, TYPE_INT, String.valueOf(value)));
+    }
+
+    public void putLong(String key, long value, String category) {
+        put(key, new Entry(category, TYPE_LONG, String.valueOf(value)));
+    }
+
+    public void putBoolean(String key, boolean value, String category) {
+        put(key, new Entry(category, TYPE_BOOLEAN, String.valueOf(value)));
+    }
+
+    public void putString(String key, String value, String category) {
+        put(key, new Entry(category, TYPE_STRING, value));
+    }
+
+    public void remove(String key) {
+        Entry previous;
+        synchronized (lock) {
+            previous = entries.remove(key);
+            pending.put(key, REMOVED);
+        }
+        scheduleFlush();
+        if (previous != null) {
+            notifyCategory(previous.category);
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        Entry previous;
+        synchronized (lock) {
+            previous = entries.put(key, entry);
+            if (entry.sameAs(previous) && !pending.containsKey(key)) {
+                return;
+            }
+            pending.put(key, entry);
+        }
+        scheduleFlush();
+        notifyCategory(entry.category);
+        if (previous != null && !Entry.equal(previous.category, entry.category)) {
+            notifyCategory(previous.category);
+        }
+    }
+
+    // 已排队的写出会带上之后加入的修改，不重复排队
+    private void scheduleFlush() {
+        synchronized (lock) {
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        scheduler.write(this::flush);
+    }
+
+    /**
+     * 把排队的修改写入数据库（写通道上执行）
+     */
+    private void flush() {
+        Map<String, Entry> batch;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new HashMap<>(pending);
+            pending.clear();
+            inFlight = batch;
+        }
+
+        List<SettingsEntity> upserts = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        for (Map.Entry<String, Entry> change : batch.entrySet()) {
+            Entry entry = change.getValue();
+            if (entry == REMOVED) {
+                deletes.add(change.getKey());
+            } else {
+                upserts.add(new SettingsEntity(change.getKey(), entry.value, entry.type, entry.category));
+            }
+        }
+        try {
+            database.runInTransaction(() -> {
+                if (!upserts.isEmpty()) {
+                    settingsDao.insertSettings(upserts);
+                }
+                for (String key : deletes) {
+                    settingsDao.deleteSettingByKey(key);
+                }
+            });
+        } catch (Exception e) {
+            android.util.Log.e(TAG, "Error writing settings, keeping " + batch.size() + " changes for the next write", e);
+            synchronized (lock) {
+                // 期间又有新的修改时以新的为准
+                for (Map.Entry<String, Entry> change : batch.entrySet()) {
+                    pending.putIfAbsent(change.getKey(), change.getValue());
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                inFlight = new HashMap<>();
+            }
+        }
+    }
+
+    // ---------------- 加载 ----------------
+
+    private void reload() {
+        synchronized (loadLock) {
+            List<SettingsEntity> rows = settingsDao.getAllSettingsSync();
+            Set<String> changedCategories = new HashSet<>();
+            synchronized (lock) {
+                Map<String, Entry> fresh = new HashMap<>(rows.size() * 2);
+                for (SettingsEntity row : rows) {
+                    fresh.put(row.getKey(), new Entry(row.getCategory(), row.getType(), row.getValue()));
+                }
+                // 尚未提交的修改优先于数据库中的旧值
+                overlay(fresh, inFlight);
+                overlay(fresh, pending);
+
+                // 逐键替换，读取方不会看到清空后的中间状态
+                for (Map.Entry<String, Entry> row : fresh.entrySet()) {
+                    Entry previous = entries.put(row.getKey(), row.getValue());
+                    if (!row.getValue().sameAs(previous)) {
+                        changedCategories.add(row.getValue().category);
+                        if (previous != null) {
+                            changedCategories.add(previous.category);
+                        }
+                    }
+                }
+                for (Map.Entry<String, Entry> stale : entries.entrySet()) {
+                    if (!fresh.containsKey(stale.getKey())) {
+                        entries.remove(stale.getKey());
+                        changedCategories.add(stale.getValue().category);
+                    }
+                }
+            }
+
+            if (!loaded) {
+                loaded = true;
+                // 首次加载通知所有已创建的分类
+                changedCategories.addAll(categoryChanges.keySet());
+            }
+            for (String category : changedCategories) {
+                notifyCategory(category);
+            }
+        }
+    }
+
+    private static void overlay(Map<String, Entry> target, Map<String, Entry> changes) {
+        for (Map.Entry<String, Entry> change : changes.entrySet()) {
+            if (change.getValue() == REMOVED) {
+                target.remove(change.getKey());
+            } else {
+                target.put(change.getKey(), change.getValue());
+            }
+        }
+    }
+
+    private void notifyCategory(String category) {
+        if (category == null) {
+            return;
+        }
+        MutableLiveData<Integer> changes = categoryChanges.get(category);
+        if (changes != null) {
+            changes.postValue(changeVersion.incrementAndGet());
+        }
+    }
+}
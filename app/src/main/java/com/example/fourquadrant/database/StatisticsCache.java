@@ -0,0 +1,234 @@
+package com.example.fourquadrant.database;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+
+import com.example.fourquadrant.FourQuadrantApplication;
+import com.example.fourquadrant.utils.AppScheduler;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 进程内的统计结果缓存
+ * 按（指标，时间范围）缓存查询结果，时间范围是换算后的毫秒起止，不同的范围名算出相同起止时共用一条结果。
+ * 由 InvalidationTracker 在 tasks、pomodoro_sessions、daily_stats 提交后失效，只删除读过变化表的结果；
+ * 正在显示的结果随后在读通道上重新查询一次。切换时间范围时已缓存的结果在订阅时立即发出，不经过数据库。
+ */
+public final class StatisticsCache {
+
+    private static final String TAG = "StatisticsCache";
+
+    // 统计查询可能读取的表；各指标声明的表必须在其中
+    private static final String[] TRACKED_TABLES = {"tasks", "pomodoro_sessions", "daily_stats"};
+    // 几个标准范围 × 指标 × 跨天后的旧范围
+    private static final int MAX_ENTRIES = 24;
+
+    public static final String METRIC_SNAPSHOT = "snapshot";
+    public static final String METRIC_TIME_PERIODS = "time_periods";
+
+    private static volatile StatisticsCache INSTANCE;
+
+    /**
+     * 缓存键：指标 + 换算后的时间范围
+     */
+    public static final class Key {
+        final String metric;
+        final long startTime;
+        final long endTime;
+        final boolean hourly;
+
+        public Key(String metric, long startTime, long endTime, boolean hourly) {
+            this.metric = metric;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.hourly = hourly;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return startTime == other.startTime && endTime == other.endTime
+                && hourly == other.hourly && metric.equals(other.metric);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = metric.hashCode();
+            result = 31 * result + Long.hashCode(startTime);
+            result = 31 * result + Long.hashCode(endTime);
+            result = 31 * result + (hourly ? 1 : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return metric + "[" + startTime + ", " + endTime + (hourly ? ", hourly]" : "]");
+        }
+    }
+
+    private final AppDatabase database;
+    private final AppScheduler scheduler = AppScheduler.getInstance();
+    private final TableResultCache<Key> results = new TableResultCache<>(MAX_ENTRIES);
+    private final Set<CachedResult<?>> activeResults = new CopyOnWriteArraySet<>();
+    private final InvalidationTracker.Observer observer;
+    private final Object registerLock = new Object();
+    private boolean registered;
+
+    private StatisticsCache(AppDatabase database) {
+        this.database = database;
+        this.observer = new InvalidationTracker.Observer(TRACKED_TABLES) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                // 先删除缓存再通知，重新查询时不会读到旧结果
+                int removed = results.invalidate(tables);
+                android.util.Log.d(TAG, "Invalidated " + removed + " results for " + tables);
+                for (CachedResult<?> result : activeResults) {
+                    if (result.reads(tables)) {
+                        result.refresh();
+                    }
+                }
+            }
+        };
+    }
+
+    public static StatisticsCache getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (StatisticsCache.class) {
+                if (INSTANCE == null) {
+                    Context application = context.getApplicationContext();
+                    AppDatabase database;
+                    if (application instanceof FourQuadrantApplication) {
+                        // 使用Application中的单例数据库实例
+                        database = ((FourQuadrantApplication) application).getDatabase();
+                    } else {
+                        // 备用方案：直接获取数据库实例
+                        database = AppDatabase.getDatabase(application);
+                    }
+                    INSTANCE = new StatisticsCache(database);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 缓存的查询结果：订阅时有缓存立即发出，否则在读通道上查询；相关表提交后自动重新查询
+     * @param tables 查询读取的表
+     */
+    public <T> LiveData<T> observe(Key key, String[] tables, TableResultCache.Loader<T> loader) {
+        return new CachedResult<>(key, tables, loader);
+    }
+
+    /**
+     * 在后台预先查询一个范围，已缓存时不做任何事
+     */
+    public <T> void prewarm(Key key, String[] tables, TableResultCache.Loader<T> loader) {
+        if (results.contains(key)) {
+            return;
+        }
+        scheduler.read(AppScheduler.Priority.BACKGROUND, () -> {
+            try {
+                load(key, tables, loader);
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Error prewarming " + key, e);
+            }
+        });
+    }
+
+    /**
+     * 命中、未命中、淘汰和失效计数
+     */
+    public TableResultCache.Stats getStats() {
+        return results.getStats();
+    }
+
+    private <T> T load(Key key, String[] tables, TableResultCache.Loader<T> loader) throws Exception {
+        ensureRegistered();
+        return results.get(key, tables, loader);
+    }
+
+    // 第一条结果写入缓存前开始监听，之后的提交都能让它失效；监听随进程存在，不再移除
+    private void ensureRegistered() {
+        synchronized (registerLock) {
+            if (!registered) {
+                database.getInvalidationTracker().addObserver(observer);
+                registered = true;
+            }
+        }
+    }
+
+    private final class CachedResult<T> extends LiveData<T> {
+        private final Key key;
+        private final String[] tables;
+        private final TableResultCache.Loader<T> loader;
+        private final AtomicBoolean pending = new AtomicBoolean(false);
+
+        private final Runnable loadRunnable = new Runnable() {
+            @Override
+            public void run() {
+                // 查询前清除标记，查询期间的失效会再排一次
+                pending.set(false);
+                try {
+                    T value = load(key, tables, loader);
+                    if (value != null) {
+                        postValue(value);
+                    }
+                } catch (Exception e) {
+                    android.util.Log.e(TAG, "Error loading " + key, e);
+                }
+            }
+        };
+
+        CachedResult(Key key, String[] tables, TableResultCache.Loader<T> loader) {
+            this.key = key;
+            this.tables = tables;
+            this.loader = loader;
+        }
+
+        boolean reads(Set<String> changedTables) {
+            for (String table : tables) {
+                if (changedTables.contains(table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void refresh() {
+            if (pending.compareAndSet(false, true)) {
+                scheduler.read(AppScheduler.Priority.UI, loadRunnable);
+            }
+        }
+
+        @Override
+        protected void onActive() {
+            super.onActive();
+            activeResults.add(this);
+            T cached = results.getIfPresent(key);
+            if (cached != null) {
+                if (cached != getValue()) {
+                    setValue(cached);
+                }
+            } else {
+                refresh();
+            }
+        }
+
+        @Override
+        protected void onInactive() {
+            super.onInactive();
+            activeResults.remove(this);
+        }
+    }
+}
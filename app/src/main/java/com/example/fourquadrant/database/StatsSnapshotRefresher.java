@@ -0,0 +1,106 @@
+package com.example.fourquadrant.database;
+
+import com.example.fourquadrant.database.entity.StatsSnapshotEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预先计算统计结果（stats_snapshots）
+ * 先取源数据版本，再逐个范围比较已保存的结果：时间范围和源数据版本都没变的跳过，其余重新计算后一次写入。
+ * 重复执行不会改动仍然有效的行；结果在最后一次写入，中途失败时不会留下部分范围的新结果。
+ * 版本在计算前读取：计算期间有新的修改时保存的是旧版本号，下次执行会重新计算，不会把旧结果当成新的。
+ */
+public final class StatsSnapshotRefresher {
+
+    /**
+     * 一个需要预先计算的时间范围
+     */
+    public static final class Range {
+        final String key;
+        final long startTime;
+        final long endTime;
+
+        public Range(String key, long startTime, long endTime) {
+            this.key = key;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
+
+    /**
+     * 源数据版本：任务、番茄钟记录和每日汇总的最大修改时间 + 删除记录的最大 seq + 统计源数据代数
+     * 代数在恢复备份、重新分桶等整体改写后加一，这些改写不一定推进修改时间
+     */
+    public static final class SourceVersion {
+        final long updatedAt;
+        final long deletedSeq;
+        final long generation;
+
+        public SourceVersion(long updatedAt, long deletedSeq, long generation) {
+            this.updatedAt = updatedAt;
+            this.deletedSeq = deletedSeq;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * 结果的读写
+     */
+    public interface Store {
+        SourceVersion getSourceVersion() throws Exception;
+
+        StatsSnapshotEntity getSnapshot(String rangeKey) throws Exception;
+
+        void saveSnapshots(List<StatsSnapshotEntity> snapshots) throws Exception;
+    }
+
+    /**
+     * 计算一个范围的统计结果，只需要填写统计字段
+     */
+    public interface Calculator {
+        StatsSnapshotEntity compute(String rangeKey, long startTime, long endTime) throws Exception;
+    }
+
+    private final Store store;
+    private final Calculator calculator;
+
+    public StatsSnapshotRefresher(Store store, Calculator calculator) {
+        this.store = store;
+        this.calculator = calculator;
+    }
+
+    /**
+     * 重新计算已过期的范围
+     * @param now 计算时间，记录在结果中
+     * @return 重新计算并写入的范围数
+     */
+    public int refresh(List<Range> ranges, long now) throws Exception {
+        SourceVersion version = store.getSourceVersion();
+        List<StatsSnapshotEntity> changed = new ArrayList<>();
+        for (Range range : ranges) {
+            if (isFresh(store.getSnapshot(range.key), range, version)) {
+                continue;
+            }
+            StatsSnapshotEntity snapshot = calculator.compute(range.key, range.startTime, range.endTime);
+            snapshot.setRangeKey(range.key);
+            snapshot.setStartTime(range.startTime);
+            snapshot.setEndTime(range.endTime);
+            snapshot.setSourceUpdatedAt(version.updatedAt);
+            snapshot.setSourceDeletedSeq(version.deletedSeq);
+            snapshot.setSourceGeneration(version.generation);
+            snapshot.setComputedAt(now);
+            changed.add(snapshot);
+        }
+        if (!changed.isEmpty()) {
+            store.saveSnapshots(changed);
+        }
+        return changed.size();
+    }
+
+    private static boolean isFresh(StatsSnapshotEntity snapshot, Range range, SourceVersion version) {
+        return snapshot != null
+            && snapshot.isFreshFor(range.startTime, range.endTime, version.updatedAt, version.deletedSeq,
+                version.generation);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.fourquadrant.database;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按数据表失效的查询结果缓存（LRU）
+ * 每条结果记录它读取的表，某个表有提交时只删除读过该表的结果，其余结果继续命中。
+ * 每个表有一个版本号：查询开始前记下版本，查询期间这些表有提交时结果不写入缓存，不会把旧数据留在缓存里。
+ * 不依赖 Android，可在任意线程调用；查询在调用线程执行，不持有锁。
+ */
+public final class TableResultCache<K> {
+
+    /**
+     * 缓存未命中时执行的查询，返回null的结果不缓存
+     */
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    private static final class Entry {
+        final Object value;
+        final String[] tables;
+
+        Entry(Object value, String[] tables) {
+            this.value = value;
+            this.tables = tables;
+        }
+
+        boolean reads(Set<String> changedTables) {
+            for (String table : tables) {
+                if (changedTables.contains(table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<K, Entry> entries;
+    private final Map<String, Long> tableVersions = new HashMap<>();
+    private long epoch;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public TableResultCache(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        // 按访问顺序排列，最久没有使用的在最前面
+        this.entries = new LinkedHashMap<K, Entry>(maxEntries * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 返回缓存的结果，没有时执行查询并缓存
+     * @param tables 查询读取的表
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(K key, String[] tables, Loader<T> loader) throws Exception {
+        long version;
+        synchronized (lock) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return (T) entry.value;
+            }
+            misses++;
+            version = versionOf(tables);
+        }
+        T value = loader.load();
+        if (value != null) {
+            synchronized (lock) {
+                if (version == versionOf(tables)) {
+                    entries.put(key, new Entry(value, tables.clone()));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 只读缓存，不执行查询；命中时计入命中次数，未命中不计（随后通常会调用 get）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getIfPresent(K key) {
+        synchronized (lock) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            hits++;
+            return (T) entry.value;
+        }
+    }
+
+    public boolean contains(K key) {
+        synchronized (lock) {
+            return entries.containsKey(key);
+        }
+    }
+
+    /**
+     * 这些表有新的提交：删除读过它们的结果，正在进行的相关查询的结果不再写入
+     * @return 删除的条数
+     */
+    public int invalidate(Set<String> changedTables) {
+        synchronized (lock) {
+            for (String table : changedTables) {
+                Long version = tableVersions.get(table);
+                tableVersions.put(table, version != null ? version + 1 : 1L);
+            }
+            int removed = 0;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().reads(changedTables)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+            invalidations += removed;
+            return removed;
+        }
+    }
+
+    /**
+     * 清空所有结果（无法得知哪些表变化时使用，例如重新开始监听前）
+     */
+    public void clear() {
+        synchronized (lock) {
+            // 所有进行中的查询都不再写入
+            epoch++;
+            invalidations += entries.size();
+            entries.clear();
+        }
+    }
+
+    public Stats getStats() {
+        synchronized (lock) {
+            return new Stats(hits, misses, evictions, invalidations, entries.size());
+        }
+    }
+
+    // 清空次数与各表版本号之和，任一个增加都会改变
+    private long versionOf(String[] tables) {
+        long version = epoch;
+        for (String table : tables) {
+            Long tableVersion = tableVersions.get(table);
+            if (tableVersion != null) {
+                version += tableVersion;
+            }
+        }
+        return version;
+    }
+
+    /**
+     * 缓存计数
+     */
+    public static final class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long invalidations;
+        public final int size;
+
+        Stats(long hits, long misses, long evictions, long invalidations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+        }
+
+        public float getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0f : (float) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", misses=" + misses
+                + String.format(java.util.Locale.US, " (%.0f%%)", getHitRate() * 100)
+                + ", evictions=" + evictions + ", invalidations=" + invalidations + ", size=" + size;
+        }
+    }
+}
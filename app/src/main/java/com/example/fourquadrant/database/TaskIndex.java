@@ -0,0 +1,568 @@
+package com.example.fourquadrant.database;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import com.example.fourquadrant.FourQuadrantApplication;
+import com.example.fourquadrant.QuadrantView;
+import com.example.fourquadrant.database.backup.SnapshotCodec;
+import com.example.fourquadrant.database.dao.TaskDao;
+import com.example.fourquadrant.utils.AppScheduler;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 进程内的任务索引
+ * 未删除的任务按槽位存放在并列的基本类型数组中（重要性/紧急性/象限为int，时间为long），
+ * 未完成任务另有每个象限一个BitSet，以及按 (created_at, id) 倒序排列的槽位顺序。
+ * tasks 表失效后只查询 updated_at 不早于上次同步时间的行并就地更新，再用未删除任务的数量和
+ * updated_at 之和校验；增量覆盖不到的变化（物理删除、导入旧备份、系统时间回拨）校验不一致时整表重载。
+ * 读取方法不分配对象，getQuadrantTasks 返回的列表每次数据变化只构建一次。
+ * 整表加载后把索引写入缓存目录的快照；下次冷启动先读快照，再按同样的增量方式追上数据库，校验通过就不再整表查询。
+ */
+public final class TaskIndex {
+
+    private static final String TAG = "TaskIndex";
+
+    public static final int QUADRANT_COUNT = 4;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // 冷启动时从快照恢复；关闭后每次启动都整表查询
+    private static final boolean WARM_START_ENABLED = true;
+    private static final String SNAPSHOT_FILE_NAME = "task_index.fqsnap";
+    private static final String META_WATERMARK = "watermark";
+
+    private static final SnapshotCodec.Table<TaskDao.IndexRow> SNAPSHOT_ROWS =
+            new SnapshotCodec.Table<>("taskIndex", TaskDao.IndexRow::new)
+                    .string("id", row -> row.id, (row, value) -> row.id = value)
+                    .dictionary("name", row -> row.name, (row, value) -> row.name = value)
+                    .integer("importance", row -> row.importance, (row, value) -> row.importance = value)
+                    .integer("urgency", row -> row.urgency, (row, value) -> row.urgency = value)
+                    .integer("quadrant", row -> row.quadrant, (row, value) -> row.quadrant = value)
+                    .bool("is_completed", row -> row.is_completed, (row, value) -> row.is_completed = value)
+                    .timestamp("created_at", row -> row.created_at, (row, value) -> row.created_at = value)
+                    .nullableTimestamp("completed_at", row -> row.completed_at, (row, value) -> row.completed_at = value)
+                    .timestamp("updated_at", row -> row.updated_at, (row, value) -> row.updated_at = value);
+
+    private static volatile TaskIndex INSTANCE;
+
+    /**
+     * 索引内容变化回调，在主线程执行
+     */
+    public interface Listener {
+        void onTaskIndexChanged(TaskIndex index);
+    }
+
+    /**
+     * 遍历未完成任务，参数直接取自索引数组
+     */
+    public interface TaskVisitor {
+        void visit(String id, String name, int importance, int urgency, int quadrant);
+    }
+
+    private final AppDatabase database;
+    private final File snapshotFile;
+    private final InvalidationTracker.Observer observer;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    private final AtomicBoolean invalid = new AtomicBoolean(true);
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private final AtomicBoolean registered = new AtomicBoolean(false);
+
+    // 以下字段都由 this 保护
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] importance = new int[INITIAL_CAPACITY];
+    private int[] urgency = new int[INITIAL_CAPACITY];
+    private int[] quadrant = new int[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private long[] completedAt = new long[INITIAL_CAPACITY];
+    private long[] updatedAt = new long[INITIAL_CAPACITY];
+    private int slotLimit;
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private final Map<String, Integer> slotById = new HashMap<>();
+
+    private final BitSet completed = new BitSet();
+    private final BitSet[] activeByQuadrant = new BitSet[QUADRANT_COUNT];
+    private int[] activeOrder = new int[INITIAL_CAPACITY];
+    private int activeCount;
+
+    // 用于校验的未删除任务数量、updated_at 之和，以及增量查询的起点
+    private int rowCount;
+    private long updatedSum;
+    private long watermark;
+
+    private int version;
+    private int quadrantTasksVersion = -1;
+    private List<QuadrantView.Task> quadrantTasks = Collections.emptyList();
+
+    private final Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (registered.compareAndSet(false, true)) {
+                database.getInvalidationTracker().addObserver(observer);
+            }
+            boolean refreshed;
+            do {
+                refreshed = false;
+                if (refreshing.compareAndSet(false, true)) {
+                    try {
+                        while (invalid.compareAndSet(true, false)) {
+                            refreshed = true;
+                            try {
+                                refresh();
+                            } catch (Exception e) {
+                                android.util.Log.e(TAG, "Error refreshing task index", e);
+                            }
+                        }
+                    } finally {
+                        refreshing.set(false);
+                    }
+                }
+            } while (refreshed && invalid.get());
+        }
+    };
+
+    private TaskIndex(AppDatabase database, File snapshotFile) {
+        this.database = database;
+        this.snapshotFile = snapshotFile;
+        for (int i = 0; i < QUADRANT_COUNT; i++) {
+            activeByQuadrant[i] = new BitSet();
+        }
+        this.observer = new InvalidationTracker.Observer("tasks") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalid.set(true);
+                database.getQueryExecutor().execute(refreshRunnable);
+            }
+        };
+        database.getQueryExecutor().execute(refreshRunnable);
+    }
+
+    public static TaskIndex getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (TaskIndex.class) {
+                if (INSTANCE == null) {
+                    Context application = context.getApplicationContext();
+                    AppDatabase database;
+                    if (application instanceof FourQuadrantApplication) {
+                        // 使用Application中的单例数据库实例
+                        database = ((FourQuadrantApplication) application).getDatabase();
+                    } else {
+                        // 备用方案：直接获取数据库实例
+                        database = AppDatabase.getDatabase(application);
+                    }
+                    INSTANCE = new TaskIndex(database,
+                            WARM_START_ENABLED ? new File(application.getCacheDir(), SNAPSHOT_FILE_NAME) : null);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // ---------------- 读取 ----------------
+
+    public boolean isLoaded() {
+        return loaded.getCount() == 0;
+    }
+
+    /**
+     * 等待首次加载完成（后台线程调用）
+     */
+    public boolean waitForLoaded(long maxWaitTimeMs) {
+        try {
+            return loaded.await(maxWaitTimeMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 数据每变化一次加1
+     */
+    public synchronized int getVersion() {
+        return version;
+    }
+
+    public synchronized int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * 某个象限（1-4）中未完成任务的数量
+     */
+    public synchronized int getActiveCount(int quadrantNumber) {
+        return activeByQuadrant[quadrantNumber - 1].cardinality();
+    }
+
+    public synchronized int getCompletedCount() {
+        return completed.cardinality();
+    }
+
+    /**
+     * 按创建时间倒序遍历未完成任务
+     * @param quadrantNumber 只遍历该象限（1-4），为0时遍历全部
+     */
+    public synchronized void forEachActive(int quadrantNumber, TaskVisitor visitor) {
+        for (int i = 0; i < activeCount; i++) {
+            int slot = activeOrder[i];
+            if (quadrantNumber == 0 || quadrant[slot] == quadrantNumber) {
+                visitor.visit(ids[slot], names[slot], importance[slot], urgency[slot], quadrant[slot]);
+            }
+        }
+    }
+
+    /**
+     * 未完成任务的图表数据点，按创建时间倒序
+     * 列表不可修改，数据不变时每次返回同一个实例；图表拖动会直接改写其中的点，随后写入数据库并触发重建。
+     */
+    public synchronized List<QuadrantView.Task> getQuadrantTasks() {
+        if (quadrantTasksVersion != version) {
+            List<QuadrantView.Task> tasks = new ArrayList<>(activeCount);
+            for (int i = 0; i < activeCount; i++) {
+                int slot = activeOrder[i];
+                tasks.add(new QuadrantView.Task(ids[slot], names[slot], importance[slot], urgency[slot]));
+            }
+            quadrantTasks = Collections.unmodifiableList(tasks);
+            quadrantTasksVersion = version;
+        }
+        return quadrantTasks;
+    }
+
+    public void addListener(Listener listener) {
+        if (listener != null && !listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // ---------------- 同步 ----------------
+
+    private void refresh() {
+        TaskDao taskDao = database.taskDao();
+        if (!isLoaded()) {
+            if (restoreSnapshot() && catchUp(taskDao, true)) {
+                loaded.countDown();
+                notifyListeners();
+            } else {
+                reload(taskDao);
+            }
+            return;
+        }
+
+        if (!catchUp(taskDao, false)) {
+            android.util.Log.d(TAG, "Incremental sync diverged, reloading all tasks");
+            reload(taskDao);
+        }
+    }
+
+    /**
+     * 应用上次同步以来变化的行并校验，返回是否与数据库一致
+     * @param warmStart 刚从快照恢复：有变化时重写快照，由调用方通知监听者
+     */
+    private boolean catchUp(TaskDao taskDao, boolean warmStart) {
+        long since;
+        synchronized (this) {
+            since = watermark;
+        }
+        List<TaskDao.IndexRow> rows = taskDao.getIndexRowsChangedSinceSync(since);
+        TaskDao.IndexSignature signature = taskDao.getIndexSignatureSync();
+
+        boolean changed = false;
+        boolean consistent;
+        synchronized (this) {
+            for (TaskDao.IndexRow row : rows) {
+                changed |= row.is_deleted ? remove(row.id) : upsert(row, false);
+                watermark = Math.max(watermark, row.updated_at);
+            }
+            consistent = signature != null && signature.row_count == rowCount && signature.updated_sum == updatedSum;
+            if (changed && consistent) {
+                version++;
+            }
+        }
+
+        if (consistent && changed) {
+            if (warmStart) {
+                saveSnapshot();
+            } else {
+                notifyListeners();
+            }
+        }
+        return consistent;
+    }
+
+    private void reload(TaskDao taskDao) {
+        List<TaskDao.IndexRow> rows = taskDao.getIndexRowsSync();
+        synchronized (this) {
+            clear();
+            // 查询结果已按 (created_at, id) 倒序，直接追加到顺序末尾
+            for (TaskDao.IndexRow row : rows) {
+                upsert(row, true);
+                watermark = Math.max(watermark, row.updated_at);
+            }
+            version++;
+        }
+        loaded.countDown();
+        notifyListeners();
+        saveSnapshot();
+    }
+
+    // 调用方持有 this
+    private void clear() {
+        slotById.clear();
+        Arrays.fill(ids, 0, slotLimit, null);
+        Arrays.fill(names, 0, slotLimit, null);
+        completed.clear();
+        for (BitSet bits : activeByQuadrant) {
+            bits.clear();
+        }
+        slotLimit = 0;
+        freeCount = 0;
+        activeCount = 0;
+        rowCount = 0;
+        updatedSum = 0;
+        watermark = 0;
+    }
+
+    // ---------------- 快照 ----------------
+
+    /**
+     * 从快照恢复索引内容和同步水位；没有快照或快照损坏时返回 false
+     */
+    private boolean restoreSnapshot() {
+        if (snapshotFile == null || !snapshotFile.exists()) {
+            return false;
+        }
+        List<TaskDao.IndexRow> rows = new ArrayList<>();
+        long savedWatermark;
+        try (InputStream in = new FileInputStream(snapshotFile)) {
+            SnapshotCodec.Reader reader = new SnapshotCodec.Reader().on(SNAPSHOT_ROWS, rows::addAll);
+            reader.read(in);
+            savedWatermark = Long.parseLong(reader.getMeta().get(META_WATERMARK));
+        } catch (Exception e) {
+            android.util.Log.w(TAG, "Discarding unreadable task index snapshot", e);
+            snapshotFile.delete();
+            return false;
+        }
+        synchronized (this) {
+            clear();
+            // 快照中未完成任务已按顺序排在前面
+            for (TaskDao.IndexRow row : rows) {
+                upsert(row, true);
+            }
+            watermark = savedWatermark;
+            version++;
+        }
+        return true;
+    }
+
+    /**
+     * 写出当前索引（先写临时文件再改名）；失败只记录日志，下次冷启动整表查询
+     */
+    private void saveSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        List<TaskDao.IndexRow> rows;
+        long savedWatermark;
+        synchronized (this) {
+            rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < activeCount; i++) {
+                rows.add(snapshotRow(activeOrder[i]));
+            }
+            for (int slot = completed.nextSetBit(0); slot >= 0; slot = completed.nextSetBit(slot + 1)) {
+                rows.add(snapshotRow(slot));
+            }
+            savedWatermark = watermark;
+        }
+
+        File partialFile = new File(snapshotFile.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(partialFile);
+             SnapshotCodec.Writer writer = new SnapshotCodec.Writer(out, SnapshotCodec.DEFAULT_ROW_GROUP_SIZE)) {
+            writer.meta(META_WATERMARK, savedWatermark);
+            writer.writeRows(SNAPSHOT_ROWS, rows);
+            writer.finish();
+        } catch (Exception e) {
+            android.util.Log.w(TAG, "Error writing task index snapshot", e);
+            partialFile.delete();
+            return;
+        }
+        if (!partialFile.renameTo(snapshotFile)) {
+            android.util.Log.w(TAG, "Error replacing task index snapshot");
+            partialFile.delete();
+        }
+    }
+
+    // 调用方持有 this
+    private TaskDao.IndexRow snapshotRow(int slot) {
+        TaskDao.IndexRow row = new TaskDao.IndexRow();
+        row.id = ids[slot];
+        row.name = names[slot];
+        row.importance = importance[slot];
+        row.urgency = urgency[slot];
+        row.quadrant = quadrant[slot];
+        row.is_completed = completed.get(slot);
+        row.created_at = createdAt[slot];
+        row.completed_at = completedAt[slot] != 0 ? completedAt[slot] : null;
+        row.updated_at = updatedAt[slot];
+        return row;
+    }
+
+    private void notifyListeners() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        AppScheduler.getInstance().postToMain(() -> {
+            for (Listener listener : listeners) {
+                listener.onTaskIndexChanged(this);
+            }
+        });
+    }
+
+    // 调用方持有 this；内容未变化时返回 false
+    private boolean upsert(TaskDao.IndexRow row, boolean append) {
+        long rowCompletedAt = row.completed_at != null ? row.completed_at : 0L;
+        int rowQuadrant = Math.max(1, Math.min(QUADRANT_COUNT, row.quadrant));
+
+        Integer existing = slotById.get(row.id);
+        int slot;
+        if (existing == null) {
+            slot = allocateSlot();
+            slotById.put(row.id, slot);
+            ids[slot] = row.id;
+            rowCount++;
+            updatedSum += row.updated_at;
+        } else {
+            slot = existing;
+            if (updatedAt[slot] == row.updated_at && createdAt[slot] == row.created_at
+                    && completedAt[slot] == rowCompletedAt && completed.get(slot) == row.is_completed
+                    && importance[slot] == row.importance && urgency[slot] == row.urgency
+                    && quadrant[slot] == rowQuadrant && Objects.equals(names[slot], row.name)) {
+                return false;
+            }
+            updatedSum += row.updated_at - updatedAt[slot];
+            detachActive(slot);
+        }
+
+        names[slot] = row.name;
+        importance[slot] = row.importance;
+        urgency[slot] = row.urgency;
+        quadrant[slot] = rowQuadrant;
+        createdAt[slot] = row.created_at;
+        completedAt[slot] = rowCompletedAt;
+        updatedAt[slot] = row.updated_at;
+        completed.set(slot, row.is_completed);
+
+        if (!row.is_completed) {
+            activeByQuadrant[rowQuadrant - 1].set(slot);
+            if (activeCount == activeOrder.length) {
+                activeOrder = Arrays.copyOf(activeOrder, activeOrder.length * 2);
+            }
+            int position = append ? activeCount : orderPosition(slot);
+            System.arraycopy(activeOrder, position, activeOrder, position + 1, activeCount - position);
+            activeOrder[position] = slot;
+            activeCount++;
+        }
+        return true;
+    }
+
+    // 调用方持有 this；索引中没有该任务时返回 false
+    private boolean remove(String id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return false;
+        }
+        detachActive(slot);
+        completed.clear(slot);
+        rowCount--;
+        updatedSum -= updatedAt[slot];
+        ids[slot] = null;
+        names[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    // 从象限位图和顺序中移除（槽位的排序字段需仍是旧值）
+    private void detachActive(int slot) {
+        if (completed.get(slot)) {
+            return;
+        }
+        activeByQuadrant[quadrant[slot] - 1].clear(slot);
+        for (int i = 0; i < activeCount; i++) {
+            if (activeOrder[i] == slot) {
+                System.arraycopy(activeOrder, i + 1, activeOrder, i, activeCount - i - 1);
+                activeCount--;
+                return;
+            }
+        }
+    }
+
+    // 二分查找 slot 在 (created_at DESC, id DESC) 顺序中的插入位置
+    private int orderPosition(int slot) {
+        int low = 0;
+        int high = activeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (precedes(activeOrder[mid], slot)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean precedes(int a, int b) {
+        if (createdAt[a] != createdAt[b]) {
+            return createdAt[a] > createdAt[b];
+        }
+        return ids[a].compareTo(ids[b]) > 0;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotLimit == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            importance = Arrays.copyOf(importance, capacity);
+            urgency = Arrays.copyOf(urgency, capacity);
+            quadrant = Arrays.copyOf(quadrant, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            completedAt = Arrays.copyOf(completedAt, capacity);
+            updatedAt = Arrays.copyOf(updatedAt, capacity);
+        }
+        return slotLimit++;
+    }
+}
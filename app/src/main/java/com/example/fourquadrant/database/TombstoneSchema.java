@@ -0,0 +1,71 @@
+package com.example.fourquadrant.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * 增量备份删除记录（backup_tombstones）的表结构和触发器
+ * 源表删除行时写入删除记录，行重新插入时删除；任务的软删除和恢复同样处理。
+ * 删除记录与源表修改在同一事务中写入，seq 的顺序就是提交顺序。
+ */
+public final class TombstoneSchema {
+
+    public static final String TABLE_TASKS = "tasks";
+    public static final String TABLE_POMODORO_SESSIONS = "pomodoro_sessions";
+    public static final String TABLE_REMINDERS = "reminders";
+    public static final String TABLE_SETTINGS = "settings";
+
+    // 与 Room 根据 TombstoneEntity 生成的建表语句一致（迁移时使用）
+    static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS `backup_tombstones` (`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+            "`table_name` TEXT NOT NULL, `row_id` TEXT NOT NULL, `deleted_at` INTEGER NOT NULL)";
+    static final String CREATE_INDEX_SQL =
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_backup_tombstones_table_name_row_id` " +
+            "ON `backup_tombstones` (`table_name`, `row_id`)";
+
+    private static final String NOW_MILLIS = "CAST(strftime('%s', 'now') AS INTEGER) * 1000";
+
+    // 源表及其主键列
+    private static final String[][] SOURCES = {
+        {TABLE_TASKS, "id"},
+        {TABLE_POMODORO_SESSIONS, "id"},
+        {TABLE_REMINDERS, "id"},
+        {TABLE_SETTINGS, "key"}
+    };
+
+    private TombstoneSchema() {
+    }
+
+    /**
+     * 创建删除记录触发器（新建数据库和迁移时调用）
+     */
+    static void createTriggers(SupportSQLiteDatabase db) {
+        for (String[] source : SOURCES) {
+            String table = source[0];
+            String key = source[1];
+            String prefix = "CREATE TRIGGER IF NOT EXISTS backup_tombstones_" + table;
+            db.execSQL(prefix + "_after_delete AFTER DELETE ON " + table + " BEGIN "
+                    + insertTombstone(table, "OLD." + key) + "END");
+            db.execSQL(prefix + "_after_insert AFTER INSERT ON " + table + " BEGIN "
+                    + deleteTombstone(table, "NEW." + key) + "END");
+        }
+
+        // 任务软删除也是删除；备份中不包含已软删除的任务
+        String prefix = "CREATE TRIGGER IF NOT EXISTS backup_tombstones_" + TABLE_TASKS;
+        db.execSQL(prefix + "_after_soft_delete AFTER UPDATE OF is_deleted ON " + TABLE_TASKS
+                + " WHEN NEW.is_deleted = 1 AND OLD.is_deleted = 0 BEGIN "
+                + insertTombstone(TABLE_TASKS, "NEW.id") + "END");
+        db.execSQL(prefix + "_after_restore AFTER UPDATE OF is_deleted ON " + TABLE_TASKS
+                + " WHEN NEW.is_deleted = 0 AND OLD.is_deleted = 1 BEGIN "
+                + deleteTombstone(TABLE_TASKS, "NEW.id") + "END");
+    }
+
+    // 唯一索引冲突时替换旧记录，seq 随之更新为最新
+    private static String insertTombstone(String table, String key) {
+        return "INSERT OR REPLACE INTO backup_tombstones (table_name, row_id, deleted_at) VALUES ('"
+                + table + "', " + key + ", " + NOW_MILLIS + "); ";
+    }
+
+    private static String deleteTombstone(String table, String key) {
+        return "DELETE FROM backup_tombstones WHERE table_name = '" + table + "' AND row_id = " + key + "; ";
+    }
+}
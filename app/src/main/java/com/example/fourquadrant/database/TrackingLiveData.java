@@ -0,0 +1,94 @@
+package com.example.fourquadrant.database;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+import androidx.room.RoomDatabase;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 监听数据表变化的LiveData
+ * 任意一个监听表在一次事务提交后失效时，只在后台执行一次查询并发出一次结果；
+ * 查询过程中又有新提交时合并为下一次查询，不会出现半成品数据
+ */
+public class TrackingLiveData<T> extends LiveData<T> {
+
+    private static final String TAG = "TrackingLiveData";
+
+    private final RoomDatabase database;
+    private final Callable<T> query;
+    private final InvalidationTracker.Observer observer;
+
+    private final AtomicBoolean invalid = new AtomicBoolean(true);
+    private final AtomicBoolean computing = new AtomicBoolean(false);
+    private final AtomicBoolean registered = new AtomicBoolean(false);
+
+    private final Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (registered.compareAndSet(false, true)) {
+                database.getInvalidationTracker().addObserver(observer);
+            }
+            boolean computed;
+            do {
+                computed = false;
+                if (computing.compareAndSet(false, true)) {
+                    try {
+                        T value = null;
+                        while (invalid.compareAndSet(true, false)) {
+                            computed = true;
+                            try {
+                                value = query.call();
+                            } catch (Exception e) {
+                                android.util.Log.e(TAG, "Error running tracked query", e);
+                                computed = false;
+                            }
+                        }
+                        if (computed) {
+                            postValue(value);
+                        }
+                    } finally {
+                        computing.set(false);
+                    }
+                }
+            } while (computed && invalid.get());
+        }
+    };
+
+    private final Runnable unregisterRunnable = () -> {
+        if (!hasActiveObservers() && registered.compareAndSet(true, false)) {
+            database.getInvalidationTracker().removeObserver(observer);
+            // 停止监听期间的变化无法感知，下次激活时重新查询
+            invalid.set(true);
+        }
+    };
+
+    public TrackingLiveData(RoomDatabase database, String[] tableNames, Callable<T> query) {
+        this.database = database;
+        this.query = query;
+        this.observer = new InvalidationTracker.Observer(tableNames) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalid.set(true);
+                if (hasActiveObservers()) {
+                    database.getQueryExecutor().execute(refreshRunnable);
+                }
+            }
+        };
+    }
+
+    @Override
+    protected void onActive() {
+        super.onActive();
+        database.getQueryExecutor().execute(refreshRunnable);
+    }
+
+    @Override
+    protected void onInactive() {
+        super.onInactive();
+        database.getQueryExecutor().execute(unregisterRunnable);
+    }
+}
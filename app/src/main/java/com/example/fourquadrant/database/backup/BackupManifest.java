@@ -0,0 +1,143 @@
+package com.example.fourquadrant.database.backup;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 增量备份清单
+ * 每条链由一个完整备份和其后的若干增量备份组成，按时间顺序排列；
+ * 记录每张表已备份到的高水位，下一次增量备份只导出高水位之后变化的行。
+ * 恢复某个增量备份时，依次重放所在链的完整备份和它之前（含它自身）的增量备份。
+ */
+public final class BackupManifest {
+
+    public static final String FILE_NAME = "manifest.json";
+
+    // 清单只保留最近的若干条链，更早的备份文件仍可单独恢复
+    private static final int MAX_CHAINS = 8;
+
+    private List<Chain> chains = new ArrayList<>();
+
+    /**
+     * 一个完整备份及其增量备份
+     */
+    public static final class Chain {
+        String base;
+        List<String> deltas = new ArrayList<>();
+        Map<String, Long> marks = new HashMap<>();
+
+        public String getBase() {
+            return base;
+        }
+
+        public List<String> getDeltas() {
+            return Collections.unmodifiableList(deltas);
+        }
+
+        /**
+         * 表的高水位，没有记录时为0
+         */
+        public long getMark(String table) {
+            Long mark = marks.get(table);
+            return mark != null ? mark : 0L;
+        }
+    }
+
+    /**
+     * 读取清单；文件不存在或已损坏时返回空清单（下一次备份将是完整备份）
+     */
+    public static BackupManifest load(File file, Gson gson) {
+        if (file.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                BackupManifest manifest = gson.fromJson(reader, BackupManifest.class);
+                if (manifest != null && manifest.chains != null) {
+                    return manifest;
+                }
+            } catch (IOException | JsonParseException ignored) {
+                // 按空清单处理
+            }
+        }
+        return new BackupManifest();
+    }
+
+    /**
+     * 先写临时文件再改名，写到一半失败不会破坏旧清单
+     */
+    public void save(File file, Gson gson) throws IOException {
+        File partialFile = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(partialFile), StandardCharsets.UTF_8)) {
+            gson.toJson(this, writer);
+        }
+        if (!partialFile.renameTo(file)) {
+            partialFile.delete();
+            throw new IOException("无法保存备份清单: " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * 最近一条链，没有时返回 null
+     */
+    public Chain current() {
+        return chains.isEmpty() ? null : chains.get(chains.size() - 1);
+    }
+
+    /**
+     * 以一个完整备份开始新链
+     */
+    public void startChain(String base, Map<String, Long> marks) {
+        Chain chain = new Chain();
+        chain.base = base;
+        chain.marks.putAll(marks);
+        chains.add(chain);
+        while (chains.size() > MAX_CHAINS) {
+            chains.remove(0);
+        }
+    }
+
+    /**
+     * 在最近一条链末尾追加增量备份并更新高水位
+     */
+    public void appendDelta(String delta, Map<String, Long> marks) {
+        Chain chain = current();
+        if (chain == null) {
+            throw new IllegalStateException("没有完整备份，不能追加增量备份");
+        }
+        chain.deltas.add(delta);
+        chain.marks.putAll(marks);
+    }
+
+    /**
+     * 恢复某个备份文件需要依次重放的文件名
+     * 不在任何链中的文件（旧版备份或手动复制的备份）只重放它自身
+     */
+    public List<String> restorePlan(String fileName) {
+        for (Chain chain : chains) {
+            if (fileName.equals(chain.base)) {
+                return Collections.singletonList(chain.base);
+            }
+            int index = chain.deltas.indexOf(fileName);
+            if (index >= 0) {
+                List<String> plan = new ArrayList<>(index + 2);
+                plan.add(chain.base);
+                plan.addAll(chain.deltas.subList(0, index + 1));
+                return plan;
+            }
+        }
+        return Collections.singletonList(fileName);
+    }
+}
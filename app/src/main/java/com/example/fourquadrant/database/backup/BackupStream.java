@@ -0,0 +1,187 @@
+package com.example.fourquadrant.database.backup;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 之前版本的JSON备份格式（只读）
+ * 顶层是一个JSON对象：若干元数据字段，加上每张表一个数组，数组元素就是实体的Gson序列化结果。
+ * 读入时逐条解析，攒满一批交给调用方写入，内存占用只与批大小有关，与备份行数无关；自动识别未压缩的 .json 备份。
+ * 新备份写出二进制快照（SnapshotCodec），分页接口 PageSource 和批量接口 BatchSink 两种格式共用。
+ */
+public final class BackupStream {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private BackupStream() {
+    }
+
+    /**
+     * 分页读取：返回排序在 last 之后的至多 limit 条，last 为 null 时从第一条开始
+     */
+    public interface PageSource<T> {
+        List<T> next(T last, int limit) throws Exception;
+    }
+
+    /**
+     * 接收一批解析出的实体
+     */
+    public interface BatchSink<T> {
+        void accept(List<T> batch) throws Exception;
+    }
+
+    /**
+     * 备份中的一张表
+     * legacyNames 为旧版备份中的字段名，旧版中可能是单个对象而不是数组
+     */
+    public static final class Section<T> {
+        final String name;
+        final Class<T> type;
+        final String[] legacyNames;
+
+        public Section(String name, Class<T> type, String... legacyNames) {
+            this.name = name;
+            this.type = type;
+            this.legacyNames = legacyNames;
+        }
+    }
+
+    /**
+     * 一次性返回整张小表（设置、用户等）
+     */
+    public static <T> PageSource<T> whole(Callable<List<T>> query) {
+        return (last, limit) -> {
+            if (last != null) {
+                return Collections.emptyList();
+            }
+            List<T> rows = query.call();
+            return rows != null ? rows : Collections.emptyList();
+        };
+    }
+
+    /**
+     * GZIP 魔数开头的流解压读取，否则原样读取（旧版的纯JSON）
+     * 返回的流支持 mark/reset，可以继续判断内容格式
+     */
+    public static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = in instanceof BufferedInputStream
+                ? (BufferedInputStream) in : new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_SIZE), BUFFER_SIZE);
+        }
+        return buffered;
+    }
+
+    /**
+     * 读入备份；先用 on() 注册要读取的表，未注册的字段直接跳过
+     */
+    public static final class Reader {
+
+        private final Gson gson;
+        private final int batchSize;
+        private final Map<String, Binding<?>> bindings = new HashMap<>();
+
+        public Reader(Gson gson, int batchSize) {
+            this.gson = gson;
+            this.batchSize = batchSize;
+        }
+
+        public <T> Reader on(Section<T> section, BatchSink<T> sink) {
+            Binding<T> binding = new Binding<>(section.type, sink);
+            bindings.put(section.name, binding);
+            for (String legacyName : section.legacyNames) {
+                bindings.put(legacyName, binding);
+            }
+            return this;
+        }
+
+        /**
+         * 读取整个备份，返回交给各表的总行数
+         */
+        public int read(InputStream in) throws Exception {
+            JsonReader json = new JsonReader(new InputStreamReader(decompress(in), StandardCharsets.UTF_8));
+            int total = 0;
+            json.beginObject();
+            while (json.hasNext()) {
+                Binding<?> binding = bindings.get(json.nextName());
+                if (binding == null) {
+                    json.skipValue();
+                } else {
+                    total += binding.read(json);
+                }
+            }
+            json.endObject();
+            return total;
+        }
+
+        private final class Binding<T> {
+            private final Class<T> type;
+            private final BatchSink<T> sink;
+
+            Binding(Class<T> type, BatchSink<T> sink) {
+                this.type = type;
+                this.sink = sink;
+            }
+
+            int read(JsonReader json) throws Exception {
+                JsonToken token = json.peek();
+                if (token == JsonToken.NULL) {
+                    json.nextNull();
+                    return 0;
+                }
+                if (token == JsonToken.BEGIN_OBJECT) {
+                    // 旧版备份中的单个对象（user / timerState）
+                    T row = gson.fromJson(json, type);
+                    if (row == null) {
+                        return 0;
+                    }
+                    List<T> batch = new ArrayList<>(1);
+                    batch.add(row);
+                    sink.accept(batch);
+                    return 1;
+                }
+
+                int count = 0;
+                List<T> batch = new ArrayList<>(batchSize);
+                json.beginArray();
+                while (json.hasNext()) {
+                    T row = gson.fromJson(json, type);
+                    if (row != null) {
+                        batch.add(row);
+                    }
+                    if (batch.size() == batchSize) {
+                        sink.accept(batch);
+                        count += batch.size();
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                json.endArray();
+                if (!batch.isEmpty()) {
+                    sink.accept(batch);
+                    count += batch.size();
+                }
+                return count;
+            }
+        }
+    }
+}
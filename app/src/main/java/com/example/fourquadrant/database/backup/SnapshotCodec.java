@@ -0,0 +1,722 @@
+package com.example.fourquadrant.database.backup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 二进制列式快照格式
+ * 文件头是魔数和格式版本，之后是若干记录：元数据、表头（列名和列类型）、行组、结束标记。
+ * 每个行组按列存放，列数据前有字节长度：时间戳存相邻行差值的zigzag变长整数，布尔值按位存放，
+ * 重复度高的字符串（任务名、状态、分类）在行组内字典编码。
+ * 读取时按列名匹配，文件中多出的表和列直接跳过，缺少的列保留实体默认值。
+ * 编解码不使用反射，一次只缓存一个行组。
+ */
+public final class SnapshotCodec {
+
+    public static final int FORMAT_VERSION = 1;
+    public static final int DEFAULT_ROW_GROUP_SIZE = 1024;
+
+    private static final byte[] MAGIC = {'F', 'Q', 'S', 'N'};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int RECORD_END = 0;
+    private static final int RECORD_META = 1;
+    private static final int RECORD_TABLE = 2;
+    private static final int RECORD_ROW_GROUP = 3;
+
+    private static final int TYPE_LONG = 1;
+    private static final int TYPE_NULLABLE_LONG = 2;
+    private static final int TYPE_INT = 3;
+    private static final int TYPE_BOOLEAN = 4;
+    private static final int TYPE_STRING = 5;
+    private static final int TYPE_DICTIONARY = 6;
+
+    private SnapshotCodec() {
+    }
+
+    public interface BooleanSetter<T> {
+        void set(T row, boolean value);
+    }
+
+    /**
+     * 流是否以快照魔数开头；流必须支持 mark/reset，读取后位置不变
+     */
+    public static boolean isSnapshot(InputStream in) throws IOException {
+        if (!in.markSupported()) {
+            throw new IllegalArgumentException("stream must support mark/reset");
+        }
+        in.mark(MAGIC.length);
+        try {
+            for (byte expected : MAGIC) {
+                if (in.read() != (expected & 0xff)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * 一张表的列定义
+     * 解码时按定义顺序调用 setter：会连带修改其他字段的列（如 importance 会重算 quadrant）要排在被修改的列之前，
+     * updated_at 放在最后
+     */
+    public static final class Table<T> {
+        final String name;
+        final Supplier<T> factory;
+        final List<Column<T>> columns = new ArrayList<>();
+
+        public Table(String name, Supplier<T> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        /**
+         * 时间戳等long列，按与上一行的差值编码
+         */
+        public Table<T> timestamp(String column, ToLongFunction<T> getter, ObjLongConsumer<T> setter) {
+            columns.add(new LongColumn<>(column, getter, setter));
+            return this;
+        }
+
+        public Table<T> nullableTimestamp(String column, Function<T, Long> getter, BiConsumer<T, Long> setter) {
+            columns.add(new NullableLongColumn<>(column, getter, setter));
+            return this;
+        }
+
+        public Table<T> integer(String column, ToIntFunction<T> getter, ObjIntConsumer<T> setter) {
+            columns.add(new IntColumn<>(column, getter, setter));
+            return this;
+        }
+
+        public Table<T> bool(String column, Predicate<T> getter, BooleanSetter<T> setter) {
+            columns.add(new BooleanColumn<>(column, getter, setter));
+            return this;
+        }
+
+        public Table<T> string(String column, Function<T, String> getter, BiConsumer<T, String> setter) {
+            columns.add(new StringColumn<>(column, TYPE_STRING, getter, setter));
+            return this;
+        }
+
+        /**
+         * 取值重复度高的字符串列，行组内字典编码
+         */
+        public Table<T> dictionary(String column, Function<T, String> getter, BiConsumer<T, String> setter) {
+            columns.add(new StringColumn<>(column, TYPE_DICTIONARY, getter, setter));
+            return this;
+        }
+
+        Column<T> column(String column, int type) {
+            for (Column<T> candidate : columns) {
+                if (candidate.name.equals(column) && candidate.type == type) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 写出快照；成功时先调用 finish() 再关闭
+     */
+    public static final class Writer implements Closeable {
+
+        private final OutputStream out;
+        private final int rowGroupSize;
+        private final Buffer header = new Buffer(256);
+        private final Buffer column = new Buffer(BUFFER_SIZE);
+
+        public Writer(OutputStream out, int rowGroupSize) throws IOException {
+            this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+            this.rowGroupSize = rowGroupSize;
+            this.out.write(MAGIC);
+            header.writeVarint(FORMAT_VERSION);
+            flushHeader();
+        }
+
+        public Writer meta(String name, String value) throws IOException {
+            header.writeVarint(RECORD_META);
+            header.writeString(name);
+            header.writeString(value);
+            flushHeader();
+            return this;
+        }
+
+        public Writer meta(String name, long value) throws IOException {
+            return meta(name, Long.toString(value));
+        }
+
+        /**
+         * 逐页读取并写出一张表，每页一个行组，返回写出的行数
+         */
+        public <T> int writeTable(Table<T> table, BackupStream.PageSource<T> source) throws Exception {
+            header.writeVarint(RECORD_TABLE);
+            header.writeString(table.name);
+            header.writeVarint(table.columns.size());
+            for (Column<T> c : table.columns) {
+                header.writeString(c.name);
+                header.writeVarint(c.type);
+            }
+            flushHeader();
+
+            int count = 0;
+            T last = null;
+            while (true) {
+                List<T> page = source.next(last, rowGroupSize);
+                if (!page.isEmpty()) {
+                    writeRowGroup(table, page);
+                }
+                count += page.size();
+                if (page.size() < rowGroupSize) {
+                    break;
+                }
+                last = page.get(page.size() - 1);
+            }
+            return count;
+        }
+
+        /**
+         * 写出已在内存中的整张表
+         */
+        public <T> int writeRows(Table<T> table, List<T> rows) throws Exception {
+            int[] offset = {0};
+            return writeTable(table, (last, limit) -> {
+                int from = offset[0];
+                int to = Math.min(rows.size(), from + limit);
+                offset[0] = to;
+                return rows.subList(from, to);
+            });
+        }
+
+        private <T> void writeRowGroup(Table<T> table, List<T> rows) throws IOException {
+            header.writeVarint(RECORD_ROW_GROUP);
+            header.writeVarint(rows.size());
+            flushHeader();
+            for (Column<T> c : table.columns) {
+                column.clear();
+                c.encode(rows, column);
+                header.writeVarint(column.length);
+                flushHeader();
+                out.write(column.data, 0, column.length);
+            }
+        }
+
+        private void flushHeader() throws IOException {
+            out.write(header.data, 0, header.length);
+            header.clear();
+        }
+
+        public void finish() throws IOException {
+            header.writeVarint(RECORD_END);
+            flushHeader();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * 读入快照；先用 on() 注册要读取的表，未注册的表直接跳过
+     */
+    public static final class Reader {
+
+        private final Map<String, Binding<?>> bindings = new HashMap<>();
+        private final Map<String, String> meta = new HashMap<>();
+
+        public <T> Reader on(Table<T> table, BackupStream.BatchSink<T> sink) {
+            bindings.put(table.name, new Binding<>(table, sink));
+            return this;
+        }
+
+        /**
+         * 最近一次 read() 读到的元数据
+         */
+        public Map<String, String> getMeta() {
+            return Collections.unmodifiableMap(meta);
+        }
+
+        /**
+         * 读取整个快照，返回交给各表的总行数
+         */
+        public int read(InputStream source) throws Exception {
+            InputStream in = source instanceof BufferedInputStream ? source : new BufferedInputStream(source, BUFFER_SIZE);
+            for (byte expected : MAGIC) {
+                if (in.read() != (expected & 0xff)) {
+                    throw new IOException("不是快照文件");
+                }
+            }
+            int version = (int) readVarint(in);
+            if (version > FORMAT_VERSION) {
+                throw new IOException("不支持的快照版本: " + version);
+            }
+
+            meta.clear();
+            Buffer buffer = new Buffer(BUFFER_SIZE);
+            Binding<?> current = null;
+            List<Column<?>> fileColumns = new ArrayList<>();
+            int total = 0;
+            while (true) {
+                int record = (int) readVarint(in);
+                switch (record) {
+                    case RECORD_END:
+                        return total;
+                    case RECORD_META:
+                        meta.put(readString(in, buffer), readString(in, buffer));
+                        break;
+                    case RECORD_TABLE:
+                        current = bindings.get(readString(in, buffer));
+                        fileColumns.clear();
+                        int columnCount = (int) readVarint(in);
+                        for (int i = 0; i < columnCount; i++) {
+                            String name = readString(in, buffer);
+                            int type = (int) readVarint(in);
+                            fileColumns.add(current != null ? current.table.column(name, type) : null);
+                        }
+                        break;
+                    case RECORD_ROW_GROUP:
+                        int rowCount = (int) readVarint(in);
+                        if (current == null) {
+                            for (int i = 0; i < fileColumns.size(); i++) {
+                                skipFully(in, readVarint(in));
+                            }
+                        } else {
+                            total += current.readRowGroup(in, buffer, fileColumns, rowCount);
+                        }
+                        break;
+                    default:
+                        throw new IOException("快照已损坏: 未知记录 " + record);
+                }
+            }
+        }
+
+        private static final class Binding<T> {
+            final Table<T> table;
+            final BackupStream.BatchSink<T> sink;
+
+            Binding(Table<T> table, BackupStream.BatchSink<T> sink) {
+                this.table = table;
+                this.sink = sink;
+            }
+
+            @SuppressWarnings("unchecked")
+            int readRowGroup(InputStream in, Buffer buffer, List<Column<?>> fileColumns, int rowCount) throws Exception {
+                List<T> rows = new ArrayList<>(rowCount);
+                for (int i = 0; i < rowCount; i++) {
+                    rows.add(table.factory.get());
+                }
+                for (Column<?> c : fileColumns) {
+                    int length = (int) readVarint(in);
+                    if (c == null) {
+                        skipFully(in, length);
+                        continue;
+                    }
+                    buffer.fill(in, length);
+                    ((Column<T>) c).decode(rows, buffer);
+                }
+                sink.accept(rows);
+                return rowCount;
+            }
+        }
+
+        private static String readString(InputStream in, Buffer buffer) throws IOException {
+            int length = (int) readVarint(in);
+            buffer.fill(in, length);
+            return new String(buffer.data, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private static long readVarint(InputStream in) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new EOFException("快照不完整");
+                }
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("快照已损坏: 变长整数过长");
+        }
+
+        private static void skipFully(InputStream in, long length) throws IOException {
+            while (length > 0) {
+                long skipped = in.skip(length);
+                if (skipped <= 0) {
+                    if (in.read() < 0) {
+                        throw new EOFException("快照不完整");
+                    }
+                    skipped = 1;
+                }
+                length -= skipped;
+            }
+        }
+    }
+
+    // ---------------- 列编码 ----------------
+
+    private abstract static class Column<T> {
+        final String name;
+        final int type;
+
+        Column(String name, int type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        abstract void encode(List<T> rows, Buffer out);
+
+        abstract void decode(List<T> rows, Buffer in) throws IOException;
+    }
+
+    private static final class LongColumn<T> extends Column<T> {
+        private final ToLongFunction<T> getter;
+        private final ObjLongConsumer<T> setter;
+
+        LongColumn(String name, ToLongFunction<T> getter, ObjLongConsumer<T> setter) {
+            super(name, TYPE_LONG);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void encode(List<T> rows, Buffer out) {
+            long previous = 0;
+            for (T row : rows) {
+                long value = getter.applyAsLong(row);
+                out.writeSignedVarint(value - previous);
+                previous = value;
+            }
+        }
+
+        @Override
+        void decode(List<T> rows, Buffer in) throws IOException {
+            long previous = 0;
+            for (T row : rows) {
+                previous += in.readSignedVarint();
+                setter.accept(row, previous);
+            }
+        }
+    }
+
+    private static final class NullableLongColumn<T> extends Column<T> {
+        private final Function<T, Long> getter;
+        private final BiConsumer<T, Long> setter;
+
+        NullableLongColumn(String name, Function<T, Long> getter, BiConsumer<T, Long> setter) {
+            super(name, TYPE_NULLABLE_LONG);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void encode(List<T> rows, Buffer out) {
+            int bitmap = out.reserveBits(rows.size());
+            long previous = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                Long value = getter.apply(rows.get(i));
+                if (value != null) {
+                    out.setBit(bitmap, i);
+                    out.writeSignedVarint(value - previous);
+                    previous = value;
+                }
+            }
+        }
+
+        @Override
+        void decode(List<T> rows, Buffer in) throws IOException {
+            int bitmap = in.skipBits(rows.size());
+            long previous = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                if (in.getBit(bitmap, i)) {
+                    previous += in.readSignedVarint();
+                    setter.accept(rows.get(i), previous);
+                } else {
+                    setter.accept(rows.get(i), null);
+                }
+            }
+        }
+    }
+
+    private static final class IntColumn<T> extends Column<T> {
+        private final ToIntFunction<T> getter;
+        private final ObjIntConsumer<T> setter;
+
+        IntColumn(String name, ToIntFunction<T> getter, ObjIntConsumer<T> setter) {
+            super(name, TYPE_INT);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void encode(List<T> rows, Buffer out) {
+            for (T row : rows) {
+                out.writeSignedVarint(getter.applyAsInt(row));
+            }
+        }
+
+        @Override
+        void decode(List<T> rows, Buffer in) throws IOException {
+            for (T row : rows) {
+                setter.accept(row, (int) in.readSignedVarint());
+            }
+        }
+    }
+
+    private static final class BooleanColumn<T> extends Column<T> {
+        private final Predicate<T> getter;
+        private final BooleanSetter<T> setter;
+
+        BooleanColumn(String name, Predicate<T> getter, BooleanSetter<T> setter) {
+            super(name, TYPE_BOOLEAN);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void encode(List<T> rows, Buffer out) {
+            int bitmap = out.reserveBits(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                if (getter.test(rows.get(i))) {
+                    out.setBit(bitmap, i);
+                }
+            }
+        }
+
+        @Override
+        void decode(List<T> rows, Buffer in) throws IOException {
+            int bitmap = in.skipBits(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                setter.set(rows.get(i), in.getBit(bitmap, i));
+            }
+        }
+    }
+
+    // 普通字符串每行存 长度+1（0 表示 null）和UTF-8字节；字典列先存字典，每行存 下标+1
+    private static final class StringColumn<T> extends Column<T> {
+        private final Function<T, String> getter;
+        private final BiConsumer<T, String> setter;
+
+        StringColumn(String name, int type, Function<T, String> getter, BiConsumer<T, String> setter) {
+            super(name, type);
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        void encode(List<T> rows, Buffer out) {
+            if (type == TYPE_STRING) {
+                for (T row : rows) {
+                    out.writeNullableString(getter.apply(row));
+                }
+                return;
+            }
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<String> entries = new ArrayList<>();
+            int[] indexes = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                String value = getter.apply(rows.get(i));
+                if (value == null) {
+                    continue;
+                }
+                Integer index = dictionary.get(value);
+                if (index == null) {
+                    index = entries.size();
+                    dictionary.put(value, index);
+                    entries.add(value);
+                }
+                indexes[i] = index + 1;
+            }
+            out.writeVarint(entries.size());
+            for (String entry : entries) {
+                out.writeNullableString(entry);
+            }
+            for (int index : indexes) {
+                out.writeVarint(index);
+            }
+        }
+
+        @Override
+        void decode(List<T> rows, Buffer in) throws IOException {
+            if (type == TYPE_STRING) {
+                for (T row : rows) {
+                    setter.accept(row, in.readNullableString());
+                }
+                return;
+            }
+            String[] entries = new String[(int) in.readVarint()];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = in.readNullableString();
+            }
+            for (T row : rows) {
+                int index = (int) in.readVarint();
+                if (index > entries.length) {
+                    throw new IOException("快照已损坏: 字典下标越界");
+                }
+                setter.accept(row, index == 0 ? null : entries[index - 1]);
+            }
+        }
+    }
+
+    // ---------------- 字节缓冲 ----------------
+
+    private static final class Buffer {
+        byte[] data;
+        int length;
+        int position;
+
+        Buffer(int capacity) {
+            data = new byte[capacity];
+        }
+
+        void clear() {
+            length = 0;
+            position = 0;
+        }
+
+        void fill(InputStream in, int size) throws IOException {
+            ensureCapacity(size);
+            int read = 0;
+            while (read < size) {
+                int n = in.read(data, read, size - read);
+                if (n < 0) {
+                    throw new EOFException("快照不完整");
+                }
+                read += n;
+            }
+            length = size;
+            position = 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > data.length) {
+                byte[] grown = new byte[Math.max(capacity, data.length * 2)];
+                System.arraycopy(data, 0, grown, 0, length);
+                data = grown;
+            }
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(length + 10);
+            while ((value & ~0x7fL) != 0) {
+                data[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+
+        void writeSignedVarint(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            writeBytes(bytes);
+        }
+
+        void writeNullableString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length + 1L);
+            writeBytes(bytes);
+        }
+
+        private void writeBytes(byte[] bytes) {
+            ensureCapacity(length + bytes.length);
+            System.arraycopy(bytes, 0, data, length, bytes.length);
+            length += bytes.length;
+        }
+
+        // 预留 count 位并清零，返回起始偏移
+        int reserveBits(int count) {
+            int bytes = (count + 7) >>> 3;
+            ensureCapacity(length + bytes);
+            int offset = length;
+            for (int i = 0; i < bytes; i++) {
+                data[offset + i] = 0;
+            }
+            length += bytes;
+            return offset;
+        }
+
+        void setBit(int offset, int index) {
+            data[offset + (index >>> 3)] |= (byte) (1 << (index & 7));
+        }
+
+        int skipBits(int count) throws IOException {
+            int offset = position;
+            position += (count + 7) >>> 3;
+            if (position > length) {
+                throw new EOFException("快照已损坏: 列数据不完整");
+            }
+            return offset;
+        }
+
+        boolean getBit(int offset, int index) {
+            return (data[offset + (index >>> 3)] & (1 << (index & 7))) != 0;
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= length) {
+                    throw new EOFException("快照已损坏: 列数据不完整");
+                }
+                int b = data[position++];
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("快照已损坏: 变长整数过长");
+        }
+
+        long readSignedVarint() throws IOException {
+            long raw = readVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readNullableString() throws IOException {
+            long raw = readVarint();
+            if (raw == 0) {
+                return null;
+            }
+            int size = (int) (raw - 1);
+            if (size < 0 || position + size > length) {
+                throw new EOFException("快照已损坏: 列数据不完整");
+            }
+            String value = new String(data, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.fourquadrant.database.backup;
+
+import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
+import com.example.fourquadrant.database.entity.ReminderEntity;
+import com.example.fourquadrant.database.entity.SettingsEntity;
+import com.example.fourquadrant.database.entity.TaskEntity;
+import com.example.fourquadrant.database.entity.TimerStateEntity;
+import com.example.fourquadrant.database.entity.TombstoneEntity;
+import com.example.fourquadrant.database.entity.UserEntity;
+
+/**
+ * 各实体在快照中的列定义
+ * 表名与JSON备份中的字段名相同；search_terms 和本地日期列可由其他列算出，不写入快照。
+ * 列的先后顺序即解码时调用 setter 的顺序，见 SnapshotCodec.Table。
+ */
+public final class SnapshotTables {
+
+    private SnapshotTables() {
+    }
+
+    public static final SnapshotCodec.Table<TaskEntity> TASKS =
+            new SnapshotCodec.Table<>("tasks", TaskEntity::new)
+                    .string("id", TaskEntity::getId, TaskEntity::setId)
+                    .string("name", TaskEntity::getName, TaskEntity::setName)
+                    .integer("importance", TaskEntity::getImportance, TaskEntity::setImportance)
+                    .integer("urgency", TaskEntity::getUrgency, TaskEntity::setUrgency)
+                    .integer("quadrant", TaskEntity::getQuadrant, TaskEntity::setQuadrant)
+                    .bool("is_completed", TaskEntity::isCompleted, TaskEntity::setCompleted)
+                    .nullableTimestamp("completed_at", TaskEntity::getCompletedAt, TaskEntity::setCompletedAt)
+                    .timestamp("created_at", TaskEntity::getCreatedAt, TaskEntity::setCreatedAt)
+                    .bool("is_deleted", TaskEntity::isDeleted, TaskEntity::setDeleted)
+                    .timestamp("updated_at", TaskEntity::getUpdatedAt, TaskEntity::setUpdatedAt);
+
+    public static final SnapshotCodec.Table<PomodoroSessionEntity> POMODORO_SESSIONS =
+            new SnapshotCodec.Table<>("pomodoroSessions", PomodoroSessionEntity::new)
+                    .string("id", PomodoroSessionEntity::getId, PomodoroSessionEntity::setId)
+                    .dictionary("task_id", PomodoroSessionEntity::getTaskId, PomodoroSessionEntity::setTaskId)
+                    .dictionary("task_name", PomodoroSessionEntity::getTaskName, PomodoroSessionEntity::setTaskName)
+                    .timestamp("start_time", PomodoroSessionEntity::getStartTime, PomodoroSessionEntity::setStartTime)
+                    .integer("duration_minutes", PomodoroSessionEntity::getDurationMinutes,
+                            PomodoroSessionEntity::setDurationMinutes)
+                    .bool("is_completed", PomodoroSessionEntity::isCompleted, PomodoroSessionEntity::setCompleted)
+                    .nullableTimestamp("end_time", PomodoroSessionEntity::getEndTime, PomodoroSessionEntity::setEndTime)
+                    .bool("is_break_session", PomodoroSessionEntity::isBreakSession,
+                            PomodoroSessionEntity::setBreakSession)
+                    .timestamp("created_at", PomodoroSessionEntity::getCreatedAt, PomodoroSessionEntity::setCreatedAt)
+                    .timestamp("updated_at", PomodoroSessionEntity::getUpdatedAt, PomodoroSessionEntity::setUpdatedAt);
+
+    public static final SnapshotCodec.Table<ReminderEntity> REMINDERS =
+            new SnapshotCodec.Table<>("reminders", ReminderEntity::new)
+                    .string("id", ReminderEntity::getId, ReminderEntity::setId)
+                    .string("content", ReminderEntity::getContent, ReminderEntity::setContent)
+                    .dictionary("task_id", ReminderEntity::getTaskId, ReminderEntity::setTaskId)
+                    .dictionary("task_name", ReminderEntity::getTaskName, ReminderEntity::setTaskName)
+                    .timestamp("reminder_time", ReminderEntity::getReminderTime, ReminderEntity::setReminderTime)
+                    .bool("is_active", ReminderEntity::isActive, ReminderEntity::setActive)
+                    .bool("is_vibrate", ReminderEntity::isVibrate, ReminderEntity::setVibrate)
+                    .bool("is_sound", ReminderEntity::isSound, ReminderEntity::setSound)
+                    .bool("is_repeat", ReminderEntity::isRepeat, ReminderEntity::setRepeat)
+                    .integer("repeat_count", ReminderEntity::getRepeatCount, ReminderEntity::setRepeatCount)
+                    .dictionary("status", ReminderEntity::getStatus, ReminderEntity::setStatus)
+                    .timestamp("created_at", ReminderEntity::getCreatedAt, ReminderEntity::setCreatedAt)
+                    .timestamp("updated_at", ReminderEntity::getUpdatedAt, ReminderEntity::setUpdatedAt);
+
+    public static final SnapshotCodec.Table<SettingsEntity> SETTINGS =
+            new SnapshotCodec.Table<>("settings", SettingsEntity::new)
+                    .string("key", SettingsEntity::getKey, SettingsEntity::setKey)
+                    .string("value", SettingsEntity::getValue, SettingsEntity::setValue)
+                    .dictionary("type", SettingsEntity::getType, SettingsEntity::setType)
+                    .dictionary("category", SettingsEntity::getCategory, SettingsEntity::setCategory)
+                    .timestamp("created_at", SettingsEntity::getCreatedAt, SettingsEntity::setCreatedAt)
+                    .timestamp("updated_at", SettingsEntity::getUpdatedAt, SettingsEntity::setUpdatedAt);
+
+    public static final SnapshotCodec.Table<UserEntity> USERS =
+            new SnapshotCodec.Table<>("users", UserEntity::new)
+                    .string("id", UserEntity::getId, UserEntity::setId)
+                    .string("username", UserEntity::getUsername, UserEntity::setUsername)
+                    .string("email", UserEntity::getEmail, UserEntity::setEmail)
+                    .string("bio", UserEntity::getBio, UserEntity::setBio)
+                    .string("avatar_path", UserEntity::getAvatarPath, UserEntity::setAvatarPath)
+                    .timestamp("created_at", UserEntity::getCreatedAt, UserEntity::setCreatedAt)
+                    .timestamp("updated_at", UserEntity::getUpdatedAt, UserEntity::setUpdatedAt);
+
+    public static final SnapshotCodec.Table<TimerStateEntity> TIMER_STATES =
+            new SnapshotCodec.Table<>("timerStates", TimerStateEntity::new)
+                    .string("id", TimerStateEntity::getId, TimerStateEntity::setId)
+                    .timestamp("start_time", TimerStateEntity::getStartTime, TimerStateEntity::setStartTime)
+                    .bool("is_running", TimerStateEntity::isRunning, TimerStateEntity::setRunning)
+                    .bool("is_paused", TimerStateEntity::isPaused, TimerStateEntity::setPaused)
+                    .timestamp("remaining_time", TimerStateEntity::getRemainingTime, TimerStateEntity::setRemainingTime)
+                    .bool("is_break", TimerStateEntity::isBreak, TimerStateEntity::setBreak)
+                    .integer("current_count", TimerStateEntity::getCurrentCount, TimerStateEntity::setCurrentCount)
+                    .bool("is_completed_pending", TimerStateEntity::isCompletedPending,
+                            TimerStateEntity::setCompletedPending)
+                    .string("completed_task_name", TimerStateEntity::getCompletedTaskName,
+                            TimerStateEntity::setCompletedTaskName)
+                    .integer("total_count", TimerStateEntity::getTotalCount, TimerStateEntity::setTotalCount)
+                    .timestamp("updated_at", TimerStateEntity::getUpdatedAt, TimerStateEntity::setUpdatedAt);
+
+    public static final SnapshotCodec.Table<TombstoneEntity> TOMBSTONES =
+            new SnapshotCodec.Table<>("tombstones", TombstoneEntity::new)
+                    .timestamp("seq", TombstoneEntity::getSeq, TombstoneEntity::setSeq)
+                    .dictionary("table_name", TombstoneEntity::getTableName, TombstoneEntity::setTableName)
+                    .string("row_id", TombstoneEntity::getRowId, TombstoneEntity::setRowId)
+                    .timestamp("deleted_at", TombstoneEntity::getDeletedAt, TombstoneEntity::setDeletedAt);
+}
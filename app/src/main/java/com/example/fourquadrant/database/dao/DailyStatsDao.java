@@ -0,0 +1,106 @@
+package com.example.fourquadrant.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.fourquadrant.database.entity.DailyStatsEntity;
+
+import java.util.List;
+
+/**
+ * 每日统计汇总数据访问对象
+ */
+@Dao
+public interface DailyStatsDao {
+    
+    // 本地纪元日表达式（与 LocalDayUtils.toLocalDay 一致）
+    String LOCAL_DAY_OF_COMPLETED_AT =
+            "CAST(julianday(completed_at / 1000, 'unixepoch', 'localtime') - 2440587.5 AS INTEGER)";
+    String LOCAL_DAY_OF_START_TIME =
+            "CAST(julianday(start_time / 1000, 'unixepoch', 'localtime') - 2440587.5 AS INTEGER)";
+    
+    // 从原始数据全量重建汇总表（版本5到6的迁移使用，当时还没有本地日期列）
+    String REBUILD_ALL_SQL =
+            "INSERT OR REPLACE INTO daily_stats (day, q1_completed, q2_completed, q3_completed, q4_completed, " +
+            "importance_sum, pomodoro_count, focus_minutes, updated_at) " +
+            "SELECT day, SUM(q1), SUM(q2), SUM(q3), SUM(q4), SUM(importance), SUM(pomodoros), SUM(minutes), " +
+            "CAST(strftime('%s', 'now') AS INTEGER) * 1000 " +
+            "FROM (" +
+            "SELECT " + LOCAL_DAY_OF_COMPLETED_AT + " AS day, " +
+            "quadrant = 1 AS q1, quadrant = 2 AS q2, quadrant = 3 AS q3, quadrant = 4 AS q4, " +
+            "importance, 0 AS pomodoros, 0 AS minutes " +
+            "FROM tasks WHERE is_deleted = 0 AND is_completed = 1 AND completed_at IS NOT NULL " +
+            "UNION ALL " +
+            "SELECT " + LOCAL_DAY_OF_START_TIME + " AS day, 0, 0, 0, 0, 0, 1, duration_minutes " +
+            "FROM pomodoro_sessions WHERE is_completed = 1 AND is_break_session = 0" +
+            ") GROUP BY day";
+    
+    // 按已写入的本地纪元日列全量重建汇总表（批量导入和时区重新分桶后使用）
+    String REBUILD_FROM_LOCAL_DAYS_SQL =
+            "INSERT OR REPLACE INTO daily_stats (day, q1_completed, q2_completed, q3_completed, q4_completed, " +
+            "importance_sum, pomodoro_count, focus_minutes, updated_at) " +
+            "SELECT day, SUM(q1), SUM(q2), SUM(q3), SUM(q4), SUM(importance), SUM(pomodoros), SUM(minutes), " +
+            "CAST(strftime('%s', 'now') AS INTEGER) * 1000 " +
+            "FROM (" +
+            "SELECT completed_local_day AS day, " +
+            "quadrant = 1 AS q1, quadrant = 2 AS q2, quadrant = 3 AS q3, quadrant = 4 AS q4, " +
+            "importance, 0 AS pomodoros, 0 AS minutes " +
+            "FROM tasks WHERE is_deleted = 0 AND is_completed = 1 AND completed_local_day IS NOT NULL " +
+            "UNION ALL " +
+            "SELECT start_local_day AS day, 0, 0, 0, 0, 0, 1, duration_minutes " +
+            "FROM pomodoro_sessions WHERE is_completed = 1 AND is_break_session = 0" +
+            ") GROUP BY day";
+    
+    // 确保某天的汇总行存在
+    @Query("INSERT OR IGNORE INTO daily_stats (day, updated_at) VALUES (:day, :updateTime)")
+    void ensureDay(long day, long updateTime);
+    
+    // 累加/扣减一个已完成任务（delta = 1 或 -1）
+    @Query("UPDATE daily_stats SET " +
+            "q1_completed = q1_completed + CASE WHEN :quadrant = 1 THEN :delta ELSE 0 END, " +
+            "q2_completed = q2_completed + CASE WHEN :quadrant = 2 THEN :delta ELSE 0 END, " +
+            "q3_completed = q3_completed + CASE WHEN :quadrant = 3 THEN :delta ELSE 0 END, " +
+            "q4_completed = q4_completed + CASE WHEN :quadrant = 4 THEN :delta ELSE 0 END, " +
+            "importance_sum = importance_sum + :importance * :delta, " +
+            "updated_at = :updateTime " +
+            "WHERE day = :day")
+    void addCompletedTask(long day, int quadrant, int importance, int delta, long updateTime);
+    
+    // 累加/扣减番茄钟（delta = 1 或 -1）
+    @Query("UPDATE daily_stats SET " +
+            "pomodoro_count = pomodoro_count + :delta, " +
+            "focus_minutes = focus_minutes + :minutes * :delta, " +
+            "updated_at = :updateTime " +
+            "WHERE day = :day")
+    void addPomodoro(long day, int minutes, int delta, long updateTime);
+    
+    @Query("DELETE FROM daily_stats")
+    void deleteAll();
+    
+    @Query(REBUILD_FROM_LOCAL_DAYS_SQL)
+    void insertFromRawData();
+    
+    @Query("INSERT OR IGNORE INTO stats_generation (id, generation) VALUES (1, 0)")
+    void ensureStatsGeneration();
+    
+    @Query("UPDATE stats_generation SET generation = generation + 1 WHERE id = 1")
+    void incrementStatsGeneration();
+    
+    // 全量重建；同时推进统计源数据代数，让预先计算的统计结果失效（恢复的行可能带着更早的 updated_at）
+    @Transaction
+    default void rebuildAll() {
+        deleteAll();
+        insertFromRawData();
+        ensureStatsGeneration();
+        incrementStatsGeneration();
+    }
+    
+    // 按天范围查询汇总行
+    @Query("SELECT * FROM daily_stats WHERE day BETWEEN :startDay AND :endDay ORDER BY day ASC")
+    List<DailyStatsEntity> getDailyStatsSync(long startDay, long endDay);
+    
+    @Query("SELECT * FROM daily_stats WHERE day BETWEEN :startDay AND :endDay ORDER BY day ASC")
+    LiveData<List<DailyStatsEntity>> getDailyStats(long startDay, long endDay);
+}
@@ -5,12 +5,15 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import androidx.lifecycle.LiveData;
 
 import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
+import com.example.fourquadrant.utils.LocalDayUtils;
 
 import java.util.List;
+import java.util.TimeZone;
 
 /**
  * 番茄钟会话数据访问对象
@@ -18,6 +21,10 @@ import java.util.List;
 @Dao
 public interface PomodoroDao {
     
+    // 本地小时表达式（与 LocalDayUtils.toLocalHour 一致），仅用于迁移回填
+    String LOCAL_HOUR_OF_START_TIME =
+            "CAST(strftime('%H', start_time / 1000, 'unixepoch', 'localtime') AS INTEGER)";
+    
     // 插入番茄钟会话
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertSession(PomodoroSessionEntity session);
@@ -25,6 +32,10 @@ public interface PomodoroDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertSessions(List<PomodoroSessionEntity> sessions);
     
+    // 只插入不存在的行（旧数据迁移用）
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertSessionsIfAbsent(List<PomodoroSessionEntity> sessions);
+    
     // 更新番茄钟会话
     @Update
     void updateSession(PomodoroSessionEntity session);
@@ -39,6 +50,10 @@ public interface PomodoroDao {
     @Query("DELETE FROM pomodoro_sessions")
     void deleteAllSessions();
     
+    // 根据ID同步查询会话
+    @Query("SELECT * FROM pomodoro_sessions WHERE id = :sessionId")
+    PomodoroSessionEntity getSessionByIdSync(String sessionId);
+    
     // 查询所有会话
     @Query("SELECT * FROM pomodoro_sessions ORDER BY start_time DESC")
     LiveData<List<PomodoroSessionEntity>> getAllSessions();
@@ -73,14 +88,15 @@ public interface PomodoroDao {
     
     // 每日番茄钟完成统计
     @Query("SELECT " +
-            "DATE(start_time/1000, 'unixepoch', 'localtime') as date, " +
+            "DATE(start_local_day * 86400, 'unixepoch') as date, " +
             "COUNT(*) as count, " +
             "SUM(duration_minutes) as total_minutes " +
             "FROM pomodoro_sessions " +
-            "WHERE is_completed = 1 AND is_break_session = 0 AND start_time BETWEEN :startTime AND :endTime " +
-            "GROUP BY DATE(start_time/1000, 'unixepoch', 'localtime') " +
-            "ORDER BY date DESC")
-    LiveData<List<DailyPomodoroStats>> getDailyPomodoroStats(long startTime, long endTime);
+            "WHERE is_completed = 1 AND is_break_session = 0 AND start_local_day BETWEEN :startDay AND :endDay " +
+            "AND start_time BETWEEN :startTime AND :endTime " +
+            "GROUP BY start_local_day " +
+            "ORDER BY start_local_day DESC")
+    LiveData<List<DailyPomodoroStats>> getDailyPomodoroStats(long startDay, long endDay, long startTime, long endTime);
     
     // 任务番茄钟使用统计
     @Query("SELECT " +
@@ -117,16 +133,17 @@ public interface PomodoroDao {
             "LIMIT :limit")
     LiveData<List<TaskPomodoroStats>> getLongestFocusTaskStats(int limit);
     
-    // 按时间段分布统计番茄钟（上午、下午、晚上）
+    // 按时间段分布统计番茄钟（上午、下午、晚上），由统计缓存在后台查询
     @Query("SELECT " +
             "CASE " +
-            "  WHEN CAST(strftime('%H', datetime(start_time/1000, 'unixepoch', 'localtime')) AS INTEGER) BETWEEN 6 AND 11 THEN '上午' " +
-            "  WHEN CAST(strftime('%H', datetime(start_time/1000, 'unixepoch', 'localtime')) AS INTEGER) BETWEEN 12 AND 17 THEN '下午' " +
+            "  WHEN start_local_hour BETWEEN 6 AND 11 THEN '上午' " +
+            "  WHEN start_local_hour BETWEEN 12 AND 17 THEN '下午' " +
             "  ELSE '晚上' " +
             "END as time_period, " +
             "COUNT(*) as count " +
             "FROM pomodoro_sessions " +
-            "WHERE is_completed = 1 AND is_break_session = 0 AND start_time BETWEEN :startTime AND :endTime " +
+            "WHERE is_completed = 1 AND is_break_session = 0 AND start_local_day BETWEEN :startDay AND :endDay " +
+            "AND start_time BETWEEN :startTime AND :endTime " +
             "GROUP BY time_period " +
             "ORDER BY " +
             "  CASE time_period " +
@@ -134,7 +151,7 @@ public interface PomodoroDao {
             "    WHEN '下午' THEN 2 " +
             "    WHEN '晚上' THEN 3 " +
             "  END")
-    LiveData<List<TimePeriodStats>> getTimePeriodStats(long startTime, long endTime);
+    List<TimePeriodStats> getTimePeriodStatsSync(long startDay, long endDay, long startTime, long endTime);
     
     // 内部类定义统计结果
     class DailyPomodoroStats {
@@ -149,11 +166,24 @@ public interface PomodoroDao {
         public int total_minutes;
     }
     
+    class TaskSessionSummary {
+        public int session_count;
+        public int completed_count;
+        public int total_minutes;
+    }
+    
     class TimePeriodStats {
         public String time_period;
         public int count;
     }
     
+    class LocalDayKey {
+        public String id;
+        public long start_time;
+        public long start_local_day;
+        public int start_local_hour;
+    }
+    
     // 添加总番茄钟数统计
     @Query("SELECT COUNT(*) FROM pomodoro_sessions WHERE is_completed = 1 AND is_break_session = 0")
     LiveData<Integer> getTotalPomodoroCount();
@@ -177,10 +207,42 @@ public interface PomodoroDao {
     @Query("SELECT SUM(duration_minutes) FROM pomodoro_sessions WHERE is_completed = 1 AND is_break_session = 0 AND start_time BETWEEN :startTime AND :endTime")
     Integer getTotalFocusTimeByTimeRangeSync(long startTime, long endTime);
     
+    // 同步查询会话总数（包括休息）
+    @Query("SELECT COUNT(*) FROM pomodoro_sessions")
+    int getSessionCountSync();
+    
+    // 同步查询已完成会话数（包括休息）
+    @Query("SELECT COUNT(*) FROM pomodoro_sessions WHERE is_completed = 1")
+    int getCompletedSessionCountSync();
+    
+    // 同步按任务名称汇总会话（走 task_name 索引）
+    @Query("SELECT " +
+            "COUNT(*) as session_count, " +
+            "IFNULL(SUM(CASE WHEN is_break_session = 0 AND is_completed = 1 THEN 1 ELSE 0 END), 0) as completed_count, " +
+            "IFNULL(SUM(CASE WHEN is_break_session = 0 THEN duration_minutes ELSE 0 END), 0) as total_minutes " +
+            "FROM pomodoro_sessions WHERE task_name = :taskName")
+    TaskSessionSummary getSessionSummaryByTaskNameSync(String taskName);
+    
     // 同步查询所有会话
     @Query("SELECT * FROM pomodoro_sessions ORDER BY start_time DESC")
     List<PomodoroSessionEntity> getAllSessionsSync();
     
+    // 会话键集分页，按 (start_time, id) 倒序；第一页传 Long.MAX_VALUE 和空字符串
+    @Query("SELECT * FROM pomodoro_sessions " +
+            "WHERE start_time <= :afterStartTime AND (start_time < :afterStartTime OR id < :afterId) " +
+            "ORDER BY start_time DESC, id DESC LIMIT :limit")
+    List<PomodoroSessionEntity> getSessionsPage(long afterStartTime, String afterId, int limit);
+    
+    // 按 (updated_at, id) 分页读取修改时间不早于 afterUpdatedAt 的会话（增量备份导出），第一页 afterId 传空字符串
+    @Query("SELECT * FROM pomodoro_sessions " +
+            "WHERE updated_at >= :afterUpdatedAt AND (updated_at > :afterUpdatedAt OR id > :afterId) " +
+            "ORDER BY updated_at, id LIMIT :limit")
+    List<PomodoroSessionEntity> getSessionsChangedAfterSync(long afterUpdatedAt, String afterId, int limit);
+    
+    // 增量备份的高水位
+    @Query("SELECT IFNULL(MAX(updated_at), 0) FROM pomodoro_sessions")
+    long getMaxUpdatedAtSync();
+    
     // 同步查询已完成会话
     @Query("SELECT * FROM pomodoro_sessions WHERE is_completed = 1 ORDER BY start_time DESC")
     List<PomodoroSessionEntity> getCompletedSessionsSync();
@@ -188,4 +250,27 @@ public interface PomodoroDao {
     // 同步按时间范围查询会话
     @Query("SELECT * FROM pomodoro_sessions WHERE start_time BETWEEN :startTime AND :endTime ORDER BY start_time DESC")
     List<PomodoroSessionEntity> getSessionsByTimeRangeSync(long startTime, long endTime);
+    
+    // ==================== 本地日期分桶维护 ====================
+    
+    @Query("SELECT id, start_time, start_local_day, start_local_hour FROM pomodoro_sessions")
+    List<LocalDayKey> getLocalDayKeysSync();
+    
+    @Query("UPDATE pomodoro_sessions SET start_local_day = :localDay, start_local_hour = :localHour WHERE id = :sessionId")
+    void updateLocalDay(String sessionId, long localDay, int localHour);
+    
+    // 按给定时区重新计算所有会话的本地纪元日和小时，只更新发生变化的行，返回更新条数
+    @Transaction
+    default int rebucketLocalDays(TimeZone timeZone) {
+        int updated = 0;
+        for (LocalDayKey key : getLocalDayKeysSync()) {
+            long localDay = LocalDayUtils.toLocalDay(key.start_time, timeZone);
+            int localHour = LocalDayUtils.toLocalHour(key.start_time, timeZone);
+            if (localDay != key.start_local_day || localHour != key.start_local_hour) {
+                updateLocalDay(key.id, localDay, localHour);
+                updated++;
+            }
+        }
+        return updated;
+    }
 }
@@ -5,12 +5,15 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import androidx.lifecycle.LiveData;
 
 import com.example.fourquadrant.database.entity.ReminderEntity;
+import com.example.fourquadrant.utils.LocalDayUtils;
 
 import java.util.List;
+import java.util.TimeZone;
 
 /**
  * 提醒数据访问对象
@@ -18,6 +21,10 @@ import java.util.List;
 @Dao
 public interface ReminderDao {
     
+    // 本地纪元日表达式（与 LocalDayUtils.toLocalDay 一致），仅用于迁移回填
+    String LOCAL_DAY_OF_REMINDER_TIME =
+            "CAST(julianday(reminder_time / 1000, 'unixepoch', 'localtime') - 2440587.5 AS INTEGER)";
+    
     // 插入提醒
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertReminder(ReminderEntity reminder);
@@ -25,6 +32,10 @@ public interface ReminderDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertReminders(List<ReminderEntity> reminders);
     
+    // 只插入不存在的行（旧数据迁移用）
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertRemindersIfAbsent(List<ReminderEntity> reminders);
+    
     // 更新提醒
     @Update
     void updateReminder(ReminderEntity reminder);
@@ -63,9 +74,9 @@ public interface ReminderDao {
     @Query("SELECT * FROM reminders WHERE reminder_time BETWEEN :startTime AND :endTime ORDER BY reminder_time ASC")
     LiveData<List<ReminderEntity>> getRemindersByTimeRange(long startTime, long endTime);
     
-    // 查询某一天的提醒
-    @Query("SELECT * FROM reminders WHERE DATE(reminder_time/1000, 'unixepoch', 'localtime') = :date ORDER BY reminder_time ASC")
-    LiveData<List<ReminderEntity>> getRemindersByDate(String date);
+    // 查询某一天的提醒（按本地纪元日）
+    @Query("SELECT * FROM reminders WHERE local_day = :localDay ORDER BY reminder_time ASC")
+    LiveData<List<ReminderEntity>> getRemindersByLocalDay(long localDay);
     
     // 查询即将到期的提醒（未来1小时内）
     @Query("SELECT * FROM reminders WHERE is_active = 1 AND reminder_time BETWEEN :currentTime AND :futureTime ORDER BY reminder_time ASC")
@@ -101,18 +112,20 @@ public interface ReminderDao {
     
     // 每日提醒统计
     @Query("SELECT " +
-            "DATE(reminder_time/1000, 'unixepoch', 'localtime') as date, " +
+            "DATE(local_day * 86400, 'unixepoch') as date, " +
             "COUNT(*) as total_count, " +
             "SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END) as completed_count " +
             "FROM reminders " +
-            "WHERE reminder_time BETWEEN :startTime AND :endTime " +
-            "GROUP BY DATE(reminder_time/1000, 'unixepoch', 'localtime') " +
-            "ORDER BY date DESC")
-    LiveData<List<DailyReminderStats>> getDailyReminderStats(long startTime, long endTime);
+            "WHERE local_day BETWEEN :startDay AND :endDay AND reminder_time BETWEEN :startTime AND :endTime " +
+            "GROUP BY local_day " +
+            "ORDER BY local_day DESC")
+    LiveData<List<DailyReminderStats>> getDailyReminderStats(long startDay, long endDay, long startTime, long endTime);
     
-    // 搜索提醒
-    @Query("SELECT * FROM reminders WHERE content LIKE '%' || :searchQuery || '%' ORDER BY reminder_time DESC")
-    LiveData<List<ReminderEntity>> searchReminders(String searchQuery);
+    // 搜索提醒，:match 为 SearchTokenizer.toMatchQuery 生成的全文检索表达式
+    @Query("SELECT reminders.* FROM search_index JOIN reminders ON reminders.id = search_index.ref_id " +
+            "WHERE search_index MATCH :match AND search_index.kind = 'reminder' " +
+            "ORDER BY reminders.reminder_time DESC")
+    LiveData<List<ReminderEntity>> searchReminders(String match);
     
     // ==================== 同步查询方法 ====================
     // 这些方法返回实际数据而不是LiveData，用于数据导出等场景
@@ -121,6 +134,20 @@ public interface ReminderDao {
     @Query("SELECT * FROM reminders ORDER BY reminder_time ASC")
     List<ReminderEntity> getAllRemindersSync();
     
+    // 按主键分页读取提醒（流式备份导出），第一页传空字符串
+    @Query("SELECT * FROM reminders WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<ReminderEntity> getRemindersAfterIdSync(String afterId, int limit);
+    
+    // 按 (updated_at, id) 分页读取修改时间不早于 afterUpdatedAt 的提醒（增量备份导出），第一页 afterId 传空字符串
+    @Query("SELECT * FROM reminders " +
+            "WHERE updated_at >= :afterUpdatedAt AND (updated_at > :afterUpdatedAt OR id > :afterId) " +
+            "ORDER BY updated_at, id LIMIT :limit")
+    List<ReminderEntity> getRemindersChangedAfterSync(long afterUpdatedAt, String afterId, int limit);
+    
+    // 增量备份的高水位
+    @Query("SELECT IFNULL(MAX(updated_at), 0) FROM reminders")
+    long getMaxUpdatedAtSync();
+    
     // 同步查询活跃提醒
     @Query("SELECT * FROM reminders WHERE is_active = 1 ORDER BY reminder_time ASC")
     List<ReminderEntity> getActiveRemindersSync();
@@ -129,6 +156,35 @@ public interface ReminderDao {
     @Query("SELECT * FROM reminders WHERE status = 'COMPLETED' ORDER BY reminder_time DESC")
     List<ReminderEntity> getCompletedRemindersSync();
     
+    // 根据ID同步查询提醒
+    @Query("SELECT * FROM reminders WHERE id = :reminderId")
+    ReminderEntity getReminderByIdSync(String reminderId);
+    
+    // 同步查询指定时间范围的提醒
+    @Query("SELECT * FROM reminders WHERE reminder_time BETWEEN :startTime AND :endTime ORDER BY reminder_time ASC")
+    List<ReminderEntity> getRemindersByTimeRangeSync(long startTime, long endTime);
+    
+    // 同步查询指定时间范围的活跃提醒
+    @Query("SELECT * FROM reminders WHERE is_active = 1 AND reminder_time BETWEEN :startTime AND :endTime ORDER BY reminder_time ASC")
+    List<ReminderEntity> getActiveRemindersByTimeRangeSync(long startTime, long endTime);
+    
+    // 同步查询已过时间但仍活跃的提醒
+    @Query("SELECT * FROM reminders WHERE is_active = 1 AND reminder_time < :currentTime ORDER BY reminder_time ASC")
+    List<ReminderEntity> getOverdueRemindersSync(long currentTime);
+    
+    // 同步查询某一天的提醒（按本地纪元日）
+    @Query("SELECT * FROM reminders WHERE local_day = :localDay ORDER BY reminder_time ASC")
+    List<ReminderEntity> getRemindersByLocalDaySync(long localDay);
+    
+    // 按天统计提醒数量（日历月视图标记），只返回有提醒的日期
+    @Query("SELECT local_day, COUNT(*) as count FROM reminders " +
+            "WHERE local_day BETWEEN :startDay AND :endDay GROUP BY local_day ORDER BY local_day ASC")
+    List<DayCount> getReminderDayCountsSync(long startDay, long endDay);
+    
+    // 删除指定时间之前的非活跃提醒，返回删除条数
+    @Query("DELETE FROM reminders WHERE is_active = 0 AND reminder_time < :cutoffTime")
+    int deleteInactiveRemindersBefore(long cutoffTime);
+    
     // 更新提醒状态
     @Query("UPDATE reminders SET status = :status, updated_at = :updateTime WHERE id = :reminderId")
     void updateReminderStatus(String reminderId, String status, long updateTime);
@@ -137,6 +193,28 @@ public interface ReminderDao {
     @Query("UPDATE reminders SET is_active = 0, status = 'EXPIRED', updated_at = :updateTime WHERE is_active = 1 AND reminder_time < :currentTime")
     void markOverdueRemindersAsExpired(long currentTime, long updateTime);
     
+    // ==================== 本地日期分桶维护 ====================
+    
+    @Query("SELECT id, reminder_time, local_day FROM reminders")
+    List<LocalDayKey> getLocalDayKeysSync();
+    
+    @Query("UPDATE reminders SET local_day = :localDay WHERE id = :reminderId")
+    void updateLocalDay(String reminderId, long localDay);
+    
+    // 按给定时区重新计算所有提醒的本地纪元日，只更新发生变化的行，返回更新条数
+    @Transaction
+    default int rebucketLocalDays(TimeZone timeZone) {
+        int updated = 0;
+        for (LocalDayKey key : getLocalDayKeysSync()) {
+            long localDay = LocalDayUtils.toLocalDay(key.reminder_time, timeZone);
+            if (localDay != key.local_day) {
+                updateLocalDay(key.id, localDay);
+                updated++;
+            }
+        }
+        return updated;
+    }
+    
     // 内部类定义统计结果
     class ReminderStats {
         public int total_reminders;
@@ -144,6 +222,17 @@ public interface ReminderDao {
         public int active_reminders;
     }
     
+    class DayCount {
+        public long local_day;
+        public int count;
+    }
+    
+    class LocalDayKey {
+        public String id;
+        public long reminder_time;
+        public long local_day;
+    }
+    
     class DailyReminderStats {
         public String date;
         public int total_count;
@@ -0,0 +1,39 @@
+package com.example.fourquadrant.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * 全文检索数据访问对象
+ * :match 为 SearchTokenizer.toMatchQuery 生成的表达式，:raw 为用户原始输入（只用于排序）。
+ * 排序：标题与输入完全相同 > 标题以输入开头 > 标题越短越靠前 > 越新越靠前
+ */
+@Dao
+public interface SearchDao {
+    
+    // 跨类型检索（任务、提醒、番茄钟）
+    @Query("SELECT kind, ref_id, title, sort_time FROM search_index " +
+            "WHERE search_index MATCH :match " +
+            "ORDER BY lower(title) = lower(:raw) DESC, instr(lower(title), lower(:raw)) = 1 DESC, " +
+            "length(title) ASC, sort_time DESC, rowid ASC " +
+            "LIMIT :limit OFFSET :offset")
+    List<SearchHit> search(String match, String raw, int limit, int offset);
+    
+    // 只检索一种类型（kind 见 SearchIndexEntity.KIND_*）
+    @Query("SELECT kind, ref_id, title, sort_time FROM search_index " +
+            "WHERE search_index MATCH :match AND kind = :kind " +
+            "ORDER BY lower(title) = lower(:raw) DESC, instr(lower(title), lower(:raw)) = 1 DESC, " +
+            "length(title) ASC, sort_time DESC, rowid ASC " +
+            "LIMIT :limit OFFSET :offset")
+    List<SearchHit> searchByKind(String match, String kind, String raw, int limit, int offset);
+    
+    // 检索结果
+    class SearchHit {
+        public String kind;
+        public String ref_id;
+        public String title;
+        public long sort_time;
+    }
+}
@@ -62,6 +62,14 @@ public interface SettingsDao {
     @Query("SELECT * FROM settings ORDER BY category, key")
     List<SettingsEntity> getAllSettingsSync();
     
+    // 修改时间不早于 since 的设置（增量备份导出，设置表很小，不分页）
+    @Query("SELECT * FROM settings WHERE updated_at >= :since ORDER BY category, key")
+    List<SettingsEntity> getSettingsChangedSinceSync(long since);
+    
+    // 增量备份的高水位
+    @Query("SELECT IFNULL(MAX(updated_at), 0) FROM settings")
+    long getMaxUpdatedAtSync();
+    
     // LiveData版本的获取方法
     @Query("SELECT CASE WHEN value IS NOT NULL THEN CAST(value AS INTEGER) ELSE NULL END FROM settings WHERE key = :key AND type = 'INT'")
     LiveData<Integer> getIntValue(String key);
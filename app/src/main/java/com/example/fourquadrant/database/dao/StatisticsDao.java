@@ -0,0 +1,92 @@
+package com.example.fourquadrant.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.fourquadrant.database.entity.DailyStatsEntity;
+import com.example.fourquadrant.utils.LocalDayUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 统计页面数据访问对象
+ * 在一个读事务中取出KPI、四象限分布和趋势数据，保证同一次刷新的数据来自同一个提交
+ */
+@Dao
+public interface StatisticsDao {
+
+    // 按天范围查询汇总行
+    @Query("SELECT * FROM daily_stats WHERE day BETWEEN :startDay AND :endDay ORDER BY day ASC")
+    List<DailyStatsEntity> getDailyStatsRows(long startDay, long endDay);
+
+    // 任务完成率（未删除），与 TaskDao.getCompletionRateByTimeRangeSync 口径一致
+    @Query("SELECT " +
+            "CASE WHEN COUNT(*) = 0 THEN 0.0 " +
+            "ELSE ROUND(SUM(CASE WHEN is_completed = 1 AND completed_at BETWEEN :startTime AND :endTime THEN 1 ELSE 0 END) * 100.0 / " +
+            "COUNT(*), 2) END as completion_rate " +
+            "FROM tasks WHERE created_at <= :endTime AND is_deleted = 0")
+    Float getCompletionRate(long startTime, long endTime);
+
+    // 按小时统计任务完成数（未删除），只在单日范围内使用
+    @Query("SELECT " +
+            "printf('%02d', completed_local_hour) as hour, " +
+            "COUNT(*) as completed_count " +
+            "FROM tasks " +
+            "WHERE is_deleted = 0 AND is_completed = 1 AND completed_local_day BETWEEN :startDay AND :endDay " +
+            "AND completed_at BETWEEN :startTime AND :endTime " +
+            "GROUP BY completed_local_hour " +
+            "ORDER BY completed_local_hour ASC")
+    List<TaskDao.HourlyCompletionStats> getHourlyCompletionStats(long startDay, long endDay, long startTime, long endTime);
+
+    /**
+     * 一次取出统计页面所需的全部数据
+     * 汇总类指标在Java中由每日汇总行累加得到，整个快照只需2~3条查询
+     */
+    @Transaction
+    default StatisticsSnapshot getSnapshot(long startTime, long endTime, boolean hourly) {
+        StatisticsSnapshot snapshot = new StatisticsSnapshot();
+        snapshot.startTime = startTime;
+        snapshot.endTime = endTime;
+        long startDay = LocalDayUtils.toLocalDay(startTime);
+        long endDay = LocalDayUtils.toLocalDay(endTime);
+        snapshot.dailyStats = getDailyStatsRows(startDay, endDay);
+
+        long importanceSum = 0;
+        for (DailyStatsEntity day : snapshot.dailyStats) {
+            snapshot.quadrantCounts[0] += day.getQ1Completed();
+            snapshot.quadrantCounts[1] += day.getQ2Completed();
+            snapshot.quadrantCounts[2] += day.getQ3Completed();
+            snapshot.quadrantCounts[3] += day.getQ4Completed();
+            snapshot.completedTasks += day.getCompletedCount();
+            snapshot.pomodoroCount += day.getPomodoroCount();
+            snapshot.focusMinutes += day.getFocusMinutes();
+            importanceSum += day.getImportanceSum();
+        }
+        snapshot.avgImportance = snapshot.completedTasks > 0 ? (float) importanceSum / snapshot.completedTasks : 0.0f;
+
+        Float completionRate = getCompletionRate(startTime, endTime);
+        snapshot.completionRate = completionRate != null ? completionRate : 0.0f;
+
+        snapshot.hourlyStats = hourly ? getHourlyCompletionStats(startDay, endDay, startTime, endTime) : new ArrayList<>();
+        return snapshot;
+    }
+
+    /**
+     * 统计快照（组合结果，不直接由Room映射）
+     */
+    class StatisticsSnapshot {
+        public long startTime;
+        public long endTime;
+        public int completedTasks;
+        public int pomodoroCount;
+        public float completionRate;
+        public float avgImportance;
+        public int focusMinutes;
+        // 下标0~3依次为第一~第四象限的已完成任务数
+        public int[] quadrantCounts = new int[4];
+        public List<DailyStatsEntity> dailyStats = new ArrayList<>();
+        public List<TaskDao.HourlyCompletionStats> hourlyStats = new ArrayList<>();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.fourquadrant.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.example.fourquadrant.database.entity.StatsSnapshotEntity;
+
+import java.util.List;
+
+/**
+ * 预先计算的统计结果数据访问对象
+ * 由 StatisticsPrecomputeWorker 写入，统计页面打开时先读取
+ */
+@Dao
+public interface StatsSnapshotDao {
+    
+    @Query("SELECT * FROM stats_snapshots WHERE range_key = :rangeKey")
+    StatsSnapshotEntity getSnapshotSync(String rangeKey);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertSnapshots(List<StatsSnapshotEntity> snapshots);
+    
+    // 任务的最大修改时间，按 is_deleted 分开取，走 (is_deleted, updated_at) 索引
+    @Query("SELECT IFNULL(MAX(updated_at), 0) FROM tasks WHERE is_deleted = :isDeleted")
+    long getTaskLastUpdatedAtSync(boolean isDeleted);
+    
+    @Query("SELECT IFNULL(MAX(updated_at), 0) FROM pomodoro_sessions")
+    long getPomodoroLastUpdatedAtSync();
+    
+    // 每日汇总每天一行，直接取最大值
+    @Query("SELECT IFNULL(MAX(updated_at), 0) FROM daily_stats")
+    long getDailyStatsLastUpdatedAtSync();
+    
+    @Query("SELECT IFNULL(MAX(generation), 0) FROM stats_generation")
+    long getGenerationSync();
+}
@@ -5,12 +5,16 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 import androidx.lifecycle.LiveData;
 
 import com.example.fourquadrant.database.entity.TaskEntity;
+import com.example.fourquadrant.utils.LocalDayUtils;
 
 import java.util.List;
+import java.util.TimeZone;
 
 /**
  * 任务数据访问对象
@@ -18,6 +22,10 @@ import java.util.List;
 @Dao
 public interface TaskDao {
     
+    // 本地小时表达式（与 LocalDayUtils.toLocalHour 一致），仅用于迁移回填
+    String LOCAL_HOUR_OF_COMPLETED_AT =
+            "CAST(strftime('%H', completed_at / 1000, 'unixepoch', 'localtime') AS INTEGER)";
+    
     // 插入任务
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertTask(TaskEntity task);
@@ -25,6 +33,18 @@ public interface TaskDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertTasks(List<TaskEntity> tasks);
     
+    // 插入或原地更新（备份恢复用）；REPLACE 会先删除旧行，触发外键把关联记录的 task_id 置空
+    @Upsert
+    void upsertTasks(List<TaskEntity> tasks);
+    
+    // 只插入不存在的行（旧数据迁移用），重放同一块时不覆盖已写入的任务
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertTasksIfAbsent(List<TaskEntity> tasks);
+    
+    // 给定ID中已存在的任务ID
+    @Query("SELECT id FROM tasks WHERE id IN (:taskIds)")
+    List<String> getExistingTaskIdsSync(List<String> taskIds);
+    
     // 更新任务
     @Update
     void updateTask(TaskEntity task);
@@ -99,9 +119,11 @@ public interface TaskDao {
     @Query("SELECT * FROM tasks WHERE is_completed = 0 AND is_deleted = 0 ORDER BY quadrant ASC, importance DESC, urgency DESC")
     LiveData<List<TaskEntity>> getTasksByPriority();
     
-    // 搜索任务（未删除）
-    @Query("SELECT * FROM tasks WHERE name LIKE '%' || :searchQuery || '%' AND is_deleted = 0 ORDER BY created_at DESC")
-    LiveData<List<TaskEntity>> searchTasks(String searchQuery);
+    // 搜索任务（未删除），:match 为 SearchTokenizer.toMatchQuery 生成的全文检索表达式
+    @Query("SELECT tasks.* FROM search_index JOIN tasks ON tasks.id = search_index.ref_id " +
+            "WHERE search_index MATCH :match AND search_index.kind = 'task' AND tasks.is_deleted = 0 " +
+            "ORDER BY tasks.created_at DESC")
+    LiveData<List<TaskEntity>> searchTasks(String match);
     
     // 任务完成率统计（按时间范围，未删除）
     @Query("SELECT " +
@@ -129,33 +151,36 @@ public interface TaskDao {
     
     // 每日任务完成趋势（未删除）
     @Query("SELECT " +
-            "DATE(completed_at/1000, 'unixepoch', 'localtime') as date, " +
+            "DATE(completed_local_day * 86400, 'unixepoch') as date, " +
             "COUNT(*) as completed_count " +
             "FROM tasks " +
-            "WHERE is_completed = 1 AND completed_at BETWEEN :startTime AND :endTime AND is_deleted = 0 " +
-            "GROUP BY DATE(completed_at/1000, 'unixepoch', 'localtime') " +
-            "ORDER BY date ASC")
-    LiveData<List<DailyCompletionStats>> getDailyCompletionStats(long startTime, long endTime);
+            "WHERE is_deleted = 0 AND is_completed = 1 AND completed_local_day BETWEEN :startDay AND :endDay " +
+            "AND completed_at BETWEEN :startTime AND :endTime " +
+            "GROUP BY completed_local_day " +
+            "ORDER BY completed_local_day ASC")
+    LiveData<List<DailyCompletionStats>> getDailyCompletionStats(long startDay, long endDay, long startTime, long endTime);
     
     // 按小时统计任务完成趋势（未删除）
     @Query("SELECT " +
-            "strftime('%H', datetime(completed_at/1000, 'unixepoch', 'localtime')) as hour, " +
+            "printf('%02d', completed_local_hour) as hour, " +
             "COUNT(*) as completed_count " +
             "FROM tasks " +
-            "WHERE is_completed = 1 AND completed_at BETWEEN :startTime AND :endTime AND is_deleted = 0 " +
-            "GROUP BY strftime('%H', datetime(completed_at/1000, 'unixepoch', 'localtime')) " +
-            "ORDER BY hour ASC")
-    List<HourlyCompletionStats> getHourlyCompletionStatsSync(long startTime, long endTime);
+            "WHERE is_deleted = 0 AND is_completed = 1 AND completed_local_day BETWEEN :startDay AND :endDay " +
+            "AND completed_at BETWEEN :startTime AND :endTime " +
+            "GROUP BY completed_local_hour " +
+            "ORDER BY completed_local_hour ASC")
+    List<HourlyCompletionStats> getHourlyCompletionStatsSync(long startDay, long endDay, long startTime, long endTime);
     
     // 同步按天统计任务完成趋势（未删除）
     @Query("SELECT " +
-            "DATE(completed_at/1000, 'unixepoch', 'localtime') as date, " +
+            "DATE(completed_local_day * 86400, 'unixepoch') as date, " +
             "COUNT(*) as completed_count " +
             "FROM tasks " +
-            "WHERE is_completed = 1 AND completed_at BETWEEN :startTime AND :endTime AND is_deleted = 0 " +
-            "GROUP BY DATE(completed_at/1000, 'unixepoch', 'localtime') " +
-            "ORDER BY date ASC")
-    List<DailyCompletionStats> getDailyCompletionStatsSync(long startTime, long endTime);
+            "WHERE is_deleted = 0 AND is_completed = 1 AND completed_local_day BETWEEN :startDay AND :endDay " +
+            "AND completed_at BETWEEN :startTime AND :endTime " +
+            "GROUP BY completed_local_day " +
+            "ORDER BY completed_local_day ASC")
+    List<DailyCompletionStats> getDailyCompletionStatsSync(long startDay, long endDay, long startTime, long endTime);
     
     // 象限分布统计（只统计活跃任务，未删除）
     @Query("SELECT quadrant, COUNT(*) as count FROM tasks WHERE is_completed = 0 AND is_deleted = 0 GROUP BY quadrant ORDER BY quadrant")
@@ -180,6 +205,57 @@ public interface TaskDao {
     @Query("SELECT * FROM tasks WHERE is_completed = 1 AND is_deleted = 0 ORDER BY completed_at DESC")
     List<TaskEntity> getCompletedTasksSync();
     
+    // ==================== 键集分页 ====================
+    // 以上一页最后一条的 (排序时间, id) 为起点向后取 limit 条；第一页传 Long.MAX_VALUE 和空字符串
+    
+    // 活跃任务分页（未删除），按 (created_at, id) 倒序
+    @Query("SELECT * FROM tasks WHERE is_deleted = 0 AND is_completed = 0 " +
+            "AND created_at <= :afterCreatedAt AND (created_at < :afterCreatedAt OR id < :afterId) " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit")
+    List<TaskEntity> getActiveTasksPage(long afterCreatedAt, String afterId, int limit);
+    
+    // 已完成任务分页（未删除），按 (completed_at, id) 倒序
+    @Query("SELECT * FROM tasks WHERE is_deleted = 0 AND is_completed = 1 " +
+            "AND completed_at <= :afterCompletedAt AND (completed_at < :afterCompletedAt OR id < :afterId) " +
+            "ORDER BY completed_at DESC, id DESC LIMIT :limit")
+    List<TaskEntity> getCompletedTasksPage(long afterCompletedAt, String afterId, int limit);
+    
+    // 没有完成时间的已完成任务（旧数据）分页，排在有完成时间的任务之后，按 (created_at, id) 倒序
+    @Query("SELECT * FROM tasks WHERE is_deleted = 0 AND is_completed = 1 AND completed_at IS NULL " +
+            "AND created_at <= :afterCreatedAt AND (created_at < :afterCreatedAt OR id < :afterId) " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit")
+    List<TaskEntity> getUndatedCompletedTasksPage(long afterCreatedAt, String afterId, int limit);
+    
+    // 按主键分页读取未删除任务（流式备份导出），第一页传空字符串
+    @Query("SELECT * FROM tasks WHERE is_deleted = 0 AND id > :afterId ORDER BY id LIMIT :limit")
+    List<TaskEntity> getTasksAfterIdSync(String afterId, int limit);
+    
+    // 按 (updated_at, id) 分页读取修改时间不早于 afterUpdatedAt 的未删除任务（增量备份导出），第一页 afterId 传空字符串
+    @Query("SELECT * FROM tasks WHERE is_deleted = 0 " +
+            "AND updated_at >= :afterUpdatedAt AND (updated_at > :afterUpdatedAt OR id > :afterId) " +
+            "ORDER BY updated_at, id LIMIT :limit")
+    List<TaskEntity> getTasksChangedAfterSync(long afterUpdatedAt, String afterId, int limit);
+    
+    // 增量备份的高水位
+    @Query("SELECT IFNULL(MAX(updated_at), 0) FROM tasks WHERE is_deleted = 0")
+    long getMaxUpdatedAtSync();
+    
+    // ==================== 内存任务索引（TaskIndex） ====================
+    
+    // 全量加载未删除任务，按 (created_at, id) 倒序
+    @Query("SELECT id, name, importance, urgency, quadrant, is_completed, is_deleted, created_at, completed_at, updated_at " +
+            "FROM tasks WHERE is_deleted = 0 ORDER BY created_at DESC, id DESC")
+    List<IndexRow> getIndexRowsSync();
+    
+    // updated_at 不早于 since 的任务（包含已软删除的，用于从索引中移除）
+    @Query("SELECT id, name, importance, urgency, quadrant, is_completed, is_deleted, created_at, completed_at, updated_at " +
+            "FROM tasks WHERE is_deleted IN (0, 1) AND updated_at >= :since")
+    List<IndexRow> getIndexRowsChangedSinceSync(long since);
+    
+    // 未删除任务的数量和 updated_at 之和，用于发现增量查询覆盖不到的变化（物理删除、导入旧数据）
+    @Query("SELECT COUNT(*) AS row_count, IFNULL(SUM(updated_at), 0) AS updated_sum FROM tasks WHERE is_deleted = 0")
+    IndexSignature getIndexSignatureSync();
+    
     // 同步根据ID查询任务（未删除）
     @Query("SELECT * FROM tasks WHERE id = :taskId AND is_deleted = 0")
     TaskEntity getTaskByIdSync(String taskId);
@@ -232,6 +308,30 @@ public interface TaskDao {
     @Query("SELECT * FROM tasks WHERE is_completed = 1 AND completed_at BETWEEN :startTime AND :endTime AND is_deleted = 0 ORDER BY completed_at DESC")
     List<TaskEntity> getCompletedTasksByTimeRangeSync(long startTime, long endTime);
     
+    // ==================== 本地日期分桶维护 ====================
+    
+    @Query("SELECT id, completed_at, completed_local_day, completed_local_hour FROM tasks WHERE completed_at IS NOT NULL")
+    List<LocalDayKey> getLocalDayKeysSync();
+    
+    @Query("UPDATE tasks SET completed_local_day = :localDay, completed_local_hour = :localHour WHERE id = :taskId")
+    void updateLocalDay(String taskId, long localDay, int localHour);
+    
+    // 按给定时区重新计算已完成任务的本地纪元日和小时，只更新发生变化的行，返回更新条数
+    @Transaction
+    default int rebucketLocalDays(TimeZone timeZone) {
+        int updated = 0;
+        for (LocalDayKey key : getLocalDayKeysSync()) {
+            long localDay = LocalDayUtils.toLocalDay(key.completed_at, timeZone);
+            int localHour = LocalDayUtils.toLocalHour(key.completed_at, timeZone);
+            if (key.completed_local_day == null || key.completed_local_day != localDay
+                    || key.completed_local_hour == null || key.completed_local_hour != localHour) {
+                updateLocalDay(key.id, localDay, localHour);
+                updated++;
+            }
+        }
+        return updated;
+    }
+    
     // 内部类定义统计结果
     class QuadrantCount {
         public int quadrant;
@@ -253,4 +353,29 @@ public interface TaskDao {
         public String hour;
         public int completed_count;
     }
+    
+    class LocalDayKey {
+        public String id;
+        public long completed_at;
+        public Long completed_local_day;
+        public Integer completed_local_hour;
+    }
+    
+    class IndexRow {
+        public String id;
+        public String name;
+        public int importance;
+        public int urgency;
+        public int quadrant;
+        public boolean is_completed;
+        public boolean is_deleted;
+        public long created_at;
+        public Long completed_at;
+        public long updated_at;
+    }
+    
+    class IndexSignature {
+        public int row_count;
+        public long updated_sum;
+    }
 }
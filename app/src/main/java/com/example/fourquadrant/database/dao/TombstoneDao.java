@@ -0,0 +1,31 @@
+package com.example.fourquadrant.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.example.fourquadrant.database.entity.TombstoneEntity;
+
+import java.util.List;
+
+/**
+ * 删除记录数据访问对象（增量备份用）
+ * 删除记录只由触发器写入，见 TombstoneSchema
+ */
+@Dao
+public interface TombstoneDao {
+    
+    // 按 seq 分页读取高水位之后的删除记录
+    @Query("SELECT * FROM backup_tombstones WHERE seq > :afterSeq ORDER BY seq LIMIT :limit")
+    List<TombstoneEntity> getTombstonesAfterSync(long afterSeq, int limit);
+    
+    // 当前最大 seq，没有记录时为0
+    @Query("SELECT IFNULL(MAX(seq), 0) FROM backup_tombstones")
+    long getLastSeqSync();
+    
+    // 完整备份已反映的删除记录不再需要
+    @Query("DELETE FROM backup_tombstones WHERE seq <= :seq")
+    void deleteUpTo(long seq);
+    
+    @Query("DELETE FROM backup_tombstones")
+    void deleteAll();
+}
@@ -0,0 +1,123 @@
+package com.example.fourquadrant.database.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * 每日统计汇总实体类
+ * 按本地日期预聚合任务完成数和番茄钟数据，统计界面按天读取，无需扫描原始记录
+ */
+@Entity(tableName = "daily_stats")
+public class DailyStatsEntity {
+    
+    // 本地纪元日（见 LocalDayUtils）
+    @PrimaryKey
+    @ColumnInfo(name = "day")
+    private long day;
+    
+    @ColumnInfo(name = "q1_completed", defaultValue = "0")
+    private int q1Completed;
+    
+    @ColumnInfo(name = "q2_completed", defaultValue = "0")
+    private int q2Completed;
+    
+    @ColumnInfo(name = "q3_completed", defaultValue = "0")
+    private int q3Completed;
+    
+    @ColumnInfo(name = "q4_completed", defaultValue = "0")
+    private int q4Completed;
+    
+    @ColumnInfo(name = "importance_sum", defaultValue = "0")
+    private long importanceSum;
+    
+    @ColumnInfo(name = "pomodoro_count", defaultValue = "0")
+    private int pomodoroCount;
+    
+    @ColumnInfo(name = "focus_minutes", defaultValue = "0")
+    private int focusMinutes;
+    
+    @ColumnInfo(name = "updated_at", defaultValue = "0")
+    private long updatedAt;
+
+    public DailyStatsEntity() {
+    }
+
+    // 当天完成的任务总数
+    public int getCompletedCount() {
+        return q1Completed + q2Completed + q3Completed + q4Completed;
+    }
+
+    // Getters and Setters
+    public long getDay() {
+        return day;
+    }
+
+    public void setDay(long day) {
+        this.day = day;
+    }
+
+    public int getQ1Completed() {
+        return q1Completed;
+    }
+
+    public void setQ1Completed(int q1Completed) {
+        this.q1Completed = q1Completed;
+    }
+
+    public int getQ2Completed() {
+        return q2Completed;
+    }
+
+    public void setQ2Completed(int q2Completed) {
+        this.q2Completed = q2Completed;
+    }
+
+    public int getQ3Completed() {
+        return q3Completed;
+    }
+
+    public void setQ3Completed(int q3Completed) {
+        this.q3Completed = q3Completed;
+    }
+
+    public int getQ4Completed() {
+        return q4Completed;
+    }
+
+    public void setQ4Completed(int q4Completed) {
+        this.q4Completed = q4Completed;
+    }
+
+    public long getImportanceSum() {
+        return importanceSum;
+    }
+
+    public void setImportanceSum(long importanceSum) {
+        this.importanceSum = importanceSum;
+    }
+
+    public int getPomodoroCount() {
+        return pomodoroCount;
+    }
+
+    public void setPomodoroCount(int pomodoroCount) {
+        this.pomodoroCount = pomodoroCount;
+    }
+
+    public int getFocusMinutes() {
+        return focusMinutes;
+    }
+
+    public void setFocusMinutes(int focusMinutes) {
+        this.focusMinutes = focusMinutes;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -8,8 +8,12 @@ import androidx.room.PrimaryKey;
 import androidx.room.ForeignKey;
 import androidx.annotation.NonNull;
 
+import com.example.fourquadrant.utils.SearchTokenizer;
+
 /**
  * 番茄钟会话实体类
+ * 按天/按时段的统计走 start_local_day / start_local_hour 索引范围，不再逐行做日期换算
+ * PomodoroRepository 写入会话时更新 updated_at，增量备份据此导出变化的会话
  */
 @Entity(tableName = "pomodoro_sessions",
         foreignKeys = @ForeignKey(
@@ -18,7 +22,14 @@ import androidx.annotation.NonNull;
                 childColumns = "task_id",
                 onDelete = ForeignKey.SET_NULL
         ),
-        indices = {@Index("task_id")})
+        indices = {
+                @Index("task_id"),
+                @Index("task_name"),
+                @Index("start_time"),
+                @Index(value = {"is_completed", "is_break_session", "start_time"}),
+                @Index(value = {"is_completed", "is_break_session", "start_local_day", "start_local_hour", "start_time"}),
+                @Index("updated_at")
+        })
 public class PomodoroSessionEntity {
     
     @PrimaryKey
@@ -32,9 +43,20 @@ public class PomodoroSessionEntity {
     @ColumnInfo(name = "task_name")
     private String taskName;
     
+    // 任务名称的全文检索词串（SearchTokenizer.index），由触发器同步到 search_index
+    @ColumnInfo(name = "search_terms")
+    private String searchTerms;
+    
     @ColumnInfo(name = "start_time")
     private long startTime;
     
+    // start_time 所在的本地纪元日和小时，由 PomodoroRepository 写入时计算；时区变化后由 LocalDayMaintenance 重新分桶
+    @ColumnInfo(name = "start_local_day", defaultValue = "0")
+    private long startLocalDay;
+    
+    @ColumnInfo(name = "start_local_hour", defaultValue = "0")
+    private int startLocalHour;
+    
     @ColumnInfo(name = "end_time")
     private Long endTime;
     
@@ -49,10 +71,15 @@ public class PomodoroSessionEntity {
     
     @ColumnInfo(name = "created_at")
     private long createdAt;
+    
+    // 由 PomodoroRepository 的写入路径更新；Room 读取时调用的 setter 只赋值，不会改动它
+    @ColumnInfo(name = "updated_at", defaultValue = "0")
+    private long updatedAt;
 
     // 构造函数
     public PomodoroSessionEntity() {
         this.createdAt = System.currentTimeMillis();
+        this.updatedAt = System.currentTimeMillis();
     }
 
     @Ignore
@@ -66,6 +93,7 @@ public class PomodoroSessionEntity {
         this.startTime = System.currentTimeMillis();
         this.isCompleted = false;
         this.createdAt = System.currentTimeMillis();
+        this.updatedAt = System.currentTimeMillis();
     }
 
     // Getters and Setters
@@ -94,6 +122,15 @@ public class PomodoroSessionEntity {
         this.taskName = taskName;
     }
 
+    // 旧备份导入的实体没有词串，写入时按原文补算
+    public String getSearchTerms() {
+        return searchTerms != null ? searchTerms : SearchTokenizer.index(taskName);
+    }
+
+    public void setSearchTerms(String searchTerms) {
+        this.searchTerms = searchTerms;
+    }
+
     public long getStartTime() {
         return startTime;
     }
@@ -102,6 +139,22 @@ public class PomodoroSessionEntity {
         this.startTime = startTime;
     }
 
+    public long getStartLocalDay() {
+        return startLocalDay;
+    }
+
+    public void setStartLocalDay(long startLocalDay) {
+        this.startLocalDay = startLocalDay;
+    }
+
+    public int getStartLocalHour() {
+        return startLocalHour;
+    }
+
+    public void setStartLocalHour(int startLocalHour) {
+        this.startLocalHour = startLocalHour;
+    }
+
     public Long getEndTime() {
         return endTime;
     }
@@ -124,9 +177,12 @@ public class PomodoroSessionEntity {
 
     public void setCompleted(boolean completed) {
         this.isCompleted = completed;
-        if (completed && this.endTime == null) {
-            this.endTime = System.currentTimeMillis();
-        }
+    }
+
+    // 标记完成并记录结束时间
+    public void markCompleted(long endTime) {
+        this.isCompleted = true;
+        this.endTime = endTime;
     }
 
     public boolean isBreakSession() {
@@ -144,4 +200,12 @@ public class PomodoroSessionEntity {
     public void setCreatedAt(long createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
@@ -8,6 +8,8 @@ import androidx.room.PrimaryKey;
 import androidx.room.ForeignKey;
 import androidx.annotation.NonNull;
 
+import com.example.fourquadrant.utils.SearchTokenizer;
+
 /**
  * 提醒实体类
  */
@@ -18,7 +20,15 @@ import androidx.annotation.NonNull;
                 childColumns = "task_id",
                 onDelete = ForeignKey.SET_NULL
         ),
-        indices = {@Index("task_id")})
+        indices = {
+                @Index("task_id"),
+                @Index("reminder_time"),
+                @Index("created_at"),
+                @Index(value = {"is_active", "reminder_time"}),
+                @Index(value = {"status", "reminder_time"}),
+                @Index(value = {"local_day", "reminder_time"}),
+                @Index("updated_at")
+        })
 public class ReminderEntity {
     
     @PrimaryKey
@@ -29,6 +39,10 @@ public class ReminderEntity {
     @ColumnInfo(name = "content")
     private String content;
     
+    // 提醒内容的全文检索词串（SearchTokenizer.index），由触发器同步到 search_index
+    @ColumnInfo(name = "search_terms")
+    private String searchTerms;
+    
     @ColumnInfo(name = "task_id")
     private String taskId;
     
@@ -38,6 +52,10 @@ public class ReminderEntity {
     @ColumnInfo(name = "reminder_time")
     private long reminderTime;
     
+    // reminder_time 所在的本地纪元日，由 ReminderRepository 写入时计算；时区变化后由 LocalDayMaintenance 重新分桶
+    @ColumnInfo(name = "local_day", defaultValue = "0")
+    private long localDay;
+    
     @ColumnInfo(name = "is_active")
     private boolean isActive;
     
@@ -59,6 +77,7 @@ public class ReminderEntity {
     @ColumnInfo(name = "created_at")
     private long createdAt;
     
+    // 由 ReminderRepository 的写入路径更新；Room 读取时调用的 setter 只赋值，不会改动它
     @ColumnInfo(name = "updated_at")
     private long updatedAt;
 
@@ -99,7 +118,15 @@ public class ReminderEntity {
 
     public void setContent(String content) {
         this.content = content;
-        this.updatedAt = System.currentTimeMillis();
+    }
+
+    // 旧备份导入的实体没有词串，写入时按原文补算
+    public String getSearchTerms() {
+        return searchTerms != null ? searchTerms : SearchTokenizer.index(content);
+    }
+
+    public void setSearchTerms(String searchTerms) {
+        this.searchTerms = searchTerms;
     }
 
     public String getTaskId() {
@@ -124,7 +151,14 @@ public class ReminderEntity {
 
     public void setReminderTime(long reminderTime) {
         this.reminderTime = reminderTime;
-        this.updatedAt = System.currentTimeMillis();
+    }
+
+    public long getLocalDay() {
+        return localDay;
+    }
+
+    public void setLocalDay(long localDay) {
+        this.localDay = localDay;
     }
 
     public boolean isActive() {
@@ -133,7 +167,6 @@ public class ReminderEntity {
 
     public void setActive(boolean active) {
         this.isActive = active;
-        this.updatedAt = System.currentTimeMillis();
     }
 
     public boolean isVibrate() {
@@ -174,7 +207,6 @@ public class ReminderEntity {
 
     public void setStatus(String status) {
         this.status = status;
-        this.updatedAt = System.currentTimeMillis();
     }
 
     public long getCreatedAt() {
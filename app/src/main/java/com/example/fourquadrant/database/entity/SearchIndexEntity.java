@@ -0,0 +1,81 @@
+package com.example.fourquadrant.database.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * 全文检索索引实体类（FTS4）
+ * 汇总任务名称、提醒内容和番茄钟任务名称，只对 terms 列建立索引（unicode61 分词，中文已由 SearchTokenizer 预先切分）。
+ * 行由 SearchIndexSchema.createTriggers 创建的触发器随源表自动维护；rowid 为 search_index_keys 中
+ * (kind, ref_id) 对应的 docid，触发器按源表主键查到 docid 后定位，不需要扫描索引表。
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61,
+        notIndexed = {"kind", "ref_id", "title", "sort_time"})
+@Entity(tableName = "search_index")
+public class SearchIndexEntity {
+    
+    public static final String KIND_TASK = "task";
+    public static final String KIND_REMINDER = "reminder";
+    public static final String KIND_SESSION = "session";
+    
+    @ColumnInfo(name = "kind")
+    private String kind;
+    
+    // 源表主键
+    @ColumnInfo(name = "ref_id")
+    private String refId;
+    
+    // 展示用的原文
+    @ColumnInfo(name = "title")
+    private String title;
+    
+    // SearchTokenizer.index 生成的词串
+    @ColumnInfo(name = "terms")
+    private String terms;
+    
+    // 排序用时间（任务/提醒为创建时间，番茄钟为开始时间）
+    @ColumnInfo(name = "sort_time")
+    private long sortTime;
+    
+    public String getKind() {
+        return kind;
+    }
+    
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+    
+    public String getRefId() {
+        return refId;
+    }
+    
+    public void setRefId(String refId) {
+        this.refId = refId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getTerms() {
+        return terms;
+    }
+    
+    public void setTerms(String terms) {
+        this.terms = terms;
+    }
+    
+    public long getSortTime() {
+        return sortTime;
+    }
+    
+    public void setSortTime(long sortTime) {
+        this.sortTime = sortTime;
+    }
+}
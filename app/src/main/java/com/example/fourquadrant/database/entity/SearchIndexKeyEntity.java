@@ -0,0 +1,59 @@
+package com.example.fourquadrant.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 全文检索 docid 分配表
+ * 每个被索引的源行（ref_type + ref_id）对应一个固定的 docid，作为 search_index 的 rowid。
+ * docid 是本表的 INTEGER PRIMARY KEY，VACUUM 不会重新编号；由 SearchIndexSchema 的触发器维护。
+ */
+@Entity(tableName = "search_index_keys",
+        indices = {
+                @Index(value = {"ref_type", "ref_id"}, unique = true)
+        })
+public class SearchIndexKeyEntity {
+    
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "docid")
+    private long docid;
+    
+    // 源行类型，取值同 SearchIndexEntity.KIND_*
+    @NonNull
+    @ColumnInfo(name = "ref_type")
+    private String refType = "";
+    
+    // 源表主键
+    @NonNull
+    @ColumnInfo(name = "ref_id")
+    private String refId = "";
+    
+    public long getDocid() {
+        return docid;
+    }
+    
+    public void setDocid(long docid) {
+        this.docid = docid;
+    }
+    
+    @NonNull
+    public String getRefType() {
+        return refType;
+    }
+    
+    public void setRefType(@NonNull String refType) {
+        this.refType = refType;
+    }
+    
+    @NonNull
+    public String getRefId() {
+        return refId;
+    }
+    
+    public void setRefId(@NonNull String refId) {
+        this.refId = refId;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.fourquadrant.database.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * 统计源数据代数（单行）
+ * 每日汇总整体重建（恢复备份、时区重新分桶、批量写入）时加一。
+ * 这些操作会改写已有行却不一定推进 updated_at（恢复的行带着备份中的旧时间），
+ * 预先计算的统计结果记录计算时的代数，代数变化即视为过期。
+ */
+@Entity(tableName = "stats_generation")
+public class StatsGenerationEntity {
+    
+    // 固定为 1，表中只有一行
+    @PrimaryKey
+    @ColumnInfo(name = "id")
+    private int id = 1;
+    
+    @ColumnInfo(name = "generation")
+    private long generation;
+    
+    public StatsGenerationEntity() {
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public void setId(int id) {
+        this.id = id;
+    }
+    
+    public long getGeneration() {
+        return generation;
+    }
+    
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.fourquadrant.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * 预先计算的统计结果实体类
+ * 后台任务按标准时间范围（今日/本周/本月）计算KPI、趋势、四象限分布和建议，每个范围一行；
+ * 统计页面打开时先显示这里的结果，再用实时查询更新。
+ * 记录计算时的时间范围和源数据版本，两者都没变时结果仍然有效，不需要重新计算。
+ */
+@Entity(tableName = "stats_snapshots")
+public class StatsSnapshotEntity {
+    
+    // 时间范围名称：today、week、month
+    @NonNull
+    @PrimaryKey
+    @ColumnInfo(name = "range_key")
+    private String rangeKey = "";
+    
+    @ColumnInfo(name = "start_time")
+    private long startTime;
+    
+    @ColumnInfo(name = "end_time")
+    private long endTime;
+    
+    // 计算时任务、番茄钟记录和每日汇总的最大 updated_at
+    @ColumnInfo(name = "source_updated_at")
+    private long sourceUpdatedAt;
+    
+    // 计算时删除记录的最大 seq，覆盖物理删除
+    @ColumnInfo(name = "source_deleted_seq")
+    private long sourceDeletedSeq;
+    
+    // 计算时的统计源数据代数（stats_generation），覆盖恢复备份和重新分桶
+    @ColumnInfo(name = "source_generation", defaultValue = "0")
+    private long sourceGeneration;
+    
+    @ColumnInfo(name = "computed_at")
+    private long computedAt;
+    
+    @ColumnInfo(name = "completed_tasks")
+    private int completedTasks;
+    
+    @ColumnInfo(name = "pomodoro_count")
+    private int pomodoroCount;
+    
+    @ColumnInfo(name = "completion_rate")
+    private float completionRate;
+    
+    @ColumnInfo(name = "avg_importance")
+    private float avgImportance;
+    
+    // 趋势、四象限分布和建议列表，JSON
+    @ColumnInfo(name = "trend_json")
+    private String trendJson;
+    
+    @ColumnInfo(name = "quadrant_json")
+    private String quadrantJson;
+    
+    @ColumnInfo(name = "suggestions_json")
+    private String suggestionsJson;
+    
+    public StatsSnapshotEntity() {
+    }
+    
+    /**
+     * 结果是否仍然有效：时间范围相同（没有跨天）且计算后源数据没有变化
+     */
+    public boolean isFreshFor(long startTime, long endTime, long sourceUpdatedAt, long sourceDeletedSeq,
+                              long sourceGeneration) {
+        return this.startTime == startTime && this.endTime == endTime
+            && this.sourceUpdatedAt == sourceUpdatedAt && this.sourceDeletedSeq == sourceDeletedSeq
+            && this.sourceGeneration == sourceGeneration;
+    }
+    
+    /**
+     * 是否为给定时间范围计算的（源数据可能已变化，可以先显示再刷新）
+     */
+    public boolean coversRange(long startTime, long endTime) {
+        return this.startTime == startTime && this.endTime == endTime;
+    }
+    
+    // Getters and Setters
+    @NonNull
+    public String getRangeKey() {
+        return rangeKey;
+    }
+    
+    public void setRangeKey(@NonNull String rangeKey) {
+        this.rangeKey = rangeKey;
+    }
+    
+    public long getStartTime() {
+        return startTime;
+    }
+    
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+    
+    public long getEndTime() {
+        return endTime;
+    }
+    
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+    
+    public long getSourceUpdatedAt() {
+        return sourceUpdatedAt;
+    }
+    
+    public void setSourceUpdatedAt(long sourceUpdatedAt) {
+        this.sourceUpdatedAt = sourceUpdatedAt;
+    }
+    
+    public long getSourceDeletedSeq() {
+        return sourceDeletedSeq;
+    }
+    
+    public void setSourceDeletedSeq(long sourceDeletedSeq) {
+        this.sourceDeletedSeq = sourceDeletedSeq;
+    }
+    
+    public long getSourceGeneration() {
+        return sourceGeneration;
+    }
+    
+    public void setSourceGeneration(long sourceGeneration) {
+        this.sourceGeneration = sourceGeneration;
+    }
+    
+    public long getComputedAt() {
+        return computedAt;
+    }
+    
+    public void setComputedAt(long computedAt) {
+        this.computedAt = computedAt;
+    }
+    
+    public int getCompletedTasks() {
+        return completedTasks;
+    }
+    
+    public void setCompletedTasks(int completedTasks) {
+        this.completedTasks = completedTasks;
+    }
+    
+    public int getPomodoroCount() {
+        return pomodoroCount;
+    }
+    
+    public void setPomodoroCount(int pomodoroCount) {
+        this.pomodoroCount = pomodoroCount;
+    }
+    
+    public float getCompletionRate() {
+        return completionRate;
+    }
+    
+    public void setCompletionRate(float completionRate) {
+        this.completionRate = completionRate;
+    }
+    
+    public float getAvgImportance() {
+        return avgImportance;
+    }
+    
+    public void setAvgImportance(float avgImportance) {
+        this.avgImportance = avgImportance;
+    }
+    
+    public String getTrendJson() {
+        return trendJson;
+    }
+    
+    public void setTrendJson(String trendJson) {
+        this.trendJson = trendJson;
+    }
+    
+    public String getQuadrantJson() {
+        return quadrantJson;
+    }
+    
+    public void setQuadrantJson(String quadrantJson) {
+        this.quadrantJson = quadrantJson;
+    }
+    
+    public String getSuggestionsJson() {
+        return suggestionsJson;
+    }
+    
+    public void setSuggestionsJson(String suggestionsJson) {
+        this.suggestionsJson = suggestionsJson;
+    }
+}
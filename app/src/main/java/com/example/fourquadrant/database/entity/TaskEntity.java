@@ -3,13 +3,25 @@ package com.example.fourquadrant.database.entity;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
 
+import com.example.fourquadrant.utils.SearchTokenizer;
+
 /**
  * 任务实体类
+ * 复合索引覆盖TaskDao中的高频查询条件（is_deleted / is_completed / quadrant / 时间）
+ * 按天/按小时的完成统计走 completed_local_day / completed_local_hour 索引范围，不再逐行做日期换算
  */
-@Entity(tableName = "tasks")
+@Entity(tableName = "tasks",
+        indices = {
+                @Index(value = {"is_deleted", "is_completed", "completed_at"}),
+                @Index(value = {"is_deleted", "is_completed", "quadrant"}),
+                @Index(value = {"is_deleted", "created_at"}),
+                @Index(value = {"is_deleted", "is_completed", "completed_local_day", "completed_local_hour", "completed_at"}),
+                @Index(value = {"is_deleted", "updated_at"})
+        })
 public class TaskEntity {
     
     @PrimaryKey
@@ -20,6 +32,10 @@ public class TaskEntity {
     @ColumnInfo(name = "name")
     private String name;
     
+    // 任务名称的全文检索词串（SearchTokenizer.index），由触发器同步到 search_index
+    @ColumnInfo(name = "search_terms")
+    private String searchTerms;
+    
     @ColumnInfo(name = "importance")
     private int importance;
     
@@ -38,11 +54,19 @@ public class TaskEntity {
     @ColumnInfo(name = "completed_at")
     private Long completedAt;
     
-    @ColumnInfo(name = "updated_at")
-    private long updatedAt;
+    // completed_at 所在的本地纪元日和小时，由 TaskRepository 写入时计算；时区变化后由 LocalDayMaintenance 重新分桶
+    @ColumnInfo(name = "completed_local_day")
+    private Long completedLocalDay;
+    
+    @ColumnInfo(name = "completed_local_hour")
+    private Integer completedLocalHour;
     
     @ColumnInfo(name = "is_deleted")
     private boolean isDeleted;
+    
+    // 由 TaskRepository 的写入路径更新；Room 读取时调用的 setter 只赋值，不会改动它
+    @ColumnInfo(name = "updated_at")
+    private long updatedAt;
 
     // 构造函数
     public TaskEntity() {
@@ -95,14 +119,21 @@ public class TaskEntity {
         this.name = name;
     }
 
+    // 旧备份导入的实体没有词串，写入时按原文补算
+    public String getSearchTerms() {
+        return searchTerms != null ? searchTerms : SearchTokenizer.index(name);
+    }
+
+    public void setSearchTerms(String searchTerms) {
+        this.searchTerms = searchTerms;
+    }
+
     public int getImportance() {
         return importance;
     }
 
     public void setImportance(int importance) {
         this.importance = importance;
-        this.quadrant = calculateQuadrant(importance, this.urgency);
-        this.updatedAt = System.currentTimeMillis();
     }
 
     public int getUrgency() {
@@ -111,8 +142,13 @@ public class TaskEntity {
 
     public void setUrgency(int urgency) {
         this.urgency = urgency;
-        this.quadrant = calculateQuadrant(this.importance, urgency);
-        this.updatedAt = System.currentTimeMillis();
+    }
+
+    // 修改重要性/紧急性并重新计算象限
+    public void setPriority(int importance, int urgency) {
+        this.importance = importance;
+        this.urgency = urgency;
+        this.quadrant = calculateQuadrant(importance, urgency);
     }
 
     public int getQuadrant() {
@@ -129,12 +165,16 @@ public class TaskEntity {
 
     public void setCompleted(boolean completed) {
         this.isCompleted = completed;
+    }
+
+    // 标记完成/未完成：完成时没有完成时间的记为当前时间，取消完成时清除完成时间
+    public void markCompleted(boolean completed) {
+        this.isCompleted = completed;
         if (completed && this.completedAt == null) {
-            this.completedAt = System.currentTimeMillis();
+            setCompletedAt(System.currentTimeMillis());
         } else if (!completed) {
-            this.completedAt = null;
+            setCompletedAt(null);
         }
-        this.updatedAt = System.currentTimeMillis();
     }
 
     public long getCreatedAt() {
@@ -153,6 +193,22 @@ public class TaskEntity {
         this.completedAt = completedAt;
     }
 
+    public Long getCompletedLocalDay() {
+        return completedLocalDay;
+    }
+
+    public void setCompletedLocalDay(Long completedLocalDay) {
+        this.completedLocalDay = completedLocalDay;
+    }
+
+    public Integer getCompletedLocalHour() {
+        return completedLocalHour;
+    }
+
+    public void setCompletedLocalHour(Integer completedLocalHour) {
+        this.completedLocalHour = completedLocalHour;
+    }
+
     public long getUpdatedAt() {
         return updatedAt;
     }
@@ -167,6 +223,5 @@ public class TaskEntity {
     
     public void setDeleted(boolean deleted) {
         this.isDeleted = deleted;
-        this.updatedAt = System.currentTimeMillis();
     }
 }
@@ -0,0 +1,80 @@
+package com.example.fourquadrant.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 删除记录实体类（增量备份用）
+ * 由触发器在源表删除行（任务为软删除）时写入，同一行只保留最新一条；行重新插入时删除。
+ * seq 按提交顺序递增，增量备份以它作为高水位。
+ */
+@Entity(tableName = "backup_tombstones",
+        indices = {
+                @Index(value = {"table_name", "row_id"}, unique = true)
+        })
+public class TombstoneEntity {
+    
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "seq")
+    private long seq;
+    
+    @NonNull
+    @ColumnInfo(name = "table_name")
+    private String tableName = "";
+    
+    @NonNull
+    @ColumnInfo(name = "row_id")
+    private String rowId = "";
+    
+    @ColumnInfo(name = "deleted_at")
+    private long deletedAt;
+    
+    public TombstoneEntity() {
+    }
+    
+    @Ignore
+    public TombstoneEntity(@NonNull String tableName, @NonNull String rowId, long deletedAt) {
+        this.tableName = tableName;
+        this.rowId = rowId;
+        this.deletedAt = deletedAt;
+    }
+    
+    // Getters and Setters
+    public long getSeq() {
+        return seq;
+    }
+    
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+    
+    @NonNull
+    public String getTableName() {
+        return tableName;
+    }
+    
+    public void setTableName(@NonNull String tableName) {
+        this.tableName = tableName;
+    }
+    
+    @NonNull
+    public String getRowId() {
+        return rowId;
+    }
+    
+    public void setRowId(@NonNull String rowId) {
+        this.rowId = rowId;
+    }
+    
+    public long getDeletedAt() {
+        return deletedAt;
+    }
+    
+    public void setDeletedAt(long deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
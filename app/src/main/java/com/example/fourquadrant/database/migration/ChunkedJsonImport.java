@@ -0,0 +1,93 @@
+package com.example.fourquadrant.database.migration;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分块读取旧版SharedPreferences中保存的JSON数组
+ * 逐条解析，同一时间只持有一块；start 为上次中断前已写入的条数，这些元素直接跳过不解析。
+ * 内容不是数组（空串、null、损坏的数据）时视为空数组。
+ * 数组中的 null 元素原样放进块里，保证块内下标与数组位置一一对应，由写入方跳过。
+ */
+final class ChunkedJsonImport<T> implements Closeable {
+
+    /**
+     * 写入一块；抛出异常时位置不前进，本对象不能继续使用，需要从 getPosition() 重新打开
+     */
+    interface ChunkWriter<T> {
+        /**
+         * @param firstIndex 本块第一条在数组中的位置，可用于生成稳定的ID，重放同一块时得到相同的行
+         */
+        void write(List<T> chunk, int firstIndex) throws Exception;
+    }
+
+    private final Gson gson;
+    private final Class<T> type;
+    private final int chunkSize;
+    private final JsonReader json;
+    private int position;
+    private boolean finished;
+
+    ChunkedJsonImport(Gson gson, Reader source, Class<T> type, int start, int chunkSize) throws IOException {
+        this.gson = gson;
+        this.type = type;
+        this.chunkSize = chunkSize;
+        this.json = new JsonReader(source);
+        try {
+            if (json.peek() != JsonToken.BEGIN_ARRAY) {
+                finished = true;
+                return;
+            }
+            json.beginArray();
+            while (position < start && json.hasNext()) {
+                json.skipValue();
+                position++;
+            }
+            finished = !json.hasNext();
+        } catch (IOException | IllegalStateException e) {
+            // 空串或格式损坏，按没有旧数据处理
+            finished = true;
+        }
+    }
+
+    /**
+     * 读取并写入下一块，返回本块条数；已读完时返回0
+     */
+    int step(ChunkWriter<T> writer) throws Exception {
+        if (finished) {
+            return 0;
+        }
+        List<T> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize && json.hasNext()) {
+            chunk.add(gson.fromJson(json, type));
+        }
+        boolean last = !json.hasNext();
+        writer.write(chunk, position);
+        position += chunk.size();
+        finished = last;
+        return chunk.size();
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 已写入的条数（含跳过的），作为断点保存
+     */
+    int getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+}
@@ -4,30 +4,32 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
 import com.example.fourquadrant.database.AppDatabase;
 import com.example.fourquadrant.database.entity.TaskEntity;
 import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
-import com.example.fourquadrant.database.entity.ReminderEntity;
 import com.example.fourquadrant.database.entity.UserEntity;
 import com.example.fourquadrant.database.entity.SettingsEntity;
-import com.example.fourquadrant.database.repository.TaskRepository;
-import com.example.fourquadrant.database.repository.PomodoroRepository;
-import com.example.fourquadrant.database.repository.ReminderRepository;
-import com.example.fourquadrant.database.repository.UserRepository;
-import com.example.fourquadrant.database.repository.SettingsRepository;
 import com.example.fourquadrant.PomodoroRecord;
-import com.example.fourquadrant.ReminderItem;
+import com.example.fourquadrant.ReminderManager;
+import com.example.fourquadrant.utils.AppScheduler;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 数据迁移管理器
  * 负责将SharedPreferences中的数据迁移到Room数据库
+ *
+ * 迁移分阶段、分块在写通道上执行：旧版JSON逐条解析，每块一次批量插入（Room对列表插入复用同一条预编译语句并包在一个事务里），
+ * 每块单独提交，块之间其他写入可以插队，不阻塞启动。每块写入后保存断点，进程被杀后下次启动从断点继续；
+ * 断点保存前被杀会重放最后一块，旧数据没有ID时按数组位置生成固定ID，插入时跳过已存在的行，重放不会产生重复数据。
+ * 任务和番茄钟的映射、写入和断点顺序在 LegacyDataImporter 中，这里只提供 Room 和 SharedPreferences 的实现。
  */
 public class DataMigrationManager {
     
@@ -36,10 +38,65 @@ public class DataMigrationManager {
     private static final String KEY_MIGRATION_COMPLETED = "migration_completed";
     private static final String KEY_MIGRATION_VERSION = "migration_version";
     private static final int CURRENT_MIGRATION_VERSION = 1;
+    // 断点：当前阶段和该阶段已写入的条数
+    private static final String KEY_CHECKPOINT_PHASE = "checkpoint_phase";
+    private static final String KEY_CHECKPOINT_POSITION = "checkpoint_position";
+    private static final int CHUNK_SIZE = 500;
+    
+    // 迁移阶段，按顺序执行
+    public static final int PHASE_TASKS = 0;
+    public static final int PHASE_POMODORO = 1;
+    public static final int PHASE_DAILY_STATS = 2;
+    public static final int PHASE_REMINDERS = 3;
+    public static final int PHASE_USER_SETTINGS = 4;
+    public static final int PHASE_COUNT = 5;
+    
+    /**
+     * 迁移进度
+     */
+    public static class Progress {
+        // 正在执行的阶段，全部结束时为 PHASE_COUNT
+        public final int phase;
+        // 本次启动以来迁移的条数
+        public final int migratedItems;
+        public final boolean finished;
+        
+        Progress(int phase, int migratedItems, boolean finished) {
+            this.phase = phase;
+            this.migratedItems = migratedItems;
+            this.finished = finished;
+        }
+    }
     
     private Context context;
     private AppDatabase database;
     private Gson gson;
+    private final AppScheduler scheduler = AppScheduler.getInstance();
+    private final MutableLiveData<Progress> progress = new MutableLiveData<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    
+    // 任务和番茄钟阶段的映射与写入
+    private final LegacyDataImporter.Store store = new LegacyDataImporter.Store() {
+        @Override
+        public void runInTransaction(Runnable body) {
+            database.runInTransaction(body);
+        }
+        
+        @Override
+        public void insertTasksIfAbsent(List<TaskEntity> tasks) {
+            database.taskDao().insertTasksIfAbsent(tasks);
+        }
+        
+        @Override
+        public void insertSessionsIfAbsent(List<PomodoroSessionEntity> sessions) {
+            database.pomodoroDao().insertSessionsIfAbsent(sessions);
+        }
+        
+        @Override
+        public List<String> getExistingTaskIds(List<String> taskIds) {
+            return database.taskDao().getExistingTaskIdsSync(taskIds);
+        }
+    };
     
     public DataMigrationManager(Context context) {
         this.context = context;
@@ -59,183 +116,146 @@ public class DataMigrationManager {
     }
     
     /**
-     * 执行数据迁移
+     * 迁移进度，全部结束后 finished 为 true
      */
-    public void performMigration() {
+    public LiveData<Progress> getProgress() {
+        return progress;
+    }
+    
+    /**
+     * 开始数据迁移，立即返回
+     * @param onFinished 全部阶段结束后在写通道上调用；无需迁移时也会调用
+     */
+    public void startMigration(Runnable onFinished) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
         if (!needsMigration()) {
             Log.i(TAG, "数据迁移已完成，跳过迁移");
+            progress.postValue(new Progress(PHASE_COUNT, 0, true));
+            scheduler.write(onFinished);
             return;
         }
         
         Log.i(TAG, "开始数据迁移...");
-        
-        try {
-            // 迁移任务数据
-            migrateTaskData();
-            
-            // 迁移番茄钟数据
-            migratePomodoroData();
-            
-            // 迁移提醒数据
-            migrateReminderData();
-            
-            // 迁移用户数据
-            migrateUserData();
-            
-            // 迁移设置数据
-            migrateSettingsData();
-            
-            // 标记迁移完成
-            markMigrationCompleted();
-            
-            Log.i(TAG, "数据迁移完成");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "数据迁移失败", e);
-        }
+        scheduler.write(new MigrationStep(onFinished));
     }
     
     /**
-     * 迁移任务数据
+     * 每次执行一块，未结束时把自己重新排到写通道末尾
+     * 只在写通道的单个线程上执行，状态不需要同步
      */
-    private void migrateTaskData() {
-        Log.i(TAG, "迁移任务数据...");
+    private final class MigrationStep implements Runnable {
+        
+        private final Runnable onFinished;
+        private final SharedPreferences migrationPrefs;
+        private final LegacyDataImporter importer;
+        private int phase;
+        private ChunkedJsonImport<?> current;
+        private int migratedItems;
         
-        SharedPreferences taskPrefs = context.getSharedPreferences("TaskListPrefs", Context.MODE_PRIVATE);
-        String savedTasksJson = taskPrefs.getString("saved_tasks", "[]");
+        MigrationStep(Runnable onFinished) {
+            this.onFinished = onFinished;
+            this.migrationPrefs = context.getSharedPreferences(MIGRATION_PREF, Context.MODE_PRIVATE);
+            this.importer = new LegacyDataImporter(store, this::saveCheckpoint);
+            this.phase = migrationPrefs.getInt(KEY_CHECKPOINT_PHASE, PHASE_TASKS);
+            if (phase != PHASE_TASKS) {
+                Log.i(TAG, "从断点继续迁移: 阶段 " + phase + "，已写入 " + migrationPrefs.getInt(KEY_CHECKPOINT_POSITION, 0) + " 条");
+            }
+        }
         
-        try {
-            Type taskListType = new TypeToken<List<TaskItem>>(){}.getType();
-            List<TaskItem> oldTasks = gson.fromJson(savedTasksJson, taskListType);
+        @Override
+        public void run() {
+            try {
+                runChunk();
+            } catch (Exception e) {
+                // 与原来一致：某类数据迁移失败只记录日志，继续迁移其余数据
+                Log.e(TAG, "迁移阶段 " + phase + " 失败，跳过", e);
+                finishPhase();
+            }
             
-            if (oldTasks != null && !oldTasks.isEmpty()) {
-                List<TaskEntity> newTasks = new ArrayList<>();
-                
-                for (TaskItem oldTask : oldTasks) {
-                    TaskEntity newTask = new TaskEntity();
-                    newTask.setId(oldTask.getId() != null ? oldTask.getId() : generateTaskId());
-                    newTask.setName(oldTask.getName());
-                    newTask.setImportance(oldTask.getImportance());
-                    newTask.setUrgency(oldTask.getUrgency());
-                    newTask.setCompleted(oldTask.isCompleted());
-                    newTask.setCreatedAt(System.currentTimeMillis());
-                    newTask.setUpdatedAt(System.currentTimeMillis());
-                    
-                    if (oldTask.isCompleted() && oldTask.getCompletedTime() != null) {
-                        newTask.setCompletedAt(oldTask.getCompletedTime());
-                    }
-                    
-                    newTasks.add(newTask);
-                }
-                
-                // 批量插入任务
-                database.taskDao().insertTasks(newTasks);
-                Log.i(TAG, "成功迁移 " + newTasks.size() + " 个任务");
+            if (phase < PHASE_COUNT) {
+                progress.postValue(new Progress(phase, migratedItems, false));
+                scheduler.write(this);
+                return;
             }
             
-        } catch (Exception e) {
-            Log.e(TAG, "迁移任务数据失败", e);
+            markMigrationCompleted();
+            progress.postValue(new Progress(PHASE_COUNT, migratedItems, true));
+            Log.i(TAG, "数据迁移完成，共迁移 " + migratedItems + " 条");
+            onFinished.run();
         }
-    }
-    
-    /**
-     * 迁移番茄钟数据
-     */
-    private void migratePomodoroData() {
-        Log.i(TAG, "迁移番茄钟数据...");
         
-        SharedPreferences pomodoroPrefs = context.getSharedPreferences("PomodoroRecords", Context.MODE_PRIVATE);
-        String recordsJson = pomodoroPrefs.getString("pomodoro_records", "[]");
+        private void runChunk() throws Exception {
+            switch (phase) {
+                case PHASE_TASKS:
+                    migrateChunk("TaskListPrefs", "saved_tasks", LegacyDataImporter.TaskItem.class, importer::writeTasks);
+                    break;
+                case PHASE_POMODORO:
+                    migrateChunk("PomodoroRecords", "pomodoro_records", PomodoroRecord.class, importer::writeSessions);
+                    break;
+                case PHASE_DAILY_STATS:
+                    // 任务和番茄钟导入后重建每日统计汇总
+                    database.dailyStatsDao().rebuildAll();
+                    finishPhase();
+                    break;
+                case PHASE_REMINDERS:
+                    // 旧版提醒由 ReminderManager 迁移（以旧列表整体替换提醒表并删除旧数据），这里只保证启动时执行
+                    new ReminderManager(context).ensureLegacyMigrated();
+                    finishPhase();
+                    break;
+                case PHASE_USER_SETTINGS:
+                    migrateUserData();
+                    migrateSettingsData();
+                    finishPhase();
+                    break;
+                default:
+                    phase = PHASE_COUNT;
+                    break;
+            }
+        }
         
-        try {
-            Type recordListType = new TypeToken<List<PomodoroRecord>>(){}.getType();
-            List<PomodoroRecord> oldRecords = gson.fromJson(recordsJson, recordListType);
-            
-            if (oldRecords != null && !oldRecords.isEmpty()) {
-                List<PomodoroSessionEntity> newSessions = new ArrayList<>();
-                
-                for (PomodoroRecord oldRecord : oldRecords) {
-                    PomodoroSessionEntity newSession = new PomodoroSessionEntity();
-                    newSession.setId(generateSessionId());
-                    newSession.setTaskId(oldRecord.getTaskId());
-                    newSession.setTaskName(oldRecord.getTaskName());
-                    newSession.setDurationMinutes(oldRecord.getDurationMinutes());
-                    newSession.setCompleted(oldRecord.isCompleted());
-                    newSession.setBreakSession(false); // 旧数据默认不是休息会话
-                    newSession.setStartTime(oldRecord.getStartTime());
-                    newSession.setCreatedAt(oldRecord.getStartTime());
-                    
-                    if (oldRecord.isCompleted()) {
-                        newSession.setEndTime(oldRecord.getEndTime());
-                    }
-                    
-                    newSessions.add(newSession);
-                }
-                
-                // 批量插入番茄钟会话
-                database.pomodoroDao().insertSessions(newSessions);
-                Log.i(TAG, "成功迁移 " + newSessions.size() + " 个番茄钟记录");
+        private <T> void migrateChunk(String prefsName, String key, Class<T> type,
+                                      ChunkedJsonImport.ChunkWriter<T> writer) throws Exception {
+            if (current == null) {
+                Log.i(TAG, "迁移 " + prefsName + "...");
+                String json = context.getSharedPreferences(prefsName, Context.MODE_PRIVATE).getString(key, "[]");
+                int start = migrationPrefs.getInt(KEY_CHECKPOINT_POSITION, 0);
+                current = new ChunkedJsonImport<>(gson, new StringReader(json), type, start, CHUNK_SIZE);
+            }
+            @SuppressWarnings("unchecked")
+            ChunkedJsonImport<T> chunks = (ChunkedJsonImport<T>) current;
+            // 写入成功后由 importer 保存断点，读完时断点已推进到下一阶段
+            migratedItems += importer.step(phase, chunks, writer);
+            if (chunks.isFinished()) {
+                Log.i(TAG, "成功迁移 " + prefsName + "，共 " + chunks.getPosition() + " 条");
+                closeCurrent();
+                phase++;
             }
-            
-        } catch (Exception e) {
-            Log.e(TAG, "迁移番茄钟数据失败", e);
         }
-    }
-    
-    /**
-     * 迁移提醒数据
-     */
-    private void migrateReminderData() {
-        Log.i(TAG, "迁移提醒数据...");
         
-        SharedPreferences reminderPrefs = context.getSharedPreferences("reminder_prefs", Context.MODE_PRIVATE);
-        String remindersJson = reminderPrefs.getString("reminders", "[]");
+        private void finishPhase() {
+            closeCurrent();
+            phase++;
+            saveCheckpoint(phase, 0);
+        }
         
-        try {
-            Type reminderListType = new TypeToken<List<ReminderItem>>(){}.getType();
-            List<ReminderItem> oldReminders = gson.fromJson(remindersJson, reminderListType);
-            
-            if (oldReminders != null && !oldReminders.isEmpty()) {
-                List<ReminderEntity> newReminders = new ArrayList<>();
-                
-                for (ReminderItem oldReminder : oldReminders) {
-                    ReminderEntity newReminder = new ReminderEntity();
-                    newReminder.setId(oldReminder.getId() != null ? oldReminder.getId() : generateReminderId());
-                    newReminder.setContent(oldReminder.getContent());
-                    newReminder.setReminderTime(oldReminder.getReminderTime());
-                    newReminder.setActive(oldReminder.isActive());
-                    newReminder.setVibrate(oldReminder.isVibrate());
-                    newReminder.setSound(oldReminder.isSound());
-                    newReminder.setRepeat(oldReminder.isRepeat());
-                    newReminder.setRepeatCount(0); // 旧数据默认重复次数为0
-                    
-                    // 设置状态
-                    if (oldReminder.isActive()) {
-                        newReminder.setStatus("ACTIVE");
-                    } else {
-                        newReminder.setStatus("COMPLETED");
-                    }
-                    
-                    // 关联任务（旧数据中没有taskId，使用taskName匹配）
-                    if (oldReminder.getTaskName() != null && !oldReminder.getTaskName().trim().isEmpty()) {
-                        newReminder.setTaskName(oldReminder.getTaskName());
-                        // taskId在旧数据中不存在，设置为null
-                        newReminder.setTaskId(null);
-                    }
-                    
-                    newReminder.setCreatedAt(System.currentTimeMillis());
-                    newReminder.setUpdatedAt(System.currentTimeMillis());
-                    
-                    newReminders.add(newReminder);
+        private void closeCurrent() {
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (Exception ignored) {
                 }
-                
-                // 批量插入提醒
-                database.reminderDao().insertReminders(newReminders);
-                Log.i(TAG, "成功迁移 " + newReminders.size() + " 个提醒");
+                current = null;
             }
-            
-        } catch (Exception e) {
-            Log.e(TAG, "迁移提醒数据失败", e);
+        }
+        
+        private void saveCheckpoint(int phase, int position) {
+            // 同步写入：下一块开始前断点必须落盘
+            migrationPrefs.edit()
+                .putInt(KEY_CHECKPOINT_PHASE, phase)
+                .putInt(KEY_CHECKPOINT_POSITION, position)
+                .commit();
         }
     }
     
@@ -359,37 +379,8 @@ public class DataMigrationManager {
         migrationPrefs.edit()
             .putBoolean(KEY_MIGRATION_COMPLETED, true)
             .putInt(KEY_MIGRATION_VERSION, CURRENT_MIGRATION_VERSION)
+            .remove(KEY_CHECKPOINT_PHASE)
+            .remove(KEY_CHECKPOINT_POSITION)
             .apply();
     }
-    
-    // 工具方法
-    private String generateTaskId() {
-        return "task_" + UUID.randomUUID().toString();
-    }
-    
-    private String generateSessionId() {
-        return "pomodoro_" + UUID.randomUUID().toString();
-    }
-    
-    private String generateReminderId() {
-        return "reminder_" + UUID.randomUUID().toString();
-    }
-    
-    // 临时的TaskItem类定义（用于反序列化旧数据）
-    private static class TaskItem {
-        private String id;
-        private String name;
-        private int importance;
-        private int urgency;
-        private boolean isCompleted;
-        private Long completedTime;
-        
-        // Getters
-        public String getId() { return id; }
-        public String getName() { return name; }
-        public int getImportance() { return importance; }
-        public int getUrgency() { return urgency; }
-        public boolean isCompleted() { return isCompleted; }
-        public Long getCompletedTime() { return completedTime; }
-    }
 }
@@ -0,0 +1,165 @@
+package com.example.fourquadrant.database.migration;
+
+import com.example.fourquadrant.PomodoroRecord;
+import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
+import com.example.fourquadrant.database.entity.TaskEntity;
+import com.example.fourquadrant.database.repository.PomodoroRepository;
+import com.example.fourquadrant.database.repository.TaskRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 旧版任务和番茄钟数据的分块写入
+ * 把旧数据映射成实体、清理失效的任务关联，写入后保存断点。不依赖 Android，
+ * DataMigrationManager 提供基于 Room 和 SharedPreferences 的 Store / Checkpoint，单元测试提供 JDBC 实现。
+ */
+final class LegacyDataImporter {
+
+    /**
+     * 实体写入
+     */
+    interface Store {
+        void runInTransaction(Runnable body);
+
+        // 已存在的行跳过，重放同一块不会产生重复数据
+        void insertTasksIfAbsent(List<TaskEntity> tasks);
+
+        void insertSessionsIfAbsent(List<PomodoroSessionEntity> sessions);
+
+        // 给定ID中已存在的任务ID
+        List<String> getExistingTaskIds(List<String> taskIds);
+    }
+
+    /**
+     * 断点：当前阶段和该阶段已写入的条数；必须同步落盘
+     */
+    interface Checkpoint {
+        void save(int phase, int position);
+    }
+
+    private final Store store;
+    private final Checkpoint checkpoint;
+
+    LegacyDataImporter(Store store, Checkpoint checkpoint) {
+        this.store = store;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * 写入一块并保存断点，返回本块读取的条数
+     * 断点在写入提交之后保存：两者之间被杀只会重放这一块；读完时断点推进到下一阶段的起点
+     */
+    <T> int step(int phase, ChunkedJsonImport<T> chunks, ChunkedJsonImport.ChunkWriter<T> writer) throws Exception {
+        int count = chunks.step(writer);
+        if (chunks.isFinished()) {
+            checkpoint.save(phase + 1, 0);
+        } else {
+            checkpoint.save(phase, chunks.getPosition());
+        }
+        return count;
+    }
+
+    /**
+     * 写入一块任务数据
+     */
+    void writeTasks(List<TaskItem> chunk, int firstIndex) {
+        List<TaskEntity> newTasks = new ArrayList<>(chunk.size());
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < chunk.size(); i++) {
+            TaskItem oldTask = chunk.get(i);
+            if (oldTask == null) {
+                continue;
+            }
+            TaskEntity newTask = new TaskEntity();
+            newTask.setId(oldTask.getId() != null ? oldTask.getId() : legacyId("task_", firstIndex + i));
+            newTask.setName(oldTask.getName());
+            newTask.setPriority(oldTask.getImportance(), oldTask.getUrgency());
+            newTask.markCompleted(oldTask.isCompleted());
+            newTask.setCreatedAt(now);
+
+            if (oldTask.isCompleted() && oldTask.getCompletedTime() != null) {
+                newTask.setCompletedAt(oldTask.getCompletedTime());
+            }
+            newTask.setUpdatedAt(now);
+            TaskRepository.fillDerivedColumns(newTask);
+
+            newTasks.add(newTask);
+        }
+
+        store.insertTasksIfAbsent(newTasks);
+    }
+
+    /**
+     * 写入一块番茄钟数据
+     */
+    void writeSessions(List<PomodoroRecord> chunk, int firstIndex) {
+        List<PomodoroSessionEntity> newSessions = new ArrayList<>(chunk.size());
+        Set<String> taskIds = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            PomodoroRecord oldRecord = chunk.get(i);
+            if (oldRecord == null) {
+                continue;
+            }
+            PomodoroSessionEntity newSession = new PomodoroSessionEntity();
+            newSession.setId(legacyId("pomodoro_", firstIndex + i));
+            newSession.setTaskId(oldRecord.getTaskId());
+            newSession.setTaskName(oldRecord.getTaskName());
+            newSession.setDurationMinutes(oldRecord.getDurationMinutes());
+            newSession.setCompleted(oldRecord.isCompleted());
+            newSession.setBreakSession(false); // 旧数据默认不是休息会话
+            newSession.setStartTime(oldRecord.getStartTime());
+            newSession.setCreatedAt(oldRecord.getStartTime());
+
+            if (oldRecord.isCompleted()) {
+                newSession.setEndTime(oldRecord.getEndTime());
+            }
+            PomodoroRepository.fillDerivedColumns(newSession);
+
+            if (oldRecord.getTaskId() != null) {
+                taskIds.add(oldRecord.getTaskId());
+            }
+            newSessions.add(newSession);
+        }
+
+        store.runInTransaction(() -> {
+            // 关联的任务可能已在旧版中删除，外键约束会让整块插入失败，改为只保留任务名
+            if (!taskIds.isEmpty()) {
+                Set<String> existing = new HashSet<>(store.getExistingTaskIds(new ArrayList<>(taskIds)));
+                for (PomodoroSessionEntity session : newSessions) {
+                    if (session.getTaskId() != null && !existing.contains(session.getTaskId())) {
+                        session.setTaskId(null);
+                    }
+                }
+            }
+            store.insertSessionsIfAbsent(newSessions);
+        });
+    }
+
+    // 按数组位置生成固定ID，重放同一块时得到相同的ID
+    static String legacyId(String prefix, int index) {
+        return prefix + UUID.nameUUIDFromBytes((prefix + index).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 旧版任务（用于反序列化旧数据）
+    static class TaskItem {
+        private String id;
+        private String name;
+        private int importance;
+        private int urgency;
+        private boolean isCompleted;
+        private Long completedTime;
+
+        // Getters
+        public String getId() { return id; }
+        public String getName() { return name; }
+        public int getImportance() { return importance; }
+        public int getUrgency() { return urgency; }
+        public boolean isCompleted() { return isCompleted; }
+        public Long getCompletedTime() { return completedTime; }
+    }
+}
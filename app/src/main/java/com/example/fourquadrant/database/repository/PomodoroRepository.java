@@ -1,13 +1,20 @@
 package com.example.fourquadrant.database.repository;
 
 import android.app.Application;
+import android.os.SystemClock;
 import androidx.lifecycle.LiveData;
 
 import com.example.fourquadrant.database.AppDatabase;
+import com.example.fourquadrant.database.CoalescingPersister;
+import com.example.fourquadrant.database.KeysetPagedLiveData;
+import com.example.fourquadrant.database.dao.DailyStatsDao;
 import com.example.fourquadrant.database.dao.PomodoroDao;
 import com.example.fourquadrant.database.dao.TimerStateDao;
 import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
 import com.example.fourquadrant.database.entity.TimerStateEntity;
+import com.example.fourquadrant.utils.AppScheduler;
+import com.example.fourquadrant.utils.LocalDayUtils;
+import com.example.fourquadrant.utils.SearchTokenizer;
 
 import java.util.List;
 import java.util.UUID;
@@ -17,13 +24,19 @@ import java.util.UUID;
  */
 public class PomodoroRepository {
     
+    private AppDatabase database;
     private PomodoroDao pomodoroDao;
     private TimerStateDao timerStateDao;
+    private DailyStatsDao dailyStatsDao;
     private LiveData<List<PomodoroSessionEntity>> allSessions;
     private LiveData<List<PomodoroSessionEntity>> completedSessions;
     
+    // 计时器状态每个间隔最多写一次
+    private static final long TIMER_STATE_WRITE_INTERVAL_MS = 5000;
+    // 所有仓库实例共用，保证清除状态时能丢弃其他实例尚未写出的值
+    private static CoalescingPersister<TimerStateEntity> timerStatePersister;
+    
     public PomodoroRepository(Application application) {
-        AppDatabase database;
         if (application instanceof com.example.fourquadrant.FourQuadrantApplication) {
             // 使用Application中的单例数据库实例
             database = ((com.example.fourquadrant.FourQuadrantApplication) application).getDatabase();
@@ -33,6 +46,16 @@ public class PomodoroRepository {
         }
         pomodoroDao = database.pomodoroDao();
         timerStateDao = database.timerStateDao();
+        dailyStatsDao = database.dailyStatsDao();
+        synchronized (PomodoroRepository.class) {
+            if (timerStatePersister == null) {
+                TimerStateDao dao = timerStateDao;
+                AppScheduler scheduler = AppScheduler.getInstance();
+                timerStatePersister = new CoalescingPersister<>(dao::insertOrUpdateTimerState,
+                    scheduler.writeExecutor(), scheduler::writeDelayed,
+                    SystemClock::elapsedRealtime, TIMER_STATE_WRITE_INTERVAL_MS);
+            }
+        }
         allSessions = pomodoroDao.getAllSessions();
         completedSessions = pomodoroDao.getCompletedSessions();
     }
@@ -76,7 +99,8 @@ public class PomodoroRepository {
     
     // 获取每日统计
     public LiveData<List<PomodoroDao.DailyPomodoroStats>> getDailyPomodoroStats(long startTime, long endTime) {
-        return pomodoroDao.getDailyPomodoroStats(startTime, endTime);
+        return pomodoroDao.getDailyPomodoroStats(LocalDayUtils.toLocalDay(startTime), LocalDayUtils.toLocalDay(endTime),
+                startTime, endTime);
     }
     
     // 获取任务番茄钟统计
@@ -98,6 +122,7 @@ public class PomodoroRepository {
         String sessionId = generateSessionId();
         PomodoroSessionEntity session = new PomodoroSessionEntity(
             sessionId, taskId, taskName, durationMinutes, false);
+        fillDerivedColumns(session);
         
         pomodoroDao.insertSession(session);
         
@@ -109,6 +134,7 @@ public class PomodoroRepository {
         String sessionId = generateSessionId();
         PomodoroSessionEntity session = new PomodoroSessionEntity(
             sessionId, null, "休息", durationMinutes, true);
+        fillDerivedColumns(session);
         
         pomodoroDao.insertSession(session);
         
@@ -117,15 +143,14 @@ public class PomodoroRepository {
     
     // 完成会话
     public void completeSession(PomodoroSessionEntity session) {
-        session.setCompleted(true);
-        session.setEndTime(System.currentTimeMillis());
+        session.markCompleted(System.currentTimeMillis());
         
-        pomodoroDao.updateSession(session);
+        updateSession(session);
     }
     
     // 取消会话
     public void cancelSession(PomodoroSessionEntity session) {
-        pomodoroDao.deleteSession(session);
+        deleteSession(session);
     }
     
     // 插入会话
@@ -133,41 +158,65 @@ public class PomodoroRepository {
         if (session.getId() == null || session.getId().isEmpty()) {
             session.setId(generateSessionId());
         }
-        pomodoroDao.insertSession(session);
+        fillDerivedColumns(session);
+        session.setUpdatedAt(System.currentTimeMillis());
+        database.runInTransaction(() -> {
+            PomodoroSessionEntity previous = pomodoroDao.getSessionByIdSync(session.getId());
+            pomodoroDao.insertSession(session);
+            applyDailyStatsChange(previous, session);
+        });
     }
     
     // 更新会话
     public void updateSession(PomodoroSessionEntity session) {
-        pomodoroDao.updateSession(session);
+        fillDerivedColumns(session);
+        session.setUpdatedAt(System.currentTimeMillis());
+        database.runInTransaction(() -> {
+            PomodoroSessionEntity previous = pomodoroDao.getSessionByIdSync(session.getId());
+            pomodoroDao.updateSession(session);
+            applyDailyStatsChange(previous, session);
+        });
     }
     
     // 删除会话
     public void deleteSession(PomodoroSessionEntity session) {
-        pomodoroDao.deleteSession(session);
+        deleteSessionById(session.getId());
     }
     
     // 根据ID删除会话
     public void deleteSessionById(String sessionId) {
-        pomodoroDao.deleteSessionById(sessionId);
+        database.runInTransaction(() -> {
+            PomodoroSessionEntity previous = pomodoroDao.getSessionByIdSync(sessionId);
+            pomodoroDao.deleteSessionById(sessionId);
+            applyDailyStatsChange(previous, null);
+        });
     }
     
     // 删除所有会话
     public void deleteAllSessions() {
-        pomodoroDao.deleteAllSessions();
+        database.runInTransaction(() -> {
+            pomodoroDao.deleteAllSessions();
+            dailyStatsDao.rebuildAll();
+        });
     }
     
     // 批量插入会话
     public void insertSessions(List<PomodoroSessionEntity> sessions) {
-        pomodoroDao.insertSessions(sessions);
+        for (PomodoroSessionEntity session : sessions) {
+            fillDerivedColumns(session);
+        }
+        database.runInTransaction(() -> {
+            pomodoroDao.insertSessions(sessions);
+            dailyStatsDao.rebuildAll();
+        });
     }
     
-    // 记录番茄钟完成（便捷方法）
+    // 记录番茄钟完成（便捷方法，同时累加当天的每日统计汇总）
     public void recordPomodoroCompletion(String taskId, String taskName, int durationMinutes) {
         String sessionId = generateSessionId();
         PomodoroSessionEntity session = new PomodoroSessionEntity(
             sessionId, taskId, taskName, durationMinutes, false);
-        session.setCompleted(true);
-        session.setEndTime(System.currentTimeMillis());
+        session.markCompleted(System.currentTimeMillis());
         
         insertSession(session);
     }
@@ -177,12 +226,49 @@ public class PomodoroRepository {
         String sessionId = generateSessionId();
         PomodoroSessionEntity session = new PomodoroSessionEntity(
             sessionId, null, "休息", durationMinutes, true);
-        session.setCompleted(true);
-        session.setEndTime(System.currentTimeMillis());
+        session.markCompleted(System.currentTimeMillis());
         
         insertSession(session);
     }
     
+    // 旧记录扣减、新记录累加（必须在事务中调用）
+    private void applyDailyStatsChange(PomodoroSessionEntity previous, PomodoroSessionEntity current) {
+        boolean previousCounted = countsTowardsDailyStats(previous);
+        boolean currentCounted = countsTowardsDailyStats(current);
+        
+        if (previousCounted && currentCounted
+                && LocalDayUtils.toLocalDay(previous.getStartTime()) == LocalDayUtils.toLocalDay(current.getStartTime())
+                && previous.getDurationMinutes() == current.getDurationMinutes()) {
+            return;
+        }
+        
+        long updateTime = System.currentTimeMillis();
+        if (previousCounted) {
+            addToDailyStats(previous, -1, updateTime);
+        }
+        if (currentCounted) {
+            addToDailyStats(current, 1, updateTime);
+        }
+    }
+    
+    private void addToDailyStats(PomodoroSessionEntity session, int delta, long updateTime) {
+        long day = LocalDayUtils.toLocalDay(session.getStartTime());
+        dailyStatsDao.ensureDay(day, updateTime);
+        dailyStatsDao.addPomodoro(day, session.getDurationMinutes(), delta, updateTime);
+    }
+    
+    // 与统计查询口径一致：只统计已完成的非休息会话
+    private boolean countsTowardsDailyStats(PomodoroSessionEntity session) {
+        return session != null && session.isCompleted() && !session.isBreakSession();
+    }
+    
+    // 按任务名称和开始时间计算派生列（检索词串、本地日/小时）；实体 setter 只赋值，写入前在这里补齐
+    public static void fillDerivedColumns(PomodoroSessionEntity session) {
+        session.setSearchTerms(SearchTokenizer.index(session.getTaskName()));
+        session.setStartLocalDay(LocalDayUtils.toLocalDay(session.getStartTime()));
+        session.setStartLocalHour(LocalDayUtils.toLocalHour(session.getStartTime()));
+    }
+    
     // 生成会话ID
     private String generateSessionId() {
         return "pomodoro_" + UUID.randomUUID().toString();
@@ -216,11 +302,45 @@ public class PomodoroRepository {
         return pomodoroDao.getTotalFocusTimeByTimeRangeSync(startTime, endTime);
     }
     
+    // 同步获取会话总数（包括休息）
+    public int getSessionCountSync() {
+        return pomodoroDao.getSessionCountSync();
+    }
+    
+    // 同步获取已完成会话数（包括休息）
+    public int getCompletedSessionCountSync() {
+        return pomodoroDao.getCompletedSessionCountSync();
+    }
+    
+    // 同步按任务名称汇总会话数、完成数和工作时长
+    public PomodoroDao.TaskSessionSummary getSessionSummaryByTaskNameSync(String taskName) {
+        return pomodoroDao.getSessionSummaryByTaskNameSync(taskName);
+    }
+    
     // 同步获取所有会话
     public List<PomodoroSessionEntity> getAllSessionsSync() {
         return pomodoroDao.getAllSessionsSync();
     }
     
+    // 同步获取最近的 limit 条会话（按开始时间倒序），只读取需要的行
+    public List<PomodoroSessionEntity> getRecentSessionsSync(int limit) {
+        return pomodoroDao.getSessionsPage(Long.MAX_VALUE, "", limit);
+    }
+    
+    // 同步获取排在 after 之后的一页会话，after 为 null 时从最近一条开始
+    public List<PomodoroSessionEntity> getSessionsPageSync(PomodoroSessionEntity after, int limit) {
+        if (after == null) {
+            return getRecentSessionsSync(limit);
+        }
+        return pomodoroDao.getSessionsPage(after.getStartTime(), after.getId(), limit);
+    }
+    
+    // 分页加载会话历史，会话表变化后自动刷新已加载的部分
+    public KeysetPagedLiveData<PomodoroSessionEntity> getSessionsPaged(int pageSize) {
+        return new KeysetPagedLiveData<>(database, new String[]{"pomodoro_sessions"}, pageSize,
+                this::getSessionsPageSync);
+    }
+    
     // 同步获取已完成会话
     public List<PomodoroSessionEntity> getCompletedSessionsSync() {
         return pomodoroDao.getCompletedSessionsSync();
@@ -243,19 +363,22 @@ public class PomodoroRepository {
         return timerStateDao.getTimerStateSync();
     }
     
-    // 保存计时器状态
+    // 保存计时器状态（合并写入：频繁的开始/暂停/走秒在一个间隔内只写一次）
     public void saveTimerState(long startTime, boolean isRunning, boolean isPaused, 
                               long remainingTime, boolean isBreak, int currentCount) {
-        new Thread(() -> {
-            TimerStateEntity timerState = new TimerStateEntity(startTime, isRunning, isPaused, 
-                                                              remainingTime, isBreak, currentCount);
-            timerStateDao.insertOrUpdateTimerState(timerState);
-        }).start();
+        timerStatePersister.update(new TimerStateEntity(startTime, isRunning, isPaused,
+                                                        remainingTime, isBreak, currentCount));
+    }
+    
+    // 立即写出尚未保存的计时器状态（服务销毁、任务移除、计时结束时调用）
+    public void flushTimerState() {
+        timerStatePersister.flush();
     }
     
     // 同步保存计时器状态
     public void saveTimerStateSync(long startTime, boolean isRunning, boolean isPaused, 
                                   long remainingTime, boolean isBreak, int currentCount) {
+        timerStatePersister.discard();
         TimerStateEntity timerState = new TimerStateEntity(startTime, isRunning, isPaused, 
                                                           remainingTime, isBreak, currentCount);
         timerStateDao.insertOrUpdateTimerState(timerState);
@@ -263,7 +386,9 @@ public class PomodoroRepository {
     
     // 保存番茄钟完成待确认状态
     public void savePomodoroCompletionPending(String taskName, int currentCount, int totalCount) {
-        new Thread(() -> {
+        // 计时已结束，尚未写出的运行中状态已过期，不能覆盖待确认状态
+        timerStatePersister.discard();
+        AppScheduler.getInstance().write(() -> {
             TimerStateEntity timerState = getTimerStateSync();
             if (timerState == null) {
                 timerState = new TimerStateEntity();
@@ -276,30 +401,32 @@ public class PomodoroRepository {
             timerState.setPaused(false);
             timerState.setRemainingTime(0);
             timerStateDao.insertOrUpdateTimerState(timerState);
-        }).start();
+        });
     }
     
     // 清除番茄钟完成待确认状态
     public void clearPomodoroCompletionPending() {
-        new Thread(() -> {
+        AppScheduler.getInstance().write(() -> {
             TimerStateEntity timerState = getTimerStateSync();
             if (timerState != null) {
                 timerState.setCompletedPending(false);
                 timerState.setCompletedTaskName(null);
                 timerStateDao.insertOrUpdateTimerState(timerState);
             }
-        }).start();
+        });
     }
     
     // 清除计时器状态
     public void clearTimerState() {
-        new Thread(() -> {
+        timerStatePersister.discard();
+        AppScheduler.getInstance().write(() -> {
             timerStateDao.clearTimerState();
-        }).start();
+        });
     }
     
     // 同步清除计时器状态
     public void clearTimerStateSync() {
+        timerStatePersister.discard();
         timerStateDao.clearTimerState();
     }
 }
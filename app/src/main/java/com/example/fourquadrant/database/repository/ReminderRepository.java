@@ -2,12 +2,20 @@ package com.example.fourquadrant.database.repository;
 
 import android.app.Application;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
 
 import com.example.fourquadrant.database.AppDatabase;
 import com.example.fourquadrant.database.dao.ReminderDao;
 import com.example.fourquadrant.database.entity.ReminderEntity;
+import com.example.fourquadrant.utils.LocalDayUtils;
+import com.example.fourquadrant.utils.SearchTokenizer;
 
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
@@ -15,13 +23,13 @@ import java.util.UUID;
  */
 public class ReminderRepository {
     
+    private AppDatabase database;
     private ReminderDao reminderDao;
     private LiveData<List<ReminderEntity>> allReminders;
     private LiveData<List<ReminderEntity>> activeReminders;
     private LiveData<List<ReminderEntity>> completedReminders;
     
     public ReminderRepository(Application application) {
-        AppDatabase database;
         if (application instanceof com.example.fourquadrant.FourQuadrantApplication) {
             // 使用Application中的单例数据库实例
             database = ((com.example.fourquadrant.FourQuadrantApplication) application).getDatabase();
@@ -65,9 +73,20 @@ public class ReminderRepository {
         return reminderDao.getRemindersByTimeRange(startTime, endTime);
     }
     
-    // 按日期获取提醒
+    // 按日期获取提醒（date格式为yyyy-MM-dd）
     public LiveData<List<ReminderEntity>> getRemindersByDate(String date) {
-        return reminderDao.getRemindersByDate(date);
+        try {
+            Date parsed = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).parse(date);
+            return reminderDao.getRemindersByLocalDay(LocalDayUtils.toLocalDay(parsed.getTime()));
+        } catch (ParseException e) {
+            android.util.Log.w("ReminderRepository", "Invalid date for getRemindersByDate: " + date);
+            return reminderDao.getRemindersByLocalDay(Long.MIN_VALUE);
+        }
+    }
+    
+    // 按本地纪元日获取提醒
+    public LiveData<List<ReminderEntity>> getRemindersByLocalDay(long localDay) {
+        return reminderDao.getRemindersByLocalDay(localDay);
     }
     
     // 获取即将到期的提醒
@@ -87,7 +106,11 @@ public class ReminderRepository {
     
     // 搜索提醒
     public LiveData<List<ReminderEntity>> searchReminders(String searchQuery) {
-        return reminderDao.searchReminders(searchQuery);
+        String match = SearchTokenizer.toMatchQuery(searchQuery);
+        if (match == null) {
+            return new MutableLiveData<>(new ArrayList<>());
+        }
+        return reminderDao.searchReminders(match);
     }
     
     // 获取统计数据
@@ -108,7 +131,8 @@ public class ReminderRepository {
     }
     
     public LiveData<List<ReminderDao.DailyReminderStats>> getDailyReminderStats(long startTime, long endTime) {
-        return reminderDao.getDailyReminderStats(startTime, endTime);
+        return reminderDao.getDailyReminderStats(LocalDayUtils.toLocalDay(startTime), LocalDayUtils.toLocalDay(endTime),
+                startTime, endTime);
     }
     
     // 创建新提醒
@@ -135,11 +159,14 @@ public class ReminderRepository {
         if (reminder.getId() == null || reminder.getId().isEmpty()) {
             reminder.setId(generateReminderId());
         }
+        fillDerivedColumns(reminder);
+        reminder.setUpdatedAt(System.currentTimeMillis());
         reminderDao.insertReminder(reminder);
     }
     
     // 更新提醒（同步）
     public void updateReminder(ReminderEntity reminder) {
+        fillDerivedColumns(reminder);
         reminder.setUpdatedAt(System.currentTimeMillis());
         reminderDao.updateReminder(reminder);
     }
@@ -191,9 +218,68 @@ public class ReminderRepository {
     
     // 批量插入提醒（同步）
     public void insertReminders(List<ReminderEntity> reminders) {
+        for (ReminderEntity reminder : reminders) {
+            fillDerivedColumns(reminder);
+        }
         reminderDao.insertReminders(reminders);
     }
     
+    // 用给定列表整体替换提醒表（同步，单个事务）
+    public void replaceAllReminders(List<ReminderEntity> reminders) {
+        for (ReminderEntity reminder : reminders) {
+            fillDerivedColumns(reminder);
+        }
+        database.runInTransaction(() -> {
+            reminderDao.deleteAllReminders();
+            reminderDao.insertReminders(reminders);
+        });
+    }
+    
+    // 根据ID获取提醒（同步）
+    public ReminderEntity getReminderByIdSync(String reminderId) {
+        return reminderDao.getReminderByIdSync(reminderId);
+    }
+    
+    // 获取所有提醒（同步，按提醒时间升序）
+    public List<ReminderEntity> getAllRemindersSync() {
+        return reminderDao.getAllRemindersSync();
+    }
+    
+    // 获取活跃提醒（同步）
+    public List<ReminderEntity> getActiveRemindersSync() {
+        return reminderDao.getActiveRemindersSync();
+    }
+    
+    // 按本地纪元日获取提醒（同步）
+    public List<ReminderEntity> getRemindersByLocalDaySync(long localDay) {
+        return reminderDao.getRemindersByLocalDaySync(localDay);
+    }
+    
+    // 按天统计提醒数量（同步），只返回有提醒的日期
+    public List<ReminderDao.DayCount> getReminderDayCountsSync(long startDay, long endDay) {
+        return reminderDao.getReminderDayCountsSync(startDay, endDay);
+    }
+    
+    // 按时间范围获取提醒（同步）
+    public List<ReminderEntity> getRemindersByTimeRangeSync(long startTime, long endTime) {
+        return reminderDao.getRemindersByTimeRangeSync(startTime, endTime);
+    }
+    
+    // 按时间范围获取活跃提醒（同步）
+    public List<ReminderEntity> getActiveRemindersByTimeRangeSync(long startTime, long endTime) {
+        return reminderDao.getActiveRemindersByTimeRangeSync(startTime, endTime);
+    }
+    
+    // 获取已过时间但仍活跃的提醒（同步）
+    public List<ReminderEntity> getOverdueRemindersSync(long currentTime) {
+        return reminderDao.getOverdueRemindersSync(currentTime);
+    }
+    
+    // 删除指定时间之前的非活跃提醒（同步），返回删除条数
+    public int deleteInactiveRemindersBefore(long cutoffTime) {
+        return reminderDao.deleteInactiveRemindersBefore(cutoffTime);
+    }
+    
     // 更新提醒状态（同步）
     public void updateReminderStatus(String reminderId, String status) {
         reminderDao.updateReminderStatus(reminderId, status, System.currentTimeMillis());
@@ -212,6 +298,12 @@ public class ReminderRepository {
         return getUpcomingReminders(currentTime, oneHourLater);
     }
     
+    // 按内容和提醒时间计算派生列（检索词串、本地日）；实体 setter 只赋值，写入前在这里补齐
+    public static void fillDerivedColumns(ReminderEntity reminder) {
+        reminder.setSearchTerms(SearchTokenizer.index(reminder.getContent()));
+        reminder.setLocalDay(LocalDayUtils.toLocalDay(reminder.getReminderTime()));
+    }
+    
     // 生成提醒ID
     private String generateReminderId() {
         return "reminder_" + UUID.randomUUID().toString();
@@ -0,0 +1,67 @@
+package com.example.fourquadrant.database.repository;
+
+import android.app.Application;
+
+import com.example.fourquadrant.database.AppDatabase;
+import com.example.fourquadrant.database.dao.SearchDao;
+import com.example.fourquadrant.utils.AppScheduler;
+import com.example.fourquadrant.utils.SearchTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全文检索数据仓库
+ * 任务、提醒和番茄钟统一检索，支持前缀匹配、中文按字/词匹配、排序和分页
+ */
+public class SearchRepository {
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    
+    private SearchDao searchDao;
+    
+    public interface SearchCallback {
+        void onResult(List<SearchDao.SearchHit> hits);
+    }
+    
+    public SearchRepository(Application application) {
+        AppDatabase database;
+        if (application instanceof com.example.fourquadrant.FourQuadrantApplication) {
+            // 使用Application中的单例数据库实例
+            database = ((com.example.fourquadrant.FourQuadrantApplication) application).getDatabase();
+        } else {
+            // 备用方案：直接获取数据库实例
+            database = AppDatabase.getDatabase(application);
+        }
+        searchDao = database.searchDao();
+    }
+    
+    /**
+     * 同步检索一页结果
+     * @param kind 只检索某一类型（SearchIndexEntity.KIND_*），为 null 时检索全部类型
+     * @param page 页码，从0开始
+     */
+    public List<SearchDao.SearchHit> searchSync(String query, String kind, int page, int pageSize) {
+        String match = SearchTokenizer.toMatchQuery(query);
+        if (match == null || page < 0 || pageSize <= 0) {
+            return new ArrayList<>();
+        }
+        String raw = query.trim();
+        int offset = page * pageSize;
+        if (kind == null) {
+            return searchDao.search(match, raw, pageSize, offset);
+        }
+        return searchDao.searchByKind(match, kind, raw, pageSize, offset);
+    }
+    
+    /**
+     * 在读通道上检索，结果回调到主线程
+     */
+    public void search(String query, String kind, int page, int pageSize, SearchCallback callback) {
+        AppScheduler scheduler = AppScheduler.getInstance();
+        scheduler.read(AppScheduler.Priority.UI, () -> {
+            List<SearchDao.SearchHit> hits = searchSync(query, kind, page, pageSize);
+            scheduler.postToMain(() -> callback.onResult(hits));
+        });
+    }
+}
@@ -4,6 +4,7 @@ import android.app.Application;
 import androidx.lifecycle.LiveData;
 
 import com.example.fourquadrant.database.AppDatabase;
+import com.example.fourquadrant.database.SettingsCache;
 import com.example.fourquadrant.database.dao.SettingsDao;
 import com.example.fourquadrant.database.entity.SettingsEntity;
 
@@ -11,10 +12,12 @@ import java.util.List;
 
 /**
  * 设置数据仓库
+ * 按键读写单个值的便捷方法都经过进程内的 SettingsCache：读取不查询数据库，写入合并后在写通道上提交
  */
 public class SettingsRepository {
     
     private SettingsDao settingsDao;
+    private SettingsCache settingsCache;
     private LiveData<List<SettingsEntity>> allSettings;
     
     public SettingsRepository(Application application) {
@@ -27,6 +30,7 @@ public class SettingsRepository {
             database = AppDatabase.getDatabase(application);
         }
         settingsDao = database.settingsDao();
+        settingsCache = SettingsCache.getInstance(application);
         allSettings = settingsDao.getAllSettings();
     }
     
@@ -68,7 +72,7 @@ public class SettingsRepository {
     
     // 删除设置
     public void deleteSettingByKey(String key) {
-        settingsDao.deleteSettingByKey(key);
+        settingsCache.remove(key);
     }
     
     // 根据分类删除设置
@@ -83,45 +87,37 @@ public class SettingsRepository {
     
     // 便捷方法：设置字符串值
     public void setStringValue(String key, String value, String category) {
-        long currentTime = System.currentTimeMillis();
-        settingsDao.setStringValue(key, value, category, currentTime);
+        settingsCache.putString(key, value, category);
     }
     
     // 便捷方法：设置整数值
     public void setIntValue(String key, int value, String category) {
-        long currentTime = System.currentTimeMillis();
-        settingsDao.setIntValue(key, String.valueOf(value), category, currentTime);
+        settingsCache.putInt(key, value, category);
     }
     
     // 便捷方法：设置布尔值
     public void setBooleanValue(String key, boolean value, String category) {
-        long currentTime = System.currentTimeMillis();
-        settingsDao.setBooleanValue(key, String.valueOf(value), category, currentTime);
+        settingsCache.putBoolean(key, value, category);
     }
     
     // 便捷方法：获取字符串值
     public String getStringValue(String key, String defaultValue) {
-        String value = settingsDao.getStringValueSync(key);
-        return value != null ? value : defaultValue;
+        return settingsCache.getString(key, defaultValue);
     }
     
     // 便捷方法：获取整数值
     public int getIntValue(String key, int defaultValue) {
-        String value = settingsDao.getIntValueString(key);
-        if (value != null) {
-            try {
-                return Integer.parseInt(value);
-            } catch (NumberFormatException e) {
-                return defaultValue;
-            }
-        }
-        return defaultValue;
+        return settingsCache.getInt(key, defaultValue);
     }
     
     // 便捷方法：获取布尔值
     public boolean getBooleanValue(String key, boolean defaultValue) {
-        String value = settingsDao.getBooleanValueString(key);
-        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+        return settingsCache.getBoolean(key, defaultValue);
+    }
+    
+    // 便捷方法：获取长整型值
+    public long getLongValue(String key, long defaultValue) {
+        return settingsCache.getLong(key, defaultValue);
     }
     
     // 更新设置值
@@ -131,7 +127,7 @@ public class SettingsRepository {
     
     // 检查设置是否存在
     public boolean isSettingExists(String key) {
-        return settingsDao.getSettingCount(key) > 0;
+        return settingsCache.contains(key);
     }
     
     // 初始化默认设置
@@ -166,6 +162,11 @@ public class SettingsRepository {
         public static final String THEME_MODE = "theme_mode";
     }
     
+    // 通用设置（saveXxxSetting 写入的分类）
+    public static class GeneralSettings {
+        public static final String CATEGORY = "GENERAL";
+    }
+    
     // 用户设置
     public static class UserSettings {
         public static final String CATEGORY = "USER";
@@ -239,53 +240,26 @@ public class SettingsRepository {
         setBooleanValue(ReminderSettings.REPEAT_ENABLED, enabled, ReminderSettings.CATEGORY);
     }
     
-    // 同步获取方法 - 用于静态方法调用
+    // 同步获取方法 - 用于静态方法调用，不存在时返回null
     public Integer getIntSettingSync(String key) {
-        try {
-            SettingsEntity entity = settingsDao.getSettingSync(key);
-            if (entity != null && entity.getValue() != null) {
-                return entity.getIntValue();
-            }
-        } catch (Exception e) {
-            // 忽略异常，返回null
-        }
-        return null;
+        return settingsCache.contains(key) ? settingsCache.getInt(key, 0) : null;
     }
     
     public Boolean getBooleanSettingSync(String key) {
-        try {
-            SettingsEntity entity = settingsDao.getSettingSync(key);
-            if (entity != null && entity.getValue() != null) {
-                return entity.getBooleanValue();
-            }
-        } catch (Exception e) {
-            // 忽略异常，返回null
-        }
-        return null;
+        return settingsCache.contains(key) ? settingsCache.getBoolean(key, false) : null;
     }
     
     public String getStringSettingSync(String key) {
-        try {
-            SettingsEntity entity = settingsDao.getSettingSync(key);
-            if (entity != null && entity.getStringValue() != null) {
-                return entity.getStringValue();
-            }
-        } catch (Exception e) {
-            // 忽略异常，返回null
-        }
-        return null;
+        return settingsCache.getString(key, null);
     }
 
     public Long getLongSettingSync(String key) {
-        try {
-            SettingsEntity entity = settingsDao.getSettingSync(key);
-            if (entity != null && entity.getValue() != null) {
-                return entity.getLongValue();
-            }
-        } catch (Exception e) {
-            // 忽略异常，返回null
-        }
-        return null;
+        return settingsCache.contains(key) ? settingsCache.getLong(key, 0L) : null;
+    }
+    
+    // 分类中任一设置变化时发出新的版本号（包括首次加载完成）
+    public LiveData<Integer> getCategoryChanges(String category) {
+        return settingsCache.getCategoryChanges(category);
     }
     
     // 添加缺失的便捷方法
@@ -306,25 +280,23 @@ public class SettingsRepository {
     }
     
     public void saveIntSetting(String key, int value) {
-        setIntValue(key, value, "GENERAL");
+        setIntValue(key, value, GeneralSettings.CATEGORY);
     }
     
     public void saveBooleanSetting(String key, boolean value) {
-        setBooleanValue(key, value, "GENERAL");
+        setBooleanValue(key, value, GeneralSettings.CATEGORY);
     }
     
     public void saveStringSetting(String key, String value) {
-        setStringValue(key, value, "GENERAL");
+        setStringValue(key, value, GeneralSettings.CATEGORY);
     }
     
     public void saveLongSetting(String key, long value) {
-        long currentTime = System.currentTimeMillis();
-        settingsDao.setLongValue(key, value, "GENERAL", currentTime);
+        settingsCache.putLong(key, value, GeneralSettings.CATEGORY);
     }
 
     public void setLongSetting(String key, long value, String category) {
-        long currentTime = System.currentTimeMillis();
-        settingsDao.setLongValue(key, value, category, currentTime);
+        settingsCache.putLong(key, value, category);
     }
     
     public void deleteSetting(String key) {
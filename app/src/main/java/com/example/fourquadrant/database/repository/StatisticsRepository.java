@@ -2,14 +2,23 @@ package com.example.fourquadrant.database.repository;
 
 import android.app.Application;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MediatorLiveData;
 
 import com.example.fourquadrant.database.AppDatabase;
+import com.example.fourquadrant.database.StatisticsCache;
+import com.example.fourquadrant.database.StatsSnapshotRefresher;
+import com.example.fourquadrant.database.TrackingLiveData;
+import com.example.fourquadrant.database.dao.DailyStatsDao;
+import com.example.fourquadrant.database.dao.StatisticsDao;
+import com.example.fourquadrant.database.dao.StatsSnapshotDao;
+import com.example.fourquadrant.database.dao.TombstoneDao;
 import com.example.fourquadrant.database.dao.TaskDao;
 import com.example.fourquadrant.database.dao.PomodoroDao;
+import com.example.fourquadrant.database.entity.DailyStatsEntity;
 import com.example.fourquadrant.database.entity.TaskEntity;
 import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
+import com.example.fourquadrant.database.entity.StatsSnapshotEntity;
 import com.example.fourquadrant.StatisticsData;
+import com.example.fourquadrant.utils.LocalDayUtils;
 
 import java.util.List;
 import java.util.Calendar;
@@ -20,13 +29,23 @@ import java.util.Calendar;
  */
 public class StatisticsRepository {
     
+    // 统计快照依赖的表，任意一个在事务提交后变化都会触发一次重新查询
+    private static final String[] SNAPSHOT_TABLES = {"daily_stats", "tasks"};
+    // 番茄钟时间段分布依赖的表
+    private static final String[] TIME_PERIOD_TABLES = {"pomodoro_sessions"};
+    
+    private AppDatabase database;
     private TaskDao taskDao;
     private PomodoroDao pomodoroDao;
+    private DailyStatsDao dailyStatsDao;
+    private StatisticsDao statisticsDao;
+    private StatisticsCache statisticsCache;
+    private StatsSnapshotDao statsSnapshotDao;
+    private TombstoneDao tombstoneDao;
     private TaskRepository taskRepository;
     private PomodoroRepository pomodoroRepository;
     
     public StatisticsRepository(Application application) {
-        AppDatabase database = null;
         try {
             if (application instanceof com.example.fourquadrant.FourQuadrantApplication) {
                 // 使用Application中的单例数据库实例
@@ -39,6 +58,11 @@ public class StatisticsRepository {
             if (database != null) {
                 taskDao = database.taskDao();
                 pomodoroDao = database.pomodoroDao();
+                dailyStatsDao = database.dailyStatsDao();
+                statisticsDao = database.statisticsDao();
+                statisticsCache = StatisticsCache.getInstance(application);
+                statsSnapshotDao = database.statsSnapshotDao();
+                tombstoneDao = database.tombstoneDao();
             } else {
                 android.util.Log.e("StatisticsRepository", "Database is null, StatisticsRepository will have limited functionality");
                 taskDao = null;
@@ -56,41 +80,91 @@ public class StatisticsRepository {
     
     /**
      * 获取KPI统计数据
+     * 每次数据库提交后只发出一次完整结果
      */
     public LiveData<KpiData> getKpiData(String timeRange) {
         long[] timeRangeMillis = getTimeRangeMillis(timeRange);
         long startTime = timeRangeMillis[0];
         long endTime = timeRangeMillis[1];
         
-        MediatorLiveData<KpiData> result = new MediatorLiveData<>();
-        
-        // 使用新的SQL查询组合多个数据源
-        LiveData<Integer> completedTasks = taskDao.getCompletedTaskCountByTimeRange(startTime, endTime);
-        LiveData<Integer> pomodoroCount = pomodoroDao.getCompletedPomodoroCountByTimeRange(startTime, endTime);
-        LiveData<Float> completionRate = taskDao.getCompletionRateByTimeRange(startTime, endTime);
-        LiveData<Float> avgImportance = taskDao.getAverageImportanceByTimeRange(startTime, endTime);
-        
-        result.addSource(completedTasks, tasks -> {
-            updateKpiDataNew(result, tasks, pomodoroCount.getValue(), 
-                           completionRate.getValue(), avgImportance.getValue());
-        });
-        
-        result.addSource(pomodoroCount, count -> {
-            updateKpiDataNew(result, completedTasks.getValue(), count, 
-                           completionRate.getValue(), avgImportance.getValue());
-        });
-        
-        result.addSource(completionRate, rate -> {
-            updateKpiDataNew(result, completedTasks.getValue(), pomodoroCount.getValue(), 
-                           rate, avgImportance.getValue());
-        });
-        
-        result.addSource(avgImportance, avg -> {
-            updateKpiDataNew(result, completedTasks.getValue(), pomodoroCount.getValue(), 
-                           completionRate.getValue(), avg);
-        });
-        
-        return result;
+        return new TrackingLiveData<>(database, SNAPSHOT_TABLES,
+                () -> toKpiData(statisticsDao.getSnapshot(startTime, endTime, false)));
+    }
+    
+    /**
+     * 获取统计快照（KPI、四象限分布和趋势数据）
+     * 所有数据在同一个读事务中取出，结果按时间范围缓存，相关表提交后才重新查询
+     */
+    public LiveData<StatisticsDao.StatisticsSnapshot> getStatisticsSnapshot(long startTime, long endTime, boolean hourly) {
+        if (statisticsDao == null) {
+            android.util.Log.w("StatisticsRepository", "StatisticsDao is null, returning null for getStatisticsSnapshot");
+            return null;
+        }
+        return statisticsCache.observe(snapshotKey(startTime, endTime, hourly), SNAPSHOT_TABLES,
+                () -> statisticsDao.getSnapshot(startTime, endTime, hourly));
+    }
+    
+    /**
+     * 在后台预先查询统计快照，切换到该范围时直接使用缓存
+     */
+    public void prewarmStatisticsSnapshot(long startTime, long endTime, boolean hourly) {
+        if (statisticsDao == null) {
+            return;
+        }
+        statisticsCache.prewarm(snapshotKey(startTime, endTime, hourly), SNAPSHOT_TABLES,
+                () -> statisticsDao.getSnapshot(startTime, endTime, hourly));
+    }
+    
+    private static StatisticsCache.Key snapshotKey(long startTime, long endTime, boolean hourly) {
+        return new StatisticsCache.Key(StatisticsCache.METRIC_SNAPSHOT, startTime, endTime, hourly);
+    }
+    
+    /**
+     * 同步获取统计快照（后台线程调用）
+     */
+    public StatisticsDao.StatisticsSnapshot getStatisticsSnapshotSync(long startTime, long endTime, boolean hourly) {
+        return statisticsDao.getSnapshot(startTime, endTime, hourly);
+    }
+    
+    /**
+     * 读取后台预先计算的统计结果（后台线程调用），没有时返回null
+     */
+    public StatsSnapshotEntity getStoredSnapshotSync(String rangeKey) {
+        if (statsSnapshotDao == null) {
+            return null;
+        }
+        return statsSnapshotDao.getSnapshotSync(rangeKey);
+    }
+    
+    /**
+     * 预先计算结果的读写，供 StatsSnapshotRefresher 使用
+     */
+    public StatsSnapshotRefresher.Store getStatsSnapshotStore() {
+        return new StatsSnapshotRefresher.Store() {
+            @Override
+            public StatsSnapshotRefresher.SourceVersion getSourceVersion() {
+                // 各个值在同一个事务中读取
+                return database.runInTransaction(() -> {
+                    long updatedAt = Math.max(
+                            Math.max(statsSnapshotDao.getTaskLastUpdatedAtSync(false),
+                                    statsSnapshotDao.getTaskLastUpdatedAtSync(true)),
+                            Math.max(statsSnapshotDao.getPomodoroLastUpdatedAtSync(),
+                                    statsSnapshotDao.getDailyStatsLastUpdatedAtSync()));
+                    return new StatsSnapshotRefresher.SourceVersion(updatedAt, tombstoneDao.getLastSeqSync(),
+                            statsSnapshotDao.getGenerationSync());
+                });
+            }
+            
+            @Override
+            public StatsSnapshotEntity getSnapshot(String rangeKey) {
+                return statsSnapshotDao.getSnapshotSync(rangeKey);
+            }
+            
+            @Override
+            public void saveSnapshots(List<StatsSnapshotEntity> snapshots) {
+                statsSnapshotDao.upsertSnapshots(snapshots);
+            }
+        };
     }
     
     /**
@@ -107,15 +181,8 @@ public class StatisticsRepository {
         KpiData kpiData = new KpiData();
         
         try {
-            // 同步查询所有统计数据
-            kpiData.completedTasks = taskDao.getCompletedTaskCountByTimeRangeSync(startTime, endTime);
-            kpiData.pomodoroCount = pomodoroDao.getCompletedPomodoroCountByTimeRangeSync(startTime, endTime);
-            
-            Float completionRate = taskDao.getCompletionRateByTimeRangeSync(startTime, endTime);
-            kpiData.completionRate = completionRate != null ? completionRate : 0.0f;
-            
-            Float avgImportance = taskDao.getAverageImportanceByTimeRangeSync(startTime, endTime);
-            kpiData.avgImportance = avgImportance != null ? avgImportance : 0.0f;
+            // 完成数、番茄钟、重要性、专注时长来自每日汇总表，完成率来自任务表索引查询，同一事务内取出
+            kpiData = toKpiData(statisticsDao.getSnapshot(startTime, endTime, false));
             
             android.util.Log.d("StatisticsRepository", "KPI Data - Completed: " + kpiData.completedTasks +
                 ", Pomodoro: " + kpiData.pomodoroCount + ", Rate: " + kpiData.completionRate + 
@@ -128,43 +195,25 @@ public class StatisticsRepository {
         return kpiData;
     }
     
-    private void updateKpiDataNew(MediatorLiveData<KpiData> result, 
-                                 Integer completedTasks,
-                                 Integer pomodoroCount,
-                                 Float completionRate,
-                                 Float avgImportance) {
-        if (completedTasks != null || pomodoroCount != null || completionRate != null || avgImportance != null) {
-            KpiData kpiData = new KpiData();
-            
-            kpiData.completedTasks = completedTasks != null ? completedTasks : 0;
-            kpiData.pomodoroCount = pomodoroCount != null ? pomodoroCount : 0;
-            kpiData.completionRate = completionRate != null ? completionRate : 0.0f;
-            kpiData.avgImportance = avgImportance != null ? avgImportance : 0.0f;
-            kpiData.totalFocusTime = 0; // 暂时设为0，可以后续添加
-            
-            result.setValue(kpiData);
-        }
+    private static KpiData toKpiData(StatisticsDao.StatisticsSnapshot snapshot) {
+        KpiData kpiData = new KpiData();
+        kpiData.completedTasks = snapshot.completedTasks;
+        kpiData.pomodoroCount = snapshot.pomodoroCount;
+        kpiData.completionRate = snapshot.completionRate;
+        kpiData.avgImportance = snapshot.avgImportance;
+        kpiData.totalFocusTime = snapshot.focusMinutes;
+        return kpiData;
     }
     
-    private void updateKpiData(MediatorLiveData<KpiData> result, 
-                              TaskDao.TaskCompletionStats taskStats,
-                              Integer pomodoroCount,
-                              Float avgImportance,
-                              Integer totalFocusTime) {
-        if (taskStats != null || pomodoroCount != null || avgImportance != null || totalFocusTime != null) {
-            KpiData kpiData = new KpiData();
-            
-            if (taskStats != null) {
-                kpiData.completedTasks = taskStats.completed_tasks;
-                kpiData.completionRate = taskStats.completion_rate;
-            }
-            
-            kpiData.pomodoroCount = pomodoroCount != null ? pomodoroCount : 0;
-            kpiData.avgImportance = avgImportance != null ? avgImportance : 0.0f;
-            kpiData.totalFocusTime = totalFocusTime != null ? totalFocusTime : 0;
-            
-            result.setValue(kpiData);
+    /**
+     * 同步获取时间范围内的每日汇总行（没有数据的日期不返回行）
+     */
+    public List<DailyStatsEntity> getDailyStatsSync(long startTime, long endTime) {
+        if (dailyStatsDao == null) {
+            android.util.Log.w("StatisticsRepository", "DailyStatsDao is null, returning empty list for getDailyStatsSync");
+            return new java.util.ArrayList<>();
         }
+        return dailyStatsDao.getDailyStatsSync(LocalDayUtils.toLocalDay(startTime), LocalDayUtils.toLocalDay(endTime));
     }
     
     /**
@@ -221,7 +270,35 @@ public class StatisticsRepository {
         long[] timeRangeMillis = getTimeRangeMillis(timeRange);
         long startTime = timeRangeMillis[0];
         long endTime = timeRangeMillis[1];
-        return pomodoroDao.getTimePeriodStats(startTime, endTime);
+        return statisticsCache.observe(timePeriodKey(startTime, endTime), TIME_PERIOD_TABLES,
+                () -> pomodoroDao.getTimePeriodStatsSync(LocalDayUtils.toLocalDay(startTime),
+                        LocalDayUtils.toLocalDay(endTime), startTime, endTime));
+    }
+    
+    /**
+     * 在后台预先查询番茄钟时间段分布
+     */
+    public void prewarmTimePeriodDistribution(String timeRange) {
+        if (pomodoroDao == null) {
+            return;
+        }
+        long[] timeRangeMillis = getTimeRangeMillis(timeRange);
+        long startTime = timeRangeMillis[0];
+        long endTime = timeRangeMillis[1];
+        statisticsCache.prewarm(timePeriodKey(startTime, endTime), TIME_PERIOD_TABLES,
+                () -> pomodoroDao.getTimePeriodStatsSync(LocalDayUtils.toLocalDay(startTime),
+                        LocalDayUtils.toLocalDay(endTime), startTime, endTime));
+    }
+    
+    private static StatisticsCache.Key timePeriodKey(long startTime, long endTime) {
+        return new StatisticsCache.Key(StatisticsCache.METRIC_TIME_PERIODS, startTime, endTime, false);
+    }
+    
+    /**
+     * 统计结果缓存的命中、未命中计数
+     */
+    public com.example.fourquadrant.database.TableResultCache.Stats getCacheStats() {
+        return statisticsCache != null ? statisticsCache.getStats() : null;
     }
     
     /**
@@ -231,7 +308,8 @@ public class StatisticsRepository {
         long[] timeRangeMillis = getTimeRangeMillis(timeRange);
         long startTime = timeRangeMillis[0];
         long endTime = timeRangeMillis[1];
-        return taskDao.getDailyCompletionStats(startTime, endTime);
+        return taskDao.getDailyCompletionStats(LocalDayUtils.toLocalDay(startTime), LocalDayUtils.toLocalDay(endTime),
+                startTime, endTime);
     }
     
     /**
@@ -239,7 +317,10 @@ public class StatisticsRepository {
      */
     public LiveData<List<PomodoroDao.DailyPomodoroStats>> getDailyPomodoroStats(String timeRange) {
         long[] timeRangeMillis = getTimeRangeMillis(timeRange);
-        return pomodoroDao.getDailyPomodoroStats(timeRangeMillis[0], timeRangeMillis[1]);
+        long startTime = timeRangeMillis[0];
+        long endTime = timeRangeMillis[1];
+        return pomodoroDao.getDailyPomodoroStats(LocalDayUtils.toLocalDay(startTime), LocalDayUtils.toLocalDay(endTime),
+                startTime, endTime);
     }
     
     /**
@@ -271,6 +352,10 @@ public class StatisticsRepository {
         pomodoroRepository.recordPomodoroCompletion(taskId, taskName, durationMinutes);
     }
     
+    private static long endOfToday() {
+        return LocalDayUtils.endOfLocalDay(LocalDayUtils.toLocalDay(System.currentTimeMillis()));
+    }
+    
     /**
      * 获取时间范围的毫秒值
      */
@@ -300,27 +385,27 @@ public class StatisticsRepository {
                 break;
                 
             case "week":
-                // 当前时间作为结束时间
-                endTime = System.currentTimeMillis();
-                // 7天前作为开始时间
+                // 今天结束作为结束时间：同一天内多次换算结果相同，可以命中缓存
+                endTime = endOfToday();
+                // 7天前的00:00:00作为开始时间，与每日汇总的天边界对齐
                 calendar.add(Calendar.DAY_OF_YEAR, -7);
-                startTime = calendar.getTimeInMillis();
+                startTime = LocalDayUtils.startOfLocalDay(LocalDayUtils.toLocalDay(calendar.getTimeInMillis()));
                 break;
                 
             case "month":
-                // 当前时间作为结束时间
-                endTime = System.currentTimeMillis();
-                // 30天前作为开始时间
+                // 今天结束作为结束时间：同一天内多次换算结果相同，可以命中缓存
+                endTime = endOfToday();
+                // 30天前的00:00:00作为开始时间，与每日汇总的天边界对齐
                 calendar.add(Calendar.DAY_OF_YEAR, -30);
-                startTime = calendar.getTimeInMillis();
+                startTime = LocalDayUtils.startOfLocalDay(LocalDayUtils.toLocalDay(calendar.getTimeInMillis()));
                 break;
                 
             case "year":
-                // 当前时间作为结束时间
-                endTime = System.currentTimeMillis();
-                // 365天前作为开始时间
+                // 今天结束作为结束时间：同一天内多次换算结果相同，可以命中缓存
+                endTime = endOfToday();
+                // 365天前的00:00:00作为开始时间，与每日汇总的天边界对齐
                 calendar.add(Calendar.DAY_OF_YEAR, -365);
-                startTime = calendar.getTimeInMillis();
+                startTime = LocalDayUtils.startOfLocalDay(LocalDayUtils.toLocalDay(calendar.getTimeInMillis()));
                 break;
                 
             default:
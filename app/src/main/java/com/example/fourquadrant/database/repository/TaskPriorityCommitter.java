@@ -0,0 +1,70 @@
+package com.example.fourquadrant.database.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.fourquadrant.utils.AppScheduler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 任务优先级的防抖批量提交
+ * 拖动过程中同一任务的多次修改只保留最后一次，停止修改一段时间后在写通道上一次事务提交。
+ * 只在主线程调用。
+ */
+public class TaskPriorityCommitter {
+    
+    private static final String TAG = "TaskPriorityCommitter";
+    private static final long DEBOUNCE_MS = 400;
+    
+    private final TaskRepository taskRepository;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, TaskRepository.PriorityChange> pending = new LinkedHashMap<>();
+    private final Runnable flushRunnable = this::flush;
+    private Runnable onCommitted;
+    
+    public TaskPriorityCommitter(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+    
+    /**
+     * 提交完成后在主线程回调（例如刷新任务列表）
+     */
+    public void setOnCommitted(Runnable onCommitted) {
+        this.onCommitted = onCommitted;
+    }
+    
+    public void submit(String taskId, int importance, int urgency) {
+        if (taskId == null) {
+            return;
+        }
+        pending.put(taskId, new TaskRepository.PriorityChange(taskId, importance, urgency));
+        mainHandler.removeCallbacks(flushRunnable);
+        mainHandler.postDelayed(flushRunnable, DEBOUNCE_MS);
+    }
+    
+    /**
+     * 立即提交所有待写修改
+     */
+    public void flush() {
+        mainHandler.removeCallbacks(flushRunnable);
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<TaskRepository.PriorityChange> batch = new ArrayList<>(pending.values());
+        pending.clear();
+        Runnable callback = onCommitted;
+        AppScheduler scheduler = AppScheduler.getInstance();
+        scheduler.write(() -> {
+            taskRepository.updateTaskPriorities(batch);
+            Log.d(TAG, "Committed priority changes for " + batch.size() + " tasks");
+            if (callback != null) {
+                scheduler.postToMain(callback);
+            }
+        });
+    }
+}
@@ -2,10 +2,15 @@ package com.example.fourquadrant.database.repository;
 
 import android.app.Application;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
 
 import com.example.fourquadrant.database.AppDatabase;
+import com.example.fourquadrant.database.KeysetPagedLiveData;
+import com.example.fourquadrant.database.dao.DailyStatsDao;
 import com.example.fourquadrant.database.dao.TaskDao;
 import com.example.fourquadrant.database.entity.TaskEntity;
+import com.example.fourquadrant.utils.LocalDayUtils;
+import com.example.fourquadrant.utils.SearchTokenizer;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,13 +20,14 @@ import java.util.UUID;
  */
 public class TaskRepository {
     
+    private AppDatabase database;
     private TaskDao taskDao;
+    private DailyStatsDao dailyStatsDao;
     private LiveData<List<TaskEntity>> allTasks;
     private LiveData<List<TaskEntity>> activeTasks;
     private LiveData<List<TaskEntity>> completedTasks;
     
     public TaskRepository(Application application) {
-        AppDatabase database = null;
         try {
             if (application instanceof com.example.fourquadrant.FourQuadrantApplication) {
                 // 使用Application中的单例数据库实例
@@ -33,6 +39,7 @@ public class TaskRepository {
             
             if (database != null) {
                 taskDao = database.taskDao();
+                dailyStatsDao = database.dailyStatsDao();
                 allTasks = taskDao.getAllTasks();
                 activeTasks = taskDao.getActiveTasks();
                 completedTasks = taskDao.getCompletedTasks();
@@ -110,7 +117,11 @@ public class TaskRepository {
             android.util.Log.w("TaskRepository", "TaskDao is null, returning null for searchTasks");
             return null;
         }
-        return taskDao.searchTasks(searchQuery);
+        String match = SearchTokenizer.toMatchQuery(searchQuery);
+        if (match == null) {
+            return new MutableLiveData<>(new java.util.ArrayList<>());
+        }
+        return taskDao.searchTasks(match);
     }
     
     // 获取象限分布
@@ -191,7 +202,13 @@ public class TaskRepository {
         if (task.getId() == null || task.getId().isEmpty()) {
             task.setId(generateTaskId());
         }
-        taskDao.insertTask(task);
+        fillDerivedColumns(task);
+        task.setUpdatedAt(System.currentTimeMillis());
+        database.runInTransaction(() -> {
+            TaskEntity previous = taskDao.getTaskByIdSync(task.getId());
+            taskDao.insertTask(task);
+            applyDailyStatsChange(previous, task);
+        });
     }
     
     // 便捷方法：创建新任务
@@ -206,19 +223,24 @@ public class TaskRepository {
             android.util.Log.w("TaskRepository", "TaskDao is null, cannot update task");
             return;
         }
+        fillDerivedColumns(task);
         task.setUpdatedAt(System.currentTimeMillis());
-        taskDao.updateTask(task);
+        database.runInTransaction(() -> {
+            TaskEntity previous = taskDao.getTaskByIdSync(task.getId());
+            taskDao.updateTask(task);
+            applyDailyStatsChange(previous, task);
+        });
     }
     
-    // 完成任务
+    // 完成任务（每日统计汇总在updateTask中同步累加）
     public void completeTask(TaskEntity task) {
-        task.setCompleted(true);
+        task.markCompleted(true);
         updateTask(task);
     }
     
     // 取消完成任务
     public void uncompleteTask(TaskEntity task) {
-        task.setCompleted(false);
+        task.markCompleted(false);
         updateTask(task);
     }
     
@@ -228,7 +250,11 @@ public class TaskRepository {
             android.util.Log.w("TaskRepository", "TaskDao is null, cannot delete task");
             return;
         }
-        taskDao.deleteTask(task);
+        database.runInTransaction(() -> {
+            TaskEntity previous = taskDao.getTaskByIdSync(task.getId());
+            taskDao.deleteTask(task);
+            applyDailyStatsChange(previous, null);
+        });
     }
     
     // 根据ID删除任务（同步）
@@ -237,7 +263,11 @@ public class TaskRepository {
             android.util.Log.w("TaskRepository", "TaskDao is null, cannot delete task by id");
             return;
         }
-        taskDao.deleteTaskById(taskId);
+        database.runInTransaction(() -> {
+            TaskEntity previous = taskDao.getTaskByIdSync(taskId);
+            taskDao.deleteTaskById(taskId);
+            applyDailyStatsChange(previous, null);
+        });
     }
     
     // 删除所有任务（同步）
@@ -246,7 +276,10 @@ public class TaskRepository {
             android.util.Log.w("TaskRepository", "TaskDao is null, cannot delete all tasks");
             return;
         }
-        taskDao.deleteAllTasks();
+        database.runInTransaction(() -> {
+            taskDao.deleteAllTasks();
+            dailyStatsDao.rebuildAll();
+        });
     }
     
     // 软删除所有活跃任务（同步）
@@ -264,7 +297,73 @@ public class TaskRepository {
             android.util.Log.w("TaskRepository", "TaskDao is null, cannot insert tasks");
             return;
         }
-        taskDao.insertTasks(tasks);
+        for (TaskEntity task : tasks) {
+            fillDerivedColumns(task);
+        }
+        // 批量写入后直接重建汇总表，比逐条计算增量更省
+        database.runInTransaction(() -> {
+            taskDao.insertTasks(tasks);
+            dailyStatsDao.rebuildAll();
+        });
+    }
+    
+    // 批量修改任务的重要性/紧急性（同步）：一个事务内逐条经过updateTask，每日统计随之维护
+    public void updateTaskPriorities(List<PriorityChange> changes) {
+        if (taskDao == null) {
+            android.util.Log.w("TaskRepository", "TaskDao is null, cannot update task priorities");
+            return;
+        }
+        database.runInTransaction(() -> {
+            for (PriorityChange change : changes) {
+                TaskEntity task = taskDao.getTaskByIdSync(change.taskId);
+                if (task == null) {
+                    continue;
+                }
+                task.setPriority(change.importance, change.urgency);
+                updateTask(task);
+            }
+        });
+    }
+    
+    // 按名称和完成时间计算派生列（检索词串、本地日/小时）；实体 setter 只赋值，写入前在这里补齐
+    public static void fillDerivedColumns(TaskEntity task) {
+        task.setSearchTerms(SearchTokenizer.index(task.getName()));
+        Long completedAt = task.getCompletedAt();
+        task.setCompletedLocalDay(completedAt != null ? LocalDayUtils.toLocalDay(completedAt) : null);
+        task.setCompletedLocalHour(completedAt != null ? LocalDayUtils.toLocalHour(completedAt) : null);
+    }
+    
+    // ==================== 每日统计汇总维护 ====================
+    
+    // 旧记录扣减、新记录累加（必须在事务中调用）
+    private void applyDailyStatsChange(TaskEntity previous, TaskEntity current) {
+        boolean previousCounted = countsTowardsDailyStats(previous);
+        boolean currentCounted = countsTowardsDailyStats(current);
+        
+        if (previousCounted && currentCounted
+                && LocalDayUtils.toLocalDay(previous.getCompletedAt()) == LocalDayUtils.toLocalDay(current.getCompletedAt())
+                && previous.getQuadrant() == current.getQuadrant()
+                && previous.getImportance() == current.getImportance()) {
+            return;
+        }
+        
+        long updateTime = System.currentTimeMillis();
+        if (previousCounted) {
+            addToDailyStats(previous, -1, updateTime);
+        }
+        if (currentCounted) {
+            addToDailyStats(current, 1, updateTime);
+        }
+    }
+    
+    private void addToDailyStats(TaskEntity task, int delta, long updateTime) {
+        long day = LocalDayUtils.toLocalDay(task.getCompletedAt());
+        dailyStatsDao.ensureDay(day, updateTime);
+        dailyStatsDao.addCompletedTask(day, task.getQuadrant(), task.getImportance(), delta, updateTime);
+    }
+    
+    private boolean countsTowardsDailyStats(TaskEntity task) {
+        return task != null && task.isCompleted() && !task.isDeleted() && task.getCompletedAt() != null;
     }
     
     // 生成任务ID
@@ -272,6 +371,19 @@ public class TaskRepository {
         return "task_" + UUID.randomUUID().toString();
     }
     
+    // 单个任务的优先级修改
+    public static class PriorityChange {
+        public final String taskId;
+        public final int importance;
+        public final int urgency;
+        
+        public PriorityChange(String taskId, int importance, int urgency) {
+            this.taskId = taskId;
+            this.importance = importance;
+            this.urgency = urgency;
+        }
+    }
+    
     // 时间范围常量
     public static class TimeRange {
         public static final long DAY_IN_MILLIS = 24 * 60 * 60 * 1000L;
@@ -343,6 +455,52 @@ public class TaskRepository {
         return taskDao.getCompletedTasksSync();
     }
     
+    // 分页加载活跃任务，按创建时间倒序，任务表变化后自动刷新已加载的部分
+    public KeysetPagedLiveData<TaskEntity> getActiveTasksPaged(int pageSize) {
+        if (taskDao == null) {
+            android.util.Log.w("TaskRepository", "TaskDao is null, returning null for getActiveTasksPaged");
+            return null;
+        }
+        TaskDao dao = taskDao;
+        return new KeysetPagedLiveData<>(database, new String[]{"tasks"}, pageSize, (after, limit) -> after == null
+                ? dao.getActiveTasksPage(Long.MAX_VALUE, "", limit)
+                : dao.getActiveTasksPage(after.getCreatedAt(), after.getId(), limit));
+    }
+    
+    // 同步获取最近完成的 limit 条任务（按完成时间倒序），只读取需要的行
+    public List<TaskEntity> getRecentCompletedTasksSync(int limit) {
+        return loadCompletedTasksPage(taskDao, null, limit);
+    }
+    
+    // 分页加载已完成任务，按完成时间倒序，任务表变化后自动刷新已加载的部分
+    public KeysetPagedLiveData<TaskEntity> getCompletedTasksPaged(int pageSize) {
+        if (taskDao == null) {
+            android.util.Log.w("TaskRepository", "TaskDao is null, returning null for getCompletedTasksPaged");
+            return null;
+        }
+        TaskDao dao = taskDao;
+        return new KeysetPagedLiveData<>(database, new String[]{"tasks"}, pageSize,
+                (after, limit) -> loadCompletedTasksPage(dao, after, limit));
+    }
+    
+    // 已完成任务按 (completed_at, id) 倒序；没有完成时间的旧数据接在最后，按 (created_at, id) 倒序
+    private static List<TaskEntity> loadCompletedTasksPage(TaskDao dao, TaskEntity after, int limit) {
+        List<TaskEntity> page;
+        if (after == null) {
+            page = dao.getCompletedTasksPage(Long.MAX_VALUE, "", limit);
+        } else if (after.getCompletedAt() != null) {
+            page = dao.getCompletedTasksPage(after.getCompletedAt(), after.getId(), limit);
+        } else {
+            return dao.getUndatedCompletedTasksPage(after.getCreatedAt(), after.getId(), limit);
+        }
+        if (page.size() >= limit) {
+            return page;
+        }
+        List<TaskEntity> rows = new java.util.ArrayList<>(page);
+        rows.addAll(dao.getUndatedCompletedTasksPage(Long.MAX_VALUE, "", limit - page.size()));
+        return rows;
+    }
+    
     // 同步根据ID获取任务
     public TaskEntity getTaskByIdSync(String taskId) {
         if (taskDao == null) {
@@ -453,7 +611,8 @@ public class TaskRepository {
             return new java.util.ArrayList<>();
         }
         android.util.Log.d("TaskRepository", "开始查询小时统计数据，时间范围: " + startTime + " 到 " + endTime);
-        List<TaskDao.HourlyCompletionStats> result = taskDao.getHourlyCompletionStatsSync(startTime, endTime);
+        List<TaskDao.HourlyCompletionStats> result = taskDao.getHourlyCompletionStatsSync(
+                LocalDayUtils.toLocalDay(startTime), LocalDayUtils.toLocalDay(endTime), startTime, endTime);
         android.util.Log.d("TaskRepository", "小时统计查询完成，返回 " + result.size() + " 条记录");
         return result;
     }
@@ -465,7 +624,8 @@ public class TaskRepository {
             return new java.util.ArrayList<>();
         }
         android.util.Log.d("TaskRepository", "开始查询每日统计数据，时间范围: " + startTime + " 到 " + endTime);
-        List<TaskDao.DailyCompletionStats> result = taskDao.getDailyCompletionStatsSync(startTime, endTime);
+        List<TaskDao.DailyCompletionStats> result = taskDao.getDailyCompletionStatsSync(
+                LocalDayUtils.toLocalDay(startTime), LocalDayUtils.toLocalDay(endTime), startTime, endTime);
         android.util.Log.d("TaskRepository", "每日统计查询完成，返回 " + result.size() + " 条记录");
         return result;
     }
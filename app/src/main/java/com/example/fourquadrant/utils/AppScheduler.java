@@ -0,0 +1,294 @@
+package com.example.fourquadrant.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 应用统一后台调度器
+ * 读通道：多线程，界面可见的读取（Priority.UI）优先于后台读取；
+ * 写通道：单线程串行执行，保证写入顺序，避免多个线程同时抢数据库写锁。
+ *
+ * 两个通道的排队数都有上限：队列满时普通后台线程会阻塞等待（反压），
+ * 主线程和调度器自身的工作线程不能阻塞，此时后台读取被拒绝，其余任务超额放行并计数。
+ */
+public final class AppScheduler {
+
+    private static final String TAG = "AppScheduler";
+
+    // 任务优先级，只对读通道生效；写通道始终按提交顺序执行
+    public enum Priority {
+        UI,
+        BACKGROUND
+    }
+
+    private static final int READ_THREADS =
+        Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final int READ_QUEUE_CAPACITY = 64;
+    private static final int WRITE_QUEUE_CAPACITY = 128;
+    // 超过该时长的任务记录警告日志
+    private static final long SLOW_TASK_MS = 500;
+
+    private static volatile AppScheduler INSTANCE;
+
+    private final Lane readLane;
+    private final Lane writeLane;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private AppScheduler() {
+        readLane = new Lane("read", READ_THREADS, READ_QUEUE_CAPACITY, true);
+        writeLane = new Lane("write", 1, WRITE_QUEUE_CAPACITY, false);
+    }
+
+    public static AppScheduler getInstance() {
+        if (INSTANCE == null) {
+            synchronized (AppScheduler.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppScheduler();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 提交读任务
+     * @return 是否被接受；只有主线程在队列已满时提交的后台读取会被拒绝
+     */
+    public boolean read(Priority priority, Runnable task) {
+        return readLane.submit(priority, task, priority == Priority.BACKGROUND);
+    }
+
+    /**
+     * 提交写任务，按提交顺序串行执行，不会被拒绝
+     */
+    public boolean write(Runnable task) {
+        return writeLane.submit(Priority.UI, task, false);
+    }
+
+    /**
+     * 延迟提交读任务，延迟期间不占用工作线程
+     */
+    public void readDelayed(Priority priority, Runnable task, long delayMs) {
+        mainHandler.postDelayed(() -> read(priority, task), delayMs);
+    }
+
+    /**
+     * 延迟提交写任务，延迟期间不占用工作线程
+     */
+    public void writeDelayed(Runnable task, long delayMs) {
+        mainHandler.postDelayed(() -> write(task), delayMs);
+    }
+
+    /**
+     * 读通道执行器（供Room查询和LiveData刷新使用）
+     */
+    public Executor readExecutor(Priority priority) {
+        return task -> readLane.submit(priority, task, false);
+    }
+
+    /**
+     * 写通道执行器（供Room事务使用）
+     */
+    public Executor writeExecutor() {
+        return this::write;
+    }
+
+    public void postToMain(Runnable task) {
+        mainHandler.post(task);
+    }
+
+    public LaneMetrics getReadMetrics() {
+        return readLane.snapshot();
+    }
+
+    public LaneMetrics getWriteMetrics() {
+        return writeLane.snapshot();
+    }
+
+    public void logMetrics() {
+        Log.i(TAG, getReadMetrics().toString());
+        Log.i(TAG, getWriteMetrics().toString());
+    }
+
+    /**
+     * 通道运行指标快照
+     */
+    public static class LaneMetrics {
+        public String name;
+        public int queueDepth;
+        public int running;
+        public long submitted;
+        public long completed;
+        public long rejected;
+        public long overCapacity;
+        public long avgWaitMs;
+        public long maxWaitMs;
+        public long avgRunMs;
+        public long maxRunMs;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                "[%s] queue=%d running=%d submitted=%d completed=%d rejected=%d overCapacity=%d " +
+                "wait(avg/max)=%d/%dms run(avg/max)=%d/%dms",
+                name, queueDepth, running, submitted, completed, rejected, overCapacity,
+                avgWaitMs, maxWaitMs, avgRunMs, maxRunMs);
+        }
+    }
+
+    /**
+     * 单个执行通道：线程池 + 排队许可（容量上限）+ 指标
+     */
+    private static final class Lane {
+
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final Semaphore permits;
+        private final ThreadLocal<Boolean> workerFlag = new ThreadLocal<>();
+        private final AtomicLong sequence = new AtomicLong();
+
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong overCapacity = new AtomicLong();
+        private final AtomicLong totalWaitMs = new AtomicLong();
+        private final AtomicLong maxWaitMs = new AtomicLong();
+        private final AtomicLong totalRunMs = new AtomicLong();
+        private final AtomicLong maxRunMs = new AtomicLong();
+
+        Lane(String name, int threads, int capacity, boolean prioritized) {
+            this.name = name;
+            this.permits = new Semaphore(capacity);
+            // 队列本身不限长度，容量由许可控制，这样拒绝策略可以区分调用线程
+            BlockingQueue<Runnable> queue = prioritized
+                ? new PriorityBlockingQueue<>()
+                : new LinkedBlockingQueue<>();
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, queue, runnable ->
+                new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    workerFlag.set(Boolean.TRUE);
+                    runnable.run();
+                }, "app-" + name + "-" + threadCount.incrementAndGet()));
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        boolean submit(Priority priority, Runnable task, boolean droppable) {
+            boolean holdsPermit = permits.tryAcquire();
+            if (!holdsPermit) {
+                boolean mainThread = Looper.myLooper() == Looper.getMainLooper();
+                if (mainThread || Boolean.TRUE.equals(workerFlag.get())) {
+                    if (droppable) {
+                        rejected.incrementAndGet();
+                        Log.w(TAG, "[" + name + "] 队列已满，丢弃后台任务，排队数: " + queueDepth.get());
+                        return false;
+                    }
+                    overCapacity.incrementAndGet();
+                } else {
+                    try {
+                        permits.acquire();
+                        holdsPermit = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        overCapacity.incrementAndGet();
+                    }
+                }
+            }
+
+            submitted.incrementAndGet();
+            queueDepth.incrementAndGet();
+            executor.execute(new Task(priority, sequence.getAndIncrement(), task, holdsPermit));
+            return true;
+        }
+
+        LaneMetrics snapshot() {
+            LaneMetrics metrics = new LaneMetrics();
+            metrics.name = name;
+            metrics.queueDepth = queueDepth.get();
+            metrics.running = running.get();
+            metrics.submitted = submitted.get();
+            metrics.completed = completed.get();
+            metrics.rejected = rejected.get();
+            metrics.overCapacity = overCapacity.get();
+            metrics.avgWaitMs = metrics.completed > 0 ? totalWaitMs.get() / metrics.completed : 0;
+            metrics.maxWaitMs = maxWaitMs.get();
+            metrics.avgRunMs = metrics.completed > 0 ? totalRunMs.get() / metrics.completed : 0;
+            metrics.maxRunMs = maxRunMs.get();
+            return metrics;
+        }
+
+        private static void updateMax(AtomicLong max, long value) {
+            long current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // 重试直到写入较大值
+            }
+        }
+
+        /**
+         * 排队中的任务：先按优先级，再按提交顺序
+         */
+        private final class Task implements Runnable, Comparable<Task> {
+            private final Priority priority;
+            private final long seq;
+            private final Runnable delegate;
+            private final boolean holdsPermit;
+            private final long enqueuedAt = SystemClock.elapsedRealtime();
+
+            Task(Priority priority, long seq, Runnable delegate, boolean holdsPermit) {
+                this.priority = priority;
+                this.seq = seq;
+                this.delegate = delegate;
+                this.holdsPermit = holdsPermit;
+            }
+
+            @Override
+            public int compareTo(Task other) {
+                int byPriority = priority.compareTo(other.priority);
+                return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+            }
+
+            @Override
+            public void run() {
+                long startedAt = SystemClock.elapsedRealtime();
+                long waitMs = startedAt - enqueuedAt;
+                queueDepth.decrementAndGet();
+                running.incrementAndGet();
+                try {
+                    delegate.run();
+                } catch (Throwable t) {
+                    Log.e(TAG, "[" + name + "] 任务执行失败", t);
+                } finally {
+                    long runMs = SystemClock.elapsedRealtime() - startedAt;
+                    running.decrementAndGet();
+                    completed.incrementAndGet();
+                    totalWaitMs.addAndGet(waitMs);
+                    totalRunMs.addAndGet(runMs);
+                    updateMax(maxWaitMs, waitMs);
+                    updateMax(maxRunMs, runMs);
+                    if (holdsPermit) {
+                        permits.release();
+                    }
+                    if (runMs > SLOW_TASK_MS) {
+                        Log.w(TAG, "[" + name + "] 慢任务: 运行 " + runMs + "ms, 排队 " + waitMs + "ms");
+                    }
+                }
+            }
+        }
+    }
+}
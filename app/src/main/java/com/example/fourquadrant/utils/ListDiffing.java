@@ -0,0 +1,39 @@
+package com.example.fourquadrant.utils;
+
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 列表适配器的差异比较配置
+ * 差异计算放到调度器的读通道上执行，不占用主线程；
+ * 稳定ID由字符串主键映射为进程内唯一的long，避免直接取hashCode带来的冲突。
+ */
+public final class ListDiffing {
+
+    private static final Map<String, Long> STABLE_IDS = new ConcurrentHashMap<>();
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
+    private ListDiffing() {
+    }
+
+    public static <T> AsyncDifferConfig<T> config(DiffUtil.ItemCallback<T> callback) {
+        return new AsyncDifferConfig.Builder<>(callback)
+            .setBackgroundThreadExecutor(AppScheduler.getInstance().readExecutor(AppScheduler.Priority.UI))
+            .build();
+    }
+
+    /**
+     * 同一个主键在进程内始终得到同一个ID；主键为空时返回 RecyclerView.NO_ID
+     */
+    public static long stableId(String key) {
+        if (key == null) {
+            return RecyclerView.NO_ID;
+        }
+        return STABLE_IDS.computeIfAbsent(key, k -> NEXT_ID.getAndIncrement());
+    }
+}
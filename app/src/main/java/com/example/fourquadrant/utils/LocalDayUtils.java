@@ -0,0 +1,61 @@
+package com.example.fourquadrant.utils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * 本地日期工具类
+ * 以“本地纪元日”（自1970-01-01起的本地天数）作为按天汇总和索引的整数键
+ */
+public final class LocalDayUtils {
+    
+    public static final long DAY_IN_MILLIS = 24 * 60 * 60 * 1000L;
+    public static final long HOUR_IN_MILLIS = 60 * 60 * 1000L;
+    
+    private LocalDayUtils() {
+    }
+    
+    /**
+     * 时间戳 -> 本地纪元日
+     * 与SQL中 julianday(ms / 1000, 'unixepoch', 'localtime') - 2440587.5 的取整结果一致
+     */
+    public static long toLocalDay(long timeMillis) {
+        return toLocalDay(timeMillis, TimeZone.getDefault());
+    }
+    
+    public static long toLocalDay(long timeMillis, TimeZone timeZone) {
+        return Math.floorDiv(timeMillis + timeZone.getOffset(timeMillis), DAY_IN_MILLIS);
+    }
+    
+    /**
+     * 时间戳 -> 本地时间的小时（0~23）
+     * 与SQL中 strftime('%H', ms / 1000, 'unixepoch', 'localtime') 的结果一致
+     */
+    public static int toLocalHour(long timeMillis) {
+        return toLocalHour(timeMillis, TimeZone.getDefault());
+    }
+    
+    public static int toLocalHour(long timeMillis, TimeZone timeZone) {
+        return (int) (Math.floorMod(timeMillis + timeZone.getOffset(timeMillis), DAY_IN_MILLIS) / HOUR_IN_MILLIS);
+    }
+    
+    /**
+     * 本地纪元日 -> 当天00:00:00.000的时间戳
+     */
+    public static long startOfLocalDay(long localDay) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        utc.setTimeInMillis(localDay * DAY_IN_MILLIS);
+        
+        Calendar local = Calendar.getInstance();
+        local.clear();
+        local.set(utc.get(Calendar.YEAR), utc.get(Calendar.MONTH), utc.get(Calendar.DAY_OF_MONTH), 0, 0, 0);
+        return local.getTimeInMillis();
+    }
+    
+    /**
+     * 本地纪元日 -> 当天23:59:59.999的时间戳
+     */
+    public static long endOfLocalDay(long localDay) {
+        return startOfLocalDay(localDay + 1) - 1;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.fourquadrant.utils;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 基于单调时钟的倒计时
+ * 只记录截止时刻（elapsedRealtime），剩余时间在需要时计算，
+ * 暂停/继续不会累积误差，也不需要每秒回调来维护剩余时间
+ */
+public class MonotonicCountdown {
+
+    private final LongSupplier clock;
+    private long deadline;
+    private long stoppedRemaining;
+    private boolean ticking;
+
+    public MonotonicCountdown(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 从现在开始倒计时指定时长
+     */
+    public void start(long durationMs) {
+        deadline = clock.getAsLong() + Math.max(0, durationMs);
+        ticking = true;
+    }
+
+    /**
+     * 暂停并返回暂停时的剩余时间
+     */
+    public long pause() {
+        stoppedRemaining = getRemaining();
+        ticking = false;
+        return stoppedRemaining;
+    }
+
+    /**
+     * 从暂停时的剩余时间继续
+     */
+    public void resume() {
+        if (!ticking) {
+            start(stoppedRemaining);
+        }
+    }
+
+    /**
+     * 停止计时，剩余时间固定为给定值（例如重置为下一段的时长）
+     */
+    public void stop(long remainingMs) {
+        stoppedRemaining = Math.max(0, remainingMs);
+        ticking = false;
+    }
+
+    public boolean isTicking() {
+        return ticking;
+    }
+
+    /**
+     * 截止时刻（单调时钟），仅在计时中有效
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public long getRemaining() {
+        return ticking ? Math.max(0, deadline - clock.getAsLong()) : stoppedRemaining;
+    }
+
+    public boolean isFinished() {
+        return ticking && clock.getAsLong() >= deadline;
+    }
+
+    /**
+     * 距离显示的秒数（剩余时间向下取整到秒）下一次变化的时长；最后一秒内返回到截止时刻的时长
+     */
+    public long delayToNextVisibleSecond() {
+        long remaining = getRemaining();
+        if (remaining < 1000) {
+            return remaining;
+        }
+        return remaining % 1000 + 1;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.fourquadrant.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 全文检索分词工具类
+ * FTS4 自带的分词器把连续的中文当作一个词，无法按词中间的字检索。
+ * 写入时把中日韩文字展开为单字和相邻二字组合，字母数字按单词小写保留，
+ * 以空格分隔后交给分词器；查询时用同样的规则生成 MATCH 表达式。
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 生成写入全文索引的词串；没有可检索内容时返回 null
+     */
+    public static String index(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String run : runs(text)) {
+            if (isCjk(run.codePointAt(0))) {
+                terms.addAll(bigrams(run));
+                int[] codePoints = run.codePoints().toArray();
+                for (int codePoint : codePoints) {
+                    terms.add(new String(Character.toChars(codePoint)));
+                }
+            } else {
+                terms.add(run);
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    /**
+     * 把用户输入转换为 FTS4 MATCH 表达式，各词之间为“与”关系：
+     * 字母数字按前缀匹配，中文按二字组合匹配（单字直接匹配）。
+     * 输入中没有可检索内容时返回 null
+     */
+    public static String toMatchQuery(String query) {
+        List<String> terms = new ArrayList<>();
+        for (String run : runs(query)) {
+            if (isCjk(run.codePointAt(0))) {
+                if (run.codePointCount(0, run.length()) == 1) {
+                    terms.add(run);
+                } else {
+                    terms.addAll(bigrams(run));
+                }
+            } else {
+                terms.add(run + "*");
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    /**
+     * 按字符类别切分：连续的中日韩文字为一段，连续的字母数字为一段，其余字符作为分隔
+     */
+    private static List<String> runs(String text) {
+        List<String> runs = new ArrayList<>();
+        if (text == null) {
+            return runs;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+        for (int i = 0; i < lower.length(); ) {
+            int codePoint = lower.codePointAt(i);
+            i += Character.charCount(codePoint);
+            boolean cjk = isCjk(codePoint);
+            if (!cjk && !Character.isLetterOrDigit(codePoint)) {
+                flush(current, runs);
+                continue;
+            }
+            if (current.length() > 0 && cjk != currentCjk) {
+                flush(current, runs);
+            }
+            currentCjk = cjk;
+            current.appendCodePoint(codePoint);
+        }
+        flush(current, runs);
+        return runs;
+    }
+
+    private static void flush(StringBuilder current, List<String> runs) {
+        if (current.length() > 0) {
+            runs.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    private static List<String> bigrams(String run) {
+        int[] codePoints = run.codePoints().toArray();
+        List<String> bigrams = new ArrayList<>();
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            bigrams.add(new String(codePoints, i, 2));
+        }
+        return bigrams;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -8,12 +8,11 @@ import android.os.IBinder;
 import android.util.Log;
 
 import com.example.fourquadrant.PomodoroService;
+import com.example.fourquadrant.utils.AppScheduler;
 import com.fourquadrant.ai.AiExecutable;
 
 import java.util.Map;
 import java.util.HashMap;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -27,7 +26,7 @@ public class PomodoroControl implements AiExecutable {
     private String defaultAction;
     private final AtomicReference<PomodoroService> pomodoroServiceRef = new AtomicReference<>();
     private final AtomicBoolean isServiceBoundRef = new AtomicBoolean(false);
-    private CountDownLatch serviceLatch;
+    private static final long SERVICE_CONNECT_TIMEOUT_MS = 5000;
     
     public PomodoroControl(Context context) {
         this.context = context;
@@ -67,18 +66,27 @@ public class PomodoroControl implements AiExecutable {
     
     /**
      * 绑定服务并执行操作
+     * 连接回调在主线程执行操作后解绑；超时检查交给调度器的延迟任务，不再单独开线程阻塞等待
      */
     private void bindServiceAndExecute(String action, Map<String, Object> args) {
-        serviceLatch = new CountDownLatch(1);
+        // 连接成功和超时只处理先到的一个
+        AtomicBoolean settled = new AtomicBoolean(false);
         
         ServiceConnection serviceConnection = new ServiceConnection() {
             @Override
             public void onServiceConnected(ComponentName name, IBinder service) {
+                if (!settled.compareAndSet(false, true)) {
+                    return;
+                }
                 PomodoroService.PomodoroServiceBinder binder = (PomodoroService.PomodoroServiceBinder) service;
                 pomodoroServiceRef.set(binder.getService());
                 isServiceBoundRef.set(true);
-                serviceLatch.countDown();
                 Log.d(TAG, "服务连接成功");
+                try {
+                    executeAction(action, args);
+                } finally {
+                    unbind(this);
+                }
             }
             
             @Override
@@ -92,27 +100,28 @@ public class PomodoroControl implements AiExecutable {
         // 启动并绑定服务
         Intent serviceIntent = new Intent(context, PomodoroService.class);
         context.startService(serviceIntent);
-        context.bindService(serviceIntent, serviceConnection, Context.BIND_AUTO_CREATE);
+        if (!context.bindService(serviceIntent, serviceConnection, Context.BIND_AUTO_CREATE)) {
+            Log.e(TAG, "绑定服务失败");
+            return;
+        }
         
-        // 在新线程中等待服务连接并执行操作
-        new Thread(() -> {
-            try {
-                // 等待服务连接，最多等待5秒
-                if (serviceLatch.await(5, TimeUnit.SECONDS) && isServiceBoundRef.get()) {
-                    executeAction(action, args);
-                } else {
-                    Log.e(TAG, "服务连接超时或失败");
-                }
-            } catch (InterruptedException e) {
-                Log.e(TAG, "等待服务连接被中断", e);
-            } finally {
-                // 解绑服务
-                if (isServiceBoundRef.get()) {
-                    context.unbindService(serviceConnection);
-                    isServiceBoundRef.set(false);
-                }
+        // 最多等待5秒
+        AppScheduler.getInstance().readDelayed(AppScheduler.Priority.BACKGROUND, () -> {
+            if (settled.compareAndSet(false, true)) {
+                Log.e(TAG, "服务连接超时");
+                unbind(serviceConnection);
             }
-        }).start();
+        }, SERVICE_CONNECT_TIMEOUT_MS);
+    }
+    
+    private void unbind(ServiceConnection serviceConnection) {
+        try {
+            context.unbindService(serviceConnection);
+        } catch (Exception e) {
+            Log.e(TAG, "解绑服务失败", e);
+        }
+        pomodoroServiceRef.set(null);
+        isServiceBoundRef.set(false);
     }
     
     /**
@@ -3,15 +3,15 @@ package com.fourquadrant.ai.commands;
 import android.content.Context;
 import android.util.Log;
 
+import com.example.fourquadrant.database.dao.PomodoroDao;
 import com.example.fourquadrant.database.repository.PomodoroRepository;
 import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
+import com.example.fourquadrant.utils.AppScheduler;
 import com.fourquadrant.ai.AiExecutable;
 
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
@@ -24,7 +24,7 @@ public class PomodoroHistoryControl implements AiExecutable {
     private static final String TAG = "PomodoroHistoryControl";
     private Context context;
     private PomodoroRepository pomodoroRepository;
-    private ExecutorService executor;
+    private final AppScheduler scheduler = AppScheduler.getInstance();
     private SimpleDateFormat dateFormat;
     
     public PomodoroHistoryControl(Context context) {
@@ -37,7 +37,6 @@ public class PomodoroHistoryControl implements AiExecutable {
             this.pomodoroRepository = null;
             Log.w(TAG, "无法获取Application实例，某些功能可能不可用");
         }
-        this.executor = Executors.newSingleThreadExecutor();
         this.dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
     }
     
@@ -92,15 +91,11 @@ public class PomodoroHistoryControl implements AiExecutable {
         try {
             int limit = getIntegerValue(args, "limit", 10);
             
-            executor.execute(() -> {
+            scheduler.read(AppScheduler.Priority.UI, () -> {
                 try {
-                    // 使用实际存在的方法
-                    List<PomodoroSessionEntity> allSessions = pomodoroRepository.getAllSessionsSync();
-                    if (allSessions != null && !allSessions.isEmpty()) {
-                        // 限制数量
-                        int actualLimit = Math.min(limit, allSessions.size());
-                        List<PomodoroSessionEntity> recentSessions = allSessions.subList(0, actualLimit);
-                        
+                    // 按 (start_time, id) 键集分页只读取最近的 limit 条
+                    List<PomodoroSessionEntity> recentSessions = pomodoroRepository.getRecentSessionsSync(limit);
+                    if (recentSessions != null && !recentSessions.isEmpty()) {
                         StringBuilder info = new StringBuilder();
                         info.append("最近").append(recentSessions.size()).append("个番茄钟会话:\n");
                         
@@ -131,7 +126,7 @@ public class PomodoroHistoryControl implements AiExecutable {
      */
     private void getTodaySessions(Map<String, Object> args) {
         try {
-            executor.execute(() -> {
+            scheduler.read(AppScheduler.Priority.UI, () -> {
                 try {
                     long todayStart = getTodayStartTime();
                     long todayEnd = getTodayEndTime();
@@ -176,7 +171,7 @@ public class PomodoroHistoryControl implements AiExecutable {
      */
     private void getWeekSessions(Map<String, Object> args) {
         try {
-            executor.execute(() -> {
+            scheduler.read(AppScheduler.Priority.UI, () -> {
                 try {
                     long weekStart = getWeekStartTime();
                     long weekEnd = getWeekEndTime();
@@ -221,7 +216,7 @@ public class PomodoroHistoryControl implements AiExecutable {
      */
     private void getMonthSessions(Map<String, Object> args) {
         try {
-            executor.execute(() -> {
+            scheduler.read(AppScheduler.Priority.UI, () -> {
                 try {
                     long monthStart = getMonthStartTime();
                     long monthEnd = getMonthEndTime();
@@ -266,21 +261,21 @@ public class PomodoroHistoryControl implements AiExecutable {
      */
     private void getStatistics(Map<String, Object> args) {
         try {
-            executor.execute(() -> {
+            scheduler.read(AppScheduler.Priority.UI, () -> {
                 try {
-                    // 使用实际存在的方法
-                    List<PomodoroSessionEntity> allSessions = pomodoroRepository.getAllSessionsSync();
-                    List<PomodoroSessionEntity> completedSessions = pomodoroRepository.getCompletedSessionsSync();
+                    // 只查询计数和汇总，不读取会话行
+                    int totalCount = pomodoroRepository.getSessionCountSync();
+                    int completedCount = pomodoroRepository.getCompletedSessionCountSync();
                     Integer totalWorkTime = pomodoroRepository.getTotalFocusTimeSync();
                     
                     StringBuilder info = new StringBuilder();
                     info.append("番茄钟总体统计:\n");
-                    info.append("总会话数: ").append(allSessions != null ? allSessions.size() : 0).append("个\n");
-                    info.append("完成会话数: ").append(completedSessions != null ? completedSessions.size() : 0).append("个\n");
+                    info.append("总会话数: ").append(totalCount).append("个\n");
+                    info.append("完成会话数: ").append(completedCount).append("个\n");
                     info.append("总工作时长: ").append(totalWorkTime != null ? totalWorkTime : 0).append("分钟\n");
                     
-                    if (allSessions != null && !allSessions.isEmpty()) {
-                        double completionRate = (double) (completedSessions != null ? completedSessions.size() : 0) / allSessions.size() * 100;
+                    if (totalCount > 0) {
+                        double completionRate = (double) completedCount / totalCount * 100;
                         info.append("总体完成率: ").append(String.format("%.1f%%", completionRate));
                     }
                     
@@ -306,44 +301,20 @@ public class PomodoroHistoryControl implements AiExecutable {
                 return;
             }
             
-            executor.execute(() -> {
+            scheduler.read(AppScheduler.Priority.UI, () -> {
                 try {
-                    // 获取所有会话，然后按任务名称过滤
-                    List<PomodoroSessionEntity> allSessions = pomodoroRepository.getAllSessionsSync();
-                    if (allSessions != null && !allSessions.isEmpty()) {
-                        List<PomodoroSessionEntity> taskSessions = new java.util.ArrayList<>();
-                        for (PomodoroSessionEntity session : allSessions) {
-                            if (taskName.equals(session.getTaskName())) {
-                                taskSessions.add(session);
-                            }
-                        }
+                    // 按任务名称在数据库中汇总
+                    PomodoroDao.TaskSessionSummary summary = pomodoroRepository.getSessionSummaryByTaskNameSync(taskName);
+                    if (summary != null && summary.session_count > 0) {
+                        StringBuilder info = new StringBuilder();
+                        info.append("任务「").append(taskName).append("」的番茄钟会话(").append(summary.session_count).append("个):\n");
+                        info.append("总工作时长: ").append(summary.total_minutes).append("分钟\n");
+                        info.append("完成数量: ").append(summary.completed_count).append("个\n");
+                        info.append("完成率: ").append(String.format("%.1f%%", (double) summary.completed_count / summary.session_count * 100));
                         
-                        if (!taskSessions.isEmpty()) {
-                            StringBuilder info = new StringBuilder();
-                            info.append("任务「").append(taskName).append("」的番茄钟会话(").append(taskSessions.size()).append("个):\n");
-                            
-                            int totalWorkTime = 0;
-                            int completedCount = 0;
-                            
-                            for (PomodoroSessionEntity session : taskSessions) {
-                                if (!session.isBreakSession()) {
-                                    totalWorkTime += session.getDurationMinutes();
-                                    if (session.isCompleted()) {
-                                        completedCount++;
-                                    }
-                                }
-                            }
-                            
-                            info.append("总工作时长: ").append(totalWorkTime).append("分钟\n");
-                            info.append("完成数量: ").append(completedCount).append("个\n");
-                            info.append("完成率: ").append(String.format("%.1f%%", (double) completedCount / taskSessions.size() * 100));
-                            
-                            Log.i(TAG, info.toString());
-                        } else {
-                            Log.i(TAG, "任务「" + taskName + "」暂无番茄钟会话记录");
-                        }
+                        Log.i(TAG, info.toString());
                     } else {
-                        Log.i(TAG, "暂无番茄钟会话记录");
+                        Log.i(TAG, "任务「" + taskName + "」暂无番茄钟会话记录");
                     }
                 } catch (Exception e) {
                     Log.e(TAG, "获取任务会话记录失败: " + e.getMessage(), e);
@@ -5,12 +5,11 @@ import android.util.Log;
 
 import com.example.fourquadrant.TomatoSettingsDialog;
 import com.example.fourquadrant.database.repository.SettingsRepository;
+import com.example.fourquadrant.utils.AppScheduler;
 import com.fourquadrant.ai.AiExecutable;
 
 import java.util.Map;
 import java.util.HashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * 番茄钟设置管理功能实现
@@ -20,7 +19,7 @@ public class PomodoroSettingsControl implements AiExecutable {
     private static final String TAG = "PomodoroSettingsControl";
     private Context context;
     private SettingsRepository settingsRepository;
-    private ExecutorService executor;
+    private final AppScheduler scheduler = AppScheduler.getInstance();
     
     // 设置键名常量
     private static final String KEY_TOMATO_COUNT = "tomato_count";
@@ -38,7 +37,6 @@ public class PomodoroSettingsControl implements AiExecutable {
             this.settingsRepository = null;
             Log.w(TAG, "无法获取Application实例，某些功能可能不可用");
         }
-        this.executor = Executors.newSingleThreadExecutor();
     }
     
     @Override
@@ -109,7 +107,7 @@ public class PomodoroSettingsControl implements AiExecutable {
             final Integer finalBreakDuration = breakDuration;
             final Boolean finalAutoNext = autoNext;
             
-            executor.execute(() -> {
+            scheduler.write(() -> {
                 try {
                     if (finalTomatoCount != null) {
                         settingsRepository.saveIntSetting(KEY_TOMATO_COUNT, finalTomatoCount);
@@ -147,7 +145,7 @@ public class PomodoroSettingsControl implements AiExecutable {
      */
     private void getSettings(Map<String, Object> args) {
         try {
-            executor.execute(() -> {
+            scheduler.read(AppScheduler.Priority.UI, () -> {
                 try {
                     // 获取当前设置值
                     Integer tomatoCount = settingsRepository.getIntSettingSync(KEY_TOMATO_COUNT);
@@ -186,7 +184,7 @@ public class PomodoroSettingsControl implements AiExecutable {
      */
     private void resetSettings() {
         try {
-            executor.execute(() -> {
+            scheduler.write(() -> {
                 try {
                     // 重置为默认值
                     settingsRepository.saveIntSetting(KEY_TOMATO_COUNT, 4);
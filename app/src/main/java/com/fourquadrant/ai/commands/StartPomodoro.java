@@ -9,12 +9,10 @@ import android.util.Log;
 
 import com.example.fourquadrant.PomodoroService;
 import com.example.fourquadrant.database.repository.SettingsRepository;
+import com.example.fourquadrant.utils.AppScheduler;
 import com.fourquadrant.ai.AiExecutable;
 
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -27,6 +25,8 @@ public class StartPomodoro implements AiExecutable {
     
     // 设置键名常量 - 与PomodoroSettingsControl保持一致
     private static final String KEY_TOMATO_DURATION = "tomato_duration";
+    // 等待服务连接的最长时间
+    private static final long SERVICE_CONNECT_TIMEOUT_MS = 2000;
     
     public StartPomodoro(Context context) {
         this.context = context;
@@ -110,45 +110,51 @@ public class StartPomodoro implements AiExecutable {
     
     /**
      * 异步绑定服务并启动番茄钟
+     * 连接回调在主线程设置任务名称并启动计时器（CountDownTimer需要在主线程创建），随后解绑；
+     * 超时检查交给调度器的延迟任务，不再单独开线程阻塞等待
      */
     private void bindServiceAndStartTimerAsync(Intent serviceIntent, int duration, String taskName, String taskId) {
-        new Thread(() -> {
-            bindServiceAndStartTimer(serviceIntent, duration, taskName, taskId);
-        }).start();
-    }
-    
-    /**
-     * 绑定服务并启动番茄钟
-     */
-    private void bindServiceAndStartTimer(Intent serviceIntent, int duration, String taskName, String taskId) {
         Log.d(TAG, "开始绑定服务，时长: " + duration + "分钟，任务: " + taskName);
         
-        CountDownLatch serviceLatch = new CountDownLatch(1);
-        final AtomicReference<PomodoroService> pomodoroServiceRef = new AtomicReference<>();
-        final AtomicBoolean isServiceBoundRef = new AtomicBoolean(false);
+        // 连接成功和超时只处理先到的一个
+        final AtomicBoolean settled = new AtomicBoolean(false);
         
         ServiceConnection serviceConnection = new ServiceConnection() {
             @Override
             public void onServiceConnected(ComponentName name, IBinder service) {
                 Log.d(TAG, "服务连接回调触发，ComponentName: " + name);
-                PomodoroService.PomodoroServiceBinder binder = (PomodoroService.PomodoroServiceBinder) service;
-                pomodoroServiceRef.set(binder.getService());
-                isServiceBoundRef.set(true);
-                serviceLatch.countDown();
-                Log.d(TAG, "服务连接成功，PomodoroService: " + pomodoroServiceRef.get());
+                if (!settled.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    PomodoroService pomodoroService = ((PomodoroService.PomodoroServiceBinder) service).getService();
+                    
+                    // 设置任务名称
+                    pomodoroService.setCurrentTaskName(taskName);
+                    Log.d(TAG, "任务名称设置完成: " + taskName);
+                    
+                    // 启动番茄钟
+                    long durationMillis = duration * 60 * 1000L;
+                    Log.d(TAG, "调用startTimer，时长: " + duration + "分钟 (" + durationMillis + "毫秒)");
+                    
+                    pomodoroService.startTimer(durationMillis, false, 0, 1);
+                    
+                    Log.i(TAG, "番茄钟启动成功，时长：" + duration + "分钟，任务：" + taskName);
+                } catch (Exception e) {
+                    Log.e(TAG, "在主线程中启动番茄钟失败: " + e.getMessage(), e);
+                } finally {
+                    unbind(this);
+                }
             }
             
             @Override
             public void onServiceDisconnected(ComponentName name) {
                 Log.d(TAG, "服务连接断开回调触发，ComponentName: " + name);
-                pomodoroServiceRef.set(null);
-                isServiceBoundRef.set(false);
             }
         };
         
         try {
             Log.d(TAG, "尝试绑定服务...");
-            // 绑定服务
             boolean bindResult = context.bindService(serviceIntent, serviceConnection, Context.BIND_AUTO_CREATE);
             Log.d(TAG, "bindService结果: " + bindResult);
             
@@ -156,46 +162,26 @@ public class StartPomodoro implements AiExecutable {
                 Log.e(TAG, "绑定服务失败");
                 return;
             }
-            
-            Log.d(TAG, "等待服务连接...");
-            // 等待服务连接，减少等待时间避免长时间阻塞
-            if (serviceLatch.await(2, TimeUnit.SECONDS) && isServiceBoundRef.get() && pomodoroServiceRef.get() != null) {
-                Log.d(TAG, "服务连接成功，开始设置任务名称和启动计时器");
-                
-                // 在主线程中执行服务调用（因为CountDownTimer需要在主线程创建）
-                new android.os.Handler(android.os.Looper.getMainLooper()).post(() -> {
-                    try {
-                        // 设置任务名称
-                        pomodoroServiceRef.get().setCurrentTaskName(taskName);
-                        Log.d(TAG, "任务名称设置完成: " + taskName);
-                        
-                        // 启动番茄钟
-                        long durationMillis = duration * 60 * 1000L;
-                        Log.d(TAG, "调用startTimer，时长: " + duration + "分钟 (" + durationMillis + "毫秒)");
-                        
-                        pomodoroServiceRef.get().startTimer(durationMillis, false, 0, 1);
-                        
-                        Log.i(TAG, "番茄钟启动成功，时长：" + duration + "分钟，任务：" + taskName);
-                    } catch (Exception e) {
-                        Log.e(TAG, "在主线程中启动番茄钟失败: " + e.getMessage(), e);
-                    }
-                });
-            } else {
-                Log.e(TAG, "服务连接失败或超时，isServiceBound: " + isServiceBoundRef.get() + ", service: " + pomodoroServiceRef.get());
-            }
         } catch (Exception e) {
             Log.e(TAG, "启动番茄钟失败: " + e.getMessage(), e);
-        } finally {
-            Log.d(TAG, "开始清理服务连接...");
-            // 解绑服务
-            if (isServiceBoundRef.get()) {
-                try {
-                    context.unbindService(serviceConnection);
-                    Log.d(TAG, "服务解绑成功");
-                } catch (Exception e) {
-                    Log.e(TAG, "解绑服务失败", e);
-                }
+            return;
+        }
+        
+        AppScheduler.getInstance().readDelayed(AppScheduler.Priority.BACKGROUND, () -> {
+            if (settled.compareAndSet(false, true)) {
+                Log.e(TAG, "服务连接超时");
+                unbind(serviceConnection);
             }
+        }, SERVICE_CONNECT_TIMEOUT_MS);
+    }
+    
+    private void unbind(ServiceConnection serviceConnection) {
+        Log.d(TAG, "开始清理服务连接...");
+        try {
+            context.unbindService(serviceConnection);
+            Log.d(TAG, "服务解绑成功");
+        } catch (Exception e) {
+            Log.e(TAG, "解绑服务失败", e);
         }
     }
     
@@ -4,14 +4,17 @@ import android.app.Application;
 import android.content.Context;
 import android.util.Log;
 
+import com.example.fourquadrant.database.TaskIndex;
 import com.example.fourquadrant.database.entity.TaskEntity;
 import com.example.fourquadrant.database.repository.TaskRepository;
+import com.example.fourquadrant.utils.AppScheduler;
 import com.fourquadrant.ai.AiExecutable;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * 任务管理AI功能实现类
@@ -19,12 +22,17 @@ import java.util.concurrent.Executors;
  */
 public class TaskManagement implements AiExecutable {
     private static final String TAG = "TaskManagement";
+    private static final int DEFAULT_VIEW_LIMIT = 20;
+    private static final long INDEX_WAIT_MS = 3000;
     private final Context context;
     private final TaskRepository taskRepository;
-    private final ExecutorService executor;
+    private final TaskIndex taskIndex;
+    private final AppScheduler scheduler = AppScheduler.getInstance();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
     
     public TaskManagement(Context context) {
         this.context = context;
+        this.taskIndex = TaskIndex.getInstance(context);
         // 使用ApplicationContext来创建Repository
         if (context.getApplicationContext() instanceof android.app.Application) {
             this.taskRepository = new TaskRepository((android.app.Application) context.getApplicationContext());
@@ -33,7 +41,6 @@ public class TaskManagement implements AiExecutable {
             this.taskRepository = null;
             Log.w(TAG, "无法获取Application实例，某些功能可能不可用");
         }
-        this.executor = Executors.newSingleThreadExecutor();
     }
     
     @Override
@@ -95,7 +102,7 @@ public class TaskManagement implements AiExecutable {
         final Integer finalUrgency = Math.max(1, Math.min(10, urgency));
         final String finalTaskName = taskName.trim();
         
-        executor.execute(() -> {
+        scheduler.write(() -> {
             try {
                 taskRepository.createTask(finalTaskName, finalImportance, finalUrgency);
                 Log.i(TAG, String.format("成功创建任务: %s (重要性:%d, 紧急性:%d)", 
@@ -108,6 +115,7 @@ public class TaskManagement implements AiExecutable {
     
     /**
      * 查看任务列表
+     * 未完成任务和计数取自内存中的任务索引，已完成任务按完成时间键集分页只读取前 limit 条
      */
     private void viewTasks(Map<String, Object> args) {
         String type = (String) args.get("type");
@@ -116,29 +124,81 @@ public class TaskManagement implements AiExecutable {
         }
         
         final String finalType = type;
-        executor.execute(() -> {
+        final int limit = Math.max(1, getIntegerValue(args, "limit", DEFAULT_VIEW_LIMIT));
+        final int quadrant = getIntegerValue(args, "quadrant", 0);
+        scheduler.read(AppScheduler.Priority.UI, () -> {
             try {
+                if (!taskIndex.waitForLoaded(INDEX_WAIT_MS)) {
+                    Log.w(TAG, "任务索引未加载完成，先显示已有数据");
+                }
+                
+                StringBuilder info = new StringBuilder();
                 switch (finalType.toLowerCase()) {
                     case "all":
-                        // 这里可以添加获取所有任务的逻辑
-                        Log.i(TAG, "查看所有任务");
+                        info.append("任务概况: 进行中").append(taskIndex.getActiveCount()).append("个")
+                            .append("，已完成").append(taskIndex.getCompletedCount()).append("个\n");
+                        appendActiveTasks(info, 0, limit);
+                        appendCompletedTasks(info, limit);
                         break;
                     case "completed":
-                        // 这里可以添加获取已完成任务的逻辑
-                        Log.i(TAG, "查看已完成任务");
+                        appendCompletedTasks(info, limit);
                         break;
                     case "active":
                     default:
-                        // 这里可以添加获取活跃任务的逻辑
-                        Log.i(TAG, "查看活跃任务");
+                        appendActiveTasks(info, quadrant >= 1 && quadrant <= TaskIndex.QUADRANT_COUNT ? quadrant : 0, limit);
                         break;
                 }
+                Log.i(TAG, info.toString());
             } catch (Exception e) {
                 Log.e(TAG, "查看任务失败: " + e.getMessage(), e);
             }
         });
     }
     
+    /**
+     * 追加未完成任务（按创建时间倒序），quadrantNumber 为0时包括全部象限
+     */
+    private void appendActiveTasks(StringBuilder info, int quadrantNumber, int limit) {
+        int total = quadrantNumber == 0 ? taskIndex.getActiveCount() : taskIndex.getActiveCount(quadrantNumber);
+        if (total == 0) {
+            info.append(quadrantNumber == 0 ? "暂无进行中的任务\n" : "第" + quadrantNumber + "象限暂无进行中的任务\n");
+            return;
+        }
+        info.append(quadrantNumber == 0 ? "进行中的任务" : "第" + quadrantNumber + "象限进行中的任务")
+            .append("(").append(total).append("个):\n");
+        int[] shown = {0};
+        taskIndex.forEachActive(quadrantNumber, (id, name, importance, urgency, quadrant) -> {
+            if (shown[0]++ < limit) {
+                info.append("• ").append(name)
+                    .append(" - 第").append(quadrant).append("象限")
+                    .append(" (重要性:").append(importance).append(", 紧急性:").append(urgency).append(")\n");
+            }
+        });
+        if (total > limit) {
+            info.append("……另有").append(total - limit).append("个\n");
+        }
+    }
+    
+    /**
+     * 追加最近完成的任务
+     */
+    private void appendCompletedTasks(StringBuilder info, int limit) {
+        int total = taskIndex.getCompletedCount();
+        if (total == 0) {
+            info.append("暂无已完成的任务\n");
+            return;
+        }
+        List<TaskEntity> recent = taskRepository.getRecentCompletedTasksSync(limit);
+        info.append("已完成的任务(").append(total).append("个，最近").append(recent.size()).append("个):\n");
+        for (TaskEntity task : recent) {
+            info.append("• ").append(task.getName());
+            if (task.getCompletedAt() != null) {
+                info.append(" - ").append(dateFormat.format(new Date(task.getCompletedAt())));
+            }
+            info.append("\n");
+        }
+    }
+    
     /**
      * 更新任务
      */
@@ -153,7 +213,7 @@ public class TaskManagement implements AiExecutable {
             return;
         }
         
-        executor.execute(() -> {
+        scheduler.write(() -> {
             try {
                 // 这里需要实现具体的任务更新逻辑
                 // 由于TaskRepository没有直接的updateTask方法，这里先记录日志
@@ -176,7 +236,7 @@ public class TaskManagement implements AiExecutable {
             return;
         }
         
-        executor.execute(() -> {
+        scheduler.write(() -> {
             try {
                 taskRepository.deleteTaskById(taskId);
                 Log.i(TAG, "成功删除任务: " + taskId);
@@ -197,7 +257,7 @@ public class TaskManagement implements AiExecutable {
             return;
         }
         
-        executor.execute(() -> {
+        scheduler.write(() -> {
             try {
                 // 这里需要实现具体的任务完成逻辑
                 // 由于需要先获取任务实体，这里先记录日志
@@ -0,0 +1,106 @@
+package com.example.fourquadrant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一年按天统计的完成趋势，每次刷新只有一天变化时整表重建与增量比较的耗时对比
+ * 重建一侧与原来的 updateLineChart 相同，每次在主线程新建全部数据点和标签列表；增量一侧分开计量读通道上的整理比较（ChartSeries）
+ * 和主线程上只修改变化点的耗时。数据点用与图表库 Entry 相同结构的对象代替，不含图表库自身的布局和重绘。
+ * 不是单元测试，手动运行：java -cp <test classpath> com.example.fourquadrant.ChartSeriesBenchmark [天数]
+ */
+public final class ChartSeriesBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    // 与图表库 Entry 相同的字段
+    static final class Point {
+        float x;
+        float y;
+
+        Point(float x, float y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 365;
+        List<List<ChartData.CompletionTrend>> refreshes = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            // 每次刷新只有一天的完成数变化
+            refreshes.add(ChartSeriesTest.trends(days, (i * 37) % days));
+        }
+
+        // 循环中相邻两次刷新之间的修改，预先算好，用来单独计量主线程上的原地修改
+        List<ChartSeries.Patch> patches = new ArrayList<>();
+        for (int i = 0; i < refreshes.size(); i++) {
+            ChartSeries previous = ChartSeries.ofTrends(refreshes.get(i));
+            patches.add(ChartSeries.ofTrends(refreshes.get((i + 1) % refreshes.size())).diffFrom(previous));
+        }
+        List<Point> entries = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            entries.add(new Point(i, 0f));
+        }
+
+        System.out.println("days: " + days);
+        report("rebuild (main)", run(refreshes, ChartSeriesBenchmark::rebuild));
+        report("prepare (background)", run(refreshes, new Incremental()::prepare));
+        report("apply (main)", run(patches, patch -> applyPatch(entries, patch)));
+        System.out.println("points animated per refresh: " + patches.get(0).getChangedCount() + " of " + days);
+    }
+
+    private static void report(String name, long nanos) {
+        System.out.printf("%-22s %10.1f ns/refresh%n", name, (double) nanos / MEASURED_ITERATIONS);
+    }
+
+    private interface Refresh<T> {
+        int apply(T input);
+    }
+
+    private static <T> long run(List<T> inputs, Refresh<T> refresh) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += refresh.apply(inputs.get(i % inputs.size()));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += refresh.apply(inputs.get(i % inputs.size()));
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return elapsed;
+    }
+
+    private static int rebuild(List<ChartData.CompletionTrend> trends) {
+        List<Point> entries = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < trends.size(); i++) {
+            ChartData.CompletionTrend trend = trends.get(i);
+            entries.add(new Point(i, trend.getCompletedTasks()));
+            labels.add(trend.getDate());
+        }
+        return entries.size() + labels.size();
+    }
+
+    private static int applyPatch(List<Point> entries, ChartSeries.Patch patch) {
+        for (int change = 0; change < patch.getChangedCount(); change++) {
+            entries.get(patch.getIndex(change)).y = patch.getTarget(change);
+        }
+        return patch.getChangedCount();
+    }
+
+    private static final class Incremental {
+        private ChartSeries current = ChartSeries.EMPTY;
+
+        int prepare(List<ChartData.CompletionTrend> trends) {
+            ChartSeries next = ChartSeries.ofTrends(trends);
+            ChartSeries.Patch patch = next.diffFrom(current);
+            current = next;
+            return patch.getChangedCount();
+        }
+    }
+}
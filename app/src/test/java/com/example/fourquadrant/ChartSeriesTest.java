@@ -0,0 +1,101 @@
+package com.example.fourquadrant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 图表数据比较测试：只列出数值变化和新增的点，标签或点数变化时才需要更新坐标轴和图例
+ */
+public class ChartSeriesTest {
+
+    @Test
+    public void sameData_isEmptyPatch() {
+        ChartSeries series = ChartSeries.ofTrends(trends(365, -1));
+        ChartSeries.Patch patch = ChartSeries.ofTrends(trends(365, -1)).diffFrom(series);
+
+        assertTrue(patch.isEmpty());
+        assertFalse(patch.needsRelabel());
+        assertEquals(0, patch.getChangedCount());
+    }
+
+    @Test
+    public void oneChangedDay_onlyThatPointAnimates() {
+        ChartSeries before = ChartSeries.ofTrends(trends(365, -1));
+        ChartSeries.Patch patch = ChartSeries.ofTrends(trends(365, 200)).diffFrom(before);
+
+        assertFalse(patch.needsRelabel());
+        assertEquals(1, patch.getChangedCount());
+        assertEquals(200, patch.getIndex(0));
+        assertEquals(before.getValue(200), patch.valueAt(0, 0f), 0f);
+        assertEquals(before.getValue(200) + 1, patch.getTarget(0), 0f);
+        assertEquals(before.getValue(200) + 0.5f, patch.valueAt(0, 0.5f), 0.0001f);
+    }
+
+    @Test
+    public void growingAndShrinking_adjustsSizeAndRelabels() {
+        ChartSeries week = ChartSeries.ofTrends(trends(7, -1));
+        ChartSeries month = ChartSeries.ofTrends(trends(30, -1));
+
+        ChartSeries.Patch grow = month.diffFrom(week);
+        assertTrue(grow.needsRelabel());
+        assertEquals(7, grow.getPreviousSize());
+        assertEquals(30, grow.getSize());
+        // 前7天数值不变，新增的23天从0开始
+        assertEquals(23, grow.getChangedCount());
+        assertEquals(7, grow.getIndex(0));
+        assertEquals(0f, grow.valueAt(0, 0f), 0f);
+
+        ChartSeries.Patch shrink = week.diffFrom(month);
+        assertTrue(shrink.needsRelabel());
+        assertEquals(7, shrink.getSize());
+        assertEquals(0, shrink.getChangedCount());
+
+        ChartSeries.Patch first = week.diffFrom(ChartSeries.EMPTY);
+        assertTrue(first.needsRelabel());
+        assertEquals(7, first.getChangedCount());
+    }
+
+    @Test
+    public void quadrants_skipEmptyAndKeepQuadrantColors() {
+        List<ChartData.QuadrantDistribution> distributions = Arrays.asList(
+                new ChartData.QuadrantDistribution("重要且紧急", 0, 1),
+                new ChartData.QuadrantDistribution("重要不紧急", 3, 2),
+                new ChartData.QuadrantDistribution("紧急不重要", 0, 3),
+                new ChartData.QuadrantDistribution("不重要不紧急", 5, 4));
+        ChartSeries series = ChartSeries.ofQuadrants(distributions);
+
+        assertArrayEquals(new String[]{"重要不紧急", "不重要不紧急"}, series.getLabels());
+        assertArrayEquals(new int[]{2, 4}, series.getColors());
+
+        // 同样两个象限只是数量变化，不需要重建图例
+        List<ChartData.QuadrantDistribution> changed = Arrays.asList(
+                new ChartData.QuadrantDistribution("重要且紧急", 0, 1),
+                new ChartData.QuadrantDistribution("重要不紧急", 4, 2),
+                new ChartData.QuadrantDistribution("紧急不重要", 0, 3),
+                new ChartData.QuadrantDistribution("不重要不紧急", 5, 4));
+        ChartSeries.Patch patch = ChartSeries.ofQuadrants(changed).diffFrom(series);
+        assertFalse(patch.needsRelabel());
+        assertEquals(1, patch.getChangedCount());
+        assertEquals(0, patch.getIndex(0));
+    }
+
+    // 每天的完成数；changedDay 为非负数时那一天多完成一个
+    static List<ChartData.CompletionTrend> trends(int days, int changedDay) {
+        List<ChartData.CompletionTrend> trends = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            int month = i / 30 % 12 + 1;
+            int day = i % 30 + 1;
+            int completed = (i * 7) % 5 + (i == changedDay ? 1 : 0);
+            trends.add(new ChartData.CompletionTrend(String.format("%02d/%02d", month, day), completed));
+        }
+        return trends;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.fourquadrant.database;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 合并写入测试：用虚拟时钟模拟大量计时器状态变化，检查写入次数有上界且最终值不丢失
+ */
+public class CoalescingPersisterTest {
+
+    private static final long INTERVAL_MS = 5000;
+
+    private long now;
+    private final List<DelayedTask> delayed = new ArrayList<>();
+    private final List<Runnable> queued = new ArrayList<>();
+    private final List<Integer> written = new ArrayList<>();
+    private CoalescingPersister<Integer> persister;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        delayed.clear();
+        queued.clear();
+        written.clear();
+        // 写任务先入队，延迟任务到期后再入队，由测试按顺序执行，模拟串行写通道
+        persister = new CoalescingPersister<>(written::add, queued::add,
+            (task, delayMs) -> delayed.add(new DelayedTask(now + delayMs, task)),
+            () -> now, INTERVAL_MS);
+    }
+
+    @Test
+    public void tenThousandTicks_writeCountBoundedByInterval() {
+        int changes = 10_000;
+        long stepMs = 100;
+        for (int i = 1; i <= changes; i++) {
+            now += stepMs;
+            persister.update(i);
+            runDue();
+        }
+        now += INTERVAL_MS;
+        runDue();
+
+        long maxWrites = changes * stepMs / INTERVAL_MS + 1;
+        assertTrue("写入次数 " + written.size() + " 超过上界 " + maxWrites, written.size() <= maxWrites);
+        assertEquals(written.size(), persister.getWriteCount());
+        assertEquals(Integer.valueOf(changes), written.get(written.size() - 1));
+    }
+
+    @Test
+    public void burstWithinOneInterval_writesOnceThenFlushWritesLatest() {
+        persister.update(0);
+        runDue();
+        assertEquals(1, written.size());
+
+        for (int i = 1; i <= 10_000; i++) {
+            persister.update(i);
+        }
+        persister.flush();
+        runDue();
+
+        assertEquals(2, written.size());
+        assertEquals(Integer.valueOf(10_000), written.get(1));
+
+        // 间隔结束时已经没有待写值，不会重复写
+        now += INTERVAL_MS;
+        runDue();
+        assertEquals(2, written.size());
+    }
+
+    @Test
+    public void discard_dropsPendingValue() {
+        persister.update(1);
+        runDue();
+        persister.update(2);
+        persister.discard();
+        now += INTERVAL_MS;
+        runDue();
+        persister.flush();
+        runDue();
+
+        assertEquals(1, written.size());
+        assertEquals(Integer.valueOf(1), written.get(0));
+    }
+
+    @Test
+    public void flushWithoutChanges_doesNotWrite() {
+        persister.flush();
+        runDue();
+        assertEquals(0, written.size());
+    }
+
+    /**
+     * 把已到期的延迟任务移入写队列，再按入队顺序执行全部写任务
+     */
+    private void runDue() {
+        while (true) {
+            Iterator<DelayedTask> iterator = delayed.iterator();
+            while (iterator.hasNext()) {
+                DelayedTask task = iterator.next();
+                if (task.dueAt <= now) {
+                    iterator.remove();
+                    queued.add(task.task);
+                }
+            }
+            if (queued.isEmpty()) {
+                return;
+            }
+            queued.remove(0).run();
+        }
+    }
+
+    private static final class DelayedTask {
+        final long dueAt;
+        final Runnable task;
+
+        DelayedTask(long dueAt, Runnable task) {
+            this.dueAt = dueAt;
+            this.task = task;
+        }
+    }
+}
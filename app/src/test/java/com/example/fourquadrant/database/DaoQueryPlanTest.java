@@ -0,0 +1,204 @@
+package com.example.fourquadrant.database;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DAO查询计划回归测试
+ * 读取DAO源码中的每一条@Query，在按 Room 导出的表结构（schemas/）建立的SQLite库上执行EXPLAIN QUERY PLAN，
+ * 出现新的全表扫描（SCAN）即失败。
+ */
+public class DaoQueryPlanTest {
+
+    private static final String DAO_DIR = "src/main/java/com/example/fourquadrant/database/dao/";
+
+    // Room 导出的最新版本表结构
+    private static final String SCHEMA_FILE = "schemas/com.example.fourquadrant.database.AppDatabase/12.json";
+
+    // 已知且接受的扫描：整表列表/计数本身需要遍历全部行，其余为待优化项
+    private static final Set<String> ALLOWED_SCANS = new HashSet<>(Arrays.asList(
+        "PomodoroDao.getAllSessions",
+        "PomodoroDao.getAllSessionsSync",
+        "PomodoroDao.getSessionCountSync",
+        "ReminderDao.getAllReminders",
+        "ReminderDao.getAllRemindersSync",
+        "ReminderDao.getReminderCount",
+        // 时区变化后的重新分桶需要遍历全部行
+        "TaskDao.getLocalDayKeysSync",
+        "PomodoroDao.getLocalDayKeysSync",
+        "ReminderDao.getLocalDayKeysSync",
+        // 每日汇总每天一行、代数表只有一行，取最大值的遍历很小
+        "StatsSnapshotDao.getDailyStatsLastUpdatedAtSync",
+        "StatsSnapshotDao.getGenerationSync"
+    ));
+
+    private static final Pattern QUERY_PATTERN = Pattern.compile(
+        "@Query\\(\\s*((?:\"(?:[^\"\\\\]|\\\\.)*\"\\s*\\+?\\s*)+)\\)\\s*[^;(]*?\\s(\\w+)\\s*\\(",
+        Pattern.DOTALL);
+    private static final Pattern LITERAL_PATTERN = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern SCAN_PATTERN = Pattern.compile("^SCAN (?:TABLE )?(\\w+)");
+    // 虚拟表的 INDEX 0 为全表遍历，非0表示使用了全文索引（MATCH）
+    private static final Pattern VIRTUAL_INDEX_PATTERN = Pattern.compile("VIRTUAL TABLE INDEX [1-9]\\d*:");
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : readSchema()) {
+                statement.execute(ddl);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void taskDaoQueries_doNotScanTables() throws Exception {
+        assertNoFullScans("TaskDao");
+    }
+
+    @Test
+    public void pomodoroDaoQueries_doNotScanTables() throws Exception {
+        assertNoFullScans("PomodoroDao");
+    }
+
+    @Test
+    public void reminderDaoQueries_doNotScanTables() throws Exception {
+        assertNoFullScans("ReminderDao");
+    }
+
+    @Test
+    public void dailyStatsDaoQueries_doNotScanTables() throws Exception {
+        assertNoFullScans("DailyStatsDao");
+    }
+
+    @Test
+    public void statisticsDaoQueries_doNotScanTables() throws Exception {
+        assertNoFullScans("StatisticsDao");
+    }
+
+    @Test
+    public void searchDaoQueries_doNotScanTables() throws Exception {
+        assertNoFullScans("SearchDao");
+    }
+
+    @Test
+    public void tombstoneDaoQueries_doNotScanTables() throws Exception {
+        assertNoFullScans("TombstoneDao");
+    }
+
+    @Test
+    public void statsSnapshotDaoQueries_doNotScanTables() throws Exception {
+        assertNoFullScans("StatsSnapshotDao");
+    }
+
+    private void assertNoFullScans(String daoName) throws Exception {
+        List<String[]> queries = readQueries(daoName);
+        assertTrue(daoName + " 中没有解析到@Query", !queries.isEmpty());
+
+        List<String> failures = new ArrayList<>();
+        for (String[] query : queries) {
+            String methodKey = daoName + "." + query[0];
+            List<String> plan = explain(query[1]);
+            for (String detail : plan) {
+                if (SCAN_PATTERN.matcher(detail).find() && !VIRTUAL_INDEX_PATTERN.matcher(detail).find()
+                        && !ALLOWED_SCANS.contains(methodKey)) {
+                    failures.add(methodKey + " -> " + detail);
+                }
+            }
+        }
+
+        assertTrue("出现全表扫描:\n" + String.join("\n", failures), failures.isEmpty());
+    }
+
+    /**
+     * 从导出的表结构中读取各实体的建表和建索引语句
+     */
+    private static List<String> readSchema() throws Exception {
+        List<String> ddl = new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(new File(SCHEMA_FILE).toPath(), StandardCharsets.UTF_8)) {
+            JsonObject database = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonObject("database");
+            for (JsonElement element : database.getAsJsonArray("entities")) {
+                JsonObject entity = element.getAsJsonObject();
+                String tableName = "`" + entity.get("tableName").getAsString() + "`";
+                ddl.add(entity.get("createSql").getAsString().replace("`${TABLE_NAME}`", tableName));
+                if (entity.has("indices")) {
+                    for (JsonElement index : entity.getAsJsonArray("indices")) {
+                        ddl.add(index.getAsJsonObject().get("createSql").getAsString()
+                            .replace("`${TABLE_NAME}`", tableName));
+                    }
+                }
+            }
+        }
+        return ddl;
+    }
+
+    /**
+     * 从DAO源码中提取 [方法名, SQL]
+     */
+    private List<String[]> readQueries(String daoName) throws Exception {
+        File file = new File(DAO_DIR + daoName + ".java");
+        String source = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+        List<String[]> queries = new ArrayList<>();
+        Matcher matcher = QUERY_PATTERN.matcher(source);
+        while (matcher.find()) {
+            StringBuilder sql = new StringBuilder();
+            Matcher literal = LITERAL_PATTERN.matcher(matcher.group(1));
+            while (literal.find()) {
+                sql.append(literal.group(1));
+            }
+            // Room的命名参数替换为JDBC占位符
+            String jdbcSql = sql.toString().replaceAll(":\\w+", "?");
+            queries.add(new String[]{matcher.group(2), jdbcSql});
+        }
+        return queries;
+    }
+
+    private List<String> explain(String sql) throws Exception {
+        List<String> details = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setNull(i, java.sql.Types.NULL);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    details.add(resultSet.getString("detail"));
+                }
+            }
+        }
+        return details;
+    }
+}
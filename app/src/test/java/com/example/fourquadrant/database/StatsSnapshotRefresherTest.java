@@ -0,0 +1,179 @@
+package com.example.fourquadrant.database;
+
+import com.example.fourquadrant.database.entity.StatsSnapshotEntity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 统计结果预先计算测试：有效性判断和重复执行的幂等性
+ */
+public class StatsSnapshotRefresherTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long TODAY = 20_000 * DAY;
+
+    // 内存中的 stats_snapshots 和源数据版本
+    private final Map<String, StatsSnapshotEntity> rows = new HashMap<>();
+    private long sourceUpdatedAt = 1_000;
+    private long sourceDeletedSeq = 7;
+    private long sourceGeneration = 3;
+    private int saveCount;
+    private final List<String> computed = new ArrayList<>();
+    private String failOn;
+    private Runnable duringCompute;
+
+    private StatsSnapshotRefresher refresher;
+
+    @Before
+    public void setUp() {
+        StatsSnapshotRefresher.Store store = new StatsSnapshotRefresher.Store() {
+            @Override
+            public StatsSnapshotRefresher.SourceVersion getSourceVersion() {
+                return new StatsSnapshotRefresher.SourceVersion(sourceUpdatedAt, sourceDeletedSeq, sourceGeneration);
+            }
+
+            @Override
+            public StatsSnapshotEntity getSnapshot(String rangeKey) {
+                return rows.get(rangeKey);
+            }
+
+            @Override
+            public void saveSnapshots(List<StatsSnapshotEntity> snapshots) {
+                saveCount++;
+                for (StatsSnapshotEntity snapshot : snapshots) {
+                    rows.put(snapshot.getRangeKey(), snapshot);
+                }
+            }
+        };
+        refresher = new StatsSnapshotRefresher(store, (rangeKey, startTime, endTime) -> {
+            if (rangeKey.equals(failOn)) {
+                throw new IllegalStateException("query failed");
+            }
+            computed.add(rangeKey);
+            if (duringCompute != null) {
+                duringCompute.run();
+            }
+            StatsSnapshotEntity snapshot = new StatsSnapshotEntity();
+            snapshot.setCompletedTasks((int) (sourceUpdatedAt + (endTime - startTime) / DAY));
+            snapshot.setTrendJson("[]");
+            return snapshot;
+        });
+    }
+
+    @Test
+    public void repeatedRun_isIdempotent() throws Exception {
+        assertEquals(3, refresher.refresh(ranges(TODAY), 100));
+        assertEquals(1, saveCount);
+        StatsSnapshotEntity week = rows.get("week");
+        assertEquals(TODAY - 6 * DAY, week.getStartTime());
+        assertEquals(1_000, week.getSourceUpdatedAt());
+        assertEquals(7, week.getSourceDeletedSeq());
+        assertEquals(3, week.getSourceGeneration());
+        assertEquals(100, week.getComputedAt());
+
+        // 源数据和日期都没变：不重新计算，也不写入
+        computed.clear();
+        assertEquals(0, refresher.refresh(ranges(TODAY), 200));
+        assertEquals(0, refresher.refresh(ranges(TODAY), 300));
+        assertTrue(computed.isEmpty());
+        assertEquals(1, saveCount);
+        assertSame(week, rows.get("week"));
+        assertEquals(100, rows.get("week").getComputedAt());
+    }
+
+    @Test
+    public void sourceChange_makesAllRangesStale() throws Exception {
+        refresher.refresh(ranges(TODAY), 100);
+
+        sourceUpdatedAt++;
+        assertFalse(rows.get("today").isFreshFor(TODAY, TODAY + DAY - 1, sourceUpdatedAt, sourceDeletedSeq,
+            sourceGeneration));
+        assertEquals(3, refresher.refresh(ranges(TODAY), 200));
+        assertEquals(1_001 + 29, rows.get("month").getCompletedTasks());
+
+        // 物理删除只改变删除记录的 seq
+        sourceDeletedSeq++;
+        assertEquals(3, refresher.refresh(ranges(TODAY), 300));
+        assertEquals(0, refresher.refresh(ranges(TODAY), 400));
+    }
+
+    @Test
+    public void restoreWithOlderRows_makesAllRangesStale() throws Exception {
+        refresher.refresh(ranges(TODAY), 100);
+
+        // 恢复备份：行的修改时间更早，删除记录不变，只有代数推进
+        sourceUpdatedAt = 500;
+        sourceGeneration++;
+        assertEquals(3, refresher.refresh(ranges(TODAY), 200));
+        assertEquals(500, rows.get("today").getSourceUpdatedAt());
+        assertEquals(4, rows.get("today").getSourceGeneration());
+
+        // 重新分桶：修改时间和删除记录都不变
+        sourceGeneration++;
+        assertEquals(3, refresher.refresh(ranges(TODAY), 300));
+        assertEquals(0, refresher.refresh(ranges(TODAY), 400));
+    }
+
+    @Test
+    public void nextDay_recomputesOnlyShiftedRanges() throws Exception {
+        refresher.refresh(ranges(TODAY), 100);
+        computed.clear();
+
+        // 第二天：今日和本月的范围变化，本周（假设仍在同一周）不变
+        List<StatsSnapshotRefresher.Range> nextDay = Arrays.asList(
+            new StatsSnapshotRefresher.Range("today", TODAY + DAY, TODAY + 2 * DAY - 1),
+            ranges(TODAY).get(1),
+            new StatsSnapshotRefresher.Range("month", TODAY - 28 * DAY, TODAY + 2 * DAY - 1));
+        assertEquals(2, refresher.refresh(nextDay, 200));
+        assertEquals(Arrays.asList("today", "month"), computed);
+        assertTrue(rows.get("today").coversRange(TODAY + DAY, TODAY + 2 * DAY - 1));
+        assertEquals(100, rows.get("week").getComputedAt());
+    }
+
+    @Test
+    public void changeDuringCompute_isPickedUpByNextRun() throws Exception {
+        // 计算过程中有新的修改：保存的是计算前的版本，下次执行不会误判为有效
+        duringCompute = () -> sourceUpdatedAt = 2_000;
+        refresher.refresh(ranges(TODAY), 100);
+        assertEquals(1_000, rows.get("today").getSourceUpdatedAt());
+
+        duringCompute = null;
+        assertEquals(3, refresher.refresh(ranges(TODAY), 200));
+        assertEquals(0, refresher.refresh(ranges(TODAY), 300));
+    }
+
+    @Test
+    public void failedRun_writesNothing() throws Exception {
+        failOn = "month";
+        try {
+            refresher.refresh(ranges(TODAY), 100);
+            fail("expected failure");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0, saveCount);
+        assertTrue(rows.isEmpty());
+
+        failOn = null;
+        assertEquals(3, refresher.refresh(ranges(TODAY), 200));
+    }
+
+    private static List<StatsSnapshotRefresher.Range> ranges(long today) {
+        return Arrays.asList(
+            new StatsSnapshotRefresher.Range("today", today, today + DAY - 1),
+            new StatsSnapshotRefresher.Range("week", today - 6 * DAY, today + DAY - 1),
+            new StatsSnapshotRefresher.Range("month", today - 29 * DAY, today + DAY - 1));
+    }
+}
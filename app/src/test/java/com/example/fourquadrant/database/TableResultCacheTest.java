@@ -0,0 +1,100 @@
+package com.example.fourquadrant.database;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 统计结果缓存测试：LRU 淘汰、按表失效、查询期间失效和命中计数
+ */
+public class TableResultCacheTest {
+
+    private static final String[] SNAPSHOT_TABLES = {"daily_stats", "tasks"};
+    private static final String[] TIME_PERIOD_TABLES = {"pomodoro_sessions"};
+
+    @Test
+    public void repeatedRange_loadsOnce() throws Exception {
+        TableResultCache<String> cache = new TableResultCache<>(4);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("week", cache.get("snapshot|week", SNAPSHOT_TABLES, () -> {
+                loads.incrementAndGet();
+                return "week";
+            }));
+        }
+        assertEquals(1, loads.get());
+        TableResultCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.hits);
+        assertEquals(1, stats.misses);
+    }
+
+    @Test
+    public void leastRecentlyUsed_isEvicted() throws Exception {
+        TableResultCache<String> cache = new TableResultCache<>(2);
+        cache.get("today", SNAPSHOT_TABLES, () -> "today");
+        cache.get("week", SNAPSHOT_TABLES, () -> "week");
+        // 访问 today 后 week 成为最久未用的
+        assertEquals("today", cache.getIfPresent("today"));
+        cache.get("month", SNAPSHOT_TABLES, () -> "month");
+
+        assertTrue(cache.contains("today"));
+        assertFalse(cache.contains("week"));
+        assertTrue(cache.contains("month"));
+        assertEquals(1, cache.getStats().evictions);
+    }
+
+    @Test
+    public void invalidate_removesOnlyResultsReadingChangedTables() throws Exception {
+        TableResultCache<String> cache = new TableResultCache<>(8);
+        cache.get("snapshot|week", SNAPSHOT_TABLES, () -> "snapshot");
+        cache.get("periods|week", TIME_PERIOD_TABLES, () -> "periods");
+
+        assertEquals(1, cache.invalidate(Collections.singleton("pomodoro_sessions")));
+        assertTrue(cache.contains("snapshot|week"));
+        assertFalse(cache.contains("periods|week"));
+
+        assertEquals(1, cache.invalidate(Collections.singleton("tasks")));
+        assertFalse(cache.contains("snapshot|week"));
+        assertEquals(2, cache.getStats().invalidations);
+    }
+
+    @Test
+    public void invalidationDuringLoad_doesNotCacheStaleResult() throws Exception {
+        TableResultCache<String> cache = new TableResultCache<>(8);
+        String stale = cache.get("snapshot|today", SNAPSHOT_TABLES, () -> {
+            // 查询进行中时 tasks 有新的提交
+            cache.invalidate(Collections.singleton("tasks"));
+            return "stale";
+        });
+        assertEquals("stale", stale);
+        assertFalse(cache.contains("snapshot|today"));
+
+        // 无关表的提交不影响进行中的查询
+        cache.get("periods|today", TIME_PERIOD_TABLES, () -> {
+            cache.invalidate(Collections.singleton("tasks"));
+            return "periods";
+        });
+        assertTrue(cache.contains("periods|today"));
+
+        cache.get("periods|week", TIME_PERIOD_TABLES, () -> {
+            cache.clear();
+            return "periods";
+        });
+        assertFalse(cache.contains("periods|week"));
+    }
+
+    @Test
+    public void nullResult_isNotCached() throws Exception {
+        TableResultCache<String> cache = new TableResultCache<>(2);
+        assertNull(cache.get("empty", SNAPSHOT_TABLES, () -> null));
+        assertFalse(cache.contains("empty"));
+        assertNull(cache.getIfPresent("empty"));
+        assertEquals(0, cache.getStats().hits);
+    }
+}
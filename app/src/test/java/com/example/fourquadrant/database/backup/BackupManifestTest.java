@@ -0,0 +1,77 @@
+package com.example.fourquadrant.database.backup;
+
+import com.google.gson.Gson;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 增量备份清单测试
+ */
+public class BackupManifestTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void restorePlan_replaysBaseAndDeltasUpToTarget() {
+        BackupManifest manifest = new BackupManifest();
+        manifest.startChain("full1", marks(10));
+        manifest.appendDelta("delta1", marks(20));
+        manifest.appendDelta("delta2", marks(30));
+        manifest.startChain("full2", marks(40));
+        manifest.appendDelta("delta3", marks(50));
+
+        assertEquals(Arrays.asList("full1", "delta1"), manifest.restorePlan("delta1"));
+        assertEquals(Arrays.asList("full1", "delta1", "delta2"), manifest.restorePlan("delta2"));
+        assertEquals(Collections.singletonList("full2"), manifest.restorePlan("full2"));
+        assertEquals(Arrays.asList("full2", "delta3"), manifest.restorePlan("delta3"));
+        assertEquals(Collections.singletonList("legacy.json"), manifest.restorePlan("legacy.json"));
+
+        assertEquals("full2", manifest.current().getBase());
+        assertEquals(50L, manifest.current().getMark("tasks"));
+        assertEquals(0L, manifest.current().getMark("unknown"));
+    }
+
+    @Test
+    public void saveAndLoad_keepsChainsAndMarks() throws Exception {
+        File file = new File(folder.getRoot(), BackupManifest.FILE_NAME);
+        BackupManifest manifest = new BackupManifest();
+        manifest.startChain("full1", marks(10));
+        manifest.appendDelta("delta1", marks(20));
+        manifest.save(file, gson);
+
+        BackupManifest loaded = BackupManifest.load(file, gson);
+        assertEquals(Arrays.asList("full1", "delta1"), loaded.restorePlan("delta1"));
+        assertEquals(20L, loaded.current().getMark("tasks"));
+    }
+
+    @Test
+    public void load_corruptOrMissingFile_startsEmpty() throws Exception {
+        File file = new File(folder.getRoot(), BackupManifest.FILE_NAME);
+        assertNull(BackupManifest.load(file, gson).current());
+
+        Files.write(file.toPath(), "{\"chains\": [".getBytes(StandardCharsets.UTF_8));
+        assertNull(BackupManifest.load(file, gson).current());
+    }
+
+    private static Map<String, Long> marks(long tasks) {
+        Map<String, Long> marks = new HashMap<>();
+        marks.put("tasks", tasks);
+        return marks;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.fourquadrant.database.backup;
+
+import com.google.gson.Gson;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 流式备份测试：二进制快照（当前格式）和之前版本的JSON备份
+ * 在单独的 backupStreamTest 任务中以 96m 堆执行（见 build.gradle.kts），一百万行整体读入内存会超出上限
+ */
+public class BackupStreamTest {
+
+    private static final int ROW_COUNT = 1_000_000;
+    private static final int BATCH_SIZE = 500;
+
+    private static final BackupStream.Section<Row> ROWS = new BackupStream.Section<>("rows", Row.class);
+    private static final BackupStream.Section<Row> SINGLE = new BackupStream.Section<>("singles", Row.class, "single");
+
+    private static final SnapshotCodec.Table<Row> SNAPSHOT_ROWS = new SnapshotCodec.Table<>("rows", Row::new)
+            .string("id", row -> row.id, (row, value) -> row.id = value)
+            .string("name", row -> row.name, (row, value) -> row.name = value)
+            .timestamp("time", row -> row.time, (row, value) -> row.time = value)
+            .bool("done", row -> row.done, (row, value) -> row.done = value);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+
+    static class Row {
+        String id;
+        String name;
+        long time;
+        boolean done;
+
+        Row() {
+        }
+
+        Row(int index) {
+            this.id = String.format("row-%07d", index);
+            this.name = "任务 " + index;
+            this.time = 1_700_000_000_000L + index;
+            this.done = index % 3 == 0;
+        }
+    }
+
+    @Test
+    public void millionRows_snapshotRoundTripInBoundedRowGroups() throws Exception {
+        // 与 DataBackupManager 导出相同：GZIP 包装，每页一个行组
+        File file = folder.newFile("backup.fqsnap");
+        int[] largestPage = {0};
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file));
+             SnapshotCodec.Writer writer = new SnapshotCodec.Writer(out, BATCH_SIZE)) {
+            writer.meta("backupTime", 1L);
+            int written = writer.writeTable(SNAPSHOT_ROWS, generatedPages(largestPage));
+            writer.finish();
+            assertEquals(ROW_COUNT, written);
+        }
+        assertEquals(BATCH_SIZE, largestPage[0]);
+
+        RowChecker checker = new RowChecker();
+        SnapshotCodec.Reader reader = new SnapshotCodec.Reader().on(SNAPSHOT_ROWS, checker);
+        int read;
+        try (InputStream in = BackupStream.decompress(new FileInputStream(file))) {
+            read = reader.read(in);
+        }
+
+        assertEquals(ROW_COUNT, read);
+        assertEquals(ROW_COUNT, checker.next);
+        assertEquals(BATCH_SIZE, checker.largestBatch);
+        assertEquals("1", reader.getMeta().get("backupTime"));
+    }
+
+    @Test
+    public void millionRows_legacyJsonRoundTripInBoundedBatches() throws Exception {
+        File file = folder.newFile("backup.json.gz");
+        int[] largestPage = {0};
+        try (OutputStream out = new FileOutputStream(file);
+             LegacyBackupWriter writer = new LegacyBackupWriter(out, gson, BATCH_SIZE)) {
+            writer.meta("backupTime", 1L);
+            int written = writer.writeSection(ROWS, generatedPages(largestPage));
+            writer.finish();
+            assertEquals(ROW_COUNT, written);
+        }
+        assertEquals(BATCH_SIZE, largestPage[0]);
+
+        RowChecker checker = new RowChecker();
+        BackupStream.Reader reader = new BackupStream.Reader(gson, BATCH_SIZE).on(ROWS, checker);
+        int read;
+        try (InputStream in = new FileInputStream(file)) {
+            read = reader.read(in);
+        }
+
+        assertEquals(ROW_COUNT, read);
+        assertEquals(ROW_COUNT, checker.next);
+        assertEquals(BATCH_SIZE, checker.largestBatch);
+    }
+
+    @Test
+    public void legacyJson_isReadWithoutCompression() throws Exception {
+        String legacy = "{\"backupTime\": 1, \"rows\": [{\"id\": \"a\", \"time\": 5}, {\"id\": \"b\"}],"
+                + " \"single\": {\"id\": \"s\"}, \"unknown\": {\"nested\": [1, 2]}}";
+        List<String> rows = new ArrayList<>();
+        List<String> singles = new ArrayList<>();
+        int read = new BackupStream.Reader(gson, BATCH_SIZE)
+                .on(ROWS, batch -> batch.forEach(row -> rows.add(row.id + ":" + row.time)))
+                .on(SINGLE, batch -> batch.forEach(row -> singles.add(row.id)))
+                .read(new ByteArrayInputStream(legacy.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, read);
+        assertEquals(Arrays.asList("a:5", "b:0"), rows);
+        assertEquals(Collections.singletonList("s"), singles);
+    }
+
+    @Test
+    public void wholeSource_writesSmallTableOnce() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (LegacyBackupWriter writer = new LegacyBackupWriter(out, gson, 2)) {
+            // 行数正好等于页大小时会再请求一页，whole 必须返回空页
+            assertEquals(2, writer.writeSection(ROWS, BackupStream.whole(() -> Arrays.asList(new Row(1), new Row(2)))));
+            assertEquals(0, writer.writeSection(SINGLE, BackupStream.whole(() -> null)));
+            writer.finish();
+        }
+
+        List<String> ids = new ArrayList<>();
+        new BackupStream.Reader(gson, BATCH_SIZE)
+                .on(ROWS, batch -> batch.forEach(row -> ids.add(row.id)))
+                .read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(Arrays.asList("row-0000001", "row-0000002"), ids);
+        assertTrue(out.size() > 0);
+    }
+
+    /**
+     * 按需生成的分页数据源，记录最大页大小；不会一次持有全部行
+     */
+    private static BackupStream.PageSource<Row> generatedPages(int[] largestPage) {
+        return (last, limit) -> {
+            int from = last == null ? 0 : Integer.parseInt(last.id.substring(4)) + 1;
+            List<Row> page = new ArrayList<>(limit);
+            for (int i = from; i < Math.min(ROW_COUNT, from + limit); i++) {
+                page.add(new Row(i));
+            }
+            largestPage[0] = Math.max(largestPage[0], page.size());
+            return page;
+        };
+    }
+
+    /**
+     * 逐批核对读回的行与生成的行一致
+     */
+    private static final class RowChecker implements BackupStream.BatchSink<Row> {
+        int next;
+        int largestBatch;
+
+        @Override
+        public void accept(List<Row> batch) {
+            largestBatch = Math.max(largestBatch, batch.size());
+            for (Row row : batch) {
+                Row expected = new Row(next++);
+                assertEquals(expected.id, row.id);
+                assertEquals(expected.name, row.name);
+                assertEquals(expected.time, row.time);
+                assertEquals(expected.done, row.done);
+            }
+        }
+    }
+}
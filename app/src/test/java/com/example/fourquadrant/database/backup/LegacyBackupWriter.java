@@ -0,0 +1,79 @@
+package com.example.fourquadrant.database.backup;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 写出之前版本的JSON备份（BackupStream 读取的格式）
+ * 应用已改为写出二进制快照，这里只用于测试生成旧格式备份和 SnapshotBenchmark 的对比；成功时先调用 finish() 再关闭
+ */
+final class LegacyBackupWriter implements Closeable {
+
+    static final int FORMAT_VERSION = 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Gson gson;
+    private final int pageSize;
+    private final JsonWriter json;
+    private boolean finished;
+
+    LegacyBackupWriter(OutputStream out, Gson gson, int pageSize) throws IOException {
+        this.gson = gson;
+        this.pageSize = pageSize;
+        this.json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(out, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE));
+        json.beginObject();
+        json.name("formatVersion").value(FORMAT_VERSION);
+    }
+
+    LegacyBackupWriter meta(String name, long value) throws IOException {
+        json.name(name).value(value);
+        return this;
+    }
+
+    /**
+     * 逐页读取并写出一张表，返回写出的行数
+     */
+    <T> int writeSection(BackupStream.Section<T> section, BackupStream.PageSource<T> source) throws Exception {
+        json.name(section.name).beginArray();
+        int count = 0;
+        T last = null;
+        while (true) {
+            List<T> page = source.next(last, pageSize);
+            for (T row : page) {
+                gson.toJson(row, section.type, json);
+            }
+            count += page.size();
+            if (page.size() < pageSize) {
+                break;
+            }
+            last = page.get(page.size() - 1);
+        }
+        json.endArray();
+        return count;
+    }
+
+    void finish() throws IOException {
+        json.endObject();
+        finished = true;
+        json.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            // 未完成的备份不补全结构，直接关闭底层流
+            json.close();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.fourquadrant.database.backup;
+
+import com.google.gson.Gson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 快照格式与Gson备份格式的编解码耗时和体积对比
+ * 项目没有引入JMH，这里按JMH的方式先预热再计时，输出每次操作的平均耗时和编码后字节数。
+ * 不是单元测试，手动运行：java -cp <test classpath> com.example.fourquadrant.database.backup.SnapshotBenchmark [行数]
+ */
+public final class SnapshotBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+
+    private static final String[] TASK_NAMES = {"晨跑", "写周报", "代码评审", "阅读", "回复邮件", "整理房间", "学英语", "冥想"};
+
+    private static final BackupStream.Section<Session> SESSIONS = new BackupStream.Section<>("sessions", Session.class);
+
+    private static final SnapshotCodec.Table<Session> SESSION_ROWS = new SnapshotCodec.Table<>("sessions", Session::new)
+            .string("id", row -> row.id, (row, value) -> row.id = value)
+            .dictionary("taskId", row -> row.taskId, (row, value) -> row.taskId = value)
+            .dictionary("taskName", row -> row.taskName, (row, value) -> row.taskName = value)
+            .timestamp("startTime", row -> row.startTime, (row, value) -> row.startTime = value)
+            .nullableTimestamp("endTime", row -> row.endTime, (row, value) -> row.endTime = value)
+            .integer("durationMinutes", row -> row.durationMinutes, (row, value) -> row.durationMinutes = value)
+            .bool("isCompleted", row -> row.isCompleted, (row, value) -> row.isCompleted = value)
+            .timestamp("updatedAt", row -> row.updatedAt, (row, value) -> row.updatedAt = value);
+
+    // 字段与 PomodoroSessionEntity 相同，避免依赖 Room 注解
+    static class Session {
+        String id;
+        String taskId;
+        String taskName;
+        long startTime;
+        Long endTime;
+        int durationMinutes;
+        boolean isCompleted;
+        long updatedAt;
+    }
+
+    private interface Codec {
+        byte[] encode(List<Session> rows) throws Exception;
+
+        int decode(byte[] bytes) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<Session> rows = generate(rowCount);
+        Gson gson = new Gson();
+
+        Codec json = new Codec() {
+            @Override
+            public byte[] encode(List<Session> data) throws Exception {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (LegacyBackupWriter writer = new LegacyBackupWriter(out, gson, BackupStream.DEFAULT_BATCH_SIZE)) {
+                    writer.writeSection(SESSIONS, page(data));
+                    writer.finish();
+                }
+                return out.toByteArray();
+            }
+
+            @Override
+            public int decode(byte[] bytes) throws Exception {
+                return new BackupStream.Reader(gson, BackupStream.DEFAULT_BATCH_SIZE)
+                        .on(SESSIONS, batch -> { })
+                        .read(new ByteArrayInputStream(bytes));
+            }
+        };
+        Codec snapshot = new Codec() {
+            @Override
+            public byte[] encode(List<Session> data) throws Exception {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (OutputStream gzip = new GZIPOutputStream(out);
+                     SnapshotCodec.Writer writer = new SnapshotCodec.Writer(gzip, SnapshotCodec.DEFAULT_ROW_GROUP_SIZE)) {
+                    writer.writeRows(SESSION_ROWS, data);
+                    writer.finish();
+                }
+                return out.toByteArray();
+            }
+
+            @Override
+            public int decode(byte[] bytes) throws Exception {
+                return new SnapshotCodec.Reader()
+                        .on(SESSION_ROWS, batch -> { })
+                        .read(BackupStream.decompress(new ByteArrayInputStream(bytes)));
+            }
+        };
+
+        System.out.println("rows: " + rowCount);
+        run("gson+gzip", json, rows);
+        run("snapshot+gzip", snapshot, rows);
+    }
+
+    private static void run(String name, Codec codec, List<Session> rows) throws Exception {
+        byte[] bytes = codec.encode(rows);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            codec.decode(codec.encode(rows));
+        }
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            bytes = codec.encode(rows);
+            encodeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int decoded = codec.decode(bytes);
+            decodeNanos += System.nanoTime() - start;
+            if (decoded != rows.size()) {
+                throw new IllegalStateException(name + " decoded " + decoded + " rows");
+            }
+        }
+        System.out.printf("%-14s encode %8.1f ns/row  decode %8.1f ns/row  %10d bytes%n", name,
+                (double) encodeNanos / MEASURED_ITERATIONS / rows.size(),
+                (double) decodeNanos / MEASURED_ITERATIONS / rows.size(),
+                bytes.length);
+    }
+
+    private static BackupStream.PageSource<Session> page(List<Session> rows) {
+        int[] offset = {0};
+        return (last, limit) -> {
+            int from = last == null ? 0 : offset[0];
+            int to = Math.min(rows.size(), from + limit);
+            offset[0] = to;
+            return rows.subList(from, to);
+        };
+    }
+
+    private static List<Session> generate(int count) {
+        List<Session> rows = new ArrayList<>(count);
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            Session session = new Session();
+            int task = i % TASK_NAMES.length;
+            session.id = String.format("00000000-0000-4000-8000-%012d", i);
+            session.taskId = String.format("11111111-0000-4000-8000-%012d", task);
+            session.taskName = TASK_NAMES[task];
+            session.startTime = time;
+            session.durationMinutes = 25;
+            session.isCompleted = i % 10 != 0;
+            session.endTime = session.isCompleted ? time + 25 * 60_000L : null;
+            session.updatedAt = session.endTime != null ? session.endTime : time;
+            rows.add(session);
+            time += 30 * 60_000L + (i % 17) * 1000L;
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.fourquadrant.database.backup;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 二进制快照格式测试
+ */
+public class SnapshotCodecTest {
+
+    private static final SnapshotCodec.Table<Row> ROWS = new SnapshotCodec.Table<>("rows", Row::new)
+            .string("id", row -> row.id, (row, value) -> row.id = value)
+            .dictionary("status", row -> row.status, (row, value) -> row.status = value)
+            .integer("priority", row -> row.priority, (row, value) -> row.priority = value)
+            .bool("done", row -> row.done, (row, value) -> row.done = value)
+            .timestamp("time", row -> row.time, (row, value) -> row.time = value)
+            .nullableTimestamp("finished", row -> row.finished, (row, value) -> row.finished = value);
+
+    // 旧版本只认识其中两列，且不认识 extra 表
+    private static final SnapshotCodec.Table<Row> OLD_ROWS = new SnapshotCodec.Table<>("rows", Row::new)
+            .string("id", row -> row.id, (row, value) -> row.id = value)
+            .timestamp("time", row -> row.time, (row, value) -> row.time = value);
+
+    private static final SnapshotCodec.Table<Row> EXTRA = new SnapshotCodec.Table<>("extra", Row::new)
+            .string("id", row -> row.id, (row, value) -> row.id = value);
+
+    static class Row {
+        String id;
+        String status;
+        int priority;
+        boolean done;
+        long time;
+        Long finished;
+
+        Row() {
+        }
+
+        Row(int index) {
+            this.id = index % 7 == 0 ? null : "row-" + index;
+            this.status = index % 5 == 0 ? null : (index % 2 == 0 ? "进行中" : "已完成");
+            this.priority = index % 4 - 2;
+            this.done = index % 3 == 0;
+            // 时间不单调，差值有正有负
+            this.time = 1_700_000_000_000L + (index % 2 == 0 ? index * 1000L : -index);
+            this.finished = done ? time + 60_000L : null;
+        }
+    }
+
+    @Test
+    public void rows_roundTripAcrossRowGroups() throws Exception {
+        List<Row> expected = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            expected.add(new Row(i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotCodec.Writer writer = new SnapshotCodec.Writer(out, 1000)) {
+            writer.meta("backupTime", 42L);
+            assertEquals(2500, writer.writeRows(ROWS, expected));
+            assertEquals(0, writer.writeRows(EXTRA, Collections.emptyList()));
+            writer.finish();
+        }
+
+        List<Row> actual = new ArrayList<>();
+        List<Integer> batchSizes = new ArrayList<>();
+        SnapshotCodec.Reader reader = new SnapshotCodec.Reader().on(ROWS, batch -> {
+            batchSizes.add(batch.size());
+            actual.addAll(batch);
+        });
+        assertTrue(SnapshotCodec.isSnapshot(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(2500, reader.read(new ByteArrayInputStream(out.toByteArray())));
+
+        assertEquals("42", reader.getMeta().get("backupTime"));
+        assertEquals(Arrays.asList(1000, 1000, 500), batchSizes);
+        for (int i = 0; i < expected.size(); i++) {
+            Row e = expected.get(i);
+            Row a = actual.get(i);
+            assertEquals(e.id, a.id);
+            assertEquals(e.status, a.status);
+            assertEquals(e.priority, a.priority);
+            assertEquals(e.done, a.done);
+            assertEquals(e.time, a.time);
+            assertEquals(e.finished, a.finished);
+        }
+    }
+
+    @Test
+    public void unknownTablesAndColumns_areSkipped() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotCodec.Writer writer = new SnapshotCodec.Writer(out, 2)) {
+            writer.writeRows(EXTRA, Arrays.asList(new Row(1), new Row(2), new Row(3)));
+            writer.writeRows(ROWS, Arrays.asList(new Row(1), new Row(2), new Row(3)));
+            writer.finish();
+        }
+
+        List<Row> actual = new ArrayList<>();
+        int read = new SnapshotCodec.Reader().on(OLD_ROWS, actual::addAll)
+                .read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(3, read);
+        assertEquals("row-2", actual.get(1).id);
+        assertEquals(new Row(2).time, actual.get(1).time);
+        // 未注册的列保留默认值
+        assertNull(actual.get(1).status);
+        assertFalse(actual.get(0).done);
+    }
+
+    @Test
+    public void newerVersion_isRejected() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotCodec.Writer writer = new SnapshotCodec.Writer(out, 2)) {
+            writer.finish();
+        }
+        byte[] bytes = out.toByteArray();
+        // 魔数之后的一个字节就是版本号
+        bytes[4] = (byte) (SnapshotCodec.FORMAT_VERSION + 1);
+
+        try {
+            new SnapshotCodec.Reader().read(new ByteArrayInputStream(bytes));
+            fail("newer snapshot version should be rejected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains(String.valueOf(SnapshotCodec.FORMAT_VERSION + 1)));
+        }
+        assertFalse(SnapshotCodec.isSnapshot(new ByteArrayInputStream("{\"a\":1}".getBytes())));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.fourquadrant.database.migration;
+
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 旧数据分块读取测试
+ * 写入、断点和中断后续传见 LegacyDataImporterTest
+ */
+public class ChunkedJsonImportTest {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final Gson gson = new Gson();
+
+    // 与旧版 TaskItem 字段相同
+    static class LegacyTask {
+        String id;
+        String name;
+        int importance;
+        int urgency;
+        boolean isCompleted;
+        Long completedTime;
+    }
+
+    @Test
+    public void missingOrCorruptPayload_isEmpty() throws Exception {
+        for (String payload : new String[]{"", "null", "{\"a\": 1}", "[]"}) {
+            try (ChunkedJsonImport<LegacyTask> chunks =
+                         new ChunkedJsonImport<>(gson, new StringReader(payload), LegacyTask.class, 0, CHUNK_SIZE)) {
+                assertTrue(payload, chunks.isFinished());
+                assertEquals(0, chunks.step((chunk, firstIndex) -> fail("no chunk expected for " + payload)));
+            }
+        }
+    }
+
+    @Test
+    public void checkpointPastEnd_finishesImmediately() throws Exception {
+        String json = "[{\"id\": \"a\"}, null, {\"id\": \"c\"}]";
+        try (ChunkedJsonImport<LegacyTask> chunks =
+                     new ChunkedJsonImport<>(gson, new StringReader(json), LegacyTask.class, 1, CHUNK_SIZE)) {
+            // null 元素保留在块中，下标与数组位置对应
+            chunks.step((chunk, firstIndex) -> {
+                assertEquals(1, firstIndex);
+                assertEquals(2, chunk.size());
+                assertEquals(null, chunk.get(0));
+                assertEquals("c", chunk.get(1).id);
+            });
+            assertTrue(chunks.isFinished());
+        }
+        try (ChunkedJsonImport<LegacyTask> chunks =
+                     new ChunkedJsonImport<>(gson, new StringReader(json), LegacyTask.class, 10, CHUNK_SIZE)) {
+            assertTrue(chunks.isFinished());
+            assertEquals(3, chunks.getPosition());
+        }
+    }
+}
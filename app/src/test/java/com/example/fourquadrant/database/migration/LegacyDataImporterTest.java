@@ -0,0 +1,300 @@
+package com.example.fourquadrant.database.migration;
+
+import com.example.fourquadrant.PomodoroRecord;
+import com.example.fourquadrant.database.entity.PomodoroSessionEntity;
+import com.example.fourquadrant.database.entity.TaskEntity;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 旧数据分块迁移测试
+ * 映射、外键清理和断点顺序走 DataMigrationManager 使用的 LegacyDataImporter，
+ * 只把 Room DAO 换成 JDBC 实现：每次插入一个事务、跳过已存在的行
+ */
+public class LegacyDataImporterTest {
+
+    private static final int ITEM_COUNT = 100_000;
+    private static final int CHUNK_SIZE = 500;
+    private static final int PHASE = 0;
+
+    private final Gson gson = new Gson();
+    private Connection connection;
+    private JdbcStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA foreign_keys = ON");
+            statement.execute("CREATE TABLE tasks (id TEXT NOT NULL PRIMARY KEY, name TEXT, search_terms TEXT,"
+                    + " importance INTEGER NOT NULL, urgency INTEGER NOT NULL, quadrant INTEGER NOT NULL,"
+                    + " is_completed INTEGER NOT NULL, completed_at INTEGER, completed_local_day INTEGER)");
+            statement.execute("CREATE TABLE pomodoro_sessions (id TEXT NOT NULL PRIMARY KEY,"
+                    + " task_id TEXT REFERENCES tasks(id) ON DELETE SET NULL, task_name TEXT,"
+                    + " start_time INTEGER NOT NULL, start_local_day INTEGER NOT NULL, end_time INTEGER,"
+                    + " is_completed INTEGER NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        store = new JdbcStore();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void hundredThousandTasks_resumeAfterInterruptions() throws Exception {
+        String json = legacyTaskPayload();
+        // 第 50 块在事务提交前失败（回滚）；第 120 块提交后、保存断点前失败（重放）
+        store.failBeforeCommit = 50;
+        int[] saves = {0};
+        int[] saved = {PHASE, 0};
+        LegacyDataImporter importer = new LegacyDataImporter(store, (phase, position) -> {
+            if (++saves[0] == 119) {
+                throw new IllegalStateException("killed before checkpoint");
+            }
+            saved[0] = phase;
+            saved[1] = position;
+        });
+
+        int runs = 0;
+        int migrated = 0;
+        while (saved[0] == PHASE) {
+            runs++;
+            try (ChunkedJsonImport<LegacyDataImporter.TaskItem> chunks = new ChunkedJsonImport<>(
+                    gson, new StringReader(json), LegacyDataImporter.TaskItem.class, saved[1], CHUNK_SIZE)) {
+                while (!chunks.isFinished()) {
+                    migrated += importer.step(PHASE, chunks, importer::writeTasks);
+                }
+            } catch (IllegalStateException interrupted) {
+                // 模拟进程被杀：丢弃当前对象，下次从已保存的断点重新打开
+            }
+        }
+
+        assertEquals(3, runs);
+        assertEquals(PHASE + 1, saved[0]);
+        assertEquals(0, saved[1]);
+        // 中断的块不计数，从断点重新读取后计入
+        assertEquals(ITEM_COUNT, migrated);
+        assertEquals(CHUNK_SIZE, store.largestInsert);
+        assertEquals(ITEM_COUNT, queryInt("SELECT COUNT(*) FROM tasks"));
+        assertEquals(ITEM_COUNT, queryInt("SELECT COUNT(DISTINCT id) FROM tasks"));
+        // 没有ID的旧任务按位置生成固定ID
+        assertEquals(ITEM_COUNT / 3 + 1, queryInt("SELECT COUNT(*) FROM tasks WHERE id NOT LIKE 'task-%'"));
+        assertEquals(LegacyDataImporter.legacyId("task_", 3), queryString("SELECT id FROM tasks WHERE name = '任务 3'"));
+        assertEquals(ITEM_COUNT / 2, queryInt("SELECT COUNT(*) FROM tasks WHERE is_completed = 1"
+                + " AND completed_at = 1600000000000 + CAST(substr(name, 4) AS INTEGER) AND completed_local_day IS NOT NULL"));
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM tasks WHERE search_terms IS NULL"));
+        assertEquals(2, queryInt("SELECT quadrant FROM tasks WHERE id = 'task-4'"));
+    }
+
+    @Test
+    public void sessions_dropLinksToMissingTasks() throws Exception {
+        TaskEntity kept = new TaskEntity("task-kept", "保留的任务", 5, 5);
+        store.insertTasksIfAbsent(Arrays.asList(kept));
+
+        List<PomodoroRecord> chunk = new ArrayList<>();
+        chunk.add(record("task-kept", true));
+        chunk.add(null);
+        chunk.add(record("task-deleted", false));
+        chunk.add(record(null, true));
+        LegacyDataImporter importer = new LegacyDataImporter(store, (phase, position) -> { });
+        importer.writeSessions(chunk, 10);
+        // 重放同一块不产生重复行
+        importer.writeSessions(chunk, 10);
+
+        assertEquals(3, queryInt("SELECT COUNT(*) FROM pomodoro_sessions"));
+        assertEquals("task-kept", queryString("SELECT task_id FROM pomodoro_sessions WHERE id = '"
+                + LegacyDataImporter.legacyId("pomodoro_", 10) + "'"));
+        assertNull(queryString("SELECT task_id FROM pomodoro_sessions WHERE id = '"
+                + LegacyDataImporter.legacyId("pomodoro_", 12) + "'"));
+        assertEquals("task-deleted", queryString("SELECT task_name FROM pomodoro_sessions WHERE id = '"
+                + LegacyDataImporter.legacyId("pomodoro_", 12) + "'"));
+        // 未完成的会话不带结束时间
+        assertEquals(2, queryInt("SELECT COUNT(*) FROM pomodoro_sessions WHERE end_time IS NOT NULL"));
+        assertEquals(3, queryInt("SELECT COUNT(*) FROM pomodoro_sessions WHERE start_local_day > 0"));
+    }
+
+    /**
+     * 与 Room DAO 行为相同的 JDBC 实现：不在事务中时每次插入单独提交，INSERT OR IGNORE 跳过已存在的行
+     */
+    private final class JdbcStore implements LegacyDataImporter.Store {
+        int failBeforeCommit;
+        int largestInsert;
+        private int inserts;
+        private int depth;
+
+        @Override
+        public void runInTransaction(Runnable body) {
+            depth++;
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                depth--;
+                rollback();
+                throw e;
+            }
+            depth--;
+            commitIfOutermost();
+        }
+
+        @Override
+        public void insertTasksIfAbsent(List<TaskEntity> tasks) {
+            runInTransaction(() -> {
+                try (PreparedStatement insert = connection.prepareStatement("INSERT OR IGNORE INTO tasks"
+                        + " (id, name, search_terms, importance, urgency, quadrant, is_completed, completed_at,"
+                        + " completed_local_day) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                    for (TaskEntity task : tasks) {
+                        insert.setString(1, task.getId());
+                        insert.setString(2, task.getName());
+                        insert.setString(3, task.getSearchTerms());
+                        insert.setInt(4, task.getImportance());
+                        insert.setInt(5, task.getUrgency());
+                        insert.setInt(6, task.getQuadrant());
+                        insert.setInt(7, task.isCompleted() ? 1 : 0);
+                        insert.setObject(8, task.getCompletedAt());
+                        insert.setObject(9, task.getCompletedLocalDay());
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                largestInsert = Math.max(largestInsert, tasks.size());
+                if (++inserts == failBeforeCommit) {
+                    throw new IllegalStateException("killed inside transaction");
+                }
+            });
+        }
+
+        @Override
+        public void insertSessionsIfAbsent(List<PomodoroSessionEntity> sessions) {
+            runInTransaction(() -> {
+                try (PreparedStatement insert = connection.prepareStatement("INSERT OR IGNORE INTO pomodoro_sessions"
+                        + " (id, task_id, task_name, start_time, start_local_day, end_time, is_completed)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                    for (PomodoroSessionEntity session : sessions) {
+                        insert.setString(1, session.getId());
+                        insert.setString(2, session.getTaskId());
+                        insert.setString(3, session.getTaskName());
+                        insert.setLong(4, session.getStartTime());
+                        insert.setLong(5, session.getStartLocalDay());
+                        insert.setObject(6, session.getEndTime());
+                        insert.setInt(7, session.isCompleted() ? 1 : 0);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        @Override
+        public List<String> getExistingTaskIds(List<String> taskIds) {
+            List<String> existing = new ArrayList<>();
+            try (PreparedStatement query = connection.prepareStatement("SELECT id FROM tasks WHERE id = ?")) {
+                for (String id : taskIds) {
+                    query.setString(1, id);
+                    try (ResultSet result = query.executeQuery()) {
+                        if (result.next()) {
+                            existing.add(result.getString(1));
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return existing;
+        }
+
+        private void commitIfOutermost() {
+            if (depth == 0) {
+                try {
+                    connection.commit();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        private void rollback() {
+            if (depth == 0) {
+                try {
+                    connection.rollback();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    private static PomodoroRecord record(String taskId, boolean completed) {
+        PomodoroRecord record = new PomodoroRecord();
+        record.setTaskId(taskId);
+        record.setTaskName(taskId != null ? taskId : "无关联任务");
+        record.setStartTime(1_600_000_000_000L);
+        record.setEndTime(1_600_000_000_000L + 25 * 60_000L);
+        record.setDurationMinutes(25);
+        record.setCompleted(completed);
+        return record;
+    }
+
+    private int queryInt(String sql) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getInt(1);
+        }
+    }
+
+    private String queryString(String sql) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            return result.next() ? result.getString(1) : null;
+        }
+    }
+
+    private String legacyTaskPayload() {
+        StringBuilder json = new StringBuilder(ITEM_COUNT * 100).append('[');
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('{');
+            // 每三条有一条没有ID，由写入方按位置生成
+            if (i % 3 != 0) {
+                json.append("\"id\":\"task-").append(i).append("\",");
+            }
+            boolean completed = i % 2 == 0;
+            json.append("\"name\":\"任务 ").append(i).append('"')
+                    .append(",\"importance\":").append(i % 5 + 1)
+                    .append(",\"urgency\":").append(i % 4 + 1)
+                    .append(",\"isCompleted\":").append(completed);
+            if (completed) {
+                json.append(",\"completedTime\":").append(1_600_000_000_000L + i);
+            }
+            json.append('}');
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.fourquadrant.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 单调时钟倒计时测试：剩余时间按截止时刻计算，暂停/继续不累积误差
+ */
+public class MonotonicCountdownTest {
+
+    private long now;
+    private MonotonicCountdown countdown;
+
+    @Before
+    public void setUp() {
+        now = 50_000;
+        countdown = new MonotonicCountdown(() -> now);
+    }
+
+    @Test
+    public void remainingFollowsClock() {
+        countdown.start(25 * 60 * 1000L);
+        now += 1_234;
+        assertEquals(25 * 60 * 1000L - 1_234, countdown.getRemaining());
+        assertFalse(countdown.isFinished());
+
+        now += 25 * 60 * 1000L;
+        assertEquals(0, countdown.getRemaining());
+        assertTrue(countdown.isFinished());
+    }
+
+    @Test
+    public void manyPauseResumeCycles_doNotDrift() {
+        countdown.start(60_000);
+        long running = 0;
+        for (int i = 0; i < 1_000; i++) {
+            now += 7;
+            running += 7;
+            countdown.pause();
+            // 暂停期间时钟继续走，不应计入
+            now += 13;
+            countdown.resume();
+        }
+        assertEquals(60_000 - running, countdown.getRemaining());
+    }
+
+    @Test
+    public void delayToNextVisibleSecond_landsJustPastBoundary() {
+        countdown.start(2_500);
+        // 显示2秒，剩余降到1999时变为1秒
+        assertEquals(501, countdown.delayToNextVisibleSecond());
+        now += 501;
+        assertEquals(1_999, countdown.getRemaining());
+
+        now += 1_000;
+        // 最后一秒内直接等到截止时刻
+        assertEquals(999, countdown.delayToNextVisibleSecond());
+    }
+
+    @Test
+    public void stopKeepsGivenRemaining() {
+        countdown.start(10_000);
+        now += 3_000;
+        countdown.stop(5 * 60 * 1000L);
+        now += 100_000;
+        assertFalse(countdown.isTicking());
+        assertEquals(5 * 60 * 1000L, countdown.getRemaining());
+    }
+}
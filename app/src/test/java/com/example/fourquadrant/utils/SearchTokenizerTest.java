@@ -0,0 +1,41 @@
+package com.example.fourquadrant.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 全文检索分词测试：中文展开为二字组合和单字，字母数字按单词前缀匹配
+ */
+public class SearchTokenizerTest {
+
+    @Test
+    public void index_expandsCjkAndKeepsWords() {
+        assertEquals("买菜 菜做 做饭 买 菜 做 饭", SearchTokenizer.index("买菜做饭"));
+        assertEquals("write 周报 周 报 v2", SearchTokenizer.index("Write 周报-V2"));
+    }
+
+    @Test
+    public void index_dropsDuplicatesAndPunctuation() {
+        assertEquals("哈哈 哈", SearchTokenizer.index("哈哈哈！"));
+        assertNull(SearchTokenizer.index(" ，。!? "));
+        assertNull(SearchTokenizer.index(null));
+    }
+
+    @Test
+    public void matchQuery_usesBigramsForCjkAndPrefixForWords() {
+        assertEquals("做饭", SearchTokenizer.toMatchQuery("做饭"));
+        assertEquals("菜做 做饭", SearchTokenizer.toMatchQuery("菜做饭"));
+        assertEquals("饭", SearchTokenizer.toMatchQuery("饭"));
+        assertEquals("rep* 周报", SearchTokenizer.toMatchQuery("Rep 周报"));
+    }
+
+    @Test
+    public void matchQuery_neverEmitsFtsOperators() {
+        // 引号、减号、星号等FTS语法字符都被当作分隔符丢弃
+        assertEquals("a* b*", SearchTokenizer.toMatchQuery("\"a\" -b*"));
+        assertEquals("or* near*", SearchTokenizer.toMatchQuery("OR NEAR"));
+        assertNull(SearchTokenizer.toMatchQuery("***"));
+    }
+}